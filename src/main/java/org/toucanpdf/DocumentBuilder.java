@@ -5,9 +5,11 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.Calendar;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.toucanpdf.api.BaseFont;
 import org.toucanpdf.api.BaseImage;
@@ -16,12 +18,15 @@ import org.toucanpdf.api.BaseParagraph;
 import org.toucanpdf.api.BaseTable;
 import org.toucanpdf.api.BaseText;
 import org.toucanpdf.api.DocumentState;
+import org.toucanpdf.image.ImageSources;
 import org.toucanpdf.model.Anchor;
 import org.toucanpdf.model.Color;
+import org.toucanpdf.model.CompressionPolicy;
 import org.toucanpdf.model.DocumentPart;
 import org.toucanpdf.model.DocumentPartType;
 import org.toucanpdf.model.Font;
 import org.toucanpdf.model.Image;
+import org.toucanpdf.model.ImageSource;
 import org.toucanpdf.model.ImageType;
 import org.toucanpdf.model.Page;
 import org.toucanpdf.model.Paragraph;
@@ -72,6 +77,11 @@ public class DocumentBuilder {
     private Font defaultFont = Constants.DEFAULT_FONT;
     private Integer defaultTextSize = Constants.DEFAULT_TEXT_SIZE;
     private Color defaultColor = Color.BLACK;
+    private boolean streaming = false;
+    private boolean useObjectStreams = false;
+    private Executor compressionExecutor = null;
+    private CompressionPolicy compressionPolicy = null;
+    private double maximumImageResolution = 0;
 
     /**
      * Creates a new instance of DocumentBuilder, this also creates a document.
@@ -230,19 +240,41 @@ public class DocumentBuilder {
      */
     public void finish(OutputStream os) {
         try {
-            state.updateState(pages);
-            PdfDocument pdfDoc = new PdfDocument();
-            for (Page page : state.getPages()) {
-                pdfDoc.add(page);
-                pdfDoc.add(page.getContent());
+            PdfDocument pdfDoc = streaming ? new PdfDocument(os) : new PdfDocument();
+            pdfDoc.setUseObjectStreams(useObjectStreams);
+            pdfDoc.setCompressionExecutor(compressionExecutor);
+            pdfDoc.setCompressionPolicy(compressionPolicy);
+            pdfDoc.setMaximumImageResolution(maximumImageResolution);
+            if (streaming) {
+                //every page is written as soon as its layout is finished, so the pages do not have to be kept until the end
+                state.streamState(pages, page -> writePage(pdfDoc, page));
+            } else {
+                state.updateState(pages);
+                for (Page page : state.getPages()) {
+                    writePage(pdfDoc, page);
+                }
             }
             pdfDoc.addDocumentInfo(author, title, subject, Calendar.getInstance());
-            pdfDoc.write(os);
-        } catch (IOException e) {
+            if (streaming) {
+                pdfDoc.write();
+            } else {
+                pdfDoc.write(os);
+            }
+        } catch (IOException | UncheckedIOException e) {
             LOGGER.error("IOException ocurred during the writing process of the PDF file.");
         }
     }
 
+    private static void writePage(PdfDocument pdfDoc, Page page) {
+        try {
+            pdfDoc.add(page);
+            pdfDoc.add(page.getContent());
+            pdfDoc.writePage();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Sets the creation date of the document.
      * @param calendar Calendar containing the date.
@@ -448,7 +480,8 @@ public class DocumentBuilder {
 
     /**
      * Returns a state that contains what the actual document will look like once it's converted.
-     * Calling this method will completely reset the state which can cost a lot of performance on large documents.
+     * Only the pages that changed since the previous call are laid out again, the preview objects of the other pages are reused.
+     * Changes made to the preview objects are therefore not discarded until the corresponding page changes.
      * @return DocumentState containing the state of the document as is.
      */
     public DocumentState getPreview() {
@@ -480,6 +513,35 @@ public class DocumentBuilder {
         return image;
     }
 
+    /**
+     * Adds an image to the document. Use the returned image instance to adjust attributes of the image.
+     * Only the header of the image is read now, the image data is read from the source again while the document is written.
+     * @param source Source of the image file.
+     * @param format The format of the image.
+     * @return image object
+     * @see ImageSources
+     */
+    public Image addImage(ImageSource source, ImageType format) {
+        Image image = createImage(source, format);
+        this.addPart(image);
+        return image;
+    }
+
+    /**
+     * Creates a new image instance. Use the returned instance to adjust attributes of the image. 
+     * You can use this method to create images and add them to anchors without directly adding the image to the document as well.
+     * Only the header of the image is read now, the image data is read from the source again while the document is written.
+     * @param source Source of the image file.
+     * @param format The format of the image.
+     * @return image object
+     * @see ImageSources
+     */
+    public Image createImage(ImageSource source, ImageType format) {
+        Image image = new BaseImage(source, format);
+        setDefaultMargins(image);
+        return image;
+    }
+
     /**
      * Creates a new image instance. Use the returned instance to adjust attributes of the image. 
      * You can use this method to create images and add them to anchors without directly adding the image to the document as well.
@@ -669,4 +731,118 @@ public class DocumentBuilder {
         this.defaultColor = defaultColor;
         return this;
     }
+
+    /**
+     * @return true if pages are written as soon as they are finished, false otherwise.
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Sets whether the PDF file should be written one page at a time. When streaming, each page is written to the OutputStream 
+     * together with its content and resources as soon as it is finished and released afterwards. 
+     * The pages are also laid out one at a time, unless a page area refers to the total amount of pages.
+     * This keeps memory usage low for documents with a large amount of pages, such as documents containing a table with a row source.
+     * @param streaming true to write one page at a time, false to write the document as a whole.
+     * @return the builder.
+     */
+    public DocumentBuilder setStreaming(boolean streaming) {
+        this.streaming = streaming;
+        return this;
+    }
+
+    /**
+     * @return true if non-stream objects are stored in compressed object streams, false otherwise.
+     */
+    public boolean isUsingObjectStreams() {
+        return useObjectStreams;
+    }
+
+    /**
+     * Sets whether the PDF file should store its non-stream objects, such as fonts and pages, in compressed object streams. 
+     * The cross reference table is then replaced by a compressed cross reference stream. This reduces the file size, 
+     * but requires a PDF reader that supports PDF 1.5 or higher.
+     * @param useObjectStreams true to use object streams, false otherwise.
+     * @return the builder.
+     */
+    public DocumentBuilder setUseObjectStreams(boolean useObjectStreams) {
+        this.useObjectStreams = useObjectStreams;
+        return this;
+    }
+
+    /**
+     * @return the executor used to compress streams while writing, or null if compression happens on the writing thread.
+     */
+    public Executor getCompressionExecutor() {
+        return compressionExecutor;
+    }
+
+    /**
+     * Sets the executor used to compress the streams of the PDF file, such as page contents, fonts and images, concurrently. 
+     * Using {@link java.util.concurrent.ForkJoinPool#commonPool()} spreads the compression over all available cores. 
+     * The resulting file is identical to the file written without an executor.
+     * @param compressionExecutor executor to use, or null to compress on the thread calling finish.
+     * @return the builder.
+     */
+    public DocumentBuilder setCompressionExecutor(Executor compressionExecutor) {
+        this.compressionExecutor = compressionExecutor;
+        return this;
+    }
+
+    /**
+     * @return the executor used to lay out pages concurrently, or null if the pages are laid out on the calling thread.
+     */
+    public Executor getLayoutExecutor() {
+        return state.getLayoutExecutor();
+    }
+
+    /**
+     * Sets the executor used to lay out the pages of the document concurrently when creating the preview or finishing the document.
+     * Every page added to the document is laid out as a separate task, together with the pages created for its overflow. 
+     * The resulting document is identical to the document laid out without an executor.
+     * @param layoutExecutor executor to use, or null to lay out the pages on the calling thread.
+     * @return the builder.
+     */
+    public DocumentBuilder setLayoutExecutor(Executor layoutExecutor) {
+        state.setLayoutExecutor(layoutExecutor);
+        return this;
+    }
+
+    /**
+     * @return the compression policy used when writing, or null if the default compression is used.
+     */
+    public CompressionPolicy getCompressionPolicy() {
+        return compressionPolicy;
+    }
+
+    /**
+     * Sets the policy that determines the compression level and strategy for each type of stream, 
+     * for example {@link CompressionPolicy#createBalanced()} to trade some file size of page content for writing speed.
+     * @param compressionPolicy policy to use, or null to use the default compression.
+     * @return the builder.
+     */
+    public DocumentBuilder setCompressionPolicy(CompressionPolicy compressionPolicy) {
+        this.compressionPolicy = compressionPolicy;
+        return this;
+    }
+
+    /**
+     * @return the maximum resolution images are embedded with in pixels per inch, or 0 if images are embedded at their original resolution.
+     */
+    public double getMaximumImageResolution() {
+        return maximumImageResolution;
+    }
+
+    /**
+     * Sets the maximum resolution images are embedded with. Images with more pixels per inch at the size they are drawn with,
+     * such as large photos drawn as thumbnails, are resampled while the document is written. Images can override this setting 
+     * using {@link Image#maximumResolution(double)}.
+     * @param dpi the maximum amount of pixels per inch, for example 150 for documents that are read on screen, or 0 to embed images at their original resolution.
+     * @return the builder.
+     */
+    public DocumentBuilder setMaximumImageResolution(double dpi) {
+        this.maximumImageResolution = Math.max(0, dpi);
+        return this;
+    }
 }
@@ -12,6 +12,10 @@ public abstract class AbstractCell implements Cell {
     protected Double padding;
     protected Double border;
     protected Position position;
+    /**
+     * Amount of changes made to this cell, see {@link AbstractDocumentPart#modified()}.
+     */
+    private int modificationCount = 0;
 
     public AbstractCell() {
     }
@@ -26,11 +30,23 @@ public abstract class AbstractCell implements Cell {
         this.padding = c.getPadding();
     }
 
+    /**
+     * Registers a change to this cell that can influence the layout of the document.
+     */
+    protected void modified() {
+        ++modificationCount;
+    }
+
+    int getModificationCount() {
+        return modificationCount;
+    }
+
     @Override
     public Cell width(double newWidth) {
         if (newWidth >= 0) {
             this.width = newWidth;
         }
+        modified();
         return this;
     }
 
@@ -39,24 +55,28 @@ public abstract class AbstractCell implements Cell {
         if (newHeight > 0) {
             this.height = newHeight;
         }
+        modified();
         return this;
     }
 
     @Override
     public Cell columnSpan(int newColumnSpan) {
         this.columnSpan = newColumnSpan;
+        modified();
         return this;
     }
 
     @Override
     public Cell rowSpan(int newRowSpan) {
         this.rowSpan = newRowSpan;
+        modified();
         return this;
     }
 
     @Override
     public Cell border(double borderSize) {
         this.border = Math.max(Constants.MIN_BORDER_SIZE, Math.min(borderSize, Constants.MAX_BORDER_SIZE));
+        modified();
         return this;
     }
 
@@ -98,6 +118,7 @@ public abstract class AbstractCell implements Cell {
     @Override
     public Cell padding(double padding) {
         this.padding = Math.max(Constants.MIN_PADDING_SIZE, Math.min(padding, Constants.MAX_PADDING_SIZE));
+        modified();
         return this;
     }
 }
@@ -1,5 +1,7 @@
 package org.toucanpdf.api;
 
+import java.util.function.Consumer;
+
 import org.toucanpdf.model.DocumentPart;
 import org.toucanpdf.model.DocumentPartType;
 
@@ -13,6 +15,14 @@ public abstract class AbstractDocumentPart implements DocumentPart {
      * Type of this part.
      */
     private DocumentPartType type;
+    /**
+     * Amount of changes made to this part. DocumentState uses this to find the parts that changed since the last layout.
+     */
+    private int modificationCount = 0;
+    /**
+     * Notified of every change made to this part, null if there is no listener.
+     */
+    private Consumer<DocumentPart> modificationListener;
 
     /**
      * Creates a new instance of AbstractDocumentPart.
@@ -26,4 +36,27 @@ public abstract class AbstractDocumentPart implements DocumentPart {
     public DocumentPartType getType() {
         return type;
     }
+
+    /**
+     * Registers a change to this part that can influence the layout of the document.
+     */
+    protected void modified() {
+        ++modificationCount;
+        if (modificationListener != null) {
+            modificationListener.accept(this);
+        }
+    }
+
+    int getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Sets the listener that is notified of every change made to this part that can influence the layout of the document.
+     * A part has at most one listener, setting a new listener replaces the previous one.
+     * @param listener The listener, or null to remove the current listener.
+     */
+    public void setModificationListener(Consumer<DocumentPart> listener) {
+        this.modificationListener = listener;
+    }
 }
@@ -53,6 +53,7 @@ public abstract class AbstractParagraph extends AbstractPlaceableDocumentPart im
     public Anchor addAnchor(Anchor a) {
         if (this.getAnchorOn(a.getAnchorPoint(), a.getLocation()) == null) {
             this.anchors.add(a);
+            modified();
         } else {
             LOGGER.info("The given anchor could not be added on the given text and location. Only a single anchor is allowed per location.", a);
         }
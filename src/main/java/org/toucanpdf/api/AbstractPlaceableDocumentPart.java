@@ -1,5 +1,7 @@
 package org.toucanpdf.api;
 
+import java.util.Objects;
+
 import org.toucanpdf.model.*;
 
 /**
@@ -33,6 +35,9 @@ public abstract class AbstractPlaceableDocumentPart extends AbstractDocumentPart
 
     @Override
     public PlaceableDocumentPart on(Position position) {
+        if (!Objects.equals(this.position, position)) {
+            modified();
+        }
         this.position = position;
         return this;
     }
@@ -50,6 +55,7 @@ public abstract class AbstractPlaceableDocumentPart extends AbstractDocumentPart
     @Override
     public PlaceableDocumentPart align(Alignment alignment) {
         this.alignment = alignment;
+        modified();
         return this;
     }
 
@@ -78,6 +84,7 @@ public abstract class AbstractPlaceableDocumentPart extends AbstractDocumentPart
         if (marginLeft >= 0) {
             this.marginLeft = marginLeft;
         }
+        modified();
         return this;
     }
 
@@ -86,6 +93,7 @@ public abstract class AbstractPlaceableDocumentPart extends AbstractDocumentPart
         if (marginRight >= 0) {
             this.marginRight = marginRight;
         }
+        modified();
         return this;
     }
 
@@ -94,6 +102,7 @@ public abstract class AbstractPlaceableDocumentPart extends AbstractDocumentPart
         if (marginTop >= 0) {
             this.marginTop = marginTop;
         }
+        modified();
         return this;
     }
 
@@ -102,6 +111,7 @@ public abstract class AbstractPlaceableDocumentPart extends AbstractDocumentPart
         if (marginBottom >= 0) {
             this.marginBottom = marginBottom;
         }
+        modified();
         return this;
     }
 }
@@ -41,6 +41,7 @@ public abstract class AbstractPlaceableFixedSizeDocumentPart extends AbstractPla
     @Override
     public void setWrappingAllowed(boolean wrapping) {
         this.wrappingAllowed = wrapping;
+        modified();
     }
 
     @Override
@@ -1,6 +1,11 @@
 package org.toucanpdf.api;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.toucanpdf.model.Alignment;
+import org.toucanpdf.model.Cell;
 import org.toucanpdf.model.Compression;
 import org.toucanpdf.model.DocumentPartType;
 import org.toucanpdf.model.Position;
@@ -16,6 +21,14 @@ public abstract class AbstractTable extends AbstractPlaceableFixedSizeDocumentPa
     protected double padding = Table.DEFAULT_PADDING;
     private boolean verticalAlignment = false;
     private boolean prioritizeHeaderWidth = false;
+    private Iterator<List<Cell>> rowSource = null;
+    /**
+     * Shared by this table and its copies, set once the row source has been taken to lay out the table.
+     */
+    private AtomicBoolean rowSourceTaken = new AtomicBoolean();
+    private double[] columnWidths = null;
+    private double[] columnWidthPercentages = null;
+    private int sampledRowAmount = 0;
 
     public AbstractTable(int pageWidth) {
         super(DocumentPartType.TABLE);
@@ -42,11 +55,19 @@ public abstract class AbstractTable extends AbstractPlaceableFixedSizeDocumentPa
         this.padding = table.getPadding();
         this.verticalAlignment = table.isVerticalAligned();
         this.prioritizeHeaderWidth = table.isPrioritizingHeaderWidth();
+        this.rowSource = table.getRowSource();
+        if (table instanceof AbstractTable) {
+            this.rowSourceTaken = ((AbstractTable) table).rowSourceTaken;
+        }
+        this.columnWidths = table.getColumnWidths();
+        this.columnWidthPercentages = table.getColumnWidthPercentages();
+        this.sampledRowAmount = table.getSampledRowAmount();
     }
 
     @Override
     public Table columns(int amountOfColumns) {
         this.columnAmount = amountOfColumns;
+        modified();
         return this;
     }
 
@@ -59,6 +80,7 @@ public abstract class AbstractTable extends AbstractPlaceableFixedSizeDocumentPa
     @Override
     public Table width(int width) {
         this.width = width;
+        modified();
         return this;
     }
 
@@ -76,6 +98,7 @@ public abstract class AbstractTable extends AbstractPlaceableFixedSizeDocumentPa
     @Override
     public Table compress(Compression method) {
         this.compression = method;
+        modified();
         return this;
     }
 
@@ -98,6 +121,7 @@ public abstract class AbstractTable extends AbstractPlaceableFixedSizeDocumentPa
     @Override
     public Table border(double border) {
         this.borderWidth = Math.max(Constants.MIN_BORDER_SIZE, Math.min(border, Constants.MAX_BORDER_SIZE));
+        modified();
         return this;
     }
 
@@ -133,6 +157,7 @@ public abstract class AbstractTable extends AbstractPlaceableFixedSizeDocumentPa
     @Override
     public Table drawFillerCells(boolean draw) {
         this.drawFillerCells = draw;
+        modified();
         return this;
     }
 
@@ -144,6 +169,7 @@ public abstract class AbstractTable extends AbstractPlaceableFixedSizeDocumentPa
     @Override
     public Table repeatHeader(boolean repeat) {
         this.repeatHeader = repeat;
+        modified();
         return this;
     }
 
@@ -155,6 +181,7 @@ public abstract class AbstractTable extends AbstractPlaceableFixedSizeDocumentPa
     @Override
     public Table padding(double padding) {
         this.padding = Math.max(Constants.MIN_PADDING_SIZE, Math.min(padding, Constants.MAX_PADDING_SIZE));
+        modified();
         return this;
     }
 
@@ -176,13 +203,78 @@ public abstract class AbstractTable extends AbstractPlaceableFixedSizeDocumentPa
     @Override
     public Table verticalAlign(boolean verticalAlignment) {
         this.verticalAlignment = verticalAlignment;
+        modified();
         return this;
     }
 
     @Override
     public Table prioritizeHeaderWidth(boolean prioritizeHeaderWidth) {
         this.prioritizeHeaderWidth = prioritizeHeaderWidth;
+        modified();
+        return this;
+    }
+
+    @Override
+    public Table rowSource(Iterator<List<Cell>> rowSource) {
+        this.rowSource = rowSource;
+        this.rowSourceTaken = new AtomicBoolean();
+        modified();
+        return this;
+    }
+
+    @Override
+    public Iterator<List<Cell>> getRowSource() {
+        return this.rowSource;
+    }
+
+    /**
+     * Takes the row source of this table in order to lay out its rows. Since the source can only be traversed once, 
+     * it can only be taken once by this table and all of its copies.
+     * @return the row source of this table.
+     * @throws IllegalStateException if the row source has already been taken.
+     */
+    protected Iterator<List<Cell>> takeRowSource() {
+        if (rowSourceTaken.getAndSet(true)) {
+            throw new IllegalStateException("The rows of the row source have already been laid out, a table with a row source can only be laid out once.");
+        }
+        return this.rowSource;
+    }
+
+    @Override
+    public Table columnWidths(double... columnWidths) {
+        this.columnWidths = columnWidths != null ? columnWidths.clone() : null;
+        this.columnWidthPercentages = null;
+        modified();
+        return this;
+    }
+
+    @Override
+    public double[] getColumnWidths() {
+        return this.columnWidths != null ? this.columnWidths.clone() : null;
+    }
+
+    @Override
+    public Table columnWidthPercentages(double... percentages) {
+        this.columnWidthPercentages = percentages != null ? percentages.clone() : null;
+        this.columnWidths = null;
+        modified();
         return this;
     }
 
+    @Override
+    public double[] getColumnWidthPercentages() {
+        return this.columnWidthPercentages != null ? this.columnWidthPercentages.clone() : null;
+    }
+
+    @Override
+    public Table sampleColumnWidths(int rowAmount) {
+        this.sampledRowAmount = Math.max(0, rowAmount);
+        modified();
+        return this;
+    }
+
+    @Override
+    public int getSampledRowAmount() {
+        return this.sampledRowAmount;
+    }
 }
@@ -44,6 +44,7 @@ public class BaseCell extends AbstractCell implements Cell {
     @Override
     public Cell content(PlaceableDocumentPart part) {
         this.content = part;
+        modified();
         return this;
     }
 
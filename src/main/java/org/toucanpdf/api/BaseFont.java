@@ -69,6 +69,7 @@ public class BaseFont extends AbstractDocumentPart implements Font {
         if (FontFamily.getDefaultFontFamily(family) != null) {
             this.fontFamily = FontFamily.getDefaultFontFamily(family);
         }
+        modified();
         return this;
     }
 
@@ -80,24 +81,28 @@ public class BaseFont extends AbstractDocumentPart implements Font {
     @Override
     public Font style(FontStyle fontStyle) {
         this.style = fontStyle;
+        modified();
         return this;
     }
 
     @Override
     public Font bold() {
         this.style = FontStyle.BOLD;
+        modified();
         return this;
     }
 
     @Override
     public Font italic() {
         this.style = FontStyle.ITALIC;
+        modified();
         return this;
     }
 
     @Override
     public Font boldItalic() {
         this.style = FontStyle.BOLDITALIC;
+        modified();
         return this;
     }
 
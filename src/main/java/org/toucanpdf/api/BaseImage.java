@@ -1,17 +1,20 @@
 package org.toucanpdf.api;
 
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.toucanpdf.image.ImageCache;
 import org.toucanpdf.image.JPEG;
+import org.toucanpdf.image.PNG;
 import org.toucanpdf.model.Alignment;
 import org.toucanpdf.model.Compression;
 import org.toucanpdf.model.DocumentPartType;
 import org.toucanpdf.model.Image;
 import org.toucanpdf.model.ImageParser;
+import org.toucanpdf.model.ImageSource;
 import org.toucanpdf.model.ImageType;
 import org.toucanpdf.model.PlaceableDocumentPart;
 import org.toucanpdf.model.Position;
@@ -29,6 +32,7 @@ public class BaseImage extends AbstractPlaceableFixedSizeDocumentPart implements
     private Compression compressionMethod = Compression.FLATE;
     private double scale = 1;
     private boolean invertColors = false;
+    private double maximumResolution = 0;
 
     /**
      * Creates a new BaseImage instance.
@@ -68,6 +72,30 @@ public class BaseImage extends AbstractPlaceableFixedSizeDocumentPart implements
         setInitialSize();
     }
 
+    /**
+     * Creates a new instance of BaseImage that reads the image from the given source. Only the header of the image is read now,
+     * the image data is read from the source again while the document is written.
+     * @param source Source of the image file.
+     * @param type The format of the image.
+     */
+    public BaseImage(ImageSource source, ImageType type) {
+        this();
+        if (source != null) {
+            switch (type) {
+            case JPEG:
+                image = new JPEG(source);
+                break;
+            case PNG:
+                image = new PNG(source);
+                break;
+            default:
+                LOGGER.warn("The given image format: " + type + " is currently not supported.");
+                break;
+            }
+        }
+        setInitialSize();
+    }
+
     private void setInitialSize() {
         height = 0;
         width = 0;
@@ -95,23 +123,29 @@ public class BaseImage extends AbstractPlaceableFixedSizeDocumentPart implements
     }
 
     private void parse(byte[] imageData, ImageType type) {
-        ByteArrayInputStream bais = new ByteArrayInputStream(imageData);
-        this.parse(bais, type);
+        if (isSupported(type)) {
+            image = ImageCache.getInstance().getParser(imageData, type);
+        }
     }
 
     private void parse(InputStream imageStream, ImageType type) {
-        if (imageStream != null) {
-            switch (type) {
-            case JPEG:
-                image = new JPEG(imageStream);
-                break;
-            default:
-                LOGGER.warn("The given image format: " + type + " is currently not supported.");
-                break;
+        if (imageStream != null && isSupported(type)) {
+            try {
+                image = ImageCache.getInstance().getParser(imageStream, type);
+            } catch (IOException e) {
+                LOGGER.warn("Exception occurred during reading of image stream");
             }
         }
     }
 
+    private static boolean isSupported(ImageType type) {
+        if (type != ImageType.JPEG && type != ImageType.PNG) {
+            LOGGER.warn("The given image format: " + type + " is currently not supported.");
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Creates a copy of the given Image object.
      * @param image Image to copy.
@@ -130,6 +164,7 @@ public class BaseImage extends AbstractPlaceableFixedSizeDocumentPart implements
         this.marginRight = image.getMarginRight();
         this.invertColors = image.getInvertColors();
         this.compressionMethod = image.getCompressionMethod();
+        this.maximumResolution = image.getMaximumResolution();
     }
 
     @Override
@@ -165,6 +200,7 @@ public class BaseImage extends AbstractPlaceableFixedSizeDocumentPart implements
         if (scaleWidth) {
             this.width = this.height * scale;
         }
+        modified();
         return this;
     }
 
@@ -179,6 +215,7 @@ public class BaseImage extends AbstractPlaceableFixedSizeDocumentPart implements
         if (scaleHeight) {
             this.height = this.width / scale;
         }
+        modified();
         return this;
     }
 
@@ -190,6 +227,7 @@ public class BaseImage extends AbstractPlaceableFixedSizeDocumentPart implements
     @Override
     public Image compress(Compression method) {
         this.compressionMethod = method;
+        modified();
         return this;
     }
 
@@ -250,6 +288,7 @@ public class BaseImage extends AbstractPlaceableFixedSizeDocumentPart implements
     @Override
     public Image invertColors(boolean invert) {
         this.invertColors = invert;
+        modified();
         return this;
     }
 
@@ -257,4 +296,16 @@ public class BaseImage extends AbstractPlaceableFixedSizeDocumentPart implements
     public boolean getInvertColors() {
         return this.invertColors;
     }
+
+    @Override
+    public Image maximumResolution(double dpi) {
+        this.maximumResolution = Math.max(0, dpi);
+        modified();
+        return this;
+    }
+
+    @Override
+    public double getMaximumResolution() {
+        return this.maximumResolution;
+    }
 }
@@ -74,6 +74,7 @@ public class BasePage extends AbstractDocumentPart implements Page {
         if (part != null) {
             content.add(part);
         }
+        modified();
         return this;
     }
 
@@ -81,6 +82,7 @@ public class BasePage extends AbstractDocumentPart implements Page {
     public Page size(int pageWidth, int pageHeight) {
         this.width = pageWidth;
         this.height = pageHeight;
+        modified();
         return this;
     }
 
@@ -115,6 +117,7 @@ public class BasePage extends AbstractDocumentPart implements Page {
     @Override
     public Page marginTop(int margin) {
         this.marginTop = limitGivenMarginForPageArea(margin, header);
+        modified();
         return this;
     }
 
@@ -134,6 +137,7 @@ public class BasePage extends AbstractDocumentPart implements Page {
     @Override
     public Page marginBottom(int margin) {
         this.marginBottom = limitGivenMarginForPageArea(margin, footer);
+        modified();
         return this;
     }
 
@@ -145,6 +149,7 @@ public class BasePage extends AbstractDocumentPart implements Page {
     @Override
     public Page marginLeft(int margin) {
         this.marginLeft = Math.max(0, margin);
+        modified();
         return this;
     }
 
@@ -156,6 +161,7 @@ public class BasePage extends AbstractDocumentPart implements Page {
     @Override
     public Page marginRight(int margin) {
         this.marginRight = Math.max(0, margin);
+        modified();
         return this;
     }
 
@@ -184,6 +190,7 @@ public class BasePage extends AbstractDocumentPart implements Page {
     @Override
     public Page addAll(List<DocumentPart> parts) {
         this.content.addAll(parts);
+        modified();
         return this;
     }
 
@@ -197,6 +204,7 @@ public class BasePage extends AbstractDocumentPart implements Page {
         if (leadingSize >= 0) {
             this.leading = leadingSize;
         }
+        modified();
         return this;
     }
 
@@ -213,6 +221,7 @@ public class BasePage extends AbstractDocumentPart implements Page {
         this.rotation = master.getRotation();
         this.header = master.getHeader();
         this.footer = master.getFooter();
+        modified();
         return this;
     }
 
@@ -231,6 +240,7 @@ public class BasePage extends AbstractDocumentPart implements Page {
             rotationDegrees += (ROTATION_LIMIT - remainder);
         }
         this.rotation = rotationDegrees;
+        modified();
         return this;
     }
 
@@ -245,6 +255,7 @@ public class BasePage extends AbstractDocumentPart implements Page {
         if (this.marginTop < newHeader.getHeight()) {
             this.marginTop(newHeader.getHeight());
         }
+        modified();
         return this;
     }
 
@@ -268,6 +279,7 @@ public class BasePage extends AbstractDocumentPart implements Page {
         if (this.marginBottom < newFooter.getHeight()) {
             this.marginTop(newFooter.getHeight());
         }
+        modified();
         return this;
     }
 
@@ -72,6 +72,7 @@ public class BaseParagraph extends AbstractParagraph implements Paragraph {
     @Override
     public Paragraph addText(Text text) {
         this.textCollection.add(text);
+        modified();
         return this;
     }
 
@@ -83,6 +84,7 @@ public class BaseParagraph extends AbstractParagraph implements Paragraph {
     @Override
     public Paragraph addText(List<Text> text) {
         this.textCollection.addAll(text);
+        modified();
         return this;
     }
 
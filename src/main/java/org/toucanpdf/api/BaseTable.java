@@ -23,6 +23,7 @@ public class BaseTable extends AbstractTable implements Table {
     public Cell addCell(PlaceableDocumentPart part) {
         Cell c = new BaseCell(part);
         this.content.add(c);
+        modified();
         return c;
     }
 
@@ -34,6 +35,7 @@ public class BaseTable extends AbstractTable implements Table {
     @Override
     public BaseTable addCell(Cell c) {
         this.content.add(c);
+        modified();
         return this;
     }
 
@@ -50,6 +52,7 @@ public class BaseTable extends AbstractTable implements Table {
     @Override
     public Table removeContent() {
         this.content = new LinkedList<Cell>();
+        modified();
         return this;
     }
 }
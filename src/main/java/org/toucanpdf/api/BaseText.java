@@ -82,12 +82,14 @@ public class BaseText extends AbstractPlaceableDocumentPart implements Text {
     public Text scale(double newScaleX, double newScaleY) {
         this.scaleX = newScaleX;
         this.scaleY = newScaleY;
+        modified();
         return this;
     }
 
     @Override
     public Text scaleX(double newScaleX) {
         this.scaleX = newScaleX;
+        modified();
         return this;
     }
 
@@ -99,6 +101,7 @@ public class BaseText extends AbstractPlaceableDocumentPart implements Text {
     @Override
     public Text scaleY(double newScaleY) {
         this.scaleY = newScaleY;
+        modified();
         return this;
     }
 
@@ -106,6 +109,7 @@ public class BaseText extends AbstractPlaceableDocumentPart implements Text {
     public Text shear(double newShearX, double newShearY) {
         this.shearX = newShearX;
         this.shearY = newShearY;
+        modified();
         return this;
     }
 
@@ -117,6 +121,7 @@ public class BaseText extends AbstractPlaceableDocumentPart implements Text {
     @Override
     public Text shearX(double newShearX) {
         this.shearX = newShearX;
+        modified();
         return this;
     }
 
@@ -128,6 +133,7 @@ public class BaseText extends AbstractPlaceableDocumentPart implements Text {
     @Override
     public Text shearY(double newShearY) {
         this.shearY = newShearY;
+        modified();
         return this;
     }
 
@@ -139,6 +145,7 @@ public class BaseText extends AbstractPlaceableDocumentPart implements Text {
     @Override
     public Text text(String text) {
         this.textString = text;
+        modified();
         return this;
     }
 
@@ -150,6 +157,7 @@ public class BaseText extends AbstractPlaceableDocumentPart implements Text {
     @Override
     public Text font(Font newFont) {
         this.font = newFont;
+        modified();
         return this;
     }
 
@@ -165,6 +173,7 @@ public class BaseText extends AbstractPlaceableDocumentPart implements Text {
         } else {
             this.textSize = 0;
         }
+        modified();
         return this;
     }
 
@@ -203,6 +212,7 @@ public class BaseText extends AbstractPlaceableDocumentPart implements Text {
     @Override
     public Text compress(Compression method) {
         this.compressionMethod = method;
+        modified();
         return this;
     }
 
@@ -238,6 +248,7 @@ public class BaseText extends AbstractPlaceableDocumentPart implements Text {
     @Override
     public Text color(Color color) {
         this.color = color;
+        modified();
         return this;
     }
 
@@ -1,13 +1,20 @@
 package org.toucanpdf.api;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import org.toucanpdf.model.Anchor;
 import org.toucanpdf.model.Cell;
 import org.toucanpdf.model.DocumentPart;
 import org.toucanpdf.model.DocumentPartType;
@@ -45,6 +52,19 @@ public class DocumentState {
     private static final Logger LOGGER = LoggerFactory.getLogger(DocumentState.class);
     private List<Page> state = new LinkedList<Page>();
     private Map<DocumentPart, List<DocumentPart>> stateLink = new HashMap<DocumentPart, List<DocumentPart>>();
+    /**
+     * The result of the last layout of each builder page.
+     */
+    private Map<Page, PageLayout> layouts = new IdentityHashMap<Page, PageLayout>();
+    /**
+     * The page area content that has been added to each state page, this is removed before the page areas are processed again.
+     */
+    private Map<StatePage, List<DocumentPart>> pageAreaContent = new IdentityHashMap<StatePage, List<DocumentPart>>();
+    /**
+     * The layout that is currently being created, the links between builder parts and state parts are recorded in this layout.
+     */
+    private PageLayout currentLayout;
+    private Executor layoutExecutor = null;
 
     /**
      * Creates a new instance of DocumentState.
@@ -53,29 +73,181 @@ public class DocumentState {
     }
 
     /**
-     * Updates the state with the given builder state. This will clear the currently saved state.
+     * Updates the state with the given builder state. Only the builder pages that changed since the last update are laid out again,
+     * the state pages of the other builder pages are reused. The page areas are processed again for every page, since
+     * the page numbers can change.
      * @param builderState Builder state to process.
      */
     public void updateState(List<Page> builderState) {
-        List<Page> builderStateCopy = new LinkedList<Page>(builderState);
+        Map<Page, PageLayout> newLayouts = new IdentityHashMap<Page, PageLayout>();
+        List<PageLayout> pageLayouts = new ArrayList<PageLayout>(builderState.size());
+        List<Page> changedPages = new ArrayList<Page>();
+        List<PageLayout> changedLayouts = new ArrayList<PageLayout>();
+        for (Page page : builderState) {
+            PageInput input = new PageInput(page);
+            PageLayout layout = layouts.get(page);
+            if (layout == null || newLayouts.containsKey(page) || !input.matches(layout.input)) {
+                layout = new PageLayout(input);
+                changedPages.add(page);
+                changedLayouts.add(layout);
+            }
+            newLayouts.putIfAbsent(page, layout);
+            pageLayouts.add(layout);
+        }
+        layoutPages(changedPages, changedLayouts);
+
         state = new LinkedList<Page>();
         stateLink = new HashMap<DocumentPart, List<DocumentPart>>();
-        for (int i = 0; i < builderStateCopy.size(); ++i) {
-            Page page = builderStateCopy.get(i);
-            StatePage newPage = CreateStateInstanceForPage(page);
-            state.add(newPage);
-            addToStateLink(page, newPage);
-            Page overflowPage = processPageContent(page, newPage);
-            if (overflowPage != null) {
-                builderStateCopy.add(i + 1, overflowPage);
-            }
+        for (PageLayout layout : pageLayouts) {
+            state.addAll(layout.pages);
+            layout.links.forEach(link -> addToStateLink(link[0], link[1]));
         }
+        layouts = newLayouts;
         processPageAreas();
     }
 
+    /**
+     * Lays out the given builder state and hands each state page to the given consumer as soon as its layout is finished, in the order of the document.
+     * The state pages are not kept, so the amount of pages in memory does not depend on the length of the document. Together with tables
+     * that take their rows from a row source, this allows documents of any length to be written one page at a time.
+     * The layouts of unchanged builder pages are reused like they are by {@link #updateState(List)}, the layout executor is not used.
+     * The total amount of pages is only known once every page has been laid out, so if a page area refers to it
+     * the entire state is laid out before the first page is handed to the consumer.
+     * The state is empty afterwards, the next update lays out every page again.
+     * @param builderState Builder state to process.
+     * @param pageConsumer Consumer receiving the finished state pages.
+     */
+    public void streamState(List<Page> builderState, Consumer<StatePage> pageConsumer) {
+        if (isUsingTotalPages(builderState)) {
+            updateState(builderState);
+            state.forEach(page -> pageConsumer.accept((StatePage) page));
+        } else {
+            Map<StatePage, List<DocumentPart>> previousPageAreaContent = pageAreaContent;
+            int[] pageNumber = { 0 };
+            Consumer<StatePage> finishedPages = page -> {
+                processPageAreas(null, pageNumber[0]++, page, previousPageAreaContent);
+                pageConsumer.accept(page);
+            };
+            for (Page page : builderState) {
+                PageLayout layout = layouts.get(page);
+                if (layout != null && new PageInput(page).matches(layout.input)) {
+                    layout.pages.forEach(finishedPages);
+                } else {
+                    layoutPage(page, new PageLayout(null), finishedPages);
+                }
+            }
+        }
+        state = new LinkedList<Page>();
+        stateLink = new HashMap<DocumentPart, List<DocumentPart>>();
+        layouts = new IdentityHashMap<Page, PageLayout>();
+        pageAreaContent = new IdentityHashMap<StatePage, List<DocumentPart>>();
+    }
+
+    private static boolean isUsingTotalPages(List<Page> builderState) {
+        for (Page page : builderState) {
+            if (isUsingTotalPages(page.getHeader()) || isUsingTotalPages(page.getFooter())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUsingTotalPages(PageArea area) {
+        if (area != null) {
+            for (DocumentPart part : area.getContent()) {
+                if (part.getType().equals(DocumentPartType.TEXT) && isUsingTotalPages((Text) part)) {
+                    return true;
+                } else if (part.getType().equals(DocumentPartType.TABLE)) {
+                    for (Cell c : ((Table) part).getContent()) {
+                        if (c.getContent() != null && c.getContent().getType().equals(DocumentPartType.TEXT) && isUsingTotalPages((Text) c.getContent())) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUsingTotalPages(Text text) {
+        return text.getText().contains("%totalPages");
+    }
+
+    /**
+     * Lays out the given builder pages. If a layout executor has been set, the pages are laid out concurrently.
+     * This is possible because overflow never crosses builder pages, every builder page only depends on its own content.
+     * @param pages Builder pages to lay out.
+     * @param pageLayouts The layouts to store the result for each page in.
+     */
+    private void layoutPages(List<Page> pages, List<PageLayout> pageLayouts) {
+        if (layoutExecutor == null || pages.size() < 2) {
+            for (int i = 0; i < pages.size(); ++i) {
+                layoutPage(pages.get(i), pageLayouts.get(i));
+            }
+            return;
+        }
+        List<CompletableFuture<Void>> pendingLayouts = new ArrayList<CompletableFuture<Void>>(pages.size());
+        for (int i = 0; i < pages.size(); ++i) {
+            Page page = pages.get(i);
+            PageLayout layout = pageLayouts.get(i);
+            //every task uses its own instance, so the tasks do not share the layout that is being recorded
+            pendingLayouts.add(CompletableFuture.runAsync(() -> new DocumentState().layoutPage(page, layout), layoutExecutor));
+        }
+        pendingLayouts.forEach(DocumentState::awaitLayout);
+    }
+
+    private static void awaitLayout(CompletableFuture<Void> layout) {
+        try {
+            layout.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Lays out the given builder page, together with the overflow pages it causes.
+     * @param page Builder page to lay out.
+     * @param layout Layout to store the resulting state pages and links in.
+     */
+    private void layoutPage(Page page, PageLayout layout) {
+        layoutPage(page, layout, null);
+    }
+
+    /**
+     * Lays out the given builder page, together with the overflow pages it causes.
+     * @param page Builder page to lay out.
+     * @param layout Layout to store the resulting state pages and links in.
+     * @param finishedPages Consumer receiving each state page once its layout is finished, or null to keep the pages in the layout.
+     * The pages handed to the consumer and their links are not kept in the layout.
+     */
+    private void layoutPage(Page page, PageLayout layout, Consumer<StatePage> finishedPages) {
+        currentLayout = layout;
+        Page nextPage = page;
+        while (nextPage != null) {
+            StatePage newPage = CreateStateInstanceForPage(nextPage);
+            layout.pages.add(newPage);
+            addToStateLink(nextPage, newPage);
+            nextPage = processPageContent(nextPage, newPage);
+            if (finishedPages != null) {
+                layout.pages.clear();
+                layout.links.clear();
+                finishedPages.accept(newPage);
+            }
+        }
+        currentLayout = null;
+    }
+
     private StatePage CreateStateInstanceForPage(Page page) {
         StatePage newPage = new BaseStatePage(page);
-        newPage.setOriginalObject(page);
+        //overflow pages refer to the builder page, so the state pages of a builder page do not form a chain
+        if (page instanceof StateDocumentPart) {
+            newPage.setOriginalObject(((StateDocumentPart) page).getOriginalObject());
+        } else {
+            newPage.setOriginalObject(page);
+        }
         AddMasterPageToNewStatePage(page, newPage);
         return newPage;
     }
@@ -92,12 +264,39 @@ public class DocumentState {
 
     private void processPageAreas() {
         String totalPageNumbers = String.valueOf(state.size() - 1);
+        Map<StatePage, List<DocumentPart>> previousPageAreaContent = pageAreaContent;
+        pageAreaContent = new IdentityHashMap<StatePage, List<DocumentPart>>();
+        int pageNumber = 0;
+        for (Page page : state) {
+            List<DocumentPart> addedContent = processPageAreas(totalPageNumbers, pageNumber++, (StatePage) page, previousPageAreaContent);
+            if (addedContent != null) {
+                pageAreaContent.put((StatePage) page, addedContent);
+            }
+        }
+    }
+
+    /**
+     * Replaces the page area content previously added to the given page by the content of its page areas.
+     * @param totalPageNumbers The total amount of pages, or null if it is not known.
+     * @param pageNumber Number of the page.
+     * @param page Page to process.
+     * @param previousPageAreaContent The page area content added by the previous update.
+     * @return the page area content that has been added to the page, or null for the title page.
+     */
+    private List<DocumentPart> processPageAreas(String totalPageNumbers, int pageNumber, StatePage page,
+            Map<StatePage, List<DocumentPart>> previousPageAreaContent) {
+        List<DocumentPart> previousContent = previousPageAreaContent.get(page);
+        if (previousContent != null) {
+            page.removeAll(previousContent);
+        }
         //we skip the title page, so pagenumber starts at 1
-        for (int pageNumber = 1; pageNumber < state.size(); ++pageNumber) {
-            StatePage page = (StatePage) state.get(pageNumber);
-            ProcessPageAreaContent(totalPageNumbers, pageNumber, page, page.getHeader());
-            ProcessPageAreaContent(totalPageNumbers, pageNumber, page, page.getFooter());
+        if (pageNumber == 0) {
+            return null;
         }
+        int contentSize = page.getContent().size();
+        ProcessPageAreaContent(totalPageNumbers, pageNumber, page, page.getHeader());
+        ProcessPageAreaContent(totalPageNumbers, pageNumber, page, page.getFooter());
+        return new ArrayList<DocumentPart>(page.getContent().subList(contentSize, page.getContent().size()));
     }
 
     private void ProcessPageAreaContent(String totalPageNumbers, int i, StatePage sp, PageArea header) {
@@ -109,7 +308,9 @@ public class DocumentState {
 
     private void addPageNumbersToPageArea(String totalPageNumbers, int number, PageArea area) {
         area.addAttribute("pageNumber", String.valueOf(number));
-        area.addAttribute("totalPages", totalPageNumbers);
+        if (totalPageNumbers != null) {
+            area.addAttribute("totalPages", totalPageNumbers);
+        }
     }
 
     private void processPageAreaContent(PageArea area, StatePage sp) {
@@ -180,6 +381,10 @@ public class DocumentState {
     }
 
     private void addToStateLink(DocumentPart old, DocumentPart newPart) {
+        if (currentLayout != null) {
+            currentLayout.links.add(new DocumentPart[] { old, newPart });
+            return;
+        }
         List<DocumentPart> results = this.stateLink.get(old);
         if (results != null) {
             results.add(newPart);
@@ -409,6 +614,23 @@ public class DocumentState {
         return overflowPage;
     }
 
+    /**
+     * @return the executor used to lay out pages concurrently, or null if the pages are laid out on the calling thread.
+     */
+    public Executor getLayoutExecutor() {
+        return layoutExecutor;
+    }
+
+    /**
+     * Sets the executor used to lay out the pages concurrently. Every page added to the builder is laid out as a separate task,
+     * together with the pages created for its overflow. The page areas are processed afterwards on the calling thread.
+     * The resulting state is identical to the state created without an executor.
+     * @param layoutExecutor executor to use, or null to lay out the pages on the thread updating the state.
+     */
+    public void setLayoutExecutor(Executor layoutExecutor) {
+        this.layoutExecutor = layoutExecutor;
+    }
+
     /**
      * Returns the pages in the state.
      * @return list of pages.
@@ -512,4 +734,118 @@ public class DocumentState {
         }
         return partList;
     }
+
+    /**
+     * The result of laying out a single builder page.
+     */
+    private static class PageLayout {
+        private final PageInput input;
+        /**
+         * The state page of the builder page, followed by the overflow pages.
+         */
+        private final List<StatePage> pages = new ArrayList<StatePage>();
+        /**
+         * The links between builder parts and state parts created during the layout, in the order they were created.
+         */
+        private final List<DocumentPart[]> links = new ArrayList<DocumentPart[]>();
+
+        public PageLayout(PageInput input) {
+            this.input = input;
+        }
+    }
+
+    /**
+     * Everything that influences the layout of a builder page. This contains every part that is reachable from the page,
+     * in a fixed order, together with the amount of changes made to the part and its position.
+     * Two inputs match if the same parts are found in the same order and none of the parts have changed.
+     */
+    private static class PageInput {
+        private static final long UNTRACKED = -1;
+        private final List<Object> parts = new ArrayList<Object>();
+        private long[] values = new long[16];
+        private int size = 0;
+        private boolean tracked = true;
+
+        public PageInput(Page page) {
+            addPart(page);
+            addArea(page.getHeader());
+            addArea(page.getFooter());
+            Page masterPage = page.getMasterPage();
+            if (masterPage != null) {
+                addPart(masterPage);
+                masterPage.getContent().forEach(this::addContent);
+            }
+            page.getContent().forEach(this::addContent);
+        }
+
+        /**
+         * Checks whether the given input is equal to this input.
+         * @param other Input to compare with.
+         * @return true if both inputs contain the same unchanged parts, false otherwise.
+         */
+        public boolean matches(PageInput other) {
+            if (!tracked || !other.tracked || size != other.size) {
+                return false;
+            }
+            for (int i = 0; i < size; ++i) {
+                if (values[i] != other.values[i] || parts.get(i) != other.parts.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void addContent(DocumentPart part) {
+            addPart(part);
+            if (part == null) {
+                return;
+            }
+            switch (part.getType()) {
+            case TEXT:
+                addPart(((Text) part).getFont());
+                break;
+            case PARAGRAPH:
+                Paragraph paragraph = (Paragraph) part;
+                paragraph.getTextCollection().forEach(this::addContent);
+                for (Anchor anchor : paragraph.getAnchors()) {
+                    add(anchor, anchor.getLocation().ordinal());
+                    add(anchor.getAnchorPoint(), 0);
+                    addContent(anchor.getPart());
+                }
+                break;
+            case TABLE:
+                for (Cell cell : ((Table) part).getContent()) {
+                    add(cell, cell instanceof AbstractCell ? ((AbstractCell) cell).getModificationCount() : UNTRACKED);
+                    addContent(cell.getContent());
+                }
+                break;
+            default:
+                break;
+            }
+        }
+
+        private void addPart(DocumentPart part) {
+            add(part, part instanceof AbstractDocumentPart ? ((AbstractDocumentPart) part).getModificationCount() : UNTRACKED);
+            if (part instanceof PlaceableDocumentPart && ((PlaceableDocumentPart) part).getPosition() != null) {
+                Position position = ((PlaceableDocumentPart) part).getPosition();
+                add(part, Double.doubleToLongBits(position.getX()));
+                add(part, Double.doubleToLongBits(position.getY()));
+            }
+        }
+
+        private void addArea(PageArea area) {
+            add(area, area != null ? area.getHeight() : 0);
+        }
+
+        private void add(Object part, long value) {
+            if (part != null && value == UNTRACKED) {
+                tracked = false;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            parts.add(part);
+            values[size++] = value;
+        }
+    }
 }
@@ -1,15 +1,23 @@
 package org.toucanpdf.font;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.stream.Collectors;
 
 import org.toucanpdf.font.parser.AfmParser;
+import org.toucanpdf.font.parser.AfmParser.KerningKey;
+import org.toucanpdf.font.parser.CompiledMetrics;
 import org.toucanpdf.font.parser.PfbParser;
 import org.toucanpdf.model.FontMetrics;
 import org.toucanpdf.utility.Constants;
+import org.toucanpdf.utility.LongIntHashMap;
 import org.toucanpdf.utility.UnicodeConverter;
 
 import org.slf4j.Logger;
@@ -17,6 +25,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This class is responsible for parsing afm files and storing the metrics data found.
+ * The widths, bounding boxes and kerning pairs are also stored in primitive tables indexed by unicode character code, 
+ * so measuring text does not need to look up postscript names or allocate any objects.
  * @author Dylan de Wolff
  * @see FontMetrics
  */
@@ -25,6 +35,25 @@ public class Type1FontMetrics implements FontMetrics {
     private AfmParser afm;
     private PfbParser pfb;
     private String filename;
+    /**
+     * Glyph index for each unicode character code, split in pages of 256 codes. Pages without any glyphs are null.
+     */
+    private int[][] glyphIndexPages;
+    private int[] glyphWidths;
+    /**
+     * The bounding boxes of all glyphs, stored as four consecutive values per glyph.
+     */
+    private int[] glyphBoundingBoxes;
+    /**
+     * Kerning offsets keyed by the combined glyph indices of both characters.
+     */
+    private LongIntHashMap glyphKerning;
+
+    private static final int NO_GLYPH = -1;
+    private static final int PAGE_BITS = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_AMOUNT = (Character.MAX_VALUE + 1) >> PAGE_BITS;
+    private static final int BOUNDING_BOX_SIZE = 4;
 
     /**
      * Value used to convert from the unit used in afm to the unit used by PDF.
@@ -42,22 +71,105 @@ public class Type1FontMetrics implements FontMetrics {
     }
 
     /**
-     * Creates a new AFMParser, which starts the parsing of the afm file, and stores the parser.
+     * Loads the metrics of the font. The compiled metrics generated during the build are used if they are available, 
+     * otherwise a new AFMParser is created, which starts the parsing of the afm file. The parser is stored.
      * @throws FileNotFoundException if the font afm file could not be found
      */
     public void parseAfm() throws FileNotFoundException {
+        InputStream compiled = findFile(CompiledMetrics.EXTENSION);
+        if (compiled != null) {
+            try {
+                afm = CompiledMetrics.read(compiled);
+                buildGlyphTables();
+                return;
+            } catch (IOException e) {
+                LOGGER.warn("Could not read the compiled metrics for {}, the afm file will be parsed instead.", filename);
+            }
+        }
         InputStream file;
         file = getFile(".afm");
         afm = new AfmParser(file);
+        buildGlyphTables();
+    }
+
+    /**
+     * Builds the primitive glyph tables from the parsed metrics.
+     */
+    private void buildGlyphTables() {
+        Map<String, Integer> glyphIndices = new HashMap<>();
+        int glyphAmount = afm.getCharacterMetrics().size();
+        int[] widths = new int[glyphAmount];
+        int[] boundingBoxes = new int[glyphAmount * BOUNDING_BOX_SIZE];
+        for (Type1CharacterMetric metric : afm.getCharacterMetrics().values()) {
+            int index = glyphIndices.size();
+            glyphIndices.put(metric.getName(), index);
+            widths[index] = metric.getWx();
+            System.arraycopy(metric.getBoundingBox(), 0, boundingBoxes, index * BOUNDING_BOX_SIZE, BOUNDING_BOX_SIZE);
+        }
+
+        int[][] pages = new int[PAGE_AMOUNT][];
+        for (Entry<Integer, String> mapping : UnicodeConverter.getUnicodeToPostscript().entrySet()) {
+            Integer index = glyphIndices.get(mapping.getValue());
+            int code = mapping.getKey();
+            if (index != null && code >= 0 && code <= Character.MAX_VALUE) {
+                int[] page = pages[code >> PAGE_BITS];
+                if (page == null) {
+                    page = new int[PAGE_SIZE];
+                    Arrays.fill(page, NO_GLYPH);
+                    pages[code >> PAGE_BITS] = page;
+                }
+                page[code & (PAGE_SIZE - 1)] = index;
+            }
+        }
+
+        LongIntHashMap kerning = new LongIntHashMap(afm.getKerningPairs().size());
+        for (Entry<KerningKey, Integer> pair : afm.getKerningPairs().entrySet()) {
+            Integer first = glyphIndices.get(pair.getKey().getCharacterName());
+            Integer second = glyphIndices.get(pair.getKey().getSecondCharacterName());
+            if (first != null && second != null) {
+                kerning.put(LongIntHashMap.key(first, second), pair.getValue());
+            }
+        }
+        this.glyphWidths = widths;
+        this.glyphBoundingBoxes = boundingBoxes;
+        this.glyphIndexPages = pages;
+        this.glyphKerning = kerning;
+    }
+
+    /**
+     * Returns the index of the glyph for the given unicode character code.
+     * @param characterCode Code of the character.
+     * @return int containing the glyph index, or -1 if the font has no glyph for the character.
+     */
+    private int getGlyphIndex(int characterCode) {
+        if (characterCode < 0 || characterCode > Character.MAX_VALUE) {
+            return NO_GLYPH;
+        }
+        int[] page = glyphIndexPages[characterCode >> PAGE_BITS];
+        return page != null ? page[characterCode & (PAGE_SIZE - 1)] : NO_GLYPH;
     }
 
     /**
      * Finds the file by the given file name and returns it.
      * @param extension File extension to look for.
-     * @return InputStream for the given filename. Null if the file could not be found.
+     * @return InputStream for the given filename.
      * @throws FileNotFoundException if the font afm file couldn't be found
      */
     private InputStream getFile(String extension) throws FileNotFoundException {
+        InputStream in = findFile(extension);
+        if (in == null) {
+            LOGGER.error("Could not find .afm file corresponding to the given filename: " + filename + ". You should not use this font any further.");
+            throw new FileNotFoundException("Could not find .afm file corresponding to the given filename: " + filename);
+        }
+        return in;
+    }
+
+    /**
+     * Finds the file by the given file name and extension.
+     * @param extension File extension to look for.
+     * @return InputStream for the given filename. Null if the file could not be found.
+     */
+    private InputStream findFile(String extension) {
         String localFilename = filename;
         //add afm extension if it could not be found.
         if (!localFilename.toLowerCase().endsWith(extension)) {
@@ -66,16 +178,12 @@ public class Type1FontMetrics implements FontMetrics {
         InputStream in = getClass().getResourceAsStream(Constants.RESOURCES + localFilename);
         if (in == null) {
             in = this.getClass().getClassLoader().getResourceAsStream(localFilename);
-            if (in == null) {
-                LOGGER.error("Could not find .afm file corresponding to the given filename: " + filename + ". You should not use this font any further.");
-                throw new FileNotFoundException("Could not find .afm file corresponding to the given filename: " + filename);
-            }
         }
         return in;
     }
 
     @Override
-    public byte[] getFontFile() {
+    public synchronized byte[] getFontFile() {
         if (this.pfb != null) {
             return pfb.getPfbData();
         } else {
@@ -101,7 +209,8 @@ public class Type1FontMetrics implements FontMetrics {
 
     @Override
     public int getWidth(int characterCode) {
-        return this.getWidth(UnicodeConverter.getPostscriptForUnicode(characterCode));
+        int glyph = getGlyphIndex(characterCode);
+        return glyph != NO_GLYPH ? glyphWidths[glyph] : 0;
     }
 
     @Override
@@ -130,7 +239,12 @@ public class Type1FontMetrics implements FontMetrics {
 
     @Override
     public int getKerning(int characterCode, int secondCharacterCode) {
-        return this.getKerning(UnicodeConverter.getPostscriptForUnicode(characterCode), UnicodeConverter.getPostscriptForUnicode(secondCharacterCode));
+        int glyph = getGlyphIndex(characterCode);
+        int secondGlyph = getGlyphIndex(secondCharacterCode);
+        if (glyph == NO_GLYPH || secondGlyph == NO_GLYPH) {
+            return 0;
+        }
+        return glyphKerning.get(LongIntHashMap.key(glyph, secondGlyph), 0);
     }
 
     @Override
@@ -178,14 +292,6 @@ public class Type1FontMetrics implements FontMetrics {
         return getDescentForString(text) * CONVERSION_TO_POINTS;
     }
 
-    private int[] getBoundingBoxForCharacter(String charName) {
-        Type1CharacterMetric metric = afm.getCharacterMetric(charName);
-        if (metric != null) {
-            return metric.getBoundingBox();
-        }
-        return null;
-    }
-
     /**
      * Returns either the lowest or highset bounding box value found within the text on the given bounding box index (e.g. the first bbox value is for descent so that means passing 1)
      * @param text Text to check the highest value for
@@ -195,11 +301,10 @@ public class Type1FontMetrics implements FontMetrics {
      */
     private int getBoundingBoxValueForTextOnIndex(String text, int bbIndex, boolean highest) {
         int value = 0;
-        char[] chars = text.toCharArray();
-        for (char aChar : chars) {
-            int[] boundingBox = this.getBoundingBoxForCharacter(UnicodeConverter.getPostscriptForUnicode((int) aChar));
-            if (boundingBox != null) {
-                int bBoxValue = boundingBox[bbIndex];
+        for (int i = 0; i < text.length(); ++i) {
+            int glyph = getGlyphIndex(text.charAt(i));
+            if (glyph != NO_GLYPH) {
+                int bBoxValue = glyphBoundingBoxes[glyph * BOUNDING_BOX_SIZE + bbIndex];
                 value = highest ? Math.max(value, bBoxValue) : Math.min(value, bBoxValue);
             }
         }
@@ -260,12 +365,7 @@ public class Type1FontMetrics implements FontMetrics {
     public List<Integer> getWidths(int firstCharCode, int lastCharCode) {
         List<Integer> widths = new ArrayList<Integer>();
         for (int i = firstCharCode; i < lastCharCode + 1; ++i) {
-            Type1CharacterMetric cm = afm.getCharacterMetric(UnicodeConverter.getPostscriptForUnicode(i));
-            if (cm != null) {
-                widths.add(cm.getWx());
-            } else {
-                widths.add(0);
-            }
+            widths.add(getWidth(i));
         }
         return widths;
     }
@@ -273,19 +373,23 @@ public class Type1FontMetrics implements FontMetrics {
     @Override
     public int getWidthOfString(String string, int fontSize, boolean kerning) {
         int width = 0;
-        char[] chars = string.toCharArray();
-        for (int i = 0; i < chars.length; ++i) {
-            width += this.getWidth(UnicodeConverter.getPostscriptForUnicode((int) chars[i]));
-            if (kerning && (i + 1 != chars.length)) {
-                width -= this.getKerning((int) chars[i], (int) chars[i + 1]);
+        int previousGlyph = NO_GLYPH;
+        for (int i = 0; i < string.length(); ++i) {
+            int glyph = getGlyphIndex(string.charAt(i));
+            if (glyph != NO_GLYPH) {
+                width += glyphWidths[glyph];
+                if (kerning && previousGlyph != NO_GLYPH) {
+                    width -= glyphKerning.get(LongIntHashMap.key(previousGlyph, glyph), 0);
+                }
             }
+            previousGlyph = glyph;
         }
         return width * fontSize;
     }
 
     @Override
     public double getWidthPoint(int charCode) {
-        return this.getWidthPoint(UnicodeConverter.getPostscriptForUnicode(charCode));
+        return this.getWidth(charCode) * CONVERSION_TO_POINTS;
     }
 
     @Override
@@ -98,7 +98,7 @@ public class AfmParser {
                 }
             }
             Type1CharacterMetric cm = new Type1CharacterMetric(c, wx, name, boundingBox);
-            parser.characterMetrics.put(name, cm);
+            parser.addCharacterMetric(cm);
         });
         ACTION_MAP.put("KPX", (parser, st) -> {
             String firstCharacter = st.nextToken();
@@ -210,71 +210,95 @@ public class AfmParser {
         kerningPairs.put(new KerningKey(firstCharacter, secondCharacter), widthOffset);
     }
 
-    private void setFontName(String fontName) {
+    void addCharacterMetric(Type1CharacterMetric characterMetric) {
+        characterMetrics.put(characterMetric.getName(), characterMetric);
+    }
+
+    void setFlags(int flags) {
+        this.flags = flags;
+    }
+
+    void setAverageWidth(int averageWidth) {
+        this.averageWidth = averageWidth;
+    }
+
+    void setMaxWidth(int maxWidth) {
+        this.maxWidth = maxWidth;
+    }
+
+    void setFirstChar(int firstChar) {
+        this.firstChar = firstChar;
+    }
+
+    void setLastChar(int lastChar) {
+        this.lastChar = lastChar;
+    }
+
+    void setFontName(String fontName) {
         this.fontName = fontName;
     }
 
-    private void setFullName(String fullName) {
+    void setFullName(String fullName) {
         this.fullName = fullName;
     }
 
-    private void setFamilyName(String familyName) {
+    void setFamilyName(String familyName) {
         this.familyName = familyName;
     }
 
-    private void setWeight(String weight) {
+    void setWeight(String weight) {
         this.weight = weight;
     }
 
-    private void setItalicAngle(double italicAngle) {
+    void setItalicAngle(double italicAngle) {
         this.italicAngle = italicAngle;
     }
 
-    private void setFixedPitch(boolean fixedPitch) {
+    void setFixedPitch(boolean fixedPitch) {
         this.isFixedPitch = fixedPitch;
     }
 
-    private void setCharacterSet(String characterSet) {
+    void setCharacterSet(String characterSet) {
         this.characterSet = characterSet;
     }
 
-    private void setFontBBox(double[] fontBBox) {
+    void setFontBBox(double[] fontBBox) {
         this.fontBBox = fontBBox.clone();
     }
 
-    private void setUnderlinePosition(int underlinePosition) {
+    void setUnderlinePosition(int underlinePosition) {
         this.underlinePosition = underlinePosition;
     }
 
-    private void setUnderlineThickness(int underlineThickness) {
+    void setUnderlineThickness(int underlineThickness) {
         this.underlineThickness = underlineThickness;
     }
 
-    private void setEncodingScheme(String encodingScheme) {
+    void setEncodingScheme(String encodingScheme) {
         this.encodingScheme = encodingScheme;
     }
 
-    private void setCapHeight(int capHeight) {
+    void setCapHeight(int capHeight) {
         this.capHeight = capHeight;
     }
 
-    private void setXHeight(int newXHeight) {
+    void setXHeight(int newXHeight) {
         this.xHeight = newXHeight;
     }
 
-    private void setAscender(int ascender) {
+    void setAscender(int ascender) {
         this.ascender = ascender;
     }
 
-    private void setDescender(int descender) {
+    void setDescender(int descender) {
         this.descender = descender;
     }
 
-    private void setStdHW(int stdHW) {
+    void setStdHW(int stdHW) {
         this.stdHW = stdHW;
     }
 
-    private void setStdVW(int stdVW) {
+    void setStdVW(int stdVW) {
         this.stdVW = stdVW;
     }
 
@@ -481,7 +505,7 @@ public class AfmParser {
      * Used as key for the kerning map in AFMParser. Contains two character names.
      * @author Dylan de Wolff
      */
-    private static class KerningKey {
+    public static class KerningKey {
         private final String characterName;
         private final String secondCharacterName;
 
@@ -495,6 +519,14 @@ public class AfmParser {
             this.secondCharacterName = secondCharacterName;
         }
 
+        public String getCharacterName() {
+            return characterName;
+        }
+
+        public String getSecondCharacterName() {
+            return secondCharacterName;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (o instanceof KerningKey) {
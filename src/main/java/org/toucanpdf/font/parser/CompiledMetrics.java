@@ -0,0 +1,227 @@
+package org.toucanpdf.font.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.toucanpdf.font.Type1CharacterMetric;
+import org.toucanpdf.font.parser.AfmParser.KerningKey;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is responsible for the compact binary format of Type 1 font metrics. The metrics of the bundled fonts are compiled
+ * from their afm files during the build, so they can be loaded with a single read instead of being parsed on every start.
+ * The format contains the global font attributes, a table of character names, the character metrics (code, width and bounding box)
+ * and the kerning pairs sorted by character name index. The values in the tables are stored as 16 bit numbers, 
+ * which is sufficient for the glyph space units used in afm files. Fonts supplied by the user are still parsed by {@link AfmParser}.
+ *
+ * @author Dylan de Wolff
+ */
+public final class CompiledMetrics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompiledMetrics.class);
+    /**
+     * The extension of compiled metrics files.
+     */
+    public static final String EXTENSION = ".metrics";
+    private static final int MAGIC = 0x54464D31;
+    private static final int BOUNDING_BOX_SIZE = 4;
+    private static final int BUFFER_SIZE = 8192;
+
+    private CompiledMetrics() {
+    }
+
+    /**
+     * Writes the metrics of the given parser in the compiled format.
+     * @param afm Parser containing the metrics.
+     * @param os OutputStream to write to.
+     * @throws IOException if writing to the outputstream caused an exception
+     */
+    public static void write(AfmParser afm, OutputStream os) throws IOException {
+        DataOutputStream out = new DataOutputStream(os);
+        out.writeInt(MAGIC);
+        writeString(out, afm.getFontName());
+        writeString(out, afm.getFullName());
+        writeString(out, afm.getFamilyName());
+        writeString(out, afm.getWeight());
+        writeString(out, afm.getCharacterSet());
+        writeString(out, afm.getEncodingScheme());
+        out.writeDouble(afm.getItalicAngle());
+        out.writeBoolean(afm.isFixedPitch());
+        for (double value : afm.getFontBBox()) {
+            out.writeDouble(value);
+        }
+        out.writeInt(afm.getUnderlinePosition());
+        out.writeInt(afm.getUnderlineThickness());
+        out.writeInt(afm.getCapHeight());
+        out.writeInt(afm.getxHeight());
+        out.writeInt(afm.getAscender());
+        out.writeInt(afm.getDescender());
+        out.writeInt(afm.getStdHW());
+        out.writeInt(afm.getStdVW());
+        out.writeInt(afm.getFlags());
+        out.writeInt(afm.getAverageWidth());
+        out.writeInt(afm.getMaxWidth());
+        out.writeInt(afm.getFirstChar());
+        out.writeInt(afm.getLastChar());
+
+        Map<String, Integer> nameIndices = new LinkedHashMap<>();
+        for (String name : afm.getCharacterMetrics().keySet()) {
+            nameIndices.putIfAbsent(name, nameIndices.size());
+        }
+        for (KerningKey key : afm.getKerningPairs().keySet()) {
+            nameIndices.putIfAbsent(key.getCharacterName(), nameIndices.size());
+            nameIndices.putIfAbsent(key.getSecondCharacterName(), nameIndices.size());
+        }
+        out.writeInt(nameIndices.size());
+        for (String name : nameIndices.keySet()) {
+            out.writeUTF(name);
+        }
+
+        out.writeInt(afm.getCharacterMetrics().size());
+        for (Type1CharacterMetric metric : afm.getCharacterMetrics().values()) {
+            out.writeShort(metric.getC());
+            out.writeShort(metric.getWx());
+            for (int value : metric.getBoundingBox()) {
+                out.writeShort(value);
+            }
+        }
+
+        List<int[]> kerning = new ArrayList<>();
+        for (Entry<KerningKey, Integer> pair : afm.getKerningPairs().entrySet()) {
+            kerning.add(new int[] { nameIndices.get(pair.getKey().getCharacterName()), nameIndices.get(pair.getKey().getSecondCharacterName()),
+                    pair.getValue() });
+        }
+        kerning.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+        out.writeInt(kerning.size());
+        for (int[] pair : kerning) {
+            out.writeShort(pair[0]);
+            out.writeShort(pair[1]);
+            out.writeShort(pair[2]);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads metrics in the compiled format. The whole input is read at once before it is processed.
+     * @param is InputStream containing the compiled metrics, this stream will be closed.
+     * @return AfmParser containing the metrics.
+     * @throws IOException if the input could not be read or is not in the compiled format
+     */
+    public static AfmParser read(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(readFully(is)));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("The given input does not contain compiled metrics");
+        }
+        AfmParser afm = new AfmParser();
+        afm.setFontName(readString(in));
+        afm.setFullName(readString(in));
+        afm.setFamilyName(readString(in));
+        afm.setWeight(readString(in));
+        afm.setCharacterSet(readString(in));
+        afm.setEncodingScheme(readString(in));
+        afm.setItalicAngle(in.readDouble());
+        afm.setFixedPitch(in.readBoolean());
+        double[] fontBoundingBox = new double[BOUNDING_BOX_SIZE];
+        for (int i = 0; i < BOUNDING_BOX_SIZE; ++i) {
+            fontBoundingBox[i] = in.readDouble();
+        }
+        afm.setFontBBox(fontBoundingBox);
+        afm.setUnderlinePosition(in.readInt());
+        afm.setUnderlineThickness(in.readInt());
+        afm.setCapHeight(in.readInt());
+        afm.setXHeight(in.readInt());
+        afm.setAscender(in.readInt());
+        afm.setDescender(in.readInt());
+        afm.setStdHW(in.readInt());
+        afm.setStdVW(in.readInt());
+        afm.setFlags(in.readInt());
+        afm.setAverageWidth(in.readInt());
+        afm.setMaxWidth(in.readInt());
+        afm.setFirstChar(in.readInt());
+        afm.setLastChar(in.readInt());
+
+        String[] names = new String[in.readInt()];
+        for (int i = 0; i < names.length; ++i) {
+            names[i] = in.readUTF();
+        }
+        int characterAmount = in.readInt();
+        for (int i = 0; i < characterAmount; ++i) {
+            int c = in.readShort();
+            int wx = in.readShort();
+            int[] boundingBox = new int[BOUNDING_BOX_SIZE];
+            for (int j = 0; j < BOUNDING_BOX_SIZE; ++j) {
+                boundingBox[j] = in.readShort();
+            }
+            afm.addCharacterMetric(new Type1CharacterMetric(c, wx, names[i], boundingBox));
+        }
+        int kerningAmount = in.readInt();
+        for (int i = 0; i < kerningAmount; ++i) {
+            afm.createKerningEntry(names[in.readUnsignedShort()], names[in.readUnsignedShort()], in.readShort());
+        }
+        return afm;
+    }
+
+    private static byte[] readFully(InputStream is) throws IOException {
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(BUFFER_SIZE);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                baos.write(buffer, 0, read);
+            }
+            return baos.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) {
+            out.writeUTF(s);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        if (in.readBoolean()) {
+            return in.readUTF();
+        }
+        return null;
+    }
+
+    /**
+     * Compiles every afm file in the given source directory and writes the results to the given target directory.
+     * This is run during the build to compile the metrics of the bundled fonts.
+     * @param args The source directory and the target directory.
+     * @throws IOException if a file could not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        File[] afmFiles = new File(args[0]).listFiles((dir, name) -> name.toLowerCase().endsWith(".afm"));
+        File targetDirectory = new File(args[1]);
+        if (afmFiles == null || !(targetDirectory.isDirectory() || targetDirectory.mkdirs())) {
+            LOGGER.error("Could not compile the font metrics from " + args[0] + " to " + args[1]);
+            return;
+        }
+        for (File afmFile : afmFiles) {
+            String name = afmFile.getName().substring(0, afmFile.getName().length() - ".afm".length());
+            AfmParser afm = new AfmParser(new FileInputStream(afmFile));
+            try (OutputStream os = new FileOutputStream(new File(targetDirectory, name + EXTENSION))) {
+                write(afm, os);
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.toucanpdf.image;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import org.toucanpdf.model.ColorSpace;
+import org.toucanpdf.model.Compression;
+import org.toucanpdf.model.ImageParser;
+import org.toucanpdf.model.ImageSource;
+
+/**
+ * Base implementation of the ImageParser interface, containing the properties shared by all image formats.
+ * Subclasses fill the properties while parsing the image. The image data is either kept in memory, or read from the image source
+ * each time it is needed if the subclass has set the source.
+ * @author Dylan de Wolff
+ * @see ImageParser
+ */
+public abstract class AbstractImageParser implements ImageParser {
+    protected static final int GRAY_COMPONENT_AMOUNT = 1;
+    protected static final int RGB_COMPONENT_AMOUNT = 3;
+    protected static final int CMYK_COMPONENT_AMOUNT = 4;
+    private static final int BUFFER_SIZE = 8192;
+    protected byte[] data;
+    protected ColorSpace colorSpace;
+    protected int bitsPerComponent;
+    protected Compression filter;
+    protected int width;
+    protected int height;
+    /**
+     * Source the image data is read from when it is written, null if the data is kept in memory.
+     */
+    protected ImageSource source;
+    /**
+     * Digest of the image file, set by the image cache when it creates the parser.
+     */
+    String digest;
+
+    /**
+     * Reads the given stream completely and closes it.
+     * @param stream Stream to read.
+     * @return the bytes read from the stream.
+     * @throws IOException If reading from the stream failed.
+     */
+    protected static byte[] readFully(InputStream stream) throws IOException {
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(BUFFER_SIZE);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                baos.write(buffer, 0, read);
+            }
+            return baos.toByteArray();
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Skips the given amount of bytes of the stream.
+     * @param stream Stream to skip bytes of.
+     * @param amount Amount of bytes to skip.
+     * @throws IOException If reading from the stream failed.
+     * @throws EOFException If the stream ended before the bytes were skipped.
+     */
+    protected static void skipFully(InputStream stream, long amount) throws IOException {
+        long remaining = amount;
+        while (remaining > 0) {
+            long skipped = stream.skip(remaining);
+            if (skipped <= 0) {
+                if (stream.read() == -1) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    @Override
+    public byte[] getData() {
+        if (source != null) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(BUFFER_SIZE);
+            try {
+                writeData(baos);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return baos.toByteArray();
+        }
+        return this.data.clone();
+    }
+
+    @Override
+    public void writeData(OutputStream os) throws IOException {
+        if (source != null) {
+            try (InputStream stream = source.openStream()) {
+                writeSourceData(stream, os);
+            }
+        } else {
+            os.write(this.data);
+        }
+    }
+
+    /**
+     * Writes the image data contained in the given image file to the given stream. By default the entire file is written.
+     * @param file Stream containing the image file.
+     * @param os Stream to write the image data to.
+     * @throws IOException If reading or writing failed.
+     */
+    protected void writeSourceData(InputStream file, OutputStream os) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = file.read(buffer)) != -1) {
+            os.write(buffer, 0, read);
+        }
+    }
+
+    @Override
+    public boolean isDeferred() {
+        return source != null;
+    }
+
+    @Override
+    public String getDigest() {
+        return digest;
+    }
+
+    /**
+     * Returns whether the image was parsed successfully, which means its size is known and its data is available.
+     * @return true if the image can be used, false otherwise.
+     */
+    boolean isParsed() {
+        return (data != null || source != null) && width > 0 && height > 0;
+    }
+
+    /**
+     * Returns the amount of image data kept in memory by this parser, including the data of its soft mask.
+     * @return the amount of bytes.
+     */
+    long getMemorySize() {
+        long size = data != null ? data.length : 0;
+        ImageParser softMask = getSoftMask();
+        if (softMask instanceof AbstractImageParser) {
+            size += ((AbstractImageParser) softMask).getMemorySize();
+        }
+        return size;
+    }
+
+    @Override
+    public ColorSpace getColorSpace() {
+        return this.colorSpace;
+    }
+
+    @Override
+    public int getBitsPerComponent() {
+        return this.bitsPerComponent;
+    }
+
+    @Override
+    public Compression getFilter() {
+        return this.filter;
+    }
+
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    @Override
+    public int getHeight() {
+        return this.height;
+    }
+
+    @Override
+    public int getPredictor() {
+        return 1;
+    }
+
+    @Override
+    public byte[] getColorTable() {
+        return null;
+    }
+
+    @Override
+    public ImageParser getSoftMask() {
+        return null;
+    }
+
+    @Override
+    public int getRequiredComponentsForColorSpace(ColorSpace color) {
+        switch (color) {
+        case DEVICE_GRAY:
+        case CAL_GRAY:
+            return GRAY_COMPONENT_AMOUNT;
+        case DEVICE_RGB:
+        case CAL_RGB:
+            return RGB_COMPONENT_AMOUNT;
+        case DEVICE_CMYK:
+            return CMYK_COMPONENT_AMOUNT;
+        default:
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package org.toucanpdf.image;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.toucanpdf.model.ImageParser;
+import org.toucanpdf.model.ImageType;
+
+/**
+ * Cache of parsed images shared by all documents in the process. Images are identified by a digest of their type and file, so an image
+ * that is added to many documents is only parsed once. The cache also keeps the encoded image stream written for each compression
+ * setting, which means repeated images are not compressed again either. The cache is bounded by the amount of image data it holds,
+ * the least recently used images are removed once the maximum size is exceeded.
+ * @author Dylan de Wolff
+ */
+public final class ImageCache {
+    /**
+     * The default maximum amount of bytes held by the cache.
+     */
+    public static final long DEFAULT_MAXIMUM_SIZE = 32L * 1024 * 1024;
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final ImageCache INSTANCE = new ImageCache(DEFAULT_MAXIMUM_SIZE);
+    /**
+     * Contains the cached images in order of use, the least recently used image comes first.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long maximumSize;
+    private long size = 0;
+    private long hitAmount = 0;
+    private long missAmount = 0;
+
+    /**
+     * Creates a new instance of ImageCache.
+     * @param maximumSize The maximum amount of bytes held by the cache.
+     */
+    public ImageCache(long maximumSize) {
+        this.maximumSize = Math.max(0, maximumSize);
+    }
+
+    /**
+     * Returns the cache shared by all documents.
+     * @return the shared cache.
+     */
+    public static ImageCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the parser for the given image file, the file is only parsed if it is not in the cache yet.
+     * The returned parser can be shared by several images and documents, so it should not be changed. Files that could not be parsed
+     * are not added to the cache.
+     * @param file The image file.
+     * @param type The format of the image.
+     * @return the parser of the image, or null if the format is not supported.
+     */
+    public ImageParser getParser(byte[] file, ImageType type) {
+        return get(createDigest(file, type), () -> createParser(file, type));
+    }
+
+    /**
+     * Reads the given image file and returns its parser, the file is only parsed if it is not in the cache yet.
+     * @param stream Stream containing the image file, which is closed afterwards.
+     * @param type The format of the image.
+     * @return the parser of the image, or null if the format is not supported.
+     * @throws IOException If reading from the stream failed.
+     * @see #getParser(byte[], ImageType)
+     */
+    public ImageParser getParser(InputStream stream, ImageType type) throws IOException {
+        return getParser(AbstractImageParser.readFully(stream), type);
+    }
+
+    /**
+     * Returns the given image resampled to the given size. Resampled images are cached as well, as long as the original image has a digest.
+     * @param parser Parser of the image to resample.
+     * @param width The new width in pixels.
+     * @param height The new height in pixels.
+     * @return the parser of the resampled image, or the given parser if the image could not be resampled.
+     * @see ImageResampler
+     */
+    public ImageParser getResampledParser(ImageParser parser, int width, int height) {
+        ImageParser resampled;
+        if (parser.getDigest() == null) {
+            resampled = ImageResampler.createResampledImage(parser, width, height);
+        } else {
+            resampled = get(parser.getDigest() + " " + width + "x" + height, () -> ImageResampler.createResampledImage(parser, width, height));
+        }
+        return resampled != null ? resampled : parser;
+    }
+
+    /**
+     * Returns the image with the given digest from the cache, or creates the image and adds it to the cache if it is not present.
+     * Images that could not be parsed do not get a digest and are never added to the cache. While the cache is disabled parsed images
+     * still get their digest, so documents can recognize equal images, but they are not stored.
+     * @param digest Digest of the image.
+     * @param factory Creates the image, returns null if the image can not be created.
+     * @return the image, or null if it could not be created.
+     */
+    private ImageParser get(String digest, Supplier<AbstractImageParser> factory) {
+        synchronized (this) {
+            Entry entry = entries.get(digest);
+            if (entry != null) {
+                ++hitAmount;
+                return entry.parser;
+            }
+            ++missAmount;
+        }
+        AbstractImageParser parser = factory.get();
+        if (parser != null && parser.isParsed()) {
+            parser.digest = digest;
+            add(digest, new Entry(parser));
+        }
+        return parser;
+    }
+
+    private static AbstractImageParser createParser(byte[] file, ImageType type) {
+        switch (type) {
+        case JPEG:
+            return new JPEG(new ByteArrayInputStream(file));
+        case PNG:
+            return new PNG(new ByteArrayInputStream(file));
+        default:
+            return null;
+        }
+    }
+
+    private synchronized void add(String digest, Entry entry) {
+        if (maximumSize > 0 && entry.size <= maximumSize && !entries.containsKey(digest)) {
+            entries.put(digest, entry);
+            size += entry.size;
+            removeLeastRecentlyUsed();
+        }
+    }
+
+    /**
+     * Returns the encoded image stream that was stored for the image with the given digest.
+     * @param digest Digest of the image.
+     * @param encoding Description of the filters and compression settings used to encode the stream.
+     * @return the encoded stream, or null if it is not in the cache.
+     */
+    public synchronized byte[] getEncodedData(String digest, String encoding) {
+        Entry entry = entries.get(digest);
+        return entry != null ? entry.encodedData.get(encoding) : null;
+    }
+
+    /**
+     * Stores the encoded image stream of the image with the given digest. The stream is only stored if the image itself is still in the cache.
+     * @param digest Digest of the image.
+     * @param encoding Description of the filters and compression settings used to encode the stream.
+     * @param encodedData The encoded stream, which should not be changed afterwards.
+     */
+    public synchronized void putEncodedData(String digest, String encoding, byte[] encodedData) {
+        Entry entry = entries.get(digest);
+        if (entry != null && !entry.encodedData.containsKey(encoding) && entry.size + encodedData.length <= maximumSize) {
+            entry.encodedData.put(encoding, encodedData);
+            entry.size += encodedData.length;
+            size += encodedData.length;
+            removeLeastRecentlyUsed();
+        }
+    }
+
+    private void removeLeastRecentlyUsed() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (size > maximumSize && iterator.hasNext()) {
+            size -= iterator.next().size;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes all images from the cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    public synchronized long getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Sets the maximum amount of bytes held by the cache. Images are removed from the cache if it is larger than the new maximum.
+     * @param maximumSize The maximum amount of bytes, 0 disables the cache.
+     */
+    public synchronized void setMaximumSize(long maximumSize) {
+        this.maximumSize = Math.max(0, maximumSize);
+        removeLeastRecentlyUsed();
+    }
+
+    /**
+     * Returns the amount of bytes currently held by the cache.
+     * @return the size of the cache.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the amount of images that were found in the cache.
+     * @return the amount of cache hits.
+     */
+    public synchronized long getHitAmount() {
+        return hitAmount;
+    }
+
+    /**
+     * Returns the amount of images that had to be parsed because they were not in the cache.
+     * @return the amount of cache misses.
+     */
+    public synchronized long getMissAmount() {
+        return missAmount;
+    }
+
+    private static String createDigest(byte[] file, ImageType type) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            digest.update(type.name().getBytes(StandardCharsets.US_ASCII));
+            digest.update(file);
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            //every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Contains a cached image and its encoded streams.
+     */
+    private static class Entry {
+        private final ImageParser parser;
+        private final Map<String, byte[]> encodedData = new HashMap<>();
+        private long size;
+
+        public Entry(AbstractImageParser parser) {
+            this.parser = parser;
+            this.size = parser.getMemorySize();
+        }
+    }
+}
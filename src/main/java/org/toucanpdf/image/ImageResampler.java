@@ -0,0 +1,432 @@
+package org.toucanpdf.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.toucanpdf.model.ColorSpace;
+import org.toucanpdf.model.Compression;
+import org.toucanpdf.model.ImageParser;
+import org.toucanpdf.utility.Compressor;
+
+/**
+ * Reduces the amount of pixels of images. Each new pixel is the average of the pixels of the original image it covers, which keeps fine
+ * details from turning into noise. JPEG images are encoded as JPEG again, all other images are compressed using the flate filter and PNG predictors.
+ * The soft mask of an image is resampled as well.
+ * @author Dylan de Wolff
+ */
+public final class ImageResampler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageResampler.class);
+    private static final float JPEG_QUALITY = 0.9f;
+    private static final int MAX_SAMPLE_VALUE = 255;
+    private static final int BITS_PER_SAMPLE = 8;
+    private static final int RGB_COMPONENTS = 3;
+    /**
+     * The lowest predictor value indicating that the rows of the image data are filtered using PNG filters.
+     */
+    private static final int FIRST_PNG_PREDICTOR = 10;
+    /**
+     * The minimum amount of decoded pixels averaged into each new pixel in both directions when JPEG images are decoded at a reduced resolution.
+     */
+    private static final int MINIMUM_OVERSAMPLING = 4;
+
+    private ImageResampler() {
+    }
+
+    /**
+     * Resamples the given image to the given size. The image is returned unchanged if it can not be decoded.
+     * @param parser Parser of the image to resample.
+     * @param width The new width in pixels, which should not exceed the width of the image.
+     * @param height The new height in pixels, which should not exceed the height of the image.
+     * @return the parser of the resampled image.
+     */
+    public static ImageParser resample(ImageParser parser, int width, int height) {
+        ImageParser resampled = createResampledImage(parser, width, height);
+        return resampled != null ? resampled : parser;
+    }
+
+    /**
+     * Resamples the given image to the given size.
+     * @param parser Parser of the image to resample.
+     * @param width The new width in pixels.
+     * @param height The new height in pixels.
+     * @return the parser of the resampled image, or null if the image could not be decoded.
+     */
+    static AbstractImageParser createResampledImage(ImageParser parser, int width, int height) {
+        try {
+            //JPEG images that are much larger are decoded at a reduced resolution, which is a lot faster
+            int subsampling = Math.max(1, Math.min(parser.getWidth() / width, parser.getHeight() / height) / MINIMUM_OVERSAMPLING);
+            Samples samples = decode(parser, subsampling);
+            if (samples == null) {
+                LOGGER.warn("The image could not be decoded and is embedded at its original resolution");
+                return null;
+            }
+            ResampledImage softMask = null;
+            if (parser.getSoftMask() != null) {
+                Samples alpha = decode(parser.getSoftMask(), 1);
+                if (alpha == null || alpha.components != 1) {
+                    LOGGER.warn("The soft mask of the image could not be decoded, the image is embedded at its original resolution");
+                    return null;
+                }
+                softMask = encodeFlate(alpha.resample(width, height), null);
+            }
+            Samples resampled = samples.resample(width, height);
+            if (parser.getFilter() == Compression.DCT) {
+                byte[] jpeg = encodeJpeg(resampled);
+                if (jpeg != null) {
+                    return new ResampledImage(jpeg, resampled, Compression.DCT, 1, softMask);
+                }
+            }
+            return encodeFlate(resampled, softMask);
+        } catch (IOException e) {
+            LOGGER.warn("Exception occurred during resampling of image");
+            return null;
+        }
+    }
+
+    /**
+     * Decodes the image data of the given parser into samples of 8 bits. The colors of indexed images are looked up in the color table.
+     * @param parser Parser containing the image data.
+     * @param jpegSubsampling Only every nth pixel in both directions is decoded from JPEG images.
+     * @return the samples, or null if the image data can not be decoded.
+     * @throws IOException If the image data could not be read.
+     */
+    private static Samples decode(ImageParser parser, int jpegSubsampling) throws IOException {
+        if (parser.getWidth() <= 0 || parser.getHeight() <= 0 || (long) parser.getWidth() * parser.getHeight() * AbstractImageParser.CMYK_COMPONENT_AMOUNT > Integer.MAX_VALUE - 8) {
+            return null;
+        }
+        if (parser.getFilter() == Compression.DCT) {
+            return decodeJpeg(parser.getData(), jpegSubsampling);
+        }
+        int components = parser.getColorSpace() == ColorSpace.INDEXED ? 1 : parser.getRequiredComponentsForColorSpace(parser.getColorSpace());
+        int bitsPerComponent = parser.getBitsPerComponent();
+        if (components == 0 || (bitsPerComponent != 1 && bitsPerComponent != 2 && bitsPerComponent != 4 && bitsPerComponent != 8
+                && bitsPerComponent != 16)) {
+            return null;
+        }
+        long rowSize = ((long) parser.getWidth() * components * bitsPerComponent + 7) / 8;
+        boolean filteredRows = parser.getPredictor() >= FIRST_PNG_PREDICTOR;
+        long size = (filteredRows ? rowSize + 1 : rowSize) * parser.getHeight();
+        if (size > Integer.MAX_VALUE - 8 || (parser.getPredictor() > 1 && !filteredRows)) {
+            return null;
+        }
+        byte[] raw;
+        if (parser.getFilter() == Compression.FLATE) {
+            raw = PNG.inflate(parser.getData(), (int) size);
+        } else if (parser.getFilter() == null) {
+            raw = parser.getData();
+        } else {
+            return null;
+        }
+        if (raw == null || raw.length < size) {
+            return null;
+        }
+        return readSamples(parser, raw, (int) rowSize, filteredRows, components);
+    }
+
+    private static Samples readSamples(ImageParser parser, byte[] raw, int rowSize, boolean filteredRows, int components) {
+        int width = parser.getWidth();
+        int bitsPerComponent = parser.getBitsPerComponent();
+        byte[] colorTable = parser.getColorSpace() == ColorSpace.INDEXED ? parser.getColorTable() : null;
+        if (parser.getColorSpace() == ColorSpace.INDEXED && colorTable == null) {
+            return null;
+        }
+        Samples samples = new Samples(width, parser.getHeight(), colorTable != null ? RGB_COMPONENTS : components);
+        int pixelSize = Math.max(1, components * bitsPerComponent / 8);
+        byte[] row = new byte[rowSize];
+        byte[] previousRow = new byte[rowSize];
+        int offset = 0;
+        int index = 0;
+        for (int y = 0; y < parser.getHeight(); ++y) {
+            if (filteredRows) {
+                int filterType = raw[offset++];
+                System.arraycopy(raw, offset, row, 0, rowSize);
+                if (!PNG.unfilter(filterType, row, previousRow, pixelSize)) {
+                    return null;
+                }
+            } else {
+                System.arraycopy(raw, offset, row, 0, rowSize);
+            }
+            offset += rowSize;
+            for (int sample = 0; sample < width * components; ++sample) {
+                int value = readSample(row, sample, bitsPerComponent);
+                if (colorTable != null) {
+                    for (int i = 0; i < RGB_COMPONENTS; ++i) {
+                        samples.values[index++] = value * 3 + i < colorTable.length ? colorTable[value * 3 + i] : 0;
+                    }
+                } else {
+                    samples.values[index++] = (byte) (bitsPerComponent < BITS_PER_SAMPLE ? value * MAX_SAMPLE_VALUE / ((1 << bitsPerComponent) - 1) : value);
+                }
+            }
+            byte[] swap = previousRow;
+            previousRow = row;
+            row = swap;
+        }
+        return samples;
+    }
+
+    /**
+     * Reads a sample from the given row. Samples of 16 bits are reduced to their most significant byte, smaller samples are returned as is.
+     * @param row The row containing the samples.
+     * @param index The index of the sample in the row.
+     * @param bitsPerComponent The size of the samples.
+     * @return the sample.
+     */
+    private static int readSample(byte[] row, int index, int bitsPerComponent) {
+        switch (bitsPerComponent) {
+        case BITS_PER_SAMPLE:
+            return row[index] & 0xFF;
+        case BITS_PER_SAMPLE * 2:
+            return row[index * 2] & 0xFF;
+        default:
+            int bitOffset = index * bitsPerComponent;
+            return (row[bitOffset / 8] >> (8 - bitsPerComponent - bitOffset % 8)) & ((1 << bitsPerComponent) - 1);
+        }
+    }
+
+    private static Samples decodeJpeg(byte[] jpeg, int subsampling) throws IOException {
+        BufferedImage image;
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(jpeg))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input);
+                ImageReadParam parameters = reader.getDefaultReadParam();
+                parameters.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                image = reader.read(0, parameters);
+            } finally {
+                reader.dispose();
+            }
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Raster raster = image.getRaster();
+        if (raster.getNumBands() == 1) {
+            Samples samples = new Samples(width, height, 1);
+            int[] row = new int[width];
+            for (int y = 0; y < height; ++y) {
+                raster.getSamples(0, y, width, 1, 0, row);
+                for (int x = 0; x < width; ++x) {
+                    samples.values[y * width + x] = (byte) row[x];
+                }
+            }
+            return samples;
+        }
+        Samples samples = new Samples(width, height, RGB_COMPONENTS);
+        byte[] pixels = raster.getDataBuffer() instanceof DataBufferByte ? ((DataBufferByte) raster.getDataBuffer()).getData() : null;
+        if (image.getType() == BufferedImage.TYPE_3BYTE_BGR && pixels != null && pixels.length == samples.values.length) {
+            //the pixels are read from the raster directly, since converting each pixel to an RGB value is slow
+            for (int i = 0; i < samples.values.length; i += RGB_COMPONENTS) {
+                samples.values[i] = pixels[i + 2];
+                samples.values[i + 1] = pixels[i + 1];
+                samples.values[i + 2] = pixels[i];
+            }
+            return samples;
+        }
+        int[] row = new int[width];
+        int index = 0;
+        for (int y = 0; y < height; ++y) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; ++x) {
+                samples.values[index++] = (byte) (row[x] >> 16);
+                samples.values[index++] = (byte) (row[x] >> 8);
+                samples.values[index++] = (byte) row[x];
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Encodes the given samples as a JPEG file.
+     * @param samples The samples to encode, containing gray or RGB colors.
+     * @return the JPEG file, or null if no JPEG writer is available.
+     * @throws IOException If the image could not be encoded.
+     */
+    private static byte[] encodeJpeg(Samples samples) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext() || (samples.components != 1 && samples.components != RGB_COMPONENTS)) {
+            return null;
+        }
+        BufferedImage image;
+        if (samples.components == 1) {
+            image = new BufferedImage(samples.width, samples.height, BufferedImage.TYPE_BYTE_GRAY);
+            image.getRaster().setDataElements(0, 0, samples.width, samples.height, samples.values);
+        } else {
+            image = new BufferedImage(samples.width, samples.height, BufferedImage.TYPE_INT_RGB);
+            int[] row = new int[samples.width];
+            for (int y = 0; y < samples.height; ++y) {
+                for (int x = 0; x < samples.width; ++x) {
+                    int index = (y * samples.width + x) * RGB_COMPONENTS;
+                    row[x] = ((samples.values[index] & 0xFF) << 16) | ((samples.values[index + 1] & 0xFF) << 8) | (samples.values[index + 2] & 0xFF);
+                }
+                image.setRGB(0, y, samples.width, 1, row, 0, samples.width);
+            }
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(jpeg)) {
+            ImageWriteParam parameters = writer.getDefaultWriteParam();
+            parameters.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parameters.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), parameters);
+        } finally {
+            writer.dispose();
+        }
+        return jpeg.toByteArray();
+    }
+
+    /**
+     * Compresses the given samples using the flate filter, each row is filtered using the Paeth predictor first.
+     * @param samples The samples to compress.
+     * @param softMask The soft mask of the image, or null if it has none.
+     * @return the compressed image.
+     */
+    private static ResampledImage encodeFlate(Samples samples, ResampledImage softMask) {
+        int rowSize = samples.width * samples.components;
+        ByteArrayOutputStream filtered = new ByteArrayOutputStream((rowSize + 1) * samples.height);
+        byte[] previousRow = new byte[rowSize];
+        byte[] row = new byte[rowSize];
+        for (int y = 0; y < samples.height; ++y) {
+            System.arraycopy(samples.values, y * rowSize, row, 0, rowSize);
+            PNG.writeFilteredRow(filtered, PNG.FILTER_PAETH, row, previousRow, samples.components);
+            byte[] swap = previousRow;
+            previousRow = row;
+            row = swap;
+        }
+        return new ResampledImage(Compressor.flateCompress(filtered.toByteArray()), samples, Compression.FLATE, PNG.PNG_PREDICTOR, softMask);
+    }
+
+    /**
+     * The samples of an image, each sample is stored in a single byte.
+     */
+    private static final class Samples {
+        private final int width;
+        private final int height;
+        private final int components;
+        private final byte[] values;
+
+        private Samples(int width, int height, int components) {
+            this.width = width;
+            this.height = height;
+            this.components = components;
+            this.values = new byte[width * height * components];
+        }
+
+        /**
+         * Creates the samples of the image with the given size. The horizontal and vertical direction are resampled separately.
+         * @param newWidth The new width.
+         * @param newHeight The new height.
+         * @return the resampled samples.
+         */
+        private Samples resample(int newWidth, int newHeight) {
+            Coverage columns = new Coverage(width, newWidth);
+            Coverage rows = new Coverage(height, newHeight);
+            float[] horizontal = new float[height * newWidth * components];
+            for (int y = 0; y < height; ++y) {
+                for (int x = 0; x < newWidth; ++x) {
+                    for (int c = 0; c < components; ++c) {
+                        float sum = 0;
+                        for (int i = 0; i < columns.weights[x].length; ++i) {
+                            sum += columns.weights[x][i] * (values[(y * width + columns.first[x] + i) * components + c] & 0xFF);
+                        }
+                        horizontal[(y * newWidth + x) * components + c] = sum;
+                    }
+                }
+            }
+            Samples resampled = new Samples(newWidth, newHeight, components);
+            for (int y = 0; y < newHeight; ++y) {
+                for (int x = 0; x < newWidth * components; ++x) {
+                    float sum = 0;
+                    for (int i = 0; i < rows.weights[y].length; ++i) {
+                        sum += rows.weights[y][i] * horizontal[(rows.first[y] + i) * newWidth * components + x];
+                    }
+                    resampled.values[y * newWidth * components + x] = (byte) Math.min(MAX_SAMPLE_VALUE, Math.max(0, Math.round(sum)));
+                }
+            }
+            return resampled;
+        }
+    }
+
+    /**
+     * Contains for each new pixel in one direction the first original pixel it covers, and how much of each covered pixel contributes to the new pixel.
+     */
+    private static final class Coverage {
+        private final int[] first;
+        private final float[][] weights;
+
+        private Coverage(int size, int newSize) {
+            first = new int[newSize];
+            weights = new float[newSize][];
+            double scale = (double) size / newSize;
+            for (int i = 0; i < newSize; ++i) {
+                double start = i * scale;
+                double end = Math.min(size, (i + 1) * scale);
+                first[i] = Math.min(size - 1, (int) start);
+                int last = Math.max(first[i] + 1, Math.min(size, (int) Math.ceil(end)));
+                weights[i] = new float[last - first[i]];
+                for (int j = first[i]; j < last; ++j) {
+                    weights[i][j - first[i]] = (float) ((Math.min(end, j + 1) - Math.max(start, j)) / (end - start));
+                }
+            }
+        }
+    }
+
+    /**
+     * An image created by resampling another image.
+     */
+    private static final class ResampledImage extends AbstractImageParser {
+        private final int predictor;
+        private final ImageParser softMask;
+
+        private ResampledImage(byte[] data, Samples samples, Compression filter, int predictor, ImageParser softMask) {
+            this.data = data;
+            this.width = samples.width;
+            this.height = samples.height;
+            this.bitsPerComponent = BITS_PER_SAMPLE;
+            this.filter = filter;
+            this.predictor = predictor;
+            this.softMask = softMask;
+            switch (samples.components) {
+            case 1:
+                this.colorSpace = ColorSpace.DEVICE_GRAY;
+                break;
+            case RGB_COMPONENTS:
+                this.colorSpace = ColorSpace.DEVICE_RGB;
+                break;
+            default:
+                this.colorSpace = ColorSpace.DEVICE_CMYK;
+                break;
+            }
+        }
+
+        @Override
+        public int getPredictor() {
+            return predictor;
+        }
+
+        @Override
+        public ImageParser getSoftMask() {
+            return softMask;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.toucanpdf.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+
+import org.toucanpdf.model.ImageSource;
+
+/**
+ * Creates image sources for the common locations of image files.
+ * @author Dylan de Wolff
+ * @see ImageSource
+ */
+public final class ImageSources {
+
+    private ImageSources() {
+    }
+
+    /**
+     * Creates a source that opens the file at the given path each time the image file is read.
+     * @param path Path of the image file.
+     * @return the image source.
+     */
+    public static ImageSource fromPath(Path path) {
+        return () -> Files.newInputStream(path);
+    }
+
+    /**
+     * Creates a source that retrieves a new stream from the given supplier each time the image file is read.
+     * @param supplier Supplier of streams containing the image file.
+     * @return the image source.
+     */
+    public static ImageSource fromSupplier(Supplier<InputStream> supplier) {
+        return () -> {
+            InputStream stream = supplier.get();
+            if (stream == null) {
+                throw new IOException("The image stream supplier did not provide a stream");
+            }
+            return stream;
+        };
+    }
+
+    /**
+     * Creates a source that maps the file at the given path into memory. The file is read by the operating system when needed,
+     * so it does not occupy heap memory while the document is being created.
+     * @param path Path of the image file.
+     * @return the image source.
+     * @throws IOException If the file could not be mapped.
+     */
+    public static ImageSource fromMappedFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return () -> new ByteBufferInputStream(buffer.duplicate());
+        }
+    }
+
+    /**
+     * InputStream reading the remaining bytes of a buffer.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int amount = Math.min(len, buffer.remaining());
+            buffer.get(b, off, amount);
+            return amount;
+        }
+
+        @Override
+        public long skip(long n) {
+            int amount = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + amount);
+            return amount;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -3,7 +3,10 @@ package org.toucanpdf.image;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -12,26 +15,31 @@ import javax.imageio.ImageIO;
 import org.toucanpdf.model.ColorSpace;
 import org.toucanpdf.model.Compression;
 import org.toucanpdf.model.ImageParser;
+import org.toucanpdf.model.ImageSource;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This is the default JPEG parsing implementation for the ImageParser interface.
- * This class uses the default Java classes to parse the image.
+ * The image properties are read from the frame header of the JPEG file and the original file is embedded unchanged, as PDF readers
+ * can decode JPEG data directly. Files with a frame header that cannot be embedded this way are decoded and encoded again
+ * using the default Java classes.
  * @author Dylan de Wolff
  * @see ImageParser
  */
-public class JPEG implements ImageParser {
-    private byte[] data;
-    private ColorSpace colorSpace;
-    private int bitsPerComponent;
-    private Compression filter;
-    private int width;
-    private int height;
-    private static final int GRAY_COMPONENT_AMOUNT = 1;
-    private static final int RGB_COMPONENT_AMOUNT = 3;
-    private static final int CMYK_COMPONENT_AMOUNT = 4;
+public class JPEG extends AbstractImageParser {
+    private static final int MARKER_PREFIX = 0xFF;
+    private static final int START_OF_IMAGE = 0xD8;
+    private static final int START_OF_SCAN = 0xDA;
+    private static final int END_OF_IMAGE = 0xD9;
+    private static final int BASELINE_FRAME = 0xC0;
+    private static final int EXTENDED_SEQUENTIAL_FRAME = 0xC1;
+    private static final int PROGRESSIVE_FRAME = 0xC2;
+    private static final int SUPPORTED_PRECISION = 8;
+    private static final int TEMPORARY_MARKER = 0x01;
+    private static final int FIRST_RESTART_MARKER = 0xD0;
+    private static final int LAST_RESTART_MARKER = 0xD7;
     private static final Logger LOGGER = LoggerFactory.getLogger(JPEG.class);
 
     /**
@@ -43,28 +51,140 @@ public class JPEG implements ImageParser {
     }
 
     /**
-     * Creates a BufferedImage from the given stream to retrieve the required image data.
+     * Creates a new instance of the JPEG parser that only reads the frame header of the file. The file is read from the source again
+     * when the image is written. Files with a frame header that can not be used are decoded immediately.
+     * @param source Source of the JPEG file.
+     */
+    public JPEG(ImageSource source) {
+        try {
+            boolean usable;
+            try (InputStream stream = source.openStream()) {
+                usable = parseFrameHeader(stream);
+            }
+            if (usable) {
+                this.source = source;
+            } else {
+                decode(readFully(source.openStream()));
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Exception occurred during parsing of image stream");
+        }
+    }
+
+    /**
+     * Reads the given stream and retrieves the image properties from the frame header. If the frame header can not be used
+     * the image is decoded instead.
      * @param stream Stream to read from.
      */
     private void parseStream(InputStream stream) {
         try {
-            BufferedImage image = ImageIO.read(stream);
-            image = convertImage(image);
-            if (image != null) {
-                loadImageData(image);
+            byte[] original = readFully(stream);
+            if (parseFrameHeader(new ByteArrayInputStream(original))) {
+                this.data = original;
+            } else {
+                decode(original);
             }
-            filter = Compression.DCT;
-            stream.close();
         } catch (IOException e) {
-            if (stream != null) {
-                try {
-                    stream.close();
-                } catch (IOException e1) {
-                    LOGGER.warn("Exception occurred on closing the image stream");
+            LOGGER.warn("Exception occurred during parsing of image stream");
+        }
+    }
+
+    /**
+     * Walks through the markers of the given JPEG file until the frame header is found and retrieves the image properties from it.
+     * Only 8 bit baseline, extended sequential and progressive Huffman coded images with gray or RGB components are accepted,
+     * these can be decoded by every PDF reader without additional information.
+     * @param stream Stream containing the JPEG file, only the part up to the frame header is read.
+     * @return true if the file can be embedded unchanged, false otherwise.
+     * @throws IOException If reading from the stream failed.
+     */
+    private boolean parseFrameHeader(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        try {
+            if (in.readUnsignedByte() != MARKER_PREFIX || in.readUnsignedByte() != START_OF_IMAGE) {
+                return false;
+            }
+            while (true) {
+                if (in.readUnsignedByte() != MARKER_PREFIX) {
+                    return false;
+                }
+                int marker = in.readUnsignedByte();
+                //fill bytes may precede a marker
+                while (marker == MARKER_PREFIX) {
+                    marker = in.readUnsignedByte();
+                }
+                if (marker == START_OF_SCAN || marker == END_OF_IMAGE) {
+                    return false;
+                }
+                if (!isStandaloneMarker(marker)) {
+                    int length = in.readUnsignedShort() - 2;
+                    if (isFrameMarker(marker)) {
+                        return marker <= PROGRESSIVE_FRAME && loadFrameHeader(in, length);
+                    }
+                    if (length < 0) {
+                        return false;
+                    }
+                    skipFully(in, length);
                 }
             }
-            LOGGER.warn("Exception occurred during parsing of image stream");
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private static boolean isStandaloneMarker(int marker) {
+        return marker == TEMPORARY_MARKER || (marker >= FIRST_RESTART_MARKER && marker <= LAST_RESTART_MARKER);
+    }
+
+    private static boolean isFrameMarker(int marker) {
+        //0xC4, 0xC8 and 0xCC share the range of the frame markers but define tables and extensions
+        return marker >= BASELINE_FRAME && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+    }
+
+    /**
+     * Retrieves the image properties from the contents of a frame header.
+     * @param in Stream positioned at the contents of the frame header.
+     * @param length Length of the frame header contents.
+     * @return true if the properties describe an image that can be embedded unchanged, false otherwise.
+     * @throws IOException If reading from the stream failed.
+     */
+    private boolean loadFrameHeader(DataInputStream in, int length) throws IOException {
+        if (length < 6) {
+            return false;
+        }
+        int precision = in.readUnsignedByte();
+        int frameHeight = in.readUnsignedShort();
+        int frameWidth = in.readUnsignedShort();
+        int components = in.readUnsignedByte();
+        //a height of zero means the height is defined after the first scan, which we do not look for
+        if (precision != SUPPORTED_PRECISION || frameHeight == 0 || frameWidth == 0) {
+            return false;
+        }
+        if (components == RGB_COMPONENT_AMOUNT) {
+            colorSpace = ColorSpace.DEVICE_RGB;
+        } else if (components == GRAY_COMPONENT_AMOUNT) {
+            colorSpace = ColorSpace.DEVICE_GRAY;
+        } else {
+            return false;
         }
+        this.bitsPerComponent = precision;
+        this.height = frameHeight;
+        this.width = frameWidth;
+        this.filter = Compression.DCT;
+        return true;
+    }
+
+    /**
+     * Creates a BufferedImage from the given JPEG file to retrieve the required image data.
+     * @param original The JPEG file.
+     * @throws IOException If the file could not be decoded.
+     */
+    private void decode(byte[] original) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(original));
+        image = convertImage(image);
+        if (image != null) {
+            loadImageData(image);
+        }
+        filter = Compression.DCT;
     }
 
     private void loadImageData(BufferedImage image) {
@@ -155,50 +275,4 @@ public class JPEG implements ImageParser {
         g2d.dispose();
         return newImage;
     }
-
-    @Override
-    public byte[] getData() {
-        return this.data.clone();
-    }
-
-    @Override
-    public ColorSpace getColorSpace() {
-        return this.colorSpace;
-    }
-
-    @Override
-    public int getBitsPerComponent() {
-        return this.bitsPerComponent;
-    }
-
-    @Override
-    public Compression getFilter() {
-        return this.filter;
-    }
-
-    @Override
-    public int getWidth() {
-        return this.width;
-    }
-
-    @Override
-    public int getHeight() {
-        return this.height;
-    }
-
-    @Override
-    public int getRequiredComponentsForColorSpace(ColorSpace color) {
-        switch (color) {
-        case DEVICE_GRAY:
-        case CAL_GRAY:
-            return GRAY_COMPONENT_AMOUNT;
-        case DEVICE_RGB:
-        case CAL_RGB:
-            return RGB_COMPONENT_AMOUNT;
-        case DEVICE_CMYK:
-            return CMYK_COMPONENT_AMOUNT;
-        default:
-            return 0;
-        }
-    }
 }
@@ -0,0 +1,552 @@
+package org.toucanpdf.image;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import javax.imageio.ImageIO;
+
+import org.toucanpdf.model.ColorSpace;
+import org.toucanpdf.model.Compression;
+import org.toucanpdf.model.ImageParser;
+import org.toucanpdf.model.ImageSource;
+import org.toucanpdf.utility.Compressor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This is the default PNG parsing implementation for the ImageParser interface.
+ * The compressed image data of PNG files is already in the format expected by the flate filter with PNG predictors, so the data of
+ * opaque images is embedded without decompressing it. The color and alpha channels of images with an alpha channel are separated,
+ * the alpha channel is embedded as a soft mask. Interlaced images and images with a transparent color are decoded using the default Java classes.
+ * Opaque images created from an image source are read from the source again when they are written, only the chunks in front of the image data
+ * are read when the parser is created.
+ * @author Dylan de Wolff
+ * @see ImageParser
+ */
+public class PNG extends AbstractImageParser {
+    private static final byte[] SIGNATURE = { (byte) 137, 'P', 'N', 'G', '\r', '\n', 26, '\n' };
+    private static final int CHUNK_HEADER_SIZE = 8;
+    private static final int CHUNK_CRC_SIZE = 4;
+    private static final int HEADER_SIZE = 13;
+    private static final int GRAY = 0;
+    private static final int RGB = 2;
+    private static final int INDEXED = 3;
+    private static final int GRAY_ALPHA = 4;
+    private static final int RGB_ALPHA = 6;
+    private static final int MAX_COLOR_TABLE_SIZE = 256 * 3;
+    private static final int IMAGE_DATA_CHUNK = 0x49444154;
+    private static final int END_CHUNK = 0x49454E44;
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * Predictor value indicating that each row specifies its own PNG filter type, which is how the data of PNG files is stored.
+     */
+    static final int PNG_PREDICTOR = 15;
+    private static final int FILTER_NONE = 0;
+    private static final int FILTER_SUB = 1;
+    private static final int FILTER_UP = 2;
+    private static final int FILTER_AVERAGE = 3;
+    static final int FILTER_PAETH = 4;
+    private static final Logger LOGGER = LoggerFactory.getLogger(PNG.class);
+    private int predictor = 1;
+    private byte[] colorTable;
+    private ImageParser softMask;
+
+    /**
+     * Creates a new instance of the PNG parser.
+     * @param stream Stream to parse.
+     */
+    public PNG(InputStream stream) {
+        parseStream(stream);
+    }
+
+    /**
+     * Creates a new instance of the PNG parser that only reads the chunks in front of the image data. The image data is read from the source
+     * again when the image is written. Images that can not be embedded without decompressing their data are parsed immediately.
+     * @param source Source of the PNG file.
+     */
+    public PNG(ImageSource source) {
+        try {
+            boolean usable;
+            try (InputStream stream = source.openStream()) {
+                usable = parseChunks(stream, false);
+            }
+            if (usable) {
+                this.source = source;
+            } else {
+                parseStream(source.openStream());
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Exception occurred during parsing of image stream");
+        }
+    }
+
+    /**
+     * Reads the given stream and retrieves the image properties and data from the chunks of the file. If the data can not be used
+     * directly the image is decoded instead.
+     * @param stream Stream to read from.
+     */
+    private void parseStream(InputStream stream) {
+        try {
+            byte[] original = readFully(stream);
+            if (!parseChunks(new ByteArrayInputStream(original), true)) {
+                decode(original);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Exception occurred during parsing of image stream");
+        }
+    }
+
+    /**
+     * Walks through the chunks of the given PNG file and collects the header, color table and image data.
+     * @param stream Stream containing the PNG file.
+     * @param readImageData true to read the image data, false to stop at the start of the image data.
+     * @return true if the image could be parsed, false if the image has to be decoded or its data has to be decompressed.
+     * @throws IOException If reading from the stream failed.
+     */
+    private boolean parseChunks(InputStream stream, boolean readImageData) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        ByteArrayOutputStream imageData = new ByteArrayOutputStream();
+        byte[] palette = null;
+        int colorType = -1;
+        int interlace = 0;
+        boolean transparency = false;
+        boolean ended = false;
+        try {
+            byte[] signature = new byte[SIGNATURE.length];
+            in.readFully(signature);
+            if (!Arrays.equals(SIGNATURE, signature)) {
+                return false;
+            }
+            while (!ended) {
+                int length = in.readInt();
+                byte[] type = new byte[4];
+                in.readFully(type);
+                if (length < 0) {
+                    return false;
+                }
+                switch (new String(type, StandardCharsets.US_ASCII)) {
+                case "IHDR":
+                    byte[] header = readChunkData(in, length);
+                    if (length < HEADER_SIZE || header[10] != 0 || header[11] != 0) {
+                        return false;
+                    }
+                    width = readInt(header, 0);
+                    height = readInt(header, 4);
+                    bitsPerComponent = header[8];
+                    colorType = header[9];
+                    interlace = header[12];
+                    break;
+                case "PLTE":
+                    palette = Arrays.copyOf(readChunkData(in, length), Math.min(length - (length % 3), MAX_COLOR_TABLE_SIZE));
+                    break;
+                case "tRNS":
+                    transparency = true;
+                    skipFully(in, length);
+                    break;
+                case "IDAT":
+                    if (!readImageData) {
+                        //the chunks in front of the image data contain everything needed, unless the data has to be decompressed
+                        if (requiresDecompression(colorType)) {
+                            return false;
+                        }
+                        ended = true;
+                    } else {
+                        imageData.write(readChunkData(in, length));
+                    }
+                    break;
+                case "IEND":
+                    ended = true;
+                    break;
+                default:
+                    skipFully(in, length);
+                    break;
+                }
+                if (!ended) {
+                    skipFully(in, CHUNK_CRC_SIZE);
+                }
+            }
+        } catch (EOFException e) {
+            if (!ended) {
+                return false;
+            }
+        }
+        if (width <= 0 || height <= 0 || interlace != 0 || transparency) {
+            return false;
+        }
+        if (!readImageData) {
+            filter = Compression.FLATE;
+            predictor = PNG_PREDICTOR;
+            return loadImageProperties(colorType, palette);
+        }
+        return imageData.size() > 0 && loadImageProperties(colorType, palette) && loadImageData(imageData.toByteArray(), colorType);
+    }
+
+    private static byte[] readChunkData(DataInputStream in, int length) throws IOException {
+        byte[] chunkData = new byte[length];
+        in.readFully(chunkData);
+        return chunkData;
+    }
+
+    private static boolean requiresDecompression(int colorType) {
+        return colorType == GRAY_ALPHA || colorType == RGB_ALPHA;
+    }
+
+    /**
+     * Sets the color space and color table based on the color type of the image and checks whether the bit depth is valid for the color type.
+     * @param colorType The PNG color type.
+     * @param palette The color table of the file, or null if the file has none.
+     * @return true if the image can be embedded, false if the image has to be decoded.
+     */
+    private boolean loadImageProperties(int colorType, byte[] palette) {
+        switch (colorType) {
+        case GRAY:
+            colorSpace = ColorSpace.DEVICE_GRAY;
+            return isValidBitDepth(1, 2, 4, 8, 16);
+        case RGB:
+            colorSpace = ColorSpace.DEVICE_RGB;
+            return isValidBitDepth(8, 16);
+        case INDEXED:
+            colorSpace = ColorSpace.INDEXED;
+            colorTable = palette;
+            return palette != null && palette.length > 0 && isValidBitDepth(1, 2, 4, 8);
+        case GRAY_ALPHA:
+            colorSpace = ColorSpace.DEVICE_GRAY;
+            return isValidBitDepth(8, 16);
+        case RGB_ALPHA:
+            colorSpace = ColorSpace.DEVICE_RGB;
+            return isValidBitDepth(8, 16);
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Sets the image data, the compressed data is used directly for opaque images.
+     * @param compressed The compressed image data of the file.
+     * @param colorType The PNG color type.
+     * @return true if the image data could be used, false if the image has to be decoded.
+     */
+    private boolean loadImageData(byte[] compressed, int colorType) {
+        if (colorType == GRAY_ALPHA) {
+            return splitAlpha(compressed, GRAY_COMPONENT_AMOUNT);
+        } else if (colorType == RGB_ALPHA) {
+            return splitAlpha(compressed, RGB_COMPONENT_AMOUNT);
+        }
+        useCompressedData(compressed);
+        return true;
+    }
+
+    private boolean isValidBitDepth(int... bitDepths) {
+        for (int bitDepth : bitDepths) {
+            if (bitsPerComponent == bitDepth) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void useCompressedData(byte[] compressed) {
+        data = compressed;
+        filter = Compression.FLATE;
+        predictor = PNG_PREDICTOR;
+    }
+
+    /**
+     * Decompresses the image data and separates the color channels from the alpha channel. Both are filtered again using the filter type of
+     * the original row, so the predictors keep compressing the data as well as in the original file.
+     * @param compressed The compressed image data of the file.
+     * @param colorComponents The amount of color components of each pixel.
+     * @return true if the image data could be used, false if the image has to be decoded.
+     */
+    private boolean splitAlpha(byte[] compressed, int colorComponents) {
+        int sampleSize = bitsPerComponent / 8;
+        int pixelSize = (colorComponents + 1) * sampleSize;
+        long rowSize = (long) width * pixelSize;
+        if ((rowSize + 1) * height > Integer.MAX_VALUE - 8) {
+            return false;
+        }
+        byte[] raw = inflate(compressed, (int) ((rowSize + 1) * height));
+        if (raw == null) {
+            return false;
+        }
+        int colorRowSize = width * colorComponents * sampleSize;
+        int alphaRowSize = width * sampleSize;
+        ByteArrayOutputStream color = new ByteArrayOutputStream((colorRowSize + 1) * height);
+        ByteArrayOutputStream alpha = new ByteArrayOutputStream((alphaRowSize + 1) * height);
+        byte[] previousRow = new byte[(int) rowSize];
+        byte[] row = new byte[(int) rowSize];
+        byte[] previousColorRow = new byte[colorRowSize];
+        byte[] colorRow = new byte[colorRowSize];
+        byte[] previousAlphaRow = new byte[alphaRowSize];
+        byte[] alphaRow = new byte[alphaRowSize];
+        boolean opaque = true;
+        for (int y = 0; y < height; ++y) {
+            int rowStart = y * ((int) rowSize + 1);
+            int filterType = raw[rowStart];
+            System.arraycopy(raw, rowStart + 1, row, 0, row.length);
+            if (!unfilter(filterType, row, previousRow, pixelSize)) {
+                return false;
+            }
+            for (int x = 0; x < width; ++x) {
+                System.arraycopy(row, x * pixelSize, colorRow, x * (pixelSize - sampleSize), pixelSize - sampleSize);
+                for (int i = 0; i < sampleSize; ++i) {
+                    byte value = row[(x + 1) * pixelSize - sampleSize + i];
+                    alphaRow[x * sampleSize + i] = value;
+                    opaque &= value == (byte) 0xFF;
+                }
+            }
+            writeFilteredRow(color, filterType, colorRow, previousColorRow, pixelSize - sampleSize);
+            writeFilteredRow(alpha, filterType, alphaRow, previousAlphaRow, sampleSize);
+            byte[] swap = previousRow;
+            previousRow = row;
+            row = swap;
+            swap = previousColorRow;
+            previousColorRow = colorRow;
+            colorRow = swap;
+            swap = previousAlphaRow;
+            previousAlphaRow = alphaRow;
+            alphaRow = swap;
+        }
+        data = Compressor.flateCompress(color.toByteArray());
+        filter = Compression.FLATE;
+        predictor = PNG_PREDICTOR;
+        if (!opaque) {
+            softMask = new SoftMask(Compressor.flateCompress(alpha.toByteArray()), width, height, bitsPerComponent, PNG_PREDICTOR);
+        }
+        return true;
+    }
+
+    /**
+     * Decompresses the given flate compressed data.
+     * @param compressed The compressed data.
+     * @param size The expected size of the decompressed data.
+     * @return the decompressed data, or null if the data is corrupt or shorter than expected.
+     */
+    static byte[] inflate(byte[] compressed, int size) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[size];
+            int offset = 0;
+            while (offset < size && !inflater.finished()) {
+                int read = inflater.inflate(raw, offset, size - offset);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += read;
+            }
+            return offset == size ? raw : null;
+        } catch (DataFormatException e) {
+            LOGGER.warn("The image data of the PNG image is corrupt");
+            return null;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Reverses the PNG filter applied to a row.
+     * @param filterType The filter type of the row.
+     * @param row The filtered row, which is replaced by the original row.
+     * @param previousRow The original previous row, all zeroes for the first row.
+     * @param pixelSize The amount of bytes per pixel.
+     * @return true if the filter type is valid, false otherwise.
+     */
+    static boolean unfilter(int filterType, byte[] row, byte[] previousRow, int pixelSize) {
+        for (int i = 0; i < row.length; ++i) {
+            int left = i >= pixelSize ? row[i - pixelSize] & 0xFF : 0;
+            int up = previousRow[i] & 0xFF;
+            int upperLeft = i >= pixelSize ? previousRow[i - pixelSize] & 0xFF : 0;
+            switch (filterType) {
+            case FILTER_NONE:
+                return true;
+            case FILTER_SUB:
+                row[i] += left;
+                break;
+            case FILTER_UP:
+                row[i] += up;
+                break;
+            case FILTER_AVERAGE:
+                row[i] += (left + up) / 2;
+                break;
+            case FILTER_PAETH:
+                row[i] += paeth(left, up, upperLeft);
+                break;
+            default:
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies the given PNG filter to a row and writes the filter type followed by the filtered row.
+     * @param output Stream to write to.
+     * @param filterType The filter type to apply.
+     * @param row The row to filter.
+     * @param previousRow The previous row, all zeroes for the first row.
+     * @param pixelSize The amount of bytes per pixel.
+     */
+    static void writeFilteredRow(ByteArrayOutputStream output, int filterType, byte[] row, byte[] previousRow, int pixelSize) {
+        output.write(filterType);
+        for (int i = 0; i < row.length; ++i) {
+            int left = i >= pixelSize ? row[i - pixelSize] & 0xFF : 0;
+            int up = previousRow[i] & 0xFF;
+            int upperLeft = i >= pixelSize ? previousRow[i - pixelSize] & 0xFF : 0;
+            switch (filterType) {
+            case FILTER_SUB:
+                output.write(row[i] - left);
+                break;
+            case FILTER_UP:
+                output.write(row[i] - up);
+                break;
+            case FILTER_AVERAGE:
+                output.write(row[i] - ((left + up) / 2));
+                break;
+            case FILTER_PAETH:
+                output.write(row[i] - paeth(left, up, upperLeft));
+                break;
+            default:
+                output.write(row[i]);
+                break;
+            }
+        }
+    }
+
+    private static int paeth(int left, int up, int upperLeft) {
+        int estimate = left + up - upperLeft;
+        int leftDistance = Math.abs(estimate - left);
+        int upDistance = Math.abs(estimate - up);
+        int upperLeftDistance = Math.abs(estimate - upperLeft);
+        if (leftDistance <= upDistance && leftDistance <= upperLeftDistance) {
+            return left;
+        } else if (upDistance <= upperLeftDistance) {
+            return up;
+        }
+        return upperLeft;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    /**
+     * Creates a BufferedImage from the given PNG file and embeds it as an RGB image, the alpha channel is embedded as a soft mask
+     * if the image is not opaque.
+     * @param original The PNG file.
+     * @throws IOException If the file could not be decoded.
+     */
+    private void decode(byte[] original) throws IOException {
+        width = 0;
+        height = 0;
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(original));
+        if (image == null) {
+            LOGGER.warn("The given PNG image could not be decoded");
+            return;
+        }
+        width = image.getWidth();
+        height = image.getHeight();
+        byte[] color = new byte[width * height * RGB_COMPONENT_AMOUNT];
+        byte[] alpha = new byte[width * height];
+        boolean opaque = true;
+        int[] pixels = new int[width];
+        for (int y = 0; y < height; ++y) {
+            image.getRGB(0, y, width, 1, pixels, 0, width);
+            for (int x = 0; x < width; ++x) {
+                int pixel = y * width + x;
+                color[pixel * RGB_COMPONENT_AMOUNT] = (byte) (pixels[x] >> 16);
+                color[pixel * RGB_COMPONENT_AMOUNT + 1] = (byte) (pixels[x] >> 8);
+                color[pixel * RGB_COMPONENT_AMOUNT + 2] = (byte) pixels[x];
+                alpha[pixel] = (byte) (pixels[x] >>> 24);
+                opaque &= alpha[pixel] == (byte) 0xFF;
+            }
+        }
+        colorSpace = ColorSpace.DEVICE_RGB;
+        colorTable = null;
+        bitsPerComponent = 8;
+        predictor = 1;
+        data = Compressor.flateCompress(color);
+        filter = Compression.FLATE;
+        if (!opaque) {
+            softMask = new SoftMask(Compressor.flateCompress(alpha), width, height, bitsPerComponent, predictor);
+        }
+    }
+
+    /**
+     * Writes the contents of the image data chunks of the file, which form the compressed image data.
+     */
+    @Override
+    protected void writeSourceData(InputStream file, OutputStream os) throws IOException {
+        DataInputStream in = new DataInputStream(file);
+        skipFully(in, SIGNATURE.length);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (true) {
+            int length = in.readInt();
+            int type = in.readInt();
+            if (type == IMAGE_DATA_CHUNK) {
+                int remaining = length;
+                while (remaining > 0) {
+                    int read = in.read(buffer, 0, Math.min(buffer.length, remaining));
+                    if (read == -1) {
+                        throw new EOFException();
+                    }
+                    os.write(buffer, 0, read);
+                    remaining -= read;
+                }
+            } else if (type == END_CHUNK) {
+                return;
+            } else {
+                skipFully(in, length);
+            }
+            skipFully(in, CHUNK_CRC_SIZE);
+        }
+    }
+
+    @Override
+    public int getPredictor() {
+        return predictor;
+    }
+
+    @Override
+    public byte[] getColorTable() {
+        return colorTable != null ? colorTable.clone() : null;
+    }
+
+    @Override
+    public ImageParser getSoftMask() {
+        return softMask;
+    }
+
+    /**
+     * The alpha channel of a PNG image, embedded as a grayscale image.
+     */
+    private static final class SoftMask extends AbstractImageParser {
+        private final int predictor;
+
+        private SoftMask(byte[] data, int width, int height, int bitsPerComponent, int predictor) {
+            this.data = data;
+            this.width = width;
+            this.height = height;
+            this.bitsPerComponent = bitsPerComponent;
+            this.predictor = predictor;
+            this.colorSpace = ColorSpace.DEVICE_GRAY;
+            this.filter = Compression.FLATE;
+        }
+
+        @Override
+        public int getPredictor() {
+            return predictor;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.toucanpdf.model;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Specifies the flate compression level and strategy used for each type of stream. 
+ * The levels and strategies are the ones defined by {@link Deflater}.
+ * @author Dylan de Wolff
+ */
+public class CompressionPolicy {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompressionPolicy.class);
+    private Map<StreamType, Integer> levels;
+    private Map<StreamType, Integer> strategies;
+
+    /**
+     * Creates a new instance of CompressionPolicy that uses the default level and strategy for each type of stream.
+     */
+    public CompressionPolicy() {
+        levels = new EnumMap<>(StreamType.class);
+        strategies = new EnumMap<>(StreamType.class);
+        for (StreamType type : StreamType.values()) {
+            levels.put(type, Deflater.DEFAULT_COMPRESSION);
+            strategies.put(type, Deflater.DEFAULT_STRATEGY);
+        }
+    }
+
+    /**
+     * Creates a policy that favors writing speed. Page content is compressed using the fastest level, 
+     * while font programs are compressed as well as possible. Images are usually compressed already and 
+     * only receive Huffman coding, which is cheap.
+     * @return the new policy.
+     */
+    public static CompressionPolicy createBalanced() {
+        return new CompressionPolicy()
+                .setLevel(StreamType.CONTENT, Deflater.BEST_SPEED)
+                .setLevel(StreamType.FONT_PROGRAM, Deflater.BEST_COMPRESSION)
+                .setStrategy(StreamType.IMAGE, Deflater.HUFFMAN_ONLY);
+    }
+
+    /**
+     * Creates a policy that uses the fastest compression for each type of stream.
+     * @return the new policy.
+     */
+    public static CompressionPolicy createFastest() {
+        CompressionPolicy policy = new CompressionPolicy();
+        for (StreamType type : StreamType.values()) {
+            policy.setLevel(type, Deflater.BEST_SPEED);
+        }
+        return policy.setStrategy(StreamType.IMAGE, Deflater.HUFFMAN_ONLY);
+    }
+
+    /**
+     * Creates a policy that uses the best compression for each type of stream, resulting in the smallest files.
+     * @return the new policy.
+     */
+    public static CompressionPolicy createSmallest() {
+        CompressionPolicy policy = new CompressionPolicy();
+        for (StreamType type : StreamType.values()) {
+            policy.setLevel(type, Deflater.BEST_COMPRESSION);
+        }
+        return policy;
+    }
+
+    public int getLevel(StreamType type) {
+        return levels.get(type);
+    }
+
+    /**
+     * Sets the compression level for the given type of stream.
+     * @param type Type of stream.
+     * @param level Compression level, ranging from {@link Deflater#NO_COMPRESSION} to {@link Deflater#BEST_COMPRESSION}, 
+     * or {@link Deflater#DEFAULT_COMPRESSION}. Invalid levels are ignored.
+     * @return the policy.
+     */
+    public CompressionPolicy setLevel(StreamType type, int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            LOGGER.warn("The given compression level: " + level + " is invalid and will be ignored.");
+        } else {
+            levels.put(type, level);
+        }
+        return this;
+    }
+
+    public int getStrategy(StreamType type) {
+        return strategies.get(type);
+    }
+
+    /**
+     * Sets the compression strategy for the given type of stream.
+     * @param type Type of stream.
+     * @param strategy One of {@link Deflater#DEFAULT_STRATEGY}, {@link Deflater#FILTERED} or {@link Deflater#HUFFMAN_ONLY}. 
+     * Invalid strategies are ignored.
+     * @return the policy.
+     */
+    public CompressionPolicy setStrategy(StreamType type, int strategy) {
+        if (strategy != Deflater.DEFAULT_STRATEGY && strategy != Deflater.FILTERED && strategy != Deflater.HUFFMAN_ONLY) {
+            LOGGER.warn("The given compression strategy: " + strategy + " is invalid and will be ignored.");
+        } else {
+            strategies.put(type, strategy);
+        }
+        return this;
+    }
+}
@@ -3,6 +3,8 @@ package org.toucanpdf.model;
 import java.io.FileNotFoundException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.toucanpdf.api.BaseFont;
 import org.toucanpdf.font.Type1FontMetrics;
@@ -38,7 +40,11 @@ public class FontFamily {
     private String boldName;
     private String italicName;
     private String boldItalicName;
-    private Map<String, FontMetrics> metrics;
+    /**
+     * Contains the metrics for each font name that has been used so far. The metrics are loaded on first use, 
+     * an empty value means the metrics could not be loaded.
+     */
+    private Map<String, Optional<FontMetrics>> metrics;
 
     /**
      * Creates a new instance of FontFamily. If you use this constructor it is assumed that this FontFamily 
@@ -64,42 +70,34 @@ public class FontFamily {
         this.boldName = boldName;
         this.italicName = italicName;
         this.boldItalicName = boldItalicName;
-        metrics = new HashMap<>();
-        this.fillAllMetrics();
-    }
-
-    /**
-     * Calls fillMetrics for all the different styles.
-     */
-    private void fillAllMetrics() {
-        fillMetrics(name);
-        if (!boldName.equals(name)) fillMetrics(boldName);
-        if (!italicName.equals(name)) fillMetrics(italicName);
-        if (!boldItalicName.equals(name)) fillMetrics(boldItalicName);
+        metrics = new ConcurrentHashMap<>();
     }
 
     /**
-     * Creates FontMetrics for the given filename and adds it to the metrics map.
+     * Creates FontMetrics for the given filename.
      * @param filename Name of the file.
+     * @return the metrics, or null if no metrics could be created.
      * @see FontMetrics
      */
-    private void fillMetrics(String filename) {
+    private FontMetrics loadMetrics(String filename) {
         try {
             if (subType == FontType.TYPE1) {
-                metrics.put(filename, new Type1FontMetrics(filename));
+                return new Type1FontMetrics(filename);
             }
         } catch (FileNotFoundException e) {
             LOGGER.error(e.toString());
         }
+        return null;
     }
 
     /**
-     * Returns the metrics of this font for the given style.
+     * Returns the metrics of this font for the given style. The metrics are parsed the first time a style is requested, 
+     * this is safe to do from multiple threads.
      * @param style Style of font.
      * @return Metrics of this font for the given style.
      */
     public FontMetrics getMetricsForStyle(FontStyle style) {
-        return this.metrics.get(this.getNameOfStyle(style));
+        return this.metrics.computeIfAbsent(this.getNameOfStyle(style), fontName -> Optional.ofNullable(loadMetrics(fontName))).orElse(null);
     }
 
     /**
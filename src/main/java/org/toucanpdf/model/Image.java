@@ -137,4 +137,18 @@ public interface Image extends PlaceableFixedSizeDocumentPart {
      * @return true if the colors are to be inverted, false otherwise.
      */
     boolean getInvertColors();
+
+    /**
+     * Sets the maximum resolution the image is embedded with. Images with a higher resolution at the size they are drawn with are resampled
+     * when the document is written, which reduces the size of the document. This overrides the maximum image resolution of the document.
+     * @param dpi The maximum amount of pixels per inch, 0 to use the maximum image resolution of the document.
+     * @return This image instance.
+     */
+    Image maximumResolution(double dpi);
+
+    /**
+     * Returns the maximum resolution the image is embedded with.
+     * @return The maximum amount of pixels per inch, 0 if the maximum image resolution of the document is used.
+     */
+    double getMaximumResolution();
 }
@@ -1,5 +1,8 @@
 package org.toucanpdf.model;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 import org.toucanpdf.pdf.syntax.PdfImageDictionary;
 
 /**
@@ -16,6 +19,26 @@ public interface ImageParser {
      */
     byte[] getData();
 
+    /**
+     * Writes the data for this image to the given stream, without copying it first.
+     * @param os Stream to write to.
+     * @throws IOException If the data could not be read from the image source or could not be written.
+     */
+    void writeData(OutputStream os) throws IOException;
+
+    /**
+     * Returns whether the data for this image is read from the image source each time it is needed, instead of being kept in memory.
+     * @return true if the data is read from the image source, false otherwise.
+     */
+    boolean isDeferred();
+
+    /**
+     * Returns the digest of the image file this parser was created from, which identifies images with the same content.
+     * @return The digest, or null if the parser was not created through the image cache.
+     * @see org.toucanpdf.image.ImageCache
+     */
+    String getDigest();
+
     /**
      * Returns the color space for this image.
      * @return The color space used for this image.
@@ -34,6 +57,24 @@ public interface ImageParser {
      */
     Compression getFilter();
 
+    /**
+     * Returns the PNG predictor applied to the rows of the data before it was compressed, as specified for the decode parameters of the flate filter.
+     * @return The predictor, 1 if no predictor was applied.
+     */
+    int getPredictor();
+
+    /**
+     * Returns the color table of an image using the indexed color space. The table contains three RGB bytes for each color.
+     * @return The color table, or null if the image does not use the indexed color space.
+     */
+    byte[] getColorTable();
+
+    /**
+     * Returns the alpha channel of the image as a separate grayscale image.
+     * @return Parser for the alpha channel, or null if the image has no alpha channel.
+     */
+    ImageParser getSoftMask();
+
     /**
      * Returns the original width of the image.
      * @return The original width.
@@ -0,0 +1,21 @@
+package org.toucanpdf.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Source of an encoded image file. Images created from a source only read the header of the file when they are created,
+ * the image data itself is read from the source again while the document is written. The source should therefore keep
+ * providing the same file until the document has been written.
+ * @author Dylan de Wolff
+ * @see ImageParser
+ */
+public interface ImageSource {
+
+    /**
+     * Opens a new stream containing the image file, starting at the first byte of the file.
+     * @return stream containing the image file, the caller is responsible for closing it.
+     * @throws IOException If the source could not be opened.
+     */
+    InputStream openStream() throws IOException;
+}
@@ -92,7 +92,17 @@ public enum PdfNameValue {
     DEVICE_N("DeviceN"),
     DIFFERENCES("Differences"),
     DECODE("Decode"),
-    ROTATION("Rotate");
+    DECODE_PARAMETERS("DecodeParms"),
+    PREDICTOR("Predictor"),
+    COLORS("Colors"),
+    COLUMNS("Columns"),
+    SOFT_MASK("SMask"),
+    ROTATION("Rotate"),
+    OBJECT_STREAM("ObjStm"),
+    OBJECT_AMOUNT("N"),
+    FIRST("First"),
+    CROSS_REFERENCE_STREAM("XRef"),
+    FIELD_WIDTHS("W");
 
     private String string;
 
@@ -0,0 +1,14 @@
+package org.toucanpdf.model;
+
+/**
+ * Specifies the different kinds of streams written to a PDF file. This is used to choose the compression settings per kind of stream.
+ * @author Dylan de Wolff
+ * @see CompressionPolicy
+ */
+public enum StreamType {
+    CONTENT,
+    FONT_PROGRAM,
+    IMAGE,
+    OBJECT_STREAM,
+    CROSS_REFERENCE_STREAM
+}
@@ -1,5 +1,6 @@
 package org.toucanpdf.model;
 
+import java.util.Iterator;
 import java.util.List;
 
 public interface Table extends PlaceableFixedSizeDocumentPart {
@@ -222,4 +223,70 @@ public interface Table extends PlaceableFixedSizeDocumentPart {
      */
     Table prioritizeHeaderWidth(boolean prioritizeHeaderWidth);
 
+    /**
+     * Sets the source the rows of this table are taken from. Instead of storing every cell in the table, the rows are taken from the source
+     * while the table is laid out, one page at a time. Rows that have been placed on a finished page are released again,
+     * so a table with a very large amount of rows only requires the rows of a single page to be in memory.
+     * Each list returned by the source contains the cells of a single row, cells that do not fit on the row continue on the next row.
+     * The rows of the source are placed after the cells that have been added to the table, if there are no such cells the first row of the source is used as header.
+     * Since the source can only be traversed once, the table can only be laid out once. The layout is reused as long as the page of the table
+     * does not change, but changes to the page after the table has been laid out (for instance after requesting a preview) cause an 
+     * IllegalStateException when the page is laid out again.
+     * @param rowSource Iterator returning the cells of each row, or null to only use the cells added to the table.
+     * @return this table instance.
+     */
+    Table rowSource(Iterator<List<Cell>> rowSource);
+
+    /**
+     * Returns the source the rows of this table are taken from.
+     * @return Iterator returning the cells of each row, null if the table does not have a row source.
+     */
+    Iterator<List<Cell>> getRowSource();
+
+    /**
+     * Sets the widths of the columns, in points. The widths are used as they are instead of being calculated from the content of the table,
+     * if their total exceeds the width of the table they are scaled down proportionally. The amount of widths should match the amount of columns,
+     * otherwise the widths are ignored. For tables with a row source that have no column widths, the widths are calculated
+     * from the first rows of the source. Replaces any column width percentages that have been set.
+     * @param columnWidths Width of each column, or null to calculate the widths from the content.
+     * @return this table instance.
+     */
+    Table columnWidths(double... columnWidths);
+
+    /**
+     * Returns the widths of the columns set by {@link #columnWidths(double...)}.
+     * @return array containing the width of each column, null if the widths are calculated from the content.
+     */
+    double[] getColumnWidths();
+
+    /**
+     * Sets the widths of the columns as percentages of the width of the table. Like widths set by {@link #columnWidths(double...)},
+     * the percentages are used instead of calculating the widths from the content of the table. If their total exceeds 100 percent
+     * they are scaled down proportionally. The amount of percentages should match the amount of columns, otherwise the percentages are ignored.
+     * Replaces any column widths that have been set.
+     * @param percentages Percentage of the table width for each column, or null to calculate the widths from the content.
+     * @return this table instance.
+     */
+    Table columnWidthPercentages(double... percentages);
+
+    /**
+     * Returns the widths of the columns set by {@link #columnWidthPercentages(double...)}.
+     * @return array containing the percentage of the table width for each column, null if no percentages have been set.
+     */
+    double[] getColumnWidthPercentages();
+
+    /**
+     * Sets the amount of rows the column widths are calculated from. Only the first rows of the table are measured,
+     * which saves measuring the content of every cell for large tables with content of similar width. Content further down
+     * the table that does not fit the resulting widths is wrapped or cut off. Has no effect if the column widths have been set.
+     * @param rowAmount The amount of rows to measure, or 0 to measure every row. Tables with a row source measure 100 rows by default.
+     * @return this table instance.
+     */
+    Table sampleColumnWidths(int rowAmount);
+
+    /**
+     * Returns the amount of rows the column widths are calculated from.
+     * @return the amount of rows, 0 if the default is used.
+     */
+    int getSampledRowAmount();
 }
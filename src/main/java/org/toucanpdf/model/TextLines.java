@@ -0,0 +1,204 @@
+package org.toucanpdf.model;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Table of the lines a text has been split into. The position of each line is stored in arrays of x and y values and the characters
+ * of all lines are stored in a single buffer, so a line does not need any objects of its own. The lines are kept in the order
+ * they were added. As long as the lines are added from the top of the page to the bottom, the lines near a given height
+ * can be found with a binary search.
+ *
+ * @author Dylan de Wolff
+ */
+public class TextLines {
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final int DEFAULT_CHARACTER_CAPACITY = 128;
+    private double[] xValues = new double[DEFAULT_CAPACITY];
+    private double[] yValues = new double[DEFAULT_CAPACITY];
+    /**
+     * The word spacing used to justify each line, NaN for lines that are not justified.
+     */
+    private double[] justificationOffsets = new double[DEFAULT_CAPACITY];
+    /**
+     * The index in the character buffer directly after the last character of each line.
+     */
+    private int[] ends = new int[DEFAULT_CAPACITY];
+    private char[] characters = new char[DEFAULT_CHARACTER_CAPACITY];
+    private int size;
+    /**
+     * Whether every line is positioned at or below the line before it.
+     */
+    private boolean descending = true;
+
+    /**
+     * Adds a line to the end of the table.
+     * @param x The x value of the position of the line.
+     * @param y The y value of the position of the line.
+     * @param line The characters of the line.
+     * @return the index of the added line.
+     */
+    public int add(double x, double y, CharSequence line) {
+        if (size == xValues.length) {
+            int capacity = size * 2;
+            xValues = Arrays.copyOf(xValues, capacity);
+            yValues = Arrays.copyOf(yValues, capacity);
+            justificationOffsets = Arrays.copyOf(justificationOffsets, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        int start = getStart(size);
+        int end = start + line.length();
+        if (end > characters.length) {
+            characters = Arrays.copyOf(characters, Math.max(end, characters.length * 2));
+        }
+        for (int i = 0; i < line.length(); ++i) {
+            characters[start + i] = line.charAt(i);
+        }
+        if (size > 0 && y > yValues[size - 1]) {
+            descending = false;
+        }
+        xValues[size] = x;
+        yValues[size] = y;
+        justificationOffsets[size] = Double.NaN;
+        ends[size] = end;
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public double getX(int index) {
+        return xValues[index];
+    }
+
+    public double getY(int index) {
+        return yValues[index];
+    }
+
+    /**
+     * @param index Index of the line.
+     * @return a new position object containing the position of the line.
+     */
+    public Position getPosition(int index) {
+        return new Position(xValues[index], yValues[index]);
+    }
+
+    /**
+     * @param index Index of the line.
+     * @return String containing the characters of the line.
+     */
+    public String getLine(int index) {
+        int start = getStart(index);
+        return new String(characters, start, ends[index] - start);
+    }
+
+    /**
+     * Appends the characters of the given line to the given StringBuilder, without creating a string for the line.
+     * @param index Index of the line.
+     * @param sb StringBuilder to append to.
+     * @return the given StringBuilder.
+     */
+    public StringBuilder appendLine(int index, StringBuilder sb) {
+        int start = getStart(index);
+        return sb.append(characters, start, ends[index] - start);
+    }
+
+    private int getStart(int index) {
+        return index == 0 ? 0 : ends[index - 1];
+    }
+
+    /**
+     * @param index Index of the line.
+     * @return the word spacing used to justify the line, or NaN if the line is not justified.
+     */
+    public double getJustificationOffset(int index) {
+        return justificationOffsets[index];
+    }
+
+    public void setJustificationOffset(int index, double offset) {
+        justificationOffsets[index] = offset;
+    }
+
+    /**
+     * Moves all lines vertically.
+     * @param difference The value to add to the y value of every line.
+     */
+    public void adjustY(double difference) {
+        for (int i = 0; i < size; ++i) {
+            yValues[i] += difference;
+        }
+    }
+
+    /**
+     * Returns the index of the first line that is positioned at or below the given height. If the lines have not been added
+     * from top to bottom, every line is checked and 0 is returned as long as any line is at or below the height.
+     * @param height The height.
+     * @return the index of the line, or the amount of lines if there is no line at or below the given height.
+     */
+    public int getFirstIndexAtOrBelow(double height) {
+        if (!descending) {
+            for (int i = 0; i < size; ++i) {
+                if (yValues[i] <= height) {
+                    return 0;
+                }
+            }
+            return size;
+        }
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (yValues[middle] <= height) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns whether the lines can stop being checked at the given index when looking for lines above the given height.
+     * This is the case when the lines were added from top to bottom and the line at the index is positioned below the height.
+     * @param index Index of the line.
+     * @param height The height.
+     * @return true if the line and all following lines are below the height, false otherwise.
+     */
+    public boolean isBelow(int index, double height) {
+        return descending && yValues[index] < height;
+    }
+
+    /**
+     * Creates a map containing the position of each line as key and the line as value, in the order of the lines.
+     * Changes to the map are not reflected in this table.
+     * @return Map containing the lines.
+     */
+    public Map<Position, String> toMap() {
+        Map<Position, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; ++i) {
+            map.put(getPosition(i), getLine(i));
+        }
+        return map;
+    }
+
+    /**
+     * Creates a map containing the position of each justified line as key and its word spacing as value.
+     * Changes to the map are not reflected in this table.
+     * @return Map containing the justification offsets.
+     */
+    public Map<Position, Double> toJustificationOffsetMap() {
+        Map<Position, Double> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; ++i) {
+            if (!Double.isNaN(justificationOffsets[i])) {
+                map.put(getPosition(i), justificationOffsets[i]);
+            }
+        }
+        return map;
+    }
+}
@@ -2,6 +2,7 @@ package org.toucanpdf.model.state;
 
 import java.util.List;
 
+import org.toucanpdf.model.DocumentPart;
 import org.toucanpdf.model.Space;
 import org.toucanpdf.model.Page;
 import org.toucanpdf.model.Position;
@@ -46,6 +47,13 @@ public interface StatePage extends StateDocumentPart, Page {
      */
     double getRemainingWidth();
 
+    /**
+     * Removes the given parts from the page.
+     * @param parts Parts to remove.
+     * @return the page.
+     */
+    Page removeAll(List<DocumentPart> parts);
+
     /**
      * Calculates and returns an open position.
      * @param requiredSpaceAbove The empty space required above the position.
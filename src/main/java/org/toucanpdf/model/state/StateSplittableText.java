@@ -4,16 +4,25 @@ import java.util.Map;
 
 import org.toucanpdf.model.Position;
 import org.toucanpdf.model.Text;
+import org.toucanpdf.model.TextLines;
 
 public interface StateSplittableText extends Text {
+    /**
+     * Returns the lines this text has been split into, together with their positions and justification offsets.
+     * @return TextLines containing the lines in order.
+     */
+    TextLines getLines();
+
     /**
      * Returns map of positions and strings, each string represents a single line in the document based on the text from this object.
+     * The map is created from {@link #getLines()}, changes to the map do not affect this text.
      * @return Map containing positions as key and the text lines as values.
      */
     Map<Position, String> getTextSplit();
 
     /**
      * Returns map containing the justification offset per line.
+     * The map is created from {@link #getLines()}, changes to the map do not affect this text.
      * @return Map containing the offset per line.
      */
     Map<Position, Double> getJustificationOffset();
@@ -2,17 +2,27 @@ package org.toucanpdf.pdf.structure;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
 
+import org.toucanpdf.model.CompressionPolicy;
 import org.toucanpdf.model.PdfNameValue;
 import org.toucanpdf.pdf.syntax.AbstractPdfObject;
 import org.toucanpdf.pdf.syntax.PdfDictionary;
 import org.toucanpdf.pdf.syntax.PdfIndirectObject;
 import org.toucanpdf.pdf.syntax.PdfIndirectObjectReference;
+import org.toucanpdf.pdf.syntax.PdfObjectStream;
 import org.toucanpdf.pdf.syntax.PdfObjectType;
 import org.toucanpdf.pdf.syntax.PdfPage;
 import org.toucanpdf.pdf.syntax.PdfPageTree;
+import org.toucanpdf.pdf.syntax.PdfStream;
 
 /** 
  * Represents the body section of a PDF file. Responsible for creating indirect objects and storing all 
@@ -36,6 +46,31 @@ public class PdfBody {
      * Represents the offset caused by storing the catalog and pagetree separately.
      */
     private static final int OBJECT_NUMBER_OFFSET = 1;
+    /**
+     * The amount of objects that are not stored in the body, this includes the objects (excluding pages) that have been written and 
+     * released by {@link #writeAndRelease(DataOutputStream, Predicate)} and the object streams created during writing.
+     */
+    private int releasedObjectAmount = 0;
+    /**
+     * The maximum amount of objects stored in a single object stream.
+     */
+    private static final int MAX_OBJECT_STREAM_SIZE = 200;
+    /**
+     * The amount of streams per compressing thread that may be compressed ahead of writing.
+     */
+    private static final int COMPRESSION_WINDOW_FACTOR = 2;
+    /**
+     * Specifies whether non-stream objects should be compressed by storing them in object streams.
+     */
+    private boolean useObjectStreams = false;
+    /**
+     * Executor used to compress streams concurrently while writing, null if streams are compressed by the writing thread.
+     */
+    private Executor compressionExecutor = null;
+    /**
+     * Determines the compression level and strategy of the written streams, the defaults are used if no policy is set.
+     */
+    private CompressionPolicy compressionPolicy = null;
 
     /**
      * Creates a new instance of the PdfBody. This will also result in the creation of the page tree and catalog.
@@ -84,13 +119,199 @@ public class PdfBody {
      * the indirect objects. This is needed for the creation of the cross reference table.
      * 
      * @param os The data output stream that will be written to.
+     * @return The written objects, including any object streams that were created.
      * @throws IOException throws IOException in case the writing went wrong.
      */
-    public void writeToFile(DataOutputStream os) throws IOException {
-        for (PdfIndirectObject object : getAllIndirectObjects()) {
-            object.setStartByte(os.size());
-            object.writeToFile(os);
+    public List<PdfIndirectObject> writeToFile(DataOutputStream os) throws IOException {
+        return writeObjects(os, getAllIndirectObjects());
+    }
+
+    /**
+     * Writes all pages and indirect objects that have been added since the previous call to the given OutputStream and 
+     * releases them from the body. The catalog and page tree are not written, they remain in the body until the final call 
+     * to {@link #writeToFile(DataOutputStream)}. The page tree keeps referring to the released pages.
+     * 
+     * @param os The data output stream that will be written to.
+     * @param retain Objects matching this predicate are not written yet and stay in the body, 
+     * this should be used for objects that can still change.
+     * @return The written objects, with their starting byte set. These are needed for the creation of the cross reference table.
+     * @throws IOException throws IOException in case the writing went wrong.
+     */
+    public List<PdfIndirectObject> writeAndRelease(DataOutputStream os, Predicate<PdfIndirectObject> retain) throws IOException {
+        List<PdfIndirectObject> released = new ArrayList<>(getPageTreeObject().getPageTreeObjects());
+        List<PdfIndirectObject> retained = new ArrayList<>();
+        for (PdfIndirectObject object : indirectObjects) {
+            if (retain.test(object)) {
+                retained.add(object);
+            } else {
+                released.add(object);
+            }
+        }
+        releasedObjectAmount += indirectObjects.size() - retained.size();
+        indirectObjects = retained;
+        getPageTreeObject().releaseKids();
+        return writeObjects(os, released);
+    }
+
+    /**
+     * Writes the given objects to the given OutputStream. If object streams are used, the non-stream objects are 
+     * stored in new object streams instead of being written directly.
+     * @param os The data output stream that will be written to.
+     * @param objects The objects to write.
+     * @return The written objects, including any object streams that were created.
+     * @throws IOException throws IOException in case the writing went wrong.
+     */
+    private List<PdfIndirectObject> writeObjects(DataOutputStream os, List<PdfIndirectObject> objects) throws IOException {
+        List<PdfIndirectObject> written = new ArrayList<>(objects);
+        if (useObjectStreams) {
+            written.addAll(createObjectStreams(objects));
+        }
+        applyCompressionPolicy(written);
+        List<CompletableFuture<Void>> compressions = new ArrayList<>(Collections.nCopies(written.size(), null));
+        int compressionWindow = getCompressionWindow();
+        int nextCompression = 0;
+        int pendingCompressions = 0;
+        for (int i = 0; i < written.size(); ++i) {
+            //only a limited amount of streams is compressed ahead, since each compressed stream is kept in memory until it is written
+            while (compressionExecutor != null && nextCompression < written.size() && pendingCompressions < compressionWindow) {
+                CompletableFuture<Void> compression = startCompression(written.get(nextCompression));
+                if (compression != null) {
+                    compressions.set(nextCompression, compression);
+                    ++pendingCompressions;
+                }
+                ++nextCompression;
+            }
+            PdfIndirectObject object = written.get(i);
+            if (!object.isInObjectStream()) {
+                CompletableFuture<Void> compression = compressions.get(i);
+                if (compression != null) {
+                    compressions.set(i, null);
+                    --pendingCompressions;
+                    awaitCompression(compression);
+                }
+                object.setStartByte(os.size());
+                object.writeToFile(os);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Applies the compression policy to the streams among the given objects.
+     * @param objects The objects that will be written.
+     */
+    private void applyCompressionPolicy(List<PdfIndirectObject> objects) {
+        for (PdfIndirectObject object : objects) {
+            if (object.getObject() instanceof PdfStream) {
+                ((PdfStream) object.getObject()).setCompressionPolicy(compressionPolicy);
+            }
+        }
+    }
+
+    /**
+     * Starts compressing the given object on the compression executor if it is a stream. 
+     * This allows the objects to be written in order while the streams further down the list are still being compressed.
+     * @param object The object that will be written.
+     * @return the compression of the object, or null if the object is not a stream.
+     */
+    private CompletableFuture<Void> startCompression(PdfIndirectObject object) {
+        if (object.getObject() instanceof PdfStream) {
+            PdfStream stream = (PdfStream) object.getObject();
+            return CompletableFuture.runAsync(() -> compress(stream), compressionExecutor);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the maximum amount of streams that are compressed ahead of writing, which is a small multiple of the parallelism of the executor. 
+     * This keeps the executor busy while limiting the amount of compressed streams held in memory.
+     * @return the maximum amount of streams being compressed or waiting to be written.
+     */
+    private int getCompressionWindow() {
+        int parallelism = compressionExecutor instanceof ForkJoinPool ? ((ForkJoinPool) compressionExecutor).getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        return Math.max(1, parallelism) * COMPRESSION_WINDOW_FACTOR;
+    }
+
+    private static void compress(PdfStream stream) {
+        try {
+            stream.compress();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void awaitCompression(CompletableFuture<Void> compression) throws IOException {
+        if (compression != null) {
+            try {
+                compression.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Stores all non-stream objects from the given list in object streams. 
+     * @param objects The objects to process.
+     * @return The indirect objects of the created object streams.
+     */
+    private List<PdfIndirectObject> createObjectStreams(List<PdfIndirectObject> objects) {
+        List<PdfIndirectObject> objectStreams = new ArrayList<>();
+        PdfIndirectObject currentStream = null;
+        for (PdfIndirectObject object : objects) {
+            if (!(object.getObject() instanceof PdfStream)) {
+                if (currentStream == null || ((PdfObjectStream) currentStream.getObject()).getObjectAmount() == MAX_OBJECT_STREAM_SIZE) {
+                    currentStream = createIndirectObject(new PdfObjectStream());
+                    ++releasedObjectAmount;
+                    objectStreams.add(currentStream);
+                }
+                int index = ((PdfObjectStream) currentStream.getObject()).add(object);
+                object.setObjectStream(currentStream.getNumber(), index);
+            }
         }
+        return objectStreams;
+    }
+
+    public boolean isUsingObjectStreams() {
+        return useObjectStreams;
+    }
+
+    /**
+     * Sets whether non-stream objects should be stored in compressed object streams when writing. 
+     * Object streams can only be referred to by a cross reference stream.
+     * @param useObjectStreams true to use object streams, false to write every object directly.
+     */
+    public void setUseObjectStreams(boolean useObjectStreams) {
+        this.useObjectStreams = useObjectStreams;
+    }
+
+    public Executor getCompressionExecutor() {
+        return compressionExecutor;
+    }
+
+    /**
+     * Sets the executor used to compress streams, such as page contents, font programs and images, concurrently while writing. 
+     * The objects are still written in order and only a few streams per thread are compressed ahead of the stream being written. 
+     * @param compressionExecutor Executor to use, or null to compress each stream on the writing thread when it is written.
+     */
+    public void setCompressionExecutor(Executor compressionExecutor) {
+        this.compressionExecutor = compressionExecutor;
+    }
+
+    public CompressionPolicy getCompressionPolicy() {
+        return compressionPolicy;
+    }
+
+    /**
+     * Sets the policy used to determine the compression level and strategy of each written stream.
+     * @param compressionPolicy Policy to use, or null to use the default level and strategy.
+     */
+    public void setCompressionPolicy(CompressionPolicy compressionPolicy) {
+        this.compressionPolicy = compressionPolicy;
     }
 
     public List<PdfIndirectObject> getIndirectObjects() {
@@ -99,11 +320,12 @@ public class PdfBody {
 
     /**
      * Returns the number of indirect objects contained in the body, including the separately stored catalog, pageTree and page objects.
+     * Objects that have been written and released are counted as well.
      * @return the number of objects
      */
     public final int getTotalIndirectObjectsAmount() {
         if (indirectObjects != null && pageTree != null) {
-            return this.indirectObjects.size() + getPageTreeObject().getSize() + PdfBody.OBJECT_NUMBER_OFFSET;
+            return this.indirectObjects.size() + releasedObjectAmount + getPageTreeObject().getSize() + PdfBody.OBJECT_NUMBER_OFFSET;
         } else {
             return PdfBody.OBJECT_NUMBER_OFFSET;
         }
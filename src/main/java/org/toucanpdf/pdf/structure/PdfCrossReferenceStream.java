@@ -0,0 +1,144 @@
+package org.toucanpdf.pdf.structure;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.toucanpdf.model.Compression;
+import org.toucanpdf.model.PdfNameValue;
+import org.toucanpdf.model.StreamType;
+import org.toucanpdf.pdf.syntax.PdfArray;
+import org.toucanpdf.pdf.syntax.PdfIndirectObject;
+import org.toucanpdf.pdf.syntax.PdfNumber;
+import org.toucanpdf.pdf.syntax.PdfStream;
+
+/**
+ * This class represents the cross reference stream, which replaces both the cross reference table and the trailer dictionary.
+ * Instead of text lines, each reference is stored as a fixed size binary entry in a compressed stream.
+ * Unlike the cross reference table, the cross reference stream can refer to objects stored within object streams.
+ *
+ * @author Dylan de Wolff
+ * @see PdfCrossReferenceTable
+ * @see org.toucanpdf.pdf.syntax.PdfObjectStream
+ */
+public class PdfCrossReferenceStream extends PdfStream {
+    /**
+     * All crossreferences are stored in this map. The key is the object number.
+     */
+    private Map<Integer, CrossReference> crossReferences;
+
+    /**
+     * The byte widths of the three fields of each entry: the type, the offset or object stream number
+     * and the generation or index within the object stream.
+     */
+    private static final int[] FIELD_WIDTHS = { 1, 4, 2 };
+    private static final int FREE_ENTRY = 0;
+    private static final int IN_USE_ENTRY = 1;
+    private static final int COMPRESSED_ENTRY = 2;
+    /**
+     * The generation number used for the head of the list of free objects.
+     */
+    private static final int FREE_GENERATION = 65535;
+
+    /**
+     * Creates a new instance of the cross reference stream.
+     */
+    public PdfCrossReferenceStream() {
+        super();
+        crossReferences = new TreeMap<>();
+        this.put(PdfNameValue.TYPE, PdfNameValue.CROSS_REFERENCE_STREAM);
+        this.addFilter(Compression.FLATE);
+    }
+
+    /**
+     * Fills the stream with the given indirect objects.
+     * @param indirectObjects The indirect objects that will be referred to.
+     */
+    public final void fillTableWithIndirectObjects(List<PdfIndirectObject> indirectObjects) {
+        indirectObjects.forEach(this::addReferenceToIndirectObject);
+    }
+
+    /**
+     * Adds the reference from the given indirect object to the stream.
+     * @param indirectObject Object that will be referred to.
+     */
+    public void addReferenceToIndirectObject(PdfIndirectObject indirectObject) {
+        CrossReference reference;
+        if (indirectObject.isInObjectStream()) {
+            reference = new CrossReference(COMPRESSED_ENTRY, indirectObject.getObjectStreamNumber(), indirectObject.getObjectStreamIndex());
+        } else {
+            reference = new CrossReference(IN_USE_ENTRY, indirectObject.getStartByte(), indirectObject.getGeneration());
+        }
+        crossReferences.put(indirectObject.getNumber(), reference);
+    }
+
+    public int getCrossReferenceAmount() {
+        return crossReferences.size();
+    }
+
+    public boolean isObjectInTable(int objectNumber) {
+        return this.crossReferences.containsKey(objectNumber);
+    }
+
+    /**
+     * Copies the root, info and size entries of the given trailer, since the cross reference stream replaces the trailer dictionary.
+     * @param trailer Trailer to copy the entries from.
+     */
+    public void setTrailerEntries(PdfTrailer trailer) {
+        this.put(PdfNameValue.ROOT, trailer.get(PdfNameValue.ROOT));
+        this.put(PdfNameValue.INFO, trailer.get(PdfNameValue.INFO));
+        this.put(PdfNameValue.SIZE, trailer.get(PdfNameValue.SIZE));
+    }
+
+    @Override
+    protected void writeContentToStream(OutputStream os) throws IOException {
+        PdfArray widths = new PdfArray();
+        for (int width : FIELD_WIDTHS) {
+            widths.addValue(new PdfNumber(width));
+        }
+        this.put(PdfNameValue.FIELD_WIDTHS, widths);
+        new CrossReference(FREE_ENTRY, 0, FREE_GENERATION).writeToFile(os);
+        for (CrossReference xref : crossReferences.values()) {
+            xref.writeToFile(os);
+        }
+    }
+
+    @Override
+    public StreamType getStreamType() {
+        return StreamType.CROSS_REFERENCE_STREAM;
+    }
+
+    /**
+     * @author Dylan de Wolff
+     *
+     * Inner class containing the information needed per reference.
+     */
+    private static class CrossReference {
+        private int[] fields;
+
+        /**
+         * Creates a new instance of CrossReference.
+         * @param type The type of the entry.
+         * @param second The byte starting point of the object, or the number of the object stream containing the object.
+         * @param third The generation number of the object, or the index of the object within its object stream.
+         */
+        public CrossReference(int type, int second, int third) {
+            this.fields = new int[] { type, second, third };
+        }
+
+        /**
+         * Writes the cross reference to the given OutputStream as a binary entry.
+         * @param os OutputStream which will be written to.
+         * @throws IOException if writing to the outputstream caused an exception
+         */
+        public void writeToFile(OutputStream os) throws IOException {
+            for (int i = 0; i < fields.length; ++i) {
+                for (int shift = (FIELD_WIDTHS[i] - 1) * Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+                    os.write(fields[i] >>> shift);
+                }
+            }
+        }
+    }
+}
@@ -3,10 +3,10 @@ package org.toucanpdf.pdf.structure;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 
 import org.toucanpdf.pdf.syntax.PdfIndirectObject;
 import org.toucanpdf.utility.ByteEncoder;
@@ -23,7 +23,8 @@ import org.toucanpdf.utility.Constants;
  */
 public class PdfCrossReferenceTable {
     /**
-     * All crossreferences are stored in this map. The key is the object number.
+     * All crossreferences are stored in this map. The key is the object number. 
+     * The map is sorted, since the entries have to be written in order of object number.
      */
     private Map<Integer, CrossReference> crossReferences;
 
@@ -50,7 +51,7 @@ public class PdfCrossReferenceTable {
      * Creates a new instance of the cross reference table.
      */
     public PdfCrossReferenceTable() {
-        crossReferences = new HashMap<Integer, CrossReference>();
+        crossReferences = new TreeMap<Integer, CrossReference>();
     }
 
     /**
@@ -58,7 +59,7 @@ public class PdfCrossReferenceTable {
      * @param indirectObjects The indirect objects that will be referred to in the xref table.
      */
     public PdfCrossReferenceTable(List<PdfIndirectObject> indirectObjects) {
-        crossReferences = new HashMap<>();
+        crossReferences = new TreeMap<>();
         this.fillTableWithIndirectObjects(indirectObjects);
     }
 
@@ -3,17 +3,24 @@ package org.toucanpdf.pdf.structure;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
 
+import org.toucanpdf.image.ImageCache;
 import org.toucanpdf.model.Compression;
+import org.toucanpdf.model.CompressionPolicy;
 import org.toucanpdf.model.DocumentPart;
 import org.toucanpdf.model.Font;
+import org.toucanpdf.model.FontFamily;
 import org.toucanpdf.model.FontMetrics;
+import org.toucanpdf.model.FontType;
 import org.toucanpdf.model.Image;
+import org.toucanpdf.model.ImageParser;
 import org.toucanpdf.model.Page;
 import org.toucanpdf.model.PdfNameValue;
 import org.toucanpdf.model.state.StateCell;
@@ -33,13 +40,16 @@ import org.toucanpdf.pdf.syntax.PdfFontProgram;
 import org.toucanpdf.pdf.syntax.PdfImage;
 import org.toucanpdf.pdf.syntax.PdfImageDictionary;
 import org.toucanpdf.pdf.syntax.PdfIndirectObject;
+import org.toucanpdf.pdf.syntax.PdfIndirectObjectReference;
 import org.toucanpdf.pdf.syntax.PdfObjectType;
 import org.toucanpdf.pdf.syntax.PdfPage;
 import org.toucanpdf.pdf.syntax.PdfStream;
 import org.toucanpdf.pdf.syntax.PdfString;
 import org.toucanpdf.pdf.syntax.PdfTable;
 import org.toucanpdf.pdf.syntax.PdfText;
+import org.toucanpdf.utility.ByteEncoder;
 import org.toucanpdf.utility.Constants;
+import org.toucanpdf.utility.PointsConverter;
 
 /**
  * Represents the PDF document itself, containing the four different sections of a PDF document.
@@ -52,12 +62,32 @@ public class PdfDocument {
     private PdfHeader header;
     private PdfBody body;
     private PdfCrossReferenceTable xref;
+    /**
+     * Replaces the cross reference table and trailer dictionary when object streams are used.
+     */
+    private PdfCrossReferenceStream xrefStream;
     private PdfTrailer trailer;
     private PdfPage currentPage;
-    private Map<Font, PdfIndirectObject> fontList = new HashMap<Font, PdfIndirectObject>();
-    private Map<ByteBuffer, PdfIndirectObject> imageList = new HashMap<ByteBuffer, PdfIndirectObject>();
+    /**
+     * Contains the font dictionary for each distinct font. Fonts are compared by value, so equal fonts share their 
+     * dictionary, encoding, descriptor and embedded font program.
+     */
+    private Map<FontKey, PdfIndirectObject> fontList = new HashMap<FontKey, PdfIndirectObject>();
+    /**
+     * Contains the reference to the image dictionary of each distinct image. Only the references are kept, so the image data can be 
+     * released once the image has been written by a streaming document.
+     */
+    private Map<Object, PdfIndirectObjectReference> imageList = new HashMap<Object, PdfIndirectObjectReference>();
+    /**
+     * The maximum resolution images are embedded with in pixels per inch, 0 if images are embedded at their original resolution.
+     */
+    private double maximumImageResolution = 0;
     private static final String CREATOR = "Toucan-PDF";
     private static final Compression DEFAULT_COMPRESSION_METHOD = Compression.FLATE;
+    /**
+     * The stream finished pages are written to, null if this document is not streaming.
+     */
+    private DataOutputStream streamingOutput;
 
     /**
      * Creates a new instance of PdfDocument.
@@ -66,9 +96,21 @@ public class PdfDocument {
         this.header = new PdfHeader();
         this.body = new PdfBody();
         this.xref = new PdfCrossReferenceTable();
+        this.xrefStream = new PdfCrossReferenceStream();
         this.trailer = new PdfTrailer();
     }
 
+    /**
+     * Creates a new instance of PdfDocument that streams its pages to the given OutputStream. 
+     * Use {@link #writePage()} once a page is finished to write it, and {@link #write()} to finish the document. 
+     * Pages and their resources are released after they have been written, so only the page being built is kept in memory.
+     * @param os OutputStream to write to.
+     */
+    public PdfDocument(OutputStream os) {
+        this();
+        this.streamingOutput = new DataOutputStream(os);
+    }
+
     /**
      * Creates a PdfObject from the given document part and adds it to the document.
      * @param part Document part that is to be added.
@@ -140,16 +182,36 @@ public class PdfDocument {
     }
 
     private void addImage(Image part) {
-        ByteBuffer buffer = ByteBuffer.wrap(part.getImageParser().getData());
-        PdfIndirectObject imageRef = imageList.get(buffer);
+        //images with the same content share their digest, images without a digest are only recognized by their parser
+        ImageParser parser = part.getImageParser();
+        Object key = parser.getDigest() != null ? parser.getDigest() : parser;
+        double resolution = part.getMaximumResolution() > 0 ? part.getMaximumResolution() : maximumImageResolution;
+        int width = parser.getWidth();
+        int height = parser.getHeight();
+        if (resolution > 0) {
+            width = Math.min(width, (int) Math.ceil(PointsConverter.getPixelsForPoints(part.getWidth(), resolution)));
+            height = Math.min(height, (int) Math.ceil(PointsConverter.getPixelsForPoints(part.getHeight(), resolution)));
+        }
+        boolean resample = width > 0 && height > 0 && (width < parser.getWidth() || height < parser.getHeight());
+        if (resample) {
+            key = Arrays.asList(key, width, height);
+        }
+        PdfIndirectObjectReference imageRef = imageList.get(key);
         if (imageRef == null) {
-            PdfImageDictionary imageDic = new PdfImageDictionary(part);
-            imageRef = body.addObject(imageDic);
-            imageList.put(buffer, imageRef);
+            if (resample) {
+                parser = ImageCache.getInstance().getResampledParser(parser, width, height);
+            }
+            PdfImageDictionary imageDic = new PdfImageDictionary(part, parser);
+            ImageParser softMask = parser.getSoftMask();
+            if (softMask != null) {
+                imageDic.put(PdfNameValue.SOFT_MASK, body.addObject(PdfImageDictionary.createSoftMask(softMask)).getReference());
+            }
+            imageRef = body.addObject(imageDic).getReference();
+            imageList.put(key, imageRef);
         }
-        this.getCurrentPage().addResource(imageRef);
+        this.getCurrentPage().addResource(imageRef, PdfObjectType.XOBJECT);
         PdfStream stream = this.getCurrentPageStream();
-        stream.add(new PdfImage(imageRef.getReference().getResourceReference(), part));
+        stream.add(new PdfImage(imageRef.getResourceReference(), part));
         stream.addFilter(part.getCompressionMethod());
     }
 
@@ -223,7 +285,10 @@ public class PdfDocument {
      * @return PdfIndirectObject representing the font or null if the font is not in the list
      */
     public PdfIndirectObject getPdfFont(Font font) {
-        return fontList.get(font);
+        if (font == null) {
+            return null;
+        }
+        return fontList.get(new FontKey(font));
     }
 
     /**
@@ -232,7 +297,7 @@ public class PdfDocument {
      * @return indirect object for the given font
      */
     public PdfIndirectObject addFont(Font font) {
-        if (!fontList.containsKey(font) && font != null) {
+        if (font != null && !fontList.containsKey(new FontKey(font))) {
             PdfFontDescriptor newFontDescriptor = new PdfFontDescriptor(font);
             FontMetrics metrics = font.getFontFamily().getMetricsForStyle(font.getStyle());
             AddFontProgram(font, newFontDescriptor, metrics);
@@ -243,10 +308,10 @@ public class PdfDocument {
             PdfIndirectObject indirectFontDictionary = body.addObject(newFontDescriptor);
             newFont.setFontDescriptorReference(indirectFontDictionary.getReference());
 
-            fontList.put(font, indirectFont);
+            fontList.put(new FontKey(font), indirectFont);
             return indirectFont;
         } else {
-            return fontList.get(font);
+            return getPdfFont(font);
         }
     }
 
@@ -307,20 +372,187 @@ public class PdfDocument {
      */
     public void write(OutputStream os) throws IOException {
         DataOutputStream dos = new DataOutputStream(os);
+        writeHeader(dos);
+        writeRemainder(dos);
+    }
+
+    /**
+     * Writes the current page, its content and all resources added since the previous page was written to the streaming OutputStream.
+     * These objects are released afterwards, which means no content can be added to the current page anymore. 
+     * Fonts are kept until the document is finished, since their encoding depends on all the text in the document.
+     * Does nothing if this document is not streaming.
+     * 
+     * @throws IOException if writing to the outputstream caused an exception
+     */
+    public void writePage() throws IOException {
+        if (isStreaming()) {
+            if (streamingOutput.size() == 0) {
+                writeHeader(streamingOutput);
+            }
+            body.writeAndRelease(streamingOutput, this::isFontObject).forEach(this::addCrossReference);
+            currentPage = null;
+        }
+    }
+
+    /**
+     * Finishes a streaming document by writing the remaining objects, the cross reference table and the trailer to the streaming OutputStream.
+     * 
+     * @throws IOException if writing to the outputstream caused an exception
+     */
+    public void write() throws IOException {
+        if (isStreaming()) {
+            writePage();
+            writeRemainder(streamingOutput);
+        }
+    }
+
+    /**
+     * Checks if this document writes its pages as soon as they are finished.
+     * @return true if the document is streaming, false otherwise.
+     */
+    public boolean isStreaming() {
+        return streamingOutput != null;
+    }
+
+    /**
+     * Sets whether the document should be written using PDF 1.5 object streams. Non-stream objects such as fonts and pages are 
+     * then stored in compressed object streams and the cross reference table and trailer are replaced by a compressed cross reference stream.
+     * This should be set before any page is written.
+     * @param useObjectStreams true to use object streams, false otherwise.
+     */
+    public void setUseObjectStreams(boolean useObjectStreams) {
+        body.setUseObjectStreams(useObjectStreams);
+    }
+
+    public boolean isUsingObjectStreams() {
+        return body.isUsingObjectStreams();
+    }
+
+    /**
+     * Sets the executor used to compress the streams of the document concurrently while it is written, 
+     * for example {@link java.util.concurrent.ForkJoinPool#commonPool()}. The objects are still written in order.
+     * @param compressionExecutor Executor to use, or null to compress on the writing thread.
+     */
+    public void setCompressionExecutor(Executor compressionExecutor) {
+        body.setCompressionExecutor(compressionExecutor);
+    }
+
+    public Executor getCompressionExecutor() {
+        return body.getCompressionExecutor();
+    }
+
+    /**
+     * Sets the policy that determines the compression level and strategy for each type of stream in the document.
+     * @param compressionPolicy Policy to use, or null to use the default level and strategy.
+     */
+    public void setCompressionPolicy(CompressionPolicy compressionPolicy) {
+        body.setCompressionPolicy(compressionPolicy);
+        xrefStream.setCompressionPolicy(compressionPolicy);
+    }
+
+    public CompressionPolicy getCompressionPolicy() {
+        return body.getCompressionPolicy();
+    }
+
+    /**
+     * Sets the maximum resolution images are embedded with. Images that have a higher resolution at the size they are drawn with are resampled
+     * when they are added. Images can override this using {@link Image#maximumResolution(double)}.
+     * @param dpi The maximum amount of pixels per inch, 0 to embed images at their original resolution.
+     */
+    public void setMaximumImageResolution(double dpi) {
+        this.maximumImageResolution = Math.max(0, dpi);
+    }
+
+    public double getMaximumImageResolution() {
+        return maximumImageResolution;
+    }
+
+    private void addCrossReference(PdfIndirectObject object) {
+        if (isUsingObjectStreams()) {
+            xrefStream.addReferenceToIndirectObject(object);
+        } else {
+            xref.addReferenceToIndirectObject(object);
+        }
+    }
+
+    private boolean isFontObject(PdfIndirectObject object) {
+        return object.getObject() instanceof PdfFont || object.getObject() instanceof PdfFontEncoding;
+    }
+
+    private void writeHeader(DataOutputStream dos) throws IOException {
         header.writeToFile(dos);
         dos.write(Constants.LINE_SEPARATOR);
-        body.writeToFile(dos);
-        xref.fillTableWithIndirectObjects(body.getAllIndirectObjects());
-        xref.writeToFile(dos);
-        trailer.setObjectAmount(body.getTotalIndirectObjectsAmount() + 1);
-        trailer.setCrossReferenceStartByte(xref.getStartByte());
-        trailer.fillObjectSpecification(body.getCatalogReference());
-        trailer.writeToFile(dos);
+    }
+
+    private void writeRemainder(DataOutputStream dos) throws IOException {
+        List<PdfIndirectObject> written = body.writeToFile(dos);
+        if (isUsingObjectStreams()) {
+            writeCrossReferenceStream(dos, written);
+        } else {
+            xref.fillTableWithIndirectObjects(written);
+            xref.writeToFile(dos);
+            trailer.setObjectAmount(body.getTotalIndirectObjectsAmount() + 1);
+            trailer.setCrossReferenceStartByte(xref.getStartByte());
+            trailer.fillObjectSpecification(body.getCatalogReference());
+            trailer.writeToFile(dos);
+        }
         dos.flush();
         dos.close();
     }
 
+    /**
+     * Writes the cross reference stream, which also contains the trailer entries, followed by the end of the file.
+     * @param dos OutputStream to write to.
+     * @param written The objects written in the final pass.
+     * @throws IOException if writing to the outputstream caused an exception
+     */
+    private void writeCrossReferenceStream(DataOutputStream dos, List<PdfIndirectObject> written) throws IOException {
+        PdfIndirectObject indirectXref = new PdfIndirectObject(body.getTotalIndirectObjectsAmount() + 1, 0, xrefStream, true);
+        indirectXref.setStartByte(dos.size());
+        xrefStream.fillTableWithIndirectObjects(written);
+        xrefStream.addReferenceToIndirectObject(indirectXref);
+        trailer.setObjectAmount(indirectXref.getNumber() + 1);
+        trailer.fillObjectSpecification(body.getCatalogReference());
+        xrefStream.setTrailerEntries(trailer);
+        indirectXref.writeToFile(dos);
+        trailer.setCrossReferenceStartByte(ByteEncoder.getBytes(String.valueOf(indirectXref.getStartByte())));
+        trailer.writeEndOfFile(dos);
+    }
+
     public PdfPage getCurrentPage() {
         return this.currentPage;
     }
+
+    /**
+     * @author Dylan de Wolff
+     *
+     * Inner class used to compare fonts by value. Fonts are equal if they have the same font family, 
+     * resolve to the same style of that family and use the same type of encoding.
+     * The key is created at the moment of lookup, since fonts can be changed after they have been added.
+     */
+    private static class FontKey {
+        private FontFamily fontFamily;
+        private String styleName;
+        private FontType encodingType;
+
+        public FontKey(Font font) {
+            this.fontFamily = font.getFontFamily();
+            this.styleName = fontFamily.getNameOfStyle(font.getStyle());
+            this.encodingType = fontFamily.getSubType();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FontKey)) {
+                return false;
+            }
+            FontKey other = (FontKey) obj;
+            return fontFamily == other.fontFamily && styleName.equals(other.styleName) && encodingType == other.encodingType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(fontFamily), styleName, encodingType);
+        }
+    }
 }
@@ -86,6 +86,16 @@ public class PdfTrailer extends PdfDictionary {
         os.write(Constants.LINE_SEPARATOR);
         super.writeToFile(os);
         os.write(Constants.LINE_SEPARATOR);
+        writeEndOfFile(os);
+    }
+
+    /**
+     * Writes the start position of the cross reference table and the end of file indicator to the given OutputStream.
+     * When a cross reference stream is used, this is written instead of the complete trailer.
+     * @param os OutputStream which will be written to.
+     * @throws IOException throws an IOException if an error occurred during the writing.
+     */
+    public void writeEndOfFile(OutputStream os) throws IOException {
         os.write(START_XREF_INDICATOR);
         os.write(Constants.LINE_SEPARATOR);
         os.write(crossReferenceStartByte);
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 import org.toucanpdf.utility.ByteEncoder;
+import org.toucanpdf.utility.GrowableByteArray;
 
 /**
  * Abstract class for PdfObjects. Represents the base of all the object types found in PDF.
@@ -11,9 +12,9 @@ import org.toucanpdf.utility.ByteEncoder;
  */
 public abstract class AbstractPdfObject {
     /**
-     * contains the byte representation of this object.
+     * contains the byte representation of this object. Appending to it does not copy the existing representation.
      */
-    private byte[] byteRepresentation;
+    private GrowableByteArray byteRepresentation;
     private PdfObjectType type;
 
     /**
@@ -22,7 +23,7 @@ public abstract class AbstractPdfObject {
      */
     public AbstractPdfObject(PdfObjectType type) {
         this.type = type;
-        byteRepresentation = new byte[0];
+        byteRepresentation = new GrowableByteArray();
     }
 
     /**
@@ -36,11 +37,19 @@ public abstract class AbstractPdfObject {
     }
 
     public byte[] getByteRepresentation() {
-        return byteRepresentation.clone();
+        return byteRepresentation.toByteArray();
     }
 
     public final void setByteRepresentation(byte[] byteRepresentation) {
-        this.byteRepresentation = byteRepresentation.clone();
+        this.byteRepresentation = new GrowableByteArray(byteRepresentation);
+    }
+
+    /**
+     * Returns the length of the byte representation, without copying it.
+     * @return the amount of bytes in the byte representation.
+     */
+    public int getByteRepresentationLength() {
+        return byteRepresentation.size();
     }
 
     /**
@@ -61,7 +70,7 @@ public abstract class AbstractPdfObject {
      * @throws IOException throws IOException if an error occured during the writing.
      */
     public void writeToFile(OutputStream os) throws IOException {
-        os.write(byteRepresentation);
+        byteRepresentation.writeTo(os);
     }
 
     /**
@@ -69,10 +78,7 @@ public abstract class AbstractPdfObject {
      * @param bytes Array of bytes to be added.
      */
     public void addToByteRepresentation(byte[] bytes) {
-        byte[] newRepresentation = new byte[byteRepresentation.length + bytes.length];
-        System.arraycopy(byteRepresentation, 0, newRepresentation, 0, byteRepresentation.length);
-        System.arraycopy(bytes, 0, newRepresentation, byteRepresentation.length, bytes.length);
-        setByteRepresentation(newRepresentation);
+        byteRepresentation.append(bytes);
     }
 
     /**
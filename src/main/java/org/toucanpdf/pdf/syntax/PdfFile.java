@@ -21,7 +21,7 @@ public class PdfFile extends AbstractPdfObject {
 
     @Override
     public void writeToFile(OutputStream os) throws IOException {
-        os.write(this.getByteRepresentation());
+        super.writeToFile(os);
         os.write(Constants.LINE_SEPARATOR);
     }
 
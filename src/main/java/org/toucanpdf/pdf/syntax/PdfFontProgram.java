@@ -1,6 +1,7 @@
 package org.toucanpdf.pdf.syntax;
 
 import org.toucanpdf.model.PdfNameValue;
+import org.toucanpdf.model.StreamType;
 
 /**
  * This class represents the PDF syntax of an embedded font program. 
@@ -34,4 +35,8 @@ public class PdfFontProgram extends PdfStream {
         this.put(PdfNameValue.LENGTH3, new PdfNumber(lengths[2]));
     }
 
+    @Override
+    public StreamType getStreamType() {
+        return StreamType.FONT_PROGRAM;
+    }
 }
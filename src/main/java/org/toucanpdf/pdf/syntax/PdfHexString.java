@@ -0,0 +1,33 @@
+package org.toucanpdf.pdf.syntax;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Represents a hexadecimal PDF string, which is used to write binary data such as the color table of an indexed image.
+ * @author Dylan de Wolff
+ */
+public class PdfHexString extends AbstractPdfObject {
+    private static final byte[] HEX_DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F' };
+
+    /**
+     * Creates a new instance of PdfHexString.
+     * @param bytes The bytes this string should represent.
+     */
+    public PdfHexString(byte[] bytes) {
+        super(PdfObjectType.STRING);
+        byte[] hex = new byte[bytes.length * 2];
+        for (int i = 0; i < bytes.length; ++i) {
+            hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0x0F];
+            hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0x0F];
+        }
+        this.setByteRepresentation(hex);
+    }
+
+    @Override
+    public void writeToFile(OutputStream os) throws IOException {
+        os.write('<');
+        super.writeToFile(os);
+        os.write('>');
+    }
+}
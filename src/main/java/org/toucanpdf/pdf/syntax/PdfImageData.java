@@ -0,0 +1,29 @@
+package org.toucanpdf.pdf.syntax;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.toucanpdf.model.ImageParser;
+
+/**
+ * Represents the data of an embedded image. The data is written by the image parser, so it is not copied and images created from
+ * an image source are only read while they are written.
+ * @author Dylan de Wolff
+ */
+public class PdfImageData extends AbstractPdfObject {
+    private final ImageParser parser;
+
+    /**
+     * Creates a new instance of PdfImageData.
+     * @param parser Parser of the image to embed.
+     */
+    public PdfImageData(ImageParser parser) {
+        super(PdfObjectType.FILE);
+        this.parser = parser;
+    }
+
+    @Override
+    public void writeToFile(OutputStream os) throws IOException {
+        parser.writeData(os);
+    }
+}
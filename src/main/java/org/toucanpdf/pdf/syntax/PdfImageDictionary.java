@@ -1,8 +1,17 @@
 package org.toucanpdf.pdf.syntax;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.toucanpdf.image.ImageCache;
+import org.toucanpdf.model.ColorSpace;
+import org.toucanpdf.model.Compression;
+import org.toucanpdf.model.CompressionPolicy;
 import org.toucanpdf.model.Image;
 import org.toucanpdf.model.ImageParser;
 import org.toucanpdf.model.PdfNameValue;
+import org.toucanpdf.model.StreamType;
 
 /**
  * Represents a XObject image dictionary from the PDF specification.
@@ -10,36 +19,170 @@ import org.toucanpdf.model.PdfNameValue;
  */
 public class PdfImageDictionary extends PdfXObject {
     private Image image = null;
+    /**
+     * Digest of the embedded image, used to find the encoded stream in the image cache. Null if the stream is not cached.
+     */
+    private String digest = null;
+    /**
+     * The compression applied to the image data while the stream is written, null if the data is written as is.
+     */
+    private Compression appliedCompression = null;
+    private PdfImageData imageData = null;
 
     /**
      * Creates a new instance of PdfImageDictionary and fills the dictionary based on the given image.
      * @param part Image to embed.
      */
     public PdfImageDictionary(Image part) {
+        this(part, part != null ? part.getImageParser() : null);
+    }
+
+    /**
+     * Creates a new instance of PdfImageDictionary and fills the dictionary based on the given image, using the image data of the given parser.
+     * This allows the image to be embedded with different image data, such as a resampled version of its own image data.
+     * @param part Image to embed.
+     * @param parser Parser containing the image data to embed.
+     */
+    public PdfImageDictionary(Image part, ImageParser parser) {
         if (part != null) {
             image = part;
-            ImageParser parser = image.getImageParser();
-            this.put(PdfNameValue.SUB_TYPE, PdfNameValue.IMAGE);
-            this.put(PdfNameValue.WIDTH, new PdfNumber(parser.getWidth()));
-            this.put(PdfNameValue.HEIGHT, new PdfNumber(parser.getHeight()));
-            this.put(PdfNameValue.COLOR_SPACE, parser.getColorSpace().getPdfName());
-            this.put(PdfNameValue.BITS_PER_COMPONENT, new PdfNumber(parser.getBitsPerComponent()));
-            this.addDecodeArray();
-            this.addFilter(parser.getFilter());
-            this.addFilter(image.getCompressionMethod());
-            this.add(new PdfFile(parser.getData()));
-        }
-    }
-
-    private void addDecodeArray() {
-        if (image.getInvertColors()) {
-            PdfArray decodeArray = new PdfArray();
-            int componentAmount = image.getImageParser().getRequiredComponentsForColorSpace(image.getImageParser().getColorSpace());
-            for (int i = 0; i < componentAmount; ++i) {
-                decodeArray.addValue(new PdfNumber(1));
-                decodeArray.addValue(new PdfNumber(0));
+            fill(parser, image.getCompressionMethod());
+        }
+    }
+
+    private PdfImageDictionary() {
+    }
+
+    /**
+     * Creates the image dictionary of the soft mask of an image, which contains the alpha channel of the image.
+     * @param softMask Parser containing the data of the soft mask.
+     * @return the new image dictionary.
+     */
+    public static PdfImageDictionary createSoftMask(ImageParser softMask) {
+        PdfImageDictionary dictionary = new PdfImageDictionary();
+        dictionary.fill(softMask, null);
+        return dictionary;
+    }
+
+    private void fill(ImageParser parser, Compression compressionMethod) {
+        this.put(PdfNameValue.SUB_TYPE, PdfNameValue.IMAGE);
+        this.put(PdfNameValue.WIDTH, new PdfNumber(parser.getWidth()));
+        this.put(PdfNameValue.HEIGHT, new PdfNumber(parser.getHeight()));
+        this.put(PdfNameValue.COLOR_SPACE, createColorSpace(parser));
+        this.put(PdfNameValue.BITS_PER_COMPONENT, new PdfNumber(parser.getBitsPerComponent()));
+        this.addDecodeArray(parser);
+        if (parser.getFilter() != null) {
+            this.addAppliedFilter(parser.getFilter(), createDecodeParameters(parser));
+        }
+        //JPEG data is already compressed and is embedded unchanged, compressing it again only costs time
+        if (compressionMethod != null && compressionMethod != parser.getFilter() && parser.getFilter() != Compression.DCT) {
+            this.addFilter(compressionMethod);
+            this.appliedCompression = compressionMethod;
+            this.digest = parser.getDigest();
+        }
+        this.imageData = new PdfImageData(parser);
+        this.add(imageData);
+    }
+
+    /**
+     * Writes the image data as is, without the line separators that follow the objects of a content stream.
+     */
+    @Override
+    protected void writeContentToStream(OutputStream os) throws IOException {
+        imageData.writeToFile(os);
+    }
+
+    @Override
+    protected boolean isContentLineTerminated() {
+        return false;
+    }
+
+    /**
+     * Returns the encoded image data from the image cache if the image has been written with the same compression settings before,
+     * otherwise the data is encoded and stored in the cache.
+     */
+    @Override
+    protected ByteArrayOutputStream createFilteredContent() throws IOException {
+        if (digest == null) {
+            return super.createFilteredContent();
+        }
+        ImageCache cache = ImageCache.getInstance();
+        String encoding = getEncoding();
+        byte[] encodedData = cache.getEncodedData(digest, encoding);
+        if (encodedData == null) {
+            ByteArrayOutputStream content = super.createFilteredContent();
+            cache.putEncodedData(digest, encoding, content.toByteArray());
+            return content;
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream(encodedData.length);
+        content.write(encodedData, 0, encodedData.length);
+        return content;
+    }
+
+    /**
+     * Describes the compression applied to the image data, which determines the encoded data.
+     * @return the description of the compression.
+     */
+    private String getEncoding() {
+        CompressionPolicy policy = getCompressionPolicy();
+        if (policy == null) {
+            return appliedCompression.name();
+        }
+        return appliedCompression.name() + " " + policy.getLevel(getStreamType()) + " " + policy.getStrategy(getStreamType());
+    }
+
+    /**
+     * Creates the color space entry of the image. Indexed images refer to their color table, which contains RGB colors.
+     * @param parser Parser containing the image data.
+     * @return the color space entry.
+     */
+    private AbstractPdfObject createColorSpace(ImageParser parser) {
+        byte[] colorTable = parser.getColorTable();
+        if (parser.getColorSpace() == ColorSpace.INDEXED && colorTable != null) {
+            PdfArray indexed = new PdfArray();
+            indexed.addValue(new PdfName(PdfNameValue.INDEXED));
+            indexed.addValue(new PdfName(PdfNameValue.DEVICE_RGB));
+            indexed.addValue(new PdfNumber((colorTable.length / 3) - 1));
+            indexed.addValue(new PdfHexString(colorTable));
+            return indexed;
+        }
+        return new PdfName(parser.getColorSpace().getPdfName());
+    }
+
+    /**
+     * Creates the decode parameters needed to undo the predictor applied to the image data.
+     * @param parser Parser containing the image data.
+     * @return the decode parameters, or null if no predictor was applied.
+     */
+    private PdfDictionary createDecodeParameters(ImageParser parser) {
+        if (parser.getPredictor() <= 1) {
+            return null;
+        }
+        int colors = parser.getColorSpace() == ColorSpace.INDEXED ? 1 : parser.getRequiredComponentsForColorSpace(parser.getColorSpace());
+        PdfDictionary parameters = new PdfDictionary(PdfObjectType.DICTIONARY);
+        parameters.put(PdfNameValue.PREDICTOR, new PdfNumber(parser.getPredictor()));
+        parameters.put(PdfNameValue.COLORS, new PdfNumber(colors));
+        parameters.put(PdfNameValue.BITS_PER_COMPONENT, new PdfNumber(parser.getBitsPerComponent()));
+        parameters.put(PdfNameValue.COLUMNS, new PdfNumber(parser.getWidth()));
+        return parameters;
+    }
+
+    private void addDecodeArray(ImageParser parser) {
+        if (image != null && image.getInvertColors()) {
+            int componentAmount = parser.getRequiredComponentsForColorSpace(parser.getColorSpace());
+            if (componentAmount > 0) {
+                PdfArray decodeArray = new PdfArray();
+                for (int i = 0; i < componentAmount; ++i) {
+                    decodeArray.addValue(new PdfNumber(1));
+                    decodeArray.addValue(new PdfNumber(0));
+                }
+                this.put(PdfNameValue.DECODE, decodeArray);
             }
-            this.put(PdfNameValue.DECODE, decodeArray);
         }
     }
+
+    @Override
+    public StreamType getStreamType() {
+        return StreamType.IMAGE;
+    }
 }
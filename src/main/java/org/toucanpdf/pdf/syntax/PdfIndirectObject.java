@@ -38,6 +38,14 @@ public class PdfIndirectObject {
      */
     private int startByte = 0;
     private boolean objectInUse;
+    /**
+     * The number of the object stream containing this object, 0 if this object is written directly to the file.
+     */
+    private int objectStreamNumber = 0;
+    /**
+     * The index of this object within its object stream.
+     */
+    private int objectStreamIndex = 0;
 
     /**
      * Creates a new instance of PDfIndirectObject.
@@ -108,6 +116,32 @@ public class PdfIndirectObject {
         return this.objectInUse;
     }
 
+    /**
+     * Marks this object as stored within an object stream instead of being written directly to the file.
+     * @param streamNumber Object number of the object stream.
+     * @param index Index of this object within the object stream.
+     */
+    public void setObjectStream(int streamNumber, int index) {
+        this.objectStreamNumber = streamNumber;
+        this.objectStreamIndex = index;
+    }
+
+    /**
+     * Checks if this object is stored within an object stream.
+     * @return true if the object is stored in an object stream, false if it is written directly to the file.
+     */
+    public boolean isInObjectStream() {
+        return objectStreamNumber != 0;
+    }
+
+    public int getObjectStreamNumber() {
+        return this.objectStreamNumber;
+    }
+
+    public int getObjectStreamIndex() {
+        return this.objectStreamIndex;
+    }
+
     public AbstractPdfObject getObject() {
         return this.object;
     }
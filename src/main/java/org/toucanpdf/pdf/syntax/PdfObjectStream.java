@@ -0,0 +1,73 @@
+package org.toucanpdf.pdf.syntax;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.toucanpdf.model.Compression;
+import org.toucanpdf.model.PdfNameValue;
+import org.toucanpdf.model.StreamType;
+import org.toucanpdf.utility.ByteEncoder;
+import org.toucanpdf.utility.Constants;
+
+/**
+ * Represents a PDF object stream. Object streams contain a sequence of non-stream objects, which allows these objects to be compressed.
+ * The stream starts with pairs of object numbers and offsets, followed by the objects themselves.
+ *
+ * @author Dylan de Wolff
+ */
+public class PdfObjectStream extends PdfStream {
+    private List<PdfIndirectObject> objects;
+
+    /**
+     * Creates a new instance of PdfObjectStream. The stream is compressed using the flate method.
+     */
+    public PdfObjectStream() {
+        super();
+        objects = new ArrayList<>();
+        this.put(PdfNameValue.TYPE, PdfNameValue.OBJECT_STREAM);
+        this.addFilter(Compression.FLATE);
+    }
+
+    /**
+     * Adds the given indirect object to this object stream. Stream objects can not be stored within an object stream.
+     * @param object Object to be added.
+     * @return the index of the object within this object stream.
+     */
+    public int add(PdfIndirectObject object) {
+        objects.add(object);
+        return objects.size() - 1;
+    }
+
+    /**
+     * Returns the amount of objects in this object stream.
+     * @return amount of objects.
+     */
+    public int getObjectAmount() {
+        return objects.size();
+    }
+
+    @Override
+    protected void writeContentToStream(OutputStream os) throws IOException {
+        ByteArrayOutputStream objectData = new ByteArrayOutputStream();
+        StringBuilder offsets = new StringBuilder();
+        for (PdfIndirectObject object : objects) {
+            offsets.append(object.getNumber()).append(' ').append(objectData.size()).append(' ');
+            object.getObject().writeToFile(objectData);
+            objectData.write(Constants.LINE_SEPARATOR);
+        }
+        offsets.append(Constants.LINE_SEPARATOR_STRING);
+        byte[] header = ByteEncoder.getBytes(offsets.toString());
+        this.put(PdfNameValue.OBJECT_AMOUNT, new PdfNumber(objects.size()));
+        this.put(PdfNameValue.FIRST, new PdfNumber(header.length));
+        os.write(header);
+        objectData.writeTo(os);
+    }
+
+    @Override
+    public StreamType getStreamType() {
+        return StreamType.OBJECT_STREAM;
+    }
+}
@@ -103,34 +103,43 @@ public class PdfPage extends PdfDictionary {
      * @param indirectObject Resource to be added.
      */
     public void addResource(PdfIndirectObject indirectObject) {
+        addResource(indirectObject.getReference(), indirectObject.getObject().getType());
+    }
+
+    /**
+     * Adds a resource to the resource array using only its reference, which allows resources to be added after the object itself has been written and released.
+     * @param reference Reference to the resource to be added.
+     * @param type Type of the resource.
+     */
+    public void addResource(PdfIndirectObjectReference reference, PdfObjectType type) {
         PdfDictionary currentResources = (PdfDictionary) this.get(RESOURCES);
-        PdfName key = getKeyForType(indirectObject.getObject().getType());
+        PdfName key = getKeyForType(type);
 
-        if (!objectInResources(indirectObject, currentResources, key)) {
-            AddNewResource(indirectObject, currentResources, key);
+        if (!objectInResources(reference, currentResources, key)) {
+            AddNewResource(reference, currentResources, key);
         }
     }
 
-    private void AddNewResource(PdfIndirectObject indirectObject, PdfDictionary currentResources, PdfName key) {
+    private void AddNewResource(PdfIndirectObjectReference reference, PdfDictionary currentResources, PdfName key) {
         ++resourceCount;
         String resourceReference = RESOURCE_REFERENCE_PREFIX + this.resourceCount;
-        indirectObject.getReference().setResourceReference(resourceReference);
+        reference.setResourceReference(resourceReference);
         PdfName resourceKey = new PdfName(resourceReference);
 
         if (currentResources.get(key) != null) {
             PdfDictionary keyResourceDictionary = (PdfDictionary) currentResources.get(key);
-            keyResourceDictionary.put(resourceKey, indirectObject.getReference());
+            keyResourceDictionary.put(resourceKey, reference);
         } else {
             PdfDictionary newResource = new PdfDictionary(PdfObjectType.DICTIONARY);
-            newResource.put(resourceKey, indirectObject.getReference());
+            newResource.put(resourceKey, reference);
             currentResources.put(key, newResource);
         }
     }
 
-    private boolean objectInResources(PdfIndirectObject indirectObject, PdfDictionary currentResources, PdfName key) {
+    private boolean objectInResources(PdfIndirectObjectReference reference, PdfDictionary currentResources, PdfName key) {
         if (currentResources.get(key) != null) {
             PdfDictionary keyResources = (PdfDictionary) currentResources.get(key);
-            if (keyResources.containsValue(indirectObject.getReference())) {
+            if (keyResources.containsValue(reference)) {
                 return true;
             }
         }
@@ -15,6 +15,10 @@ import org.toucanpdf.model.PdfNameValue;
  */
 public class PdfPageTree extends PdfDictionary {
     private List<PdfIndirectObject> kids;
+    /**
+     * References to children that have already been written and released, see {@link #releaseKids()}.
+     */
+    private List<PdfIndirectObjectReference> releasedKids;
 
     /**
      * Creates a new instance of PdfPageTree.
@@ -22,6 +26,7 @@ public class PdfPageTree extends PdfDictionary {
     public PdfPageTree() {
         super(PdfObjectType.PAGETREE);
         kids = new ArrayList<>();
+        releasedKids = new ArrayList<>();
         initPageTree();
     }
 
@@ -37,7 +42,7 @@ public class PdfPageTree extends PdfDictionary {
      * @return size of page tree.
      */
     public int getSize() {
-        int size = 1;
+        int size = 1 + releasedKids.size();
         for (PdfIndirectObject kid : kids) {
             PdfObjectType type = kid.getObject().getType();
             if (type.equals(PdfObjectType.PAGETREE)) {
@@ -73,11 +78,25 @@ public class PdfPageTree extends PdfDictionary {
         kids.add(indirectPage);
     }
 
+    /**
+     * Releases all current children. Only the references to the children are kept, so the page tree can still refer to them 
+     * once they have been written while the objects themselves can be discarded.
+     */
+    public void releaseKids() {
+        for (PdfIndirectObject kid : kids) {
+            releasedKids.add(kid.getReference());
+        }
+        kids = new ArrayList<>();
+    }
+
     /**
      * Adds the references to all the pages/page tree's inside this object to the dictionary.
      */
     private void setKidReferences() {
         PdfArray kidsReferenceArray = new PdfArray();
+        for (PdfIndirectObjectReference releasedKid : releasedKids) {
+            kidsReferenceArray.addValue(releasedKid);
+        }
         for (PdfIndirectObject kid : kids) {
             kidsReferenceArray.addValue(kid.getReference());
         }
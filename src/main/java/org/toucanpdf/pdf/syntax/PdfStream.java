@@ -1,6 +1,7 @@
 package org.toucanpdf.pdf.syntax;
 
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
@@ -8,7 +9,9 @@ import java.util.LinkedList;
 import java.util.List;
 
 import org.toucanpdf.model.Compression;
+import org.toucanpdf.model.CompressionPolicy;
 import org.toucanpdf.model.PdfNameValue;
+import org.toucanpdf.model.StreamType;
 import org.toucanpdf.utility.ByteEncoder;
 import org.toucanpdf.utility.Compressor;
 import org.toucanpdf.utility.Constants;
@@ -38,8 +41,17 @@ public class PdfStream extends PdfDictionary {
     private static final String END_TEXT_STREAM = "ET" + Constants.LINE_SEPARATOR_STRING;
     private static final PdfName LENGTH = new PdfName(PdfNameValue.LENGTH);
     private static final PdfName FILTER = new PdfName(PdfNameValue.FILTER);
+    private static final PdfName DECODE_PARAMETERS = new PdfName(PdfNameValue.DECODE_PARAMETERS);
     private List<Compression> filterList = new LinkedList<Compression>();
     private List<AbstractPdfObject> contents;
+    /**
+     * Contains the filtered content if the stream has been compressed ahead of writing, null otherwise.
+     */
+    private ByteArrayOutputStream compressedContent = null;
+    /**
+     * Determines the compression level and strategy of this stream, the defaults are used if no policy is set.
+     */
+    private CompressionPolicy compressionPolicy = null;
 
     /**
      * Creates a new instance of PdfStream.
@@ -60,48 +72,103 @@ public class PdfStream extends PdfDictionary {
 
     @Override
     public void writeToFile(OutputStream os) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        writeContentToStream(baos);
-        baos.flush();
-        baos.close();
-        byte[] data = processCompression(baos.toByteArray());
-        updateLength(data);
+        ByteArrayOutputStream data = compressedContent != null ? compressedContent : createFilteredContent();
+        compressedContent = null;
+        updateLength(data.size());
         super.writeToFile(os);
         os.write(Constants.LINE_SEPARATOR);
         os.write(ByteEncoder.getBytes(START_STREAM));
-        os.write(data);
-        if (this.filterList.size() > 0) {
+        data.writeTo(os);
+        if (this.filterList.size() > 0 || !isContentLineTerminated()) {
             os.write(Constants.LINE_SEPARATOR);
         }
         os.write(ByteEncoder.getBytes(END_STREAM));
     }
 
-    private void writeContentToStream(ByteArrayOutputStream bigBaos) throws IOException {
+    /**
+     * Applies the filters to the content of this stream and keeps the result until the stream is written. 
+     * This allows streams to be compressed on other threads ahead of writing them. 
+     * Different streams can be compressed concurrently, but the content of this stream should not be changed afterwards.
+     * @throws IOException if writing the content caused an exception
+     */
+    public void compress() throws IOException {
+        compressedContent = createFilteredContent();
+    }
+
+    /**
+     * Writes the content of this stream through its filters.
+     * @return the filtered content.
+     * @throws IOException if writing the content caused an exception
+     */
+    protected ByteArrayOutputStream createFilteredContent() throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        OutputStream content = data;
+        for (int i = filterList.size() - 1; i >= 0; --i) {
+            if (compressionPolicy != null) {
+                content = Compressor.compressingStream(content, filterList.get(i), compressionPolicy.getLevel(getStreamType()),
+                        compressionPolicy.getStrategy(getStreamType()));
+            } else {
+                content = Compressor.compressingStream(content, filterList.get(i));
+            }
+        }
+        try {
+            writeContentToStream(content);
+        } finally {
+            content.close();
+        }
+        return data;
+    }
+
+    /**
+     * Returns the type of this stream, which determines the compression settings taken from the compression policy. 
+     * @return the stream type.
+     */
+    public StreamType getStreamType() {
+        return StreamType.CONTENT;
+    }
+
+    public CompressionPolicy getCompressionPolicy() {
+        return compressionPolicy;
+    }
+
+    /**
+     * Sets the policy used to determine the compression level and strategy of this stream.
+     * @param compressionPolicy Policy to use, or null to use the default level and strategy.
+     */
+    public void setCompressionPolicy(CompressionPolicy compressionPolicy) {
+        this.compressionPolicy = compressionPolicy;
+    }
+
+    /**
+     * Writes the uncompressed content of the stream to the given OutputStream. 
+     * The filters of this stream are applied to the data while it is being written, so the uncompressed content is never held in memory as a whole.
+     * @param os OutputStream to write to.
+     * @throws IOException if writing to the outputstream caused an exception
+     */
+    protected void writeContentToStream(OutputStream os) throws IOException {
+        LastByteOutputStream contentStream = new LastByteOutputStream(os);
         for (int i = 0; i < contents.size(); ++i) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            contentStream.resetLastByte();
             if (checkWriteBefore(i)) {
-                baos.write(getWriteBeforeStreamContent(contents.get(i)));
+                contentStream.write(getWriteBeforeStreamContent(contents.get(i)));
             }
-            contents.get(i).writeToFile(baos);
+            contents.get(i).writeToFile(contentStream);
             if (checkWriteAfter(i)) {
-                baos.write(getWriteAfterStreamContent(contents.get(i)));
+                contentStream.write(getWriteAfterStreamContent(contents.get(i)));
             }
-            String s = ByteEncoder.getString(baos);
-            if (!s.endsWith(Constants.LINE_SEPARATOR_STRING)) {
-                baos.write(Constants.LINE_SEPARATOR);
+            if (!contentStream.endsWith(Constants.LINE_SEPARATOR)) {
+                contentStream.write(Constants.LINE_SEPARATOR);
             }
-            baos.flush();
-            bigBaos.write(baos.toByteArray());
-            baos.close();
         }
     }
 
-    private byte[] processCompression(byte[] data) {
-        byte[] compressedData = data;
-        for (Compression com : filterList) {
-            compressedData = Compressor.compress(compressedData, com);
-        }
-        return compressedData;
+    /**
+     * Returns whether the unfiltered content of this stream ends with a line separator. The objects of a content stream are always 
+     * followed by a line separator, so the separator before the end of the stream is only needed if the content is filtered.
+     * @return true if the content ends with a line separator.
+     */
+    protected boolean isContentLineTerminated() {
+        return true;
     }
 
     /**
@@ -127,12 +194,11 @@ public class PdfStream extends PdfDictionary {
 
     /**
      * Updates the length of the stream.
-     * @param streamContent Content of the stream
-     * @throws IOException 
+     * @param length Length of the (compressed) content of the stream.
      */
-    private void updateLength(byte[] streamContent) throws IOException {
+    private void updateLength(int length) {
         PdfNumber number = (PdfNumber) this.get(LENGTH);
-        number.setNumber(streamContent.length);
+        number.setNumber(length);
     }
 
     /**
@@ -181,21 +247,91 @@ public class PdfStream extends PdfDictionary {
      * @param method Compression method to use.
      */
     public void addFilter(Compression method) {
+        if (addFilterName(method, null)) {
+            filterList.add(method);
+        }
+    }
+
+    /**
+     * Adds a filter that has already been applied to the content of this stream to the front of the filter array.
+     * The content is not encoded again when the stream is written, so this should be called before any filters are added that still need to be applied.
+     * @param method Compression method that was applied.
+     * @param decodeParameters Parameters needed to decode the content, or null if the defaults of the filter can be used.
+     */
+    public void addAppliedFilter(Compression method, PdfDictionary decodeParameters) {
+        addFilterName(method, decodeParameters);
+    }
+
+    /**
+     * Adds the name of the given filter to the front of the filter array, unless the filter is already present.
+     * The decode parameters array is kept in line with the filter array once any of the filters has parameters.
+     * @param method Compression method to add.
+     * @param decodeParameters Parameters of the filter, or null if the filter has none.
+     * @return true if the filter was added, false if it was already present.
+     */
+    private boolean addFilterName(Compression method, PdfDictionary decodeParameters) {
         PdfName name = new PdfName(method.getPdfName());
         PdfArray array = getFilterArray();
-        boolean nameExists = false;
         for (AbstractPdfObject object : array.getValues()) {
             if (object instanceof PdfName && object.equals(name)) {
-                nameExists = true;
+                return false;
             }
         }
-        if (!nameExists) {
-            array.addValue(0, name);
-            filterList.add(method);
+        PdfArray parameters = (PdfArray) this.get(DECODE_PARAMETERS);
+        if (parameters == null && decodeParameters != null) {
+            parameters = new PdfArray();
+            for (int i = 0; i < array.getSize(); ++i) {
+                parameters.addValue(new PdfDictionary(PdfObjectType.DICTIONARY));
+            }
+            this.put(DECODE_PARAMETERS, parameters);
+        }
+        if (parameters != null) {
+            parameters.addValue(0, decodeParameters != null ? decodeParameters : new PdfDictionary(PdfObjectType.DICTIONARY));
         }
+        array.addValue(0, name);
+        return true;
     }
 
     public int getContentSize() {
         return this.contents.size();
     }
+
+    /**
+     * OutputStream that passes all data on to the underlying stream while remembering the last written byte.
+     * This is used to determine whether a content object ended with a line separator, without buffering the object.
+     */
+    private static class LastByteOutputStream extends FilterOutputStream {
+        private int lastByte = -1;
+
+        public LastByteOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            lastByte = b & 0xFF;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (len > 0) {
+                lastByte = b[off + len - 1] & 0xFF;
+            }
+        }
+
+        public void resetLastByte() {
+            lastByte = -1;
+        }
+
+        /**
+         * Returns whether the bytes written since the last reset end with the given single byte separator.
+         * @param separator Separator to check for.
+         * @return true if the last written byte equals the separator, false otherwise.
+         */
+        public boolean endsWith(byte[] separator) {
+            return lastByte != -1 && lastByte == (separator[separator.length - 1] & 0xFF);
+        }
+    }
 }
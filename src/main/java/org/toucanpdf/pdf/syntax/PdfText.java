@@ -1,14 +1,11 @@
 package org.toucanpdf.pdf.syntax;
 
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
-
 import org.toucanpdf.model.Alignment;
 import org.toucanpdf.model.Font;
 import org.toucanpdf.model.FontMetrics;
 import org.toucanpdf.model.Position;
 import org.toucanpdf.model.Text;
+import org.toucanpdf.model.TextLines;
 import org.toucanpdf.model.state.StateSplittableText;
 import org.toucanpdf.utility.Constants;
 
@@ -65,7 +62,11 @@ public class PdfText extends AbstractPdfObject {
         if (pos == null) {
             pos = text.getPosition();
         }
-        return text.getScaleX() + " " + text.getShearX() + " " + text.getShearY() + " " + text.getScaleY() + " " + pos.getX() + " " + pos.getY() + MATRIX;
+        return createMatrix(text, pos.getX(), pos.getY());
+    }
+
+    private String createMatrix(Text text, double x, double y) {
+        return text.getScaleX() + " " + text.getShearX() + " " + text.getShearY() + " " + text.getScaleY() + " " + x + " " + y + MATRIX;
     }
 
     /**
@@ -85,50 +86,40 @@ public class PdfText extends AbstractPdfObject {
      * @param leading Space between two lines.
      */
     public void addTextString(StateSplittableText text, int leading) {
-        Map<Position, String> textSplit = text.getTextSplit();
-        Map<Position, Double> justification = text.getJustificationOffset();
-        Set<Entry<Position, String>> entrySet = textSplit.entrySet();
-        addTextString(entrySet, text, justification, leading);
-    }
-
-    private void addTextString(Set<Entry<Position, String>> entrySet, Text text, Map<Position, Double> justification, int leading) {
+        TextLines lines = text.getLines();
+        boolean justified = Alignment.JUSTIFIED.equals(text.getAlignment());
         StringBuilder sb = new StringBuilder();
-        int i = 0;
-        for (Entry<Position, String> entry : entrySet) {
-            if (!isNewLineIndicator(entry)) {
-                if (textAlignmentIsJustifiedAndNotLastEntry(entrySet, text, i)) {
-                    sb.append(justification.get(entry.getKey())).append(WORD_SPACING);
+        for (int i = 0; i < lines.size(); ++i) {
+            String line = lines.getLine(i);
+            if (!isNewLineIndicator(line)) {
+                if (justified && i != lines.size() - 1) {
+                    sb.append(lines.getJustificationOffset(i)).append(WORD_SPACING);
                 }
 
-                String textToProcess = determineTextToProcessBasedOnFontDifferences(entry);
-                sb.append(createMatrix(text, entry.getKey()));
+                String textToProcess = determineTextToProcessBasedOnFontDifferences(line);
+                sb.append(createMatrix(text, lines.getX(i), lines.getY(i)));
                 sb.append(text.getColor().toString()).append(" rg ");
                 sb.append("[(").append(this.processKerning(textToProcess, text.getFont())).append(")] TJ");
             } else {
                 sb.append(getNewLineStringForText(leading));
             }
-            ++i;
             sb.append(Constants.LINE_SEPARATOR_STRING);
         }
         this.addToByteRepresentation(sb.toString());
     }
 
-    private String determineTextToProcessBasedOnFontDifferences(Entry<Position, String> entry) {
+    private String determineTextToProcessBasedOnFontDifferences(String line) {
         String textToProcess;
         if (differences != null) {
-            textToProcess = differences.convertString(entry.getValue());
+            textToProcess = differences.convertString(line);
         } else {
-            textToProcess = getEscapedString(entry.getValue());
+            textToProcess = getEscapedString(line);
         }
         return textToProcess;
     }
 
-    private boolean textAlignmentIsJustifiedAndNotLastEntry(Set<Entry<Position, String>> entrySet, Text text, int index) {
-        return Alignment.JUSTIFIED.equals(text.getAlignment()) && (index != entrySet.size() - 1);
-    }
-
-    private boolean isNewLineIndicator(Entry<Position, String> entry) {
-        return Constants.LINE_SEPARATOR_STRING.equals(entry.getValue());
+    private boolean isNewLineIndicator(String line) {
+        return Constants.LINE_SEPARATOR_STRING.equals(line);
     }
 
     private String getEscapedString(String value) {
@@ -1,17 +1,16 @@
 package org.toucanpdf.state;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.toucanpdf.api.BaseText;
 import org.toucanpdf.model.Position;
 import org.toucanpdf.model.Text;
+import org.toucanpdf.model.TextLines;
 import org.toucanpdf.model.state.StateSpacing;
 import org.toucanpdf.model.state.StateSplittableText;
 
 public abstract class AbstractStateText extends BaseText implements StateSplittableText, StateSpacing {
-    protected Map<Position, String> textSplit = new LinkedHashMap<>();
-    protected Map<Position, Double> justificationOffset = new LinkedHashMap<>();
+    protected TextLines lines = new TextLines();
 
     public AbstractStateText(String text) {
         super(text);
@@ -21,14 +20,19 @@ public abstract class AbstractStateText extends BaseText implements StateSplitta
         super(part);
     }
 
+    @Override
+    public TextLines getLines() {
+        return this.lines;
+    }
+
     @Override
     public Map<Position, String> getTextSplit() {
-        return this.textSplit;
+        return this.lines.toMap();
     }
 
     @Override
     public Map<Position, Double> getJustificationOffset() {
-        return this.justificationOffset;
+        return this.lines.toJustificationOffsetMap();
     }
 
     @Override
@@ -62,31 +66,28 @@ public abstract class AbstractStateText extends BaseText implements StateSplitta
     }
 
     /**
-     * Processes the alignment of a single given line.
-     * @param line Line to process.
-     * @param position Position the line is on.
-     * @param width Width of the given line.
+     * Aligns a single line within the open space it is filling and adds it to the lines of this text.
+     * @param line Line to add.
+     * @param x The x value of the start of the open space.
+     * @param y The y value of the line.
+     * @param width Width of the given line, this is not used for left aligned text.
      * @param openSpaceSize Size of the open space the line is filling.
-     * @return a new position object that has been adjusted for the alignment.
+     * @return the index of the added line.
      */
-    protected Position processAlignment(String line, Position position, double width, double openSpaceSize) {
-        Position newPos = new Position(position);
+    protected int addAlignedLine(CharSequence line, double x, double y, double width, double openSpaceSize) {
         double remainingWidth = openSpaceSize - width;
         switch (getAlignment()) {
         case RIGHT:
-            newPos.setX(position.getX() + remainingWidth);
-            break;
+            return lines.add(x + remainingWidth, y, line);
         case CENTERED:
-            newPos.setX(position.getX() + (remainingWidth / 2));
-            break;
+            return lines.add(x + (remainingWidth / 2), y, line);
         case JUSTIFIED:
-            int wordAmount = Math.max((line.split(" ").length - 1), 0);
-            double offset = remainingWidth / wordAmount;
-            justificationOffset.put(newPos, offset);
-            break;
+            int wordAmount = Math.max((line.toString().split(" ").length - 1), 0);
+            int index = lines.add(x, y, line);
+            lines.setJustificationOffset(index, remainingWidth / wordAmount);
+            return index;
         default:
-            break;
+            return lines.add(x, y, line);
         }
-        return newPos;
     }
 }
@@ -2,20 +2,33 @@ package org.toucanpdf.state;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.toucanpdf.model.DocumentPart;
 import org.toucanpdf.model.FontMetrics;
 import org.toucanpdf.model.Position;
 import org.toucanpdf.model.Text;
+import org.toucanpdf.model.TextLines;
 import org.toucanpdf.model.state.StateCellText;
 import org.toucanpdf.utility.FloatEqualityTester;
 
 public class BaseStateCellText extends AbstractStateText implements StateCellText {
     private final static int REQUIRED_WIDTH = 10;
     private final static int DEFAULT_TOTAL_WIDTH = 2;
+    /**
+     * The maximum amount of widths the lines of a text are kept for, a text is normally only laid out at a few different column widths.
+     */
+    private static final int MAX_MEASURED_WIDTHS = 8;
+    /**
+     * Counters of the line measurements, these are updated by all layout threads so they are kept in adders instead of atomic values.
+     */
+    private static final LongAdder LINE_MEASUREMENTS = new LongAdder();
+    private static final LongAdder REUSED_LINE_MEASUREMENTS = new LongAdder();
     private DocumentPart originalObject;
+    private Measurements measurements;
 
     public BaseStateCellText(String text) {
         super(text);
@@ -26,20 +39,73 @@ public class BaseStateCellText extends AbstractStateText implements StateCellTex
         if (text instanceof BaseStateText) {
             this.originalObject = ((BaseStateText) text).getOriginalObject();
         }
+        if (text instanceof BaseStateCellText) {
+            this.measurements = ((BaseStateCellText) text).measurements;
+        }
     }
 
     @Override
     public double calculateContentHeight(double availableWidth, double leading, Position position, boolean processPositioning) {
-        textSplit = new LinkedHashMap<>();
+        lines = new TextLines();
+        availableWidth -= marginRight + marginLeft;
+        LineLayout layout = getLineLayout(availableWidth);
+        if (processPositioning) {
+            Position pos = SetupPosition(position);
+            for (int i = 0; i < layout.lines.length; ++i) {
+                processLineAddition(pos, leading, layout.lines[i], layout.lineWidths[i], availableWidth);
+            }
+        }
+        //content height is equal to the amount of lines times leading and margins, we have to deduct leading once because the first line does not have leading
+        return determineTotalContentHeight(layout.lines.length, getFont().getMetrics(), layout.firstLine, layout.lastLine);
+    }
+
+    /**
+     * Returns the lines this text is split into for the given width, the lines are only measured again if the text, font or text size
+     * have changed or the text has not been measured for this width before. Copies of this text share the measurements until one of 
+     * these values is changed on the copy, so copies laid out at different widths each keep the lines for their own width.
+     * @param availableWidth Width available for the text, excluding margins.
+     * @return the lines of the text.
+     */
+    private LineLayout getLineLayout(double availableWidth) {
+        Measurements current = getMeasurements();
+        LineLayout layout = current.lineLayouts.get(availableWidth);
+        if (layout == null) {
+            LINE_MEASUREMENTS.increment();
+            layout = measureLines(availableWidth);
+            current.addLineLayout(layout);
+        } else {
+            REUSED_LINE_MEASUREMENTS.increment();
+        }
+        return layout;
+    }
+
+    /**
+     * Returns the amount of widths for which the lines of this text are currently known.
+     * @return the amount of measured widths.
+     */
+    int getMeasuredWidthAmount() {
+        return getMeasurements().lineLayouts.size();
+    }
+
+    private Measurements getMeasurements() {
+        Measurements current = this.measurements;
+        FontMetrics metrics = getFont().getMetrics();
+        if (current == null || !current.isFor(getText(), metrics, getTextSize())) {
+            current = new Measurements(getText(), metrics, getTextSize());
+            this.measurements = current;
+        }
+        return current;
+    }
+
+    private LineLayout measureLines(double availableWidth) {
         ArrayList<String> strings = new ArrayList<String>(Arrays.asList(getText().split(" ")));
         strings.add("");
         int textSize = this.getTextSize();
         double width = 0;
         FontMetrics metrics = getFont().getMetrics();
         StringBuilder currentLine = new StringBuilder();
-        Position pos = SetupPosition(position);
-        availableWidth -= marginRight + marginLeft;
-        int lineAdditions = 0;
+        List<String> lineList = new ArrayList<>();
+        List<Double> widthList = new ArrayList<>();
         String firstLine = null;
         String lastLine = null;
         double spaceSize = (metrics.getWidthPoint("space") * textSize);
@@ -61,25 +127,27 @@ public class BaseStateCellText extends AbstractStateText implements StateCellTex
                     //else simply move this word to the next line
                     strings.add(i + 1, s);
                 }
-                if (lineAdditions == 0) {
+                if (lineList.isEmpty()) {
                     firstLine = line;
                 }
-                lineAdditions += 1;
-                processLineAddition(processPositioning, pos, leading, line, metrics.getWidthPointOfString(line, textSize, true), availableWidth);
+                lineList.add(line);
+                widthList.add(metrics.getWidthPointOfString(line, textSize, true));
                 width = 0;
                 currentLine = new StringBuilder();
             } else if (i == (strings.size() - 1) && (currentLine.length() != 0 || !s.isEmpty())) {
                 currentLine.append(s);
-                lineAdditions += 1;
                 lastLine = currentLine.toString();
-                processLineAddition(processPositioning, pos, leading, lastLine,
-                        metrics.getWidthPointOfString(currentLine.toString(), textSize, true), availableWidth);
+                lineList.add(lastLine);
+                widthList.add(metrics.getWidthPointOfString(lastLine, textSize, true));
             } else {
                 currentLine.append(s).append(" ");
             }
         }
-        //content height is equal to the amount of lines times leading and margins, we have to deduct leading once because the first line does not have leading
-        return determineTotalContentHeight(lineAdditions, metrics, firstLine, lastLine);
+        double[] lineWidths = new double[widthList.size()];
+        for (int i = 0; i < lineWidths.length; ++i) {
+            lineWidths[i] = widthList.get(i);
+        }
+        return new LineLayout(availableWidth, lineList.toArray(new String[lineList.size()]), lineWidths, firstLine, lastLine);
     }
 
     private Position SetupPosition(Position position) {
@@ -93,12 +161,10 @@ public class BaseStateCellText extends AbstractStateText implements StateCellTex
     public void processVerticalAlignment(double height) {
         //we want to use general font values in this calculation to make sure single lines of text are placed on the same baseline. 
         //If we're using the ascent/descent of individual lines to determine vertical alignment, the text will always be slightly off due to some lines being higher
-        double diff = (height - marginTop - marginBottom) - determineContentHeightWithGeneralFontValues(this.textSplit.size(), this.getFont().getMetrics());
+        double diff = (height - marginTop - marginBottom) - determineContentHeightWithGeneralFontValues(this.lines.size(), this.getFont().getMetrics());
         double yAdjustment = diff / 2;
-        if (this.textSplit.size() > 0 && diff > 0) {
-            for (Position p : textSplit.keySet()) {
-                p.adjustY(-yAdjustment);
-            }
+        if (this.lines.size() > 0 && diff > 0) {
+            lines.adjustY(-yAdjustment);
         }
     }
 
@@ -126,14 +192,10 @@ public class BaseStateCellText extends AbstractStateText implements StateCellTex
         return contentHeight;
     }
 
-    private void processLineAddition(boolean processPositioning, Position pos, double leading, String line, double width, double availableSpace) {
-        if (processPositioning) {
-            double yAdjustment = textSplit.size() > 0 ? -(getRequiredSpaceAboveLine() + leading) : -getRequiredSpaceAboveLine();
-            pos.adjustY(yAdjustment);
-            pos = processAlignment(line, pos, width, availableSpace);
-            textSplit.put(new Position(pos), line);
-            pos.adjustY(-getRequiredSpaceBelowLine());
-        }
+    private void processLineAddition(Position pos, double leading, String line, double width, double availableSpace) {
+        double yAdjustment = lines.size() > 0 ? -(getRequiredSpaceAboveLine() + leading) : -getRequiredSpaceAboveLine();
+        pos.adjustY(yAdjustment);
+        addAlignedLine(line, pos.getX(), pos.getY(), width, availableSpace);
     }
 
     private String processCutOff(StringBuilder currentLine, String currentString, double currentWidth, double availableWidth, List<String> strings,
@@ -196,27 +258,129 @@ public class BaseStateCellText extends AbstractStateText implements StateCellTex
 
     @Override
     public double getTotalRequiredWidth() {
-        char[] characters = this.getText().toCharArray();
-        double totalWidthRequired = DEFAULT_TOTAL_WIDTH + marginLeft + marginRight;
+        Measurements current = getMeasurements();
+        double margins = marginLeft + marginRight;
+        TotalWidth totalWidth = current.totalWidth;
+        if (totalWidth == null || Double.compare(totalWidth.margins, margins) != 0) {
+            char[] characters = this.getText().toCharArray();
+            double totalWidthRequired = DEFAULT_TOTAL_WIDTH + marginLeft + marginRight;
 
-        for (int i = 0; i < characters.length; ++i) {
-            Character next = (i + 1 != characters.length) ? characters[i + 1] : null;
-            totalWidthRequired += getCharacterSize(characters[i], next);
+            for (int i = 0; i < characters.length; ++i) {
+                Character next = (i + 1 != characters.length) ? characters[i + 1] : null;
+                totalWidthRequired += getCharacterSize(characters[i], next);
+            }
+            totalWidth = new TotalWidth(margins, totalWidthRequired);
+            current.totalWidth = totalWidth;
         }
-        return totalWidthRequired;
+        return totalWidth.width;
     }
 
     @Override
     public double getMinimumWidth() {
-        FontMetrics metrics = getFont().getMetrics();
-        String[] words = this.getText().split(" ");
-        double largestWordLength = 0;
-        for (String word : words) {
-            double length = metrics.getWidthPointOfString(word, this.getTextSize(), true);
-            if (length > largestWordLength) {
-                largestWordLength = length;
+        Measurements current = getMeasurements();
+        if (Double.isNaN(current.largestWordWidth)) {
+            FontMetrics metrics = current.metrics;
+            String[] words = this.getText().split(" ");
+            double largestWordLength = 0;
+            for (String word : words) {
+                double length = metrics.getWidthPointOfString(word, this.getTextSize(), true);
+                if (length > largestWordLength) {
+                    largestWordLength = length;
+                }
             }
+            current.largestWordWidth = largestWordLength;
+        }
+        return current.largestWordWidth + marginLeft + marginRight;
+    }
+
+    /**
+     * Returns the amount of times the text of a cell has been split into lines since the counters were last reset.
+     * @return amount of line measurements.
+     */
+    public static long getLineMeasurementAmount() {
+        return LINE_MEASUREMENTS.sum();
+    }
+
+    /**
+     * Returns the amount of times the lines of a cell were reused from an earlier measurement since the counters were last reset.
+     * @return amount of reused line measurements.
+     */
+    public static long getReusedLineMeasurementAmount() {
+        return REUSED_LINE_MEASUREMENTS.sum();
+    }
+
+    /**
+     * Resets the line measurement counters to zero. Measurements made concurrently with the reset may or may not be counted.
+     */
+    public static void resetMeasurementCounters() {
+        LINE_MEASUREMENTS.reset();
+        REUSED_LINE_MEASUREMENTS.reset();
+    }
+
+    /**
+     * Measurements of a text that remain valid as long as the text, font and text size are unchanged. Margins are not included.
+     */
+    private static final class Measurements {
+        private final String text;
+        private final FontMetrics metrics;
+        private final int textSize;
+        private volatile double largestWordWidth = Double.NaN;
+        private volatile TotalWidth totalWidth;
+        /**
+         * The lines of the text for each available width it has been measured for.
+         */
+        private final Map<Double, LineLayout> lineLayouts = new ConcurrentHashMap<>();
+
+        private Measurements(String text, FontMetrics metrics, int textSize) {
+            this.text = text;
+            this.metrics = metrics;
+            this.textSize = textSize;
+        }
+
+        /**
+         * Stores the given lines, unless the lines have already been stored for the maximum amount of widths.
+         * Measured lines are never replaced, so copies of the text measuring the same width concurrently obtain equal lines.
+         */
+        private void addLineLayout(LineLayout layout) {
+            if (lineLayouts.size() < MAX_MEASURED_WIDTHS) {
+                lineLayouts.putIfAbsent(layout.availableWidth, layout);
+            }
+        }
+
+        private boolean isFor(String otherText, FontMetrics otherMetrics, int otherTextSize) {
+            return metrics == otherMetrics && textSize == otherTextSize && text.equals(otherText);
+        }
+    }
+
+    /**
+     * The total width required by a text, the width includes the margins the sum was started with.
+     */
+    private static final class TotalWidth {
+        private final double margins;
+        private final double width;
+
+        private TotalWidth(double margins, double width) {
+            this.margins = margins;
+            this.width = width;
+        }
+    }
+
+    /**
+     * The lines a text is split into for a specific available width.
+     */
+    private static final class LineLayout {
+        private final double availableWidth;
+        private final String[] lines;
+        private final double[] lineWidths;
+        private final String firstLine;
+        private final String lastLine;
+
+        private LineLayout(double availableWidth, String[] lines, double[] lineWidths, String firstLine, String lastLine) {
+            this.availableWidth = availableWidth;
+            this.lines = lines;
+            this.lineWidths = lineWidths;
+            this.firstLine = firstLine;
+            this.lastLine = lastLine;
         }
-        return largestWordLength + marginLeft + marginRight;
     }
 }
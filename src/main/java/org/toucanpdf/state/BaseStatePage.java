@@ -1,9 +1,14 @@
 package org.toucanpdf.state;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
+import org.toucanpdf.api.AbstractDocumentPart;
 import org.toucanpdf.api.BasePage;
 import org.toucanpdf.model.DocumentPart;
 import org.toucanpdf.model.DocumentPartType;
@@ -11,14 +16,18 @@ import org.toucanpdf.model.Page;
 import org.toucanpdf.model.Paragraph;
 import org.toucanpdf.model.Position;
 import org.toucanpdf.model.Space;
+import org.toucanpdf.model.Text;
+import org.toucanpdf.model.state.StateImage;
 import org.toucanpdf.model.state.StatePage;
 import org.toucanpdf.model.state.StatePlaceableDocumentPart;
 import org.toucanpdf.model.state.StateSpacing;
+import org.toucanpdf.model.state.StateTable;
 import org.toucanpdf.utility.FloatEqualityTester;
 
 /**
  * Base implementation for the StatePage interface. This class offers the same functionality as BasePage but also offers
  * functionality that allows for the positioning of objects on the page. 
+ * The vertical bands occupied by the parts on the page are kept in an {@link OccupancyIndex}, which is updated as parts are added and positioned.
  * 
  * @see StatePage
  * @see BasePage
@@ -28,6 +37,20 @@ public class BaseStatePage extends BasePage implements StatePage {
     private double filledWidth = 0;
     private double filledHeight = 0;
     private DocumentPart originalObject;
+    private final OccupancyIndex occupancy = new OccupancyIndex();
+    /**
+     * Parts that are on the page but are not in the occupancy index yet, because they have not been positioned or are still being processed.
+     * Paragraphs stay in this set until all their texts have been indexed.
+     */
+    private final Set<StatePlaceableDocumentPart> unindexedParts = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * The content of the page. Parts that are replaced or removed through {@link #getContent()} are removed from the occupancy index.
+     */
+    private final List<DocumentPart> content = new ContentList();
+    /**
+     * Margin used when determining whether the parts overlapping with a position can change between two heights.
+     */
+    private static final double LIMIT_MARGIN = FloatEqualityTester.EPSILON * 2;
 
     /**
      * Creates a new instance of BaseStatePage with the given width and height.
@@ -47,6 +70,135 @@ public class BaseStatePage extends BasePage implements StatePage {
         marginTop(this.getMarginTop());
     }
 
+    @Override
+    public Page add(DocumentPart part) {
+        super.add(part);
+        addUnindexedPart(part);
+        return this;
+    }
+
+    @Override
+    public Page addAll(List<DocumentPart> parts) {
+        super.addAll(parts);
+        parts.forEach(this::addUnindexedPart);
+        return this;
+    }
+
+    @Override
+    public Page removeAll(List<DocumentPart> parts) {
+        Set<DocumentPart> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        removed.addAll(parts);
+        getContent().removeIf(removed::contains);
+        return this;
+    }
+
+    @Override
+    public List<DocumentPart> getContent() {
+        return content;
+    }
+
+    private void addUnindexedPart(DocumentPart part) {
+        if (part instanceof StatePlaceableDocumentPart) {
+            unindexedParts.add((StatePlaceableDocumentPart) part);
+        }
+    }
+
+    /**
+     * Brings the occupancy index up to date. Parts that have been positioned since the last update are added, 
+     * while the part that is currently being positioned is removed, since its size can still change.
+     * @param spacing The part that is currently being positioned.
+     */
+    private void updateOccupancy(StateSpacing spacing) {
+        if (spacing instanceof StatePlaceableDocumentPart) {
+            StatePlaceableDocumentPart owner = occupancy.remove((StatePlaceableDocumentPart) spacing);
+            if (owner != null) {
+                unindexedParts.add(owner);
+            }
+        }
+        if (spacing instanceof Paragraph) {
+            for (Text text : ((Paragraph) spacing).getTextCollection()) {
+                if (text instanceof StatePlaceableDocumentPart && occupancy.remove((StatePlaceableDocumentPart) text) != null) {
+                    unindexedParts.add((StatePlaceableDocumentPart) spacing);
+                }
+            }
+        }
+        unindexedParts.removeIf(part -> indexPart(part, spacing));
+    }
+
+    /**
+     * Adds the given part to the occupancy index if it has been positioned. For paragraphs the texts are added instead.
+     * @param part Part to add.
+     * @param spacing The part that is currently being positioned, this part is not added.
+     * @return true if the part has been indexed completely, false otherwise.
+     */
+    private boolean indexPart(StatePlaceableDocumentPart part, StateSpacing spacing) {
+        if (part == spacing) {
+            return false;
+        }
+        if (DocumentPartType.PARAGRAPH.equals(part.getType())) {
+            boolean indexed = true;
+            for (Text text : ((Paragraph) part).getTextCollection()) {
+                if (text instanceof StatePlaceableDocumentPart && !occupancy.contains((StatePlaceableDocumentPart) text)) {
+                    indexed &= indexPart((StatePlaceableDocumentPart) text, part, spacing);
+                }
+            }
+            return indexed;
+        }
+        return indexPart(part, part, spacing);
+    }
+
+    private boolean indexPart(StatePlaceableDocumentPart part, StatePlaceableDocumentPart owner, StateSpacing spacing) {
+        if (part == spacing || !part.getPosition().hasCustomPosition()) {
+            return false;
+        }
+        double y = part.getPosition().getY();
+        occupancy.add(part, owner, y - part.getContentHeight(this) - part.getMarginBottom(), y + part.getRequiredSpaceAbove());
+        listenTo(part);
+        listenTo(owner);
+        return true;
+    }
+
+    private void listenTo(DocumentPart part) {
+        if (part instanceof AbstractDocumentPart) {
+            ((AbstractDocumentPart) part).setModificationListener(this::partModified);
+        }
+    }
+
+    /**
+     * Called when an indexed part, or the paragraph owning an indexed text, has been changed. The bands of the part are removed,
+     * so the part is indexed again with its new position and size during the next update of the index.
+     * @param part The changed part.
+     */
+    private void partModified(DocumentPart part) {
+        if (part instanceof Paragraph) {
+            ((Paragraph) part).getTextCollection().forEach(this::partModified);
+        }
+        if (part instanceof StatePlaceableDocumentPart) {
+            StatePlaceableDocumentPart owner = occupancy.remove((StatePlaceableDocumentPart) part);
+            if (owner != null) {
+                unindexedParts.add(owner);
+            }
+        }
+    }
+
+    /**
+     * Removes the given part from the page's index, called when the part is no longer part of the content of the page.
+     * @param part The removed part.
+     */
+    private void removeFromIndex(DocumentPart part) {
+        if (part instanceof Paragraph) {
+            for (Text text : ((Paragraph) part).getTextCollection()) {
+                if (text instanceof StatePlaceableDocumentPart) {
+                    occupancy.remove((StatePlaceableDocumentPart) text);
+                }
+            }
+        }
+        if (part instanceof StatePlaceableDocumentPart) {
+            occupancy.remove((StatePlaceableDocumentPart) part);
+            unindexedParts.remove(part);
+        }
+    }
+
     @Override
     public Page marginTop(int marginTop) {
         if (FloatEqualityTester.equals(filledHeight, this.getMarginTop()) || FloatEqualityTester.equals(filledHeight, 0)) {
@@ -119,16 +271,24 @@ public class BaseStatePage extends BasePage implements StatePage {
         if (positionHeight > marginBottom) {
             double potentialWidth = positionWidth + getMarginLeft();
             position = new Position(potentialWidth, potentialHeight);
+            updateOccupancy(spacing);
             while (!positionDetermined) {
+                List<StatePlaceableDocumentPart> parts = null;
                 if (potentialHeight - requiredSpaceBelow <= marginBottom) {
                     positionDetermined = true;
                     position = null;
-                } else if (getWidestOpenSpaceOn(position, requiredSpaceAbove, requiredSpaceBelow, spacing) >= (requiredWidth)) {
-                    positionDetermined = true;
+                } else {
+                    parts = this.getPartsOnLine(position, requiredSpaceAbove, requiredSpaceBelow, spacing);
+                    if (getWidestOpenSpace(this.getOpenSpacesOn(position, true, requiredSpaceAbove, requiredSpaceBelow, spacing, parts)) >= requiredWidth) {
+                        positionDetermined = true;
+                    }
                 }
 
                 if (!positionDetermined) {
-                    potentialHeight -= getLeading();
+                    int steps = getStepsToNextChange(potentialHeight, requiredSpaceAbove, requiredSpaceBelow, parts);
+                    for (int i = 0; i < steps && potentialHeight - requiredSpaceBelow > marginBottom; ++i) {
+                        potentialHeight -= getLeading();
+                    }
                     position = new Position(potentialWidth, potentialHeight);
                 }
             }
@@ -137,15 +297,44 @@ public class BaseStatePage extends BasePage implements StatePage {
     }
 
     /**
-     * Returns the width of the largest open space on the given position.
-     * @param position Position to check.
-     * @param requiredSpaceAbove Free space required above the given position.
-     * @param requiredSpaceBelow Free space required below the given position.
+     * Returns the amount of leading steps that can be taken from the given height before the open spaces can change.
+     * This is only determined if all the given parts are images or tables, since their used space is the same for their entire height.
+     * Text uses a different space on every line, so a single step is returned if any of the given parts is a text.
+     * @param height The height that has been checked.
+     * @param requiredSpaceAbove Free space required above the height.
+     * @param requiredSpaceBelow Free space required below the height.
+     * @param parts The parts that overlap with the height.
+     * @return int containing the amount of steps, at least 1.
+     */
+    private int getStepsToNextChange(double height, double requiredSpaceAbove, double requiredSpaceBelow, List<StatePlaceableDocumentPart> parts) {
+        if (parts == null || getLeading() <= 0 || !parts.stream().allMatch(p -> p instanceof StateImage || p instanceof StateTable)) {
+            return 1;
+        }
+        //the parts overlapping with the position can only change once one of the checked heights passes a band limit
+        double nextChange = Double.NEGATIVE_INFINITY;
+        for (double offset : new double[] { requiredSpaceAbove, 0, -requiredSpaceBelow }) {
+            if (occupancy.hasLimitNear(height + offset, LIMIT_MARGIN)) {
+                return 1;
+            }
+            Double limit = occupancy.getLimitBelow(height + offset);
+            if (limit != null) {
+                nextChange = Math.max(nextChange, limit + LIMIT_MARGIN - offset);
+            }
+        }
+        if (nextChange == Double.NEGATIVE_INFINITY) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(1, (int) Math.ceil((height - nextChange) / getLeading()));
+    }
+
+    /**
+     * Returns the width of the largest of the given open spaces.
+     * @param openSpaces The open spaces.
      * @return double containing the width.
      */
-    private double getWidestOpenSpaceOn(Position position, double requiredSpaceAbove, double requiredSpaceBelow, StateSpacing spacing) {
+    private double getWidestOpenSpace(List<Space> openSpaces) {
         int maxWidth = 0;
-        for (Space openSpace : this.getOpenSpacesOn(position, true, requiredSpaceAbove, requiredSpaceBelow, spacing)) {
+        for (Space openSpace : openSpaces) {
             maxWidth = Math.max(maxWidth, openSpace.getEndPoint() - openSpace.getStartPoint());
         }
         return maxWidth;
@@ -161,7 +350,8 @@ public class BaseStatePage extends BasePage implements StatePage {
     }
 
     /**
-     * Returns all document parts that overlap with the given position.
+     * Returns all document parts that overlap with the given position. The occupancy index is used to find the parts that may overlap,
+     * so it should have been brought up to date by the caller.
      * @param pos Position to check.
      * @param requiredSpaceAbove Required free space above the given position.
      * @param requiredSpaceBelow Required free space below the given position.
@@ -169,19 +359,9 @@ public class BaseStatePage extends BasePage implements StatePage {
      */
     private List<StatePlaceableDocumentPart> getPartsOnLine(Position pos, double requiredSpaceAbove, double requiredSpaceBelow, StateSpacing spacing) {
         List<StatePlaceableDocumentPart> contentOnSameLine = new ArrayList<StatePlaceableDocumentPart>();
-        List<DocumentPart> pageContent = new LinkedList<DocumentPart>(getContent());
-        for (int i = 0; i < pageContent.size(); ++i) {
-            DocumentPart p = pageContent.get(i);
-            if (p instanceof StatePlaceableDocumentPart && !p.equals(spacing)) {
-                if (DocumentPartType.PARAGRAPH.equals(p.getType())) {
-                    Paragraph paragraph = (Paragraph) p;
-                    pageContent.addAll(i + 1, paragraph.getTextCollection());
-                } else {
-                    StatePlaceableDocumentPart part = (StatePlaceableDocumentPart) p;
-                    if (onSameLine(pos, requiredSpaceAbove, requiredSpaceBelow, spacing, part)) {
-                        contentOnSameLine.add(part);
-                    }
-                }
+        for (StatePlaceableDocumentPart part : occupancy.getPartsWithin(pos.getY() - requiredSpaceBelow, pos.getY() + requiredSpaceAbove, spacing)) {
+            if (onSameLine(pos, requiredSpaceAbove, requiredSpaceBelow, spacing, part)) {
+                contentOnSameLine.add(part);
             }
         }
         return contentOnSameLine;
@@ -217,7 +397,13 @@ public class BaseStatePage extends BasePage implements StatePage {
     @Override
     public List<Space> getOpenSpacesOn(Position pos, boolean ignoreSpacesBeforePositionWidth, double requiredSpaceAbove, double requiredSpaceBelow,
             StateSpacing spacing) {
-        List<StatePlaceableDocumentPart> parts = this.getPartsOnLine(pos, requiredSpaceAbove, requiredSpaceBelow, spacing);
+        updateOccupancy(spacing);
+        return this.getOpenSpacesOn(pos, ignoreSpacesBeforePositionWidth, requiredSpaceAbove, requiredSpaceBelow, spacing,
+                this.getPartsOnLine(pos, requiredSpaceAbove, requiredSpaceBelow, spacing));
+    }
+
+    private List<Space> getOpenSpacesOn(Position pos, boolean ignoreSpacesBeforePositionWidth, double requiredSpaceAbove, double requiredSpaceBelow,
+            StateSpacing spacing, List<StatePlaceableDocumentPart> parts) {
         List<Space> openSpaces = new ArrayList<Space>();
 
         int startingPoint = getMarginLeft();
@@ -366,4 +552,47 @@ public class BaseStatePage extends BasePage implements StatePage {
     public DocumentPart getOriginalObject() {
         return this.originalObject;
     }
+
+    /**
+     * List containing the content of the page, which keeps the occupancy index up to date when the content is changed through the list.
+     */
+    private class ContentList extends AbstractList<DocumentPart> {
+        @Override
+        public DocumentPart get(int index) {
+            return BaseStatePage.super.getContent().get(index);
+        }
+
+        @Override
+        public int size() {
+            return BaseStatePage.super.getContent().size();
+        }
+
+        @Override
+        public DocumentPart set(int index, DocumentPart part) {
+            DocumentPart replaced = BaseStatePage.super.getContent().set(index, part);
+            removeFromIndex(replaced);
+            addUnindexedPart(part);
+            return replaced;
+        }
+
+        @Override
+        public void add(int index, DocumentPart part) {
+            BaseStatePage.super.getContent().add(index, part);
+            addUnindexedPart(part);
+        }
+
+        @Override
+        public DocumentPart remove(int index) {
+            DocumentPart removed = BaseStatePage.super.getContent().remove(index);
+            removeFromIndex(removed);
+            return removed;
+        }
+
+        @Override
+        public void clear() {
+            BaseStatePage.super.getContent().clear();
+            occupancy.clear();
+            unindexedParts.clear();
+        }
+    }
 }
@@ -1,19 +1,17 @@
 package org.toucanpdf.state;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map.Entry;
 
+import org.toucanpdf.model.Alignment;
 import org.toucanpdf.model.DocumentPart;
 import org.toucanpdf.model.FontMetrics;
 import org.toucanpdf.model.Page;
 import org.toucanpdf.model.Position;
 import org.toucanpdf.model.Space;
 import org.toucanpdf.model.Text;
+import org.toucanpdf.model.TextLines;
 import org.toucanpdf.model.state.StatePage;
 import org.toucanpdf.model.state.StateText;
 import org.toucanpdf.utility.FloatEqualityTester;
@@ -54,10 +52,11 @@ public class BaseStateText extends AbstractStateText implements StateText {
 
     @Override
     public StateText processContentSize(StatePage page, double positionX, boolean fixedPosition) {
-        String textWithNewLinesReplaced = getText().replace("\n", " ");
-        ArrayList<String> strings = new ArrayList<String>(Arrays.asList(textWithNewLinesReplaced.split(" ")));
+        FontMetrics metrics = getFont().getMetrics();
+        LineBreaker words = new LineBreaker(getText().replace("\n", " "), metrics, getTextSize());
+        double cutOffSpace = (page.getWidth() - page.getMarginRight()) * (1.0 - Page.CUT_OFF_POINT_PERCENTAGE);
         double leading = page.getLeading() + getRequiredSpaceBelowLine();
-        this.textSplit = new LinkedHashMap<Position, String>();
+        this.lines = new TextLines();
         int i = 0;
         boolean stringsProcessed = false;
         Position pos = new Position(this.getPosition());
@@ -66,14 +65,15 @@ public class BaseStateText extends AbstractStateText implements StateText {
             positionX = this.getRequiredSpaceLeft();
         }
 
-        while (!stringsProcessed && i < strings.size()) {
+        while (!stringsProcessed && i < words.size()) {
             List<Space> openSpaces = getOpenSpaces(pos, page, fixedPosition);
             if (openSpaces.size() != 0) {
-                i += splitText(openSpaces, strings.subList(i, strings.size()), pos, page);
-                boolean isLast = (i == (strings.size() - 1));
+                double lineY = pos.getY();
+                i += words.fill(openSpaces, i, cutOffSpace, (line, openSpace) -> addLine(line, openSpace, lineY, metrics));
+                boolean isLast = (i == (words.size() - 1));
                 pos = handleTextAddition(page, leading, pos, positionX, fixedPosition, isLast);
                 if (pos == null) {
-                    overflowText = handleOverflow(i, strings);
+                    overflowText = handleOverflow(i, words);
                     stringsProcessed = true;
                 }
             } else {
@@ -103,134 +103,22 @@ public class BaseStateText extends AbstractStateText implements StateText {
     }
 
     /**
-     * Splits the given text over the given open spaces.
+     * Aligns the given line within the open space it was placed in and adds it to the lines of this text.
+     * The position of the first line becomes the position of this text.
      *
-     * @param openSpaces Open spaces that can be filled.
-     * @param strings    Strings to fill the open spaces with.
-     * @param pos        Position of the text.
-     * @param page       The page to add the text to.
-     * @return index determining how many strings have been processed.
+     * @param line      The line to add.
+     * @param openSpace The open space containing the line.
+     * @param y         Height of the line.
+     * @param metrics   Metrics of the font of this text.
      */
-    private int splitText(List<Space> openSpaces, List<String> strings, Position pos, Page page) {
-        List<String> stringsCopy = new LinkedList<String>(strings);
-        stringsCopy.add("");
-        StringBuilder currentLine = new StringBuilder();
-        Space openSpace = openSpaces.get(0);
-        int i = 0;
-        int lastAdditionIndex = 0;
-        int additions = 0;
-        int cutOffAdditions = 0;
-        int textSize = getTextSize();
+    private void addLine(CharSequence line, Space openSpace, double y, FontMetrics metrics) {
         double width = 0;
-        boolean openSpacesFilled = false;
-        FontMetrics metrics = getFont().getMetrics();
-        int openSpaceIndex = 0;
-
-        while (!openSpacesFilled && i < stringsCopy.size()) {
-            String s = stringsCopy.get(i);
-            double oldWidth = width;
-            if (i != (stringsCopy.size() - 1)) {
-                width += metrics.getWidthPointOfString(s, textSize, true) + (metrics.getWidthPoint("space") * textSize);
-            }
-            if ((width > openSpace.getEndPoint() - openSpace.getStartPoint() || i == (stringsCopy.size() - 1))
-                    && oldWidth < openSpace.getEndPoint() - openSpace.getStartPoint()) {
-                String cutOffLine = processCutOff(openSpace.getStartPoint() + oldWidth, openSpace.getEndPoint(), currentLine.toString(), stringsCopy, i, page);
-                if (!cutOffLine.equals(currentLine.toString())) {
-                    strings.add(i + 1, stringsCopy.get(i + 1));
-                    ++cutOffAdditions;
-                    currentLine = new StringBuilder(cutOffLine);
-                }
-                if (!currentLine.toString().isEmpty()) {
-                    lastAdditionIndex = i;
-                    ++additions;
-                    Position position = new Position(openSpace.getStartPoint(), pos.getY());
-                    width = metrics.getWidthPointOfString(currentLine.toString(), textSize, true) + (metrics.getWidthPoint("space") * textSize);
-                    position = processAlignment(currentLine.toString(), position, width, openSpace.getEndPoint() - openSpace.getStartPoint());
-                    addTextSplitEntry(position, currentLine.toString());
-                    currentLine = new StringBuilder();
-                }
-                if (openSpaceIndex != (openSpaces.size() - 1)) {
-                    openSpace = openSpaces.get(openSpaceIndex + 1);
-                    width = metrics.getWidthPointOfString(stringsCopy.get(i), textSize, true) - (metrics.getWidthPoint("space") * textSize);
-                    ++openSpaceIndex;
-                } else {
-                    openSpacesFilled = true;
-                }
-            }
-            currentLine.append(stringsCopy.get(i));
-            currentLine.append(' ');
-            ++i;
-        }
-        //if we only do a single loop we should still skip the current text if it was added.
-        if (lastAdditionIndex == 0 && additions > 0) {
-            ++lastAdditionIndex;
+        if (getAlignment() != Alignment.LEFT) {
+            width = metrics.getWidthPointOfString(line.toString(), getTextSize(), true) + (metrics.getWidthPoint("space") * getTextSize());
         }
-        return lastAdditionIndex + cutOffAdditions;
-    }
-
-    /**
-     * Adds a new line to the textSplit map.
-     *
-     * @param position Position the line is on.
-     * @param string   The line itself.
-     */
-    private void addTextSplitEntry(Position position, String string) {
-        if (textSplit.isEmpty()) {
-            this.on(new Position(position.getX(), position.getY()));
-        }
-        textSplit.put(position, string);
-    }
-
-    /**
-     * Processes text cutoff. Determines whether or not cutting off text is required and does so if it is.
-     *
-     * @param width            Width of the current line.
-     * @param widthLimit       Width of the open space being filled.
-     * @param currentLine      The current line being processed.
-     * @param text             The text list being processed.
-     * @param currentTextIndex The current index being processed of the text list.
-     * @param page             The page the text will be added to.
-     * @return
-     */
-    private String processCutOff(double width, int widthLimit, String currentLine, List<String> text, int currentTextIndex, Page page) {
-        if (FloatEqualityTester.greaterThan((widthLimit - width), ((page.getWidth() - page.getMarginRight()) * (1.0 - Page.CUT_OFF_POINT_PERCENTAGE)))) {
-            int textSize = getTextSize();
-            double currentWidth = width;
-            StringBuilder currentString = new StringBuilder(currentLine);
-            FontMetrics metrics = getFont().getMetrics();
-            char[] charArray = text.get(currentTextIndex).toCharArray();
-            int i = 0;
-            double dashWidth = metrics.getWidthPoint("endash") * textSize;
-            while (currentWidth < (widthLimit - dashWidth) && i != charArray.length) {
-                char c = charArray[i];
-                double characterSize;
-                if (i + 1 != charArray.length) {
-                    characterSize = (((metrics.getWidth(c) - metrics.getKerning(c, charArray[i + 1])) * textSize) * metrics.getConversionToPointsValue());
-                } else {
-                    characterSize = metrics.getWidthPoint(c) * textSize;
-                }
-                currentWidth += characterSize;
-                if (currentWidth < widthLimit - dashWidth) {
-                    currentString.append(c);
-                }
-                ++i;
-            }
-            ApplyTextSplit(text, currentTextIndex, currentString, charArray, i);
-            return currentString.toString();
-        }
-        return currentLine;
-    }
-
-    private void ApplyTextSplit(List<String> text, int currentTextIndex, StringBuilder currentString, char[] charArray, int lastCharOfCurrentLineIndex) {
-        if (lastCharOfCurrentLineIndex != 0) {
-            currentString.append('-');
-            text.set(currentTextIndex, "");
-            String stringToAdd = String.valueOf(charArray).substring(lastCharOfCurrentLineIndex - 1);
-            if (text.size() > currentTextIndex + 1) {
-                text.set(currentTextIndex + 1, stringToAdd);
-            } else {
-                text.add(stringToAdd);
-            }
+        int index = addAlignedLine(line, openSpace.getStartPoint(), y, width, openSpace.getEndPoint() - openSpace.getStartPoint());
+        if (index == 0) {
+            this.on(lines.getPosition(0));
         }
     }
 
@@ -266,30 +154,28 @@ public class BaseStateText extends AbstractStateText implements StateText {
      * Processes the overflow by removing all overflowing content and adding it to another text object.
      *
      * @param overflowStart Index determining which string caused the overflow.
-     * @param strings       The text split into a list of strings.
+     * @param words         The text split into words.
      * @return a new StateText object that contains all the overflowing content of this object.
      */
-    private StateText handleOverflow(int overflowStart, List<String> strings) {
+    private StateText handleOverflow(int overflowStart, LineBreaker words) {
         StringBuilder sb = new StringBuilder();
-        for (String s : textSplit.values()) {
-            if (!"\n".equals(s)) {
-                sb.append(s);
-                sb.append(" ");
-            }
+        for (int i = 0; i < lines.size(); ++i) {
+            lines.appendLine(i, sb);
+            sb.append(" ");
         }
         this.text(sb.toString());
 
         sb = new StringBuilder();
-        appendOverflowStrings(overflowStart, strings, sb);
+        appendOverflowStrings(overflowStart, words, sb);
         StateText overflowText = new BaseStateText(this);
         overflowText.setOriginalObject(this.getOriginalObject());
         overflowText.text(sb.toString()).on(new Position());
         return overflowText;
     }
 
-    private void appendOverflowStrings(int overflowStart, List<String> strings, StringBuilder sb) {
-        for (int i = overflowStart; i < strings.size(); ++i) {
-            sb.append(strings.get(i));
+    private void appendOverflowStrings(int overflowStart, LineBreaker words, StringBuilder sb) {
+        for (int i = overflowStart; i < words.size(); ++i) {
+            sb.append(words.getWord(i));
             sb.append(" ");
         }
     }
@@ -298,10 +184,9 @@ public class BaseStateText extends AbstractStateText implements StateText {
     public double getContentHeight(Page page) {
         double lowestHeight = this.getPosition().getY();
         double highestHeight = 0;
-        for (Entry<Position, String> entry : textSplit.entrySet()) {
-            Double posY = entry.getKey().getY();
-            highestHeight = Math.max(highestHeight, posY);
-            lowestHeight = Math.min(lowestHeight, posY);
+        for (int i = 0; i < lines.size(); ++i) {
+            highestHeight = Math.max(highestHeight, lines.getY(i));
+            lowestHeight = Math.min(lowestHeight, lines.getY(i));
         }
         return highestHeight - lowestHeight + this.getRequiredSpaceAboveLine() + this.getRequiredSpaceBelowLine();
     }
@@ -314,78 +199,62 @@ public class BaseStateText extends AbstractStateText implements StateText {
     @Override
     public double getContentWidth(Page page, Position position) {
         FontMetrics metrics = getFont().getMetrics();
-        List<Entry<Position, String>> entries = this.getEntriesAtHeight(position.getY());
         int width = 0;
-        for (Entry<Position, String> entry : entries) {
-            width += (int) (metrics.getWidthPointOfString(entry.getValue(), getTextSize(), true) + (metrics.getWidthPoint("space") * getTextSize()));
+        for (int index : this.getLinesAtHeight(position.getY())) {
+            width += (int) (metrics.getWidthPointOfString(lines.getLine(index), getTextSize(), true) + (metrics.getWidthPoint("space") * getTextSize()));
         }
         return width;
     }
 
     @Override
     public int[] getPositionAt(double height) {
-        List<Entry<Position, String>> entries = this.getEntriesAtHeight(height);
-        int[] positions = new int[0];
-        if (!entries.isEmpty()) {
-            positions = new int[entries.size()];
-            for (int i = 0; i < entries.size(); ++i) {
-                positions[i] = (int) entries.get(i).getKey().getX();
-            }
+        List<Integer> indices = this.getLinesAtHeight(height);
+        int[] positions = new int[indices.size()];
+        for (int i = 0; i < indices.size(); ++i) {
+            positions[i] = (int) lines.getX(indices.get(i));
         }
         return positions;
     }
 
     /**
-     * Returns all entries from the textSplit map that are positioned at the given height.
+     * Returns the indices of all lines that are positioned at the given height. The lines are added from top to bottom,
+     * so only the lines within the largest required space above and below a line of the height have to be checked.
      *
      * @param height Height to check.
-     * @return List of entries that are positioned at the given height.
+     * @return List of indices of the lines positioned at the given height.
      */
-    private List<Entry<Position, String>> getEntriesAtHeight(double height) {
-        List<Entry<Position, String>> entries = new LinkedList<Entry<Position, String>>();
-        int i = 0;
-        for (Entry<Position, String> entry : textSplit.entrySet()) {
-            Position linePos = entry.getKey();
+    private List<Integer> getLinesAtHeight(double height) {
+        List<Integer> indices = new ArrayList<>();
+        double maximumSpaceAbove = Math.max(this.getRequiredSpaceAboveLine(), this.getRequiredSpaceAbove()) + FloatEqualityTester.EPSILON;
+        double maximumSpaceBelow = Math.max(this.getRequiredSpaceBelowLine(), this.getRequiredSpaceBelow()) + FloatEqualityTester.EPSILON;
+        for (int i = lines.getFirstIndexAtOrBelow(height + maximumSpaceBelow); i < lines.size() && !lines.isBelow(i, height - maximumSpaceAbove); ++i) {
+            double lineY = lines.getY(i);
             double requiredSpaceAbove = (i != 0) ? this.getRequiredSpaceAboveLine() : this.getRequiredSpaceAbove();
-            double requiredSpaceBelow = (i != (textSplit.size() - 1)) ? this.getRequiredSpaceBelowLine() : this.getRequiredSpaceBelow();
-            if (FloatEqualityTester.lessThanOrEqualTo(height, linePos.getY() + requiredSpaceAbove)
-                    && FloatEqualityTester.greaterThanOrEqualTo(height, linePos.getY() - requiredSpaceBelow)) {
-                entries.add(entry);
+            double requiredSpaceBelow = (i != (lines.size() - 1)) ? this.getRequiredSpaceBelowLine() : this.getRequiredSpaceBelow();
+            if (FloatEqualityTester.lessThanOrEqualTo(height, lineY + requiredSpaceAbove)
+                    && FloatEqualityTester.greaterThanOrEqualTo(height, lineY - requiredSpaceBelow)) {
+                indices.add(i);
             }
-            ++i;
         }
-        return entries;
+        return indices;
     }
 
     @Override
     public List<Space> getUsedSpaces(double height, int pageWidth) {
         List<Space> spaces = new LinkedList<>();
-        List<Entry<Position, String>> entries = getEntriesAtHeight(height);
         FontMetrics metrics = getFont().getMetrics();
-        for (Entry<Position, String> entry : entries) {
-            double stringWidth = metrics.getWidthPointOfString(entry.getValue(), getTextSize(), true);
-            if ((entry.equals(getFirstTextSplitEntry()) && this.marginTop > 0) || (entry.equals(getLastTextSplitEntry()) && this.getMarginBottom() > 0)) {
+        for (int index : getLinesAtHeight(height)) {
+            double lineX = lines.getX(index);
+            double stringWidth = metrics.getWidthPointOfString(lines.getLine(index), getTextSize(), true);
+            if ((index == 0 && this.marginTop > 0) || (index == lines.size() - 1 && this.getMarginBottom() > 0)) {
                 spaces.add(new Space(0, pageWidth));
             } else {
-                spaces.add(new Space((int) entry.getKey().getX(), (int) (entry.getKey().getX() + stringWidth)));
+                spaces.add(new Space((int) lineX, (int) (lineX + stringWidth)));
             }
         }
         return spaces;
     }
 
-    private Entry<Position, String> getFirstTextSplitEntry() {
-        return textSplit.entrySet().iterator().next();
-    }
-
-    private Entry<Position, String> getLastTextSplitEntry() {
-        Iterator<Entry<Position, String>> iterator = textSplit.entrySet().iterator();
-        Entry<Position, String> lastEntry = null;
-        while (iterator.hasNext()) {
-            lastEntry = iterator.next();
-        }
-        return lastEntry;
-    }
-
     @Override
     public void setOriginalObject(DocumentPart originalObject) {
         if (this.originalObject == null) {
@@ -0,0 +1,284 @@
+package org.toucanpdf.state;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.toucanpdf.model.FontMetrics;
+import org.toucanpdf.model.Space;
+import org.toucanpdf.utility.FloatEqualityTester;
+
+/**
+ * Breaks a text into lines that fill the open spaces on a page. The text is split into words once and the kerned width of each word is
+ * measured at most once and stored in an array. The open spaces are filled greedily by walking through the words with an index,
+ * so the remaining words are not copied or measured again for every line. Words that do not fit on a line and are long enough
+ * are cut off, the remainder of the word is inserted as a new word.
+ *
+ * @author Dylan de Wolff
+ * @see BaseStateText
+ */
+class LineBreaker {
+    private static final int DEFAULT_CAPACITY = 16;
+    private final FontMetrics metrics;
+    private final int textSize;
+    private final double spaceWidth;
+    private final double dashWidth;
+    private String[] words;
+    /**
+     * The kerned width in points of each word, NaN for words that have not been measured yet.
+     */
+    private double[] widths;
+    private int size;
+    private final StringBuilder line = new StringBuilder();
+
+    /**
+     * The index of the first word processed by the current call to {@link #fill(List, int, double, BiConsumer)}.
+     */
+    private int start;
+    /**
+     * The amount of words that were left when the current fill started.
+     */
+    private int remaining;
+    /**
+     * The amount of words that can be processed by the current fill, including an empty word that marks the end of the text.
+     */
+    private int fillSize;
+    /**
+     * Words replaced during the current fill by cutting off text, by their index relative to the start.
+     */
+    private Map<Integer, String> replacedWords;
+    /**
+     * Remainders of cut off words, inserted after the current fill is done.
+     */
+    private List<Integer> insertionIndices;
+    private List<String> insertedWords;
+
+    /**
+     * Creates a new instance of LineBreaker and splits the given text into words.
+     * @param text The text to split, newlines should already have been replaced.
+     * @param metrics Metrics of the font used by the text.
+     * @param textSize Size of the text.
+     */
+    LineBreaker(String text, FontMetrics metrics, int textSize) {
+        this.metrics = metrics;
+        this.textSize = textSize;
+        this.spaceWidth = metrics.getWidthPoint("space") * textSize;
+        this.dashWidth = metrics.getWidthPoint("endash") * textSize;
+        this.words = new String[DEFAULT_CAPACITY];
+        this.widths = new double[DEFAULT_CAPACITY];
+        split(text);
+    }
+
+    /**
+     * Splits the given text on spaces. The result is the same as that of {@link String#split(String)},
+     * so empty words between spaces are kept while those at the end of the text are removed.
+     * @param text Text to split.
+     */
+    private void split(String text) {
+        int from = 0;
+        int index;
+        while ((index = text.indexOf(' ', from)) >= 0) {
+            insert(size, text.substring(from, index));
+            from = index + 1;
+        }
+        if (from == 0) {
+            insert(size, text);
+        } else {
+            insert(size, text.substring(from));
+            while (size > 0 && words[size - 1].isEmpty()) {
+                --size;
+            }
+        }
+    }
+
+    private void insert(int index, String word) {
+        if (size == words.length) {
+            words = Arrays.copyOf(words, size * 2);
+            widths = Arrays.copyOf(widths, size * 2);
+        }
+        System.arraycopy(words, index, words, index + 1, size - index);
+        System.arraycopy(widths, index, widths, index + 1, size - index);
+        words[index] = word;
+        widths[index] = Double.NaN;
+        ++size;
+    }
+
+    /**
+     * @return the amount of words in the text, including the remainders of words that have been cut off.
+     */
+    int size() {
+        return size;
+    }
+
+    String getWord(int index) {
+        return words[index];
+    }
+
+    private double getWidth(int index) {
+        if (Double.isNaN(widths[index])) {
+            widths[index] = metrics.getWidthPointOfString(words[index], textSize, true);
+        }
+        return widths[index];
+    }
+
+    /**
+     * Fills the given open spaces with lines, starting at the given word.
+     * @param openSpaces The open spaces on a single line of the page, in order.
+     * @param startIndex Index of the first word to process.
+     * @param cutOffSpace Words are only cut off if the space left on the line is larger than this.
+     * @param lineHandler Receives each line together with the open space it was placed in. The line is only valid until the handler returns.
+     * @return the amount of words that have been processed.
+     */
+    int fill(List<Space> openSpaces, int startIndex, double cutOffSpace, BiConsumer<CharSequence, Space> lineHandler) {
+        this.start = startIndex;
+        this.remaining = size - startIndex;
+        this.fillSize = remaining + 1;
+        Space openSpace = openSpaces.get(0);
+        int openSpaceIndex = 0;
+        int i = 0;
+        int lineStart = 0;
+        int lastAdditionIndex = 0;
+        int additions = 0;
+        int cutOffAdditions = 0;
+        double width = 0;
+        boolean openSpacesFilled = false;
+
+        while (!openSpacesFilled && i < fillSize) {
+            double oldWidth = width;
+            if (i != (fillSize - 1)) {
+                width += getFillWidth(i) + spaceWidth;
+            }
+            int openSpaceSize = openSpace.getEndPoint() - openSpace.getStartPoint();
+            if ((width > openSpaceSize || i == (fillSize - 1)) && oldWidth <= openSpaceSize) {
+                CharSequence currentLine = cutOff(openSpace.getStartPoint() + oldWidth, openSpace.getEndPoint(), lineStart, i, cutOffSpace);
+                if (currentLine != null) {
+                    ++cutOffAdditions;
+                } else if (i > lineStart) {
+                    currentLine = appendLine(lineStart, i);
+                }
+                if (currentLine != null) {
+                    lastAdditionIndex = i;
+                    ++additions;
+                    lineHandler.accept(currentLine, openSpace);
+                }
+                lineStart = i;
+                if (openSpaceIndex != (openSpaces.size() - 1)) {
+                    ++openSpaceIndex;
+                    openSpace = openSpaces.get(openSpaceIndex);
+                    width = getFillWidth(i) - spaceWidth;
+                } else {
+                    openSpacesFilled = true;
+                }
+            }
+            ++i;
+        }
+        applyInsertions();
+        //if we only do a single loop we should still skip the current text if it was added.
+        if (lastAdditionIndex == 0 && additions > 0) {
+            ++lastAdditionIndex;
+        }
+        return lastAdditionIndex + cutOffAdditions;
+    }
+
+    /**
+     * Returns the word at the given index relative to the start of the current fill, taking the words replaced by cutting off text into account.
+     * @param index Index relative to the start of the fill.
+     * @return the word at the index, or an empty string for the end of the text.
+     */
+    private String getFillWord(int index) {
+        if (replacedWords != null && replacedWords.containsKey(index)) {
+            return replacedWords.get(index);
+        }
+        return index < remaining ? words[start + index] : "";
+    }
+
+    private double getFillWidth(int index) {
+        if (replacedWords != null && replacedWords.containsKey(index)) {
+            return metrics.getWidthPointOfString(replacedWords.get(index), textSize, true);
+        }
+        return index < remaining ? getWidth(start + index) : 0;
+    }
+
+    /**
+     * Builds the line containing the words between the given indices, each followed by a space.
+     * @param from Index of the first word, relative to the start of the fill.
+     * @param to Index after the last word, relative to the start of the fill.
+     * @return StringBuilder containing the line.
+     */
+    private StringBuilder appendLine(int from, int to) {
+        line.setLength(0);
+        for (int i = from; i < to; ++i) {
+            line.append(getFillWord(i)).append(' ');
+        }
+        return line;
+    }
+
+    /**
+     * Cuts off the word at the given index if there is enough space left on the line. The part of the word that fits is added to the line
+     * together with a dash. The remainder of the word replaces the next word of the current fill and is inserted into the text after the fill.
+     * @param width Width already used on the line, including the start of the open space.
+     * @param widthLimit End of the open space being filled.
+     * @param lineStart Index of the first word on the line, relative to the start of the fill.
+     * @param index Index of the word to cut off, relative to the start of the fill.
+     * @param cutOffSpace Minimum space left on the line before the word is cut off.
+     * @return the line including the cut off part of the word, or null if the word was not cut off.
+     */
+    private CharSequence cutOff(double width, int widthLimit, int lineStart, int index, double cutOffSpace) {
+        if (!FloatEqualityTester.greaterThan((widthLimit - width), cutOffSpace)) {
+            return null;
+        }
+        String word = getFillWord(index);
+        StringBuilder currentString = appendLine(lineStart, index);
+        double currentWidth = width;
+        int i = 0;
+        while (currentWidth < (widthLimit - dashWidth) && i != word.length()) {
+            char c = word.charAt(i);
+            double characterSize;
+            if (i + 1 != word.length()) {
+                characterSize = (((metrics.getWidth(c) - metrics.getKerning(c, word.charAt(i + 1))) * textSize) * metrics.getConversionToPointsValue());
+            } else {
+                characterSize = metrics.getWidthPoint(c) * textSize;
+            }
+            currentWidth += characterSize;
+            if (currentWidth < widthLimit - dashWidth) {
+                currentString.append(c);
+            }
+            ++i;
+        }
+        if (i == 0) {
+            return null;
+        }
+        currentString.append('-');
+        String remainder = word.substring(i - 1);
+        if (replacedWords == null) {
+            replacedWords = new HashMap<>();
+            insertionIndices = new ArrayList<>();
+            insertedWords = new ArrayList<>();
+        }
+        replacedWords.put(index, "");
+        if (fillSize <= index + 1) {
+            ++fillSize;
+        }
+        replacedWords.put(index + 1, remainder);
+        insertionIndices.add(index + 1);
+        insertedWords.add(remainder);
+        return currentString;
+    }
+
+    /**
+     * Inserts the remainders of the words cut off during the current fill into the text.
+     */
+    private void applyInsertions() {
+        if (replacedWords != null) {
+            for (int i = 0; i < insertionIndices.size(); ++i) {
+                insert(start + insertionIndices.get(i), insertedWords.get(i));
+            }
+            replacedWords = null;
+            insertionIndices = null;
+            insertedWords = null;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.toucanpdf.state;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.toucanpdf.model.state.StatePlaceableDocumentPart;
+import org.toucanpdf.utility.FloatEqualityTester;
+
+/**
+ * Index of the vertical bands occupied by the parts on a page. The bands are sorted on their bottom limit,
+ * so the parts that may overlap with a given height range can be found without going through all parts on the page.
+ * The index also keeps track of all band limits, which allows a caller to determine the next height at which the parts
+ * overlapping with a range can change.
+ *
+ * @author Dylan de Wolff
+ * @see BaseStatePage
+ */
+class OccupancyIndex {
+    private final Map<StatePlaceableDocumentPart, Band> bands = new IdentityHashMap<>();
+    private final TreeMap<Double, List<Band>> bandsByBottom = new TreeMap<>();
+    /**
+     * All band limits, with the amount of bands using each limit.
+     */
+    private final TreeMap<Double, Integer> limits = new TreeMap<>();
+    /**
+     * The height of the highest band that has been added. Bands that overlap with a range have their bottom limit within this distance below the range.
+     */
+    private double maxBandHeight = 0;
+
+    /**
+     * Adds the band of the given part to the index.
+     * @param part Part occupying the band.
+     * @param owner The part that was added to the page, this is the paragraph for texts within a paragraph and the part itself otherwise.
+     * @param bottom Bottom limit of the band.
+     * @param top Top limit of the band.
+     */
+    void add(StatePlaceableDocumentPart part, StatePlaceableDocumentPart owner, double bottom, double top) {
+        remove(part);
+        Band band = new Band(part, owner, bottom, top);
+        bands.put(part, band);
+        bandsByBottom.computeIfAbsent(bottom, b -> new LinkedList<>()).add(band);
+        maxBandHeight = Math.max(maxBandHeight, top - bottom);
+        addLimit(bottom);
+        addLimit(top);
+    }
+
+    /**
+     * Removes the band of the given part from the index.
+     * @param part Part to remove.
+     * @return The owner of the removed band, or null if the part was not in the index.
+     */
+    StatePlaceableDocumentPart remove(StatePlaceableDocumentPart part) {
+        Band band = bands.remove(part);
+        if (band == null) {
+            return null;
+        }
+        List<Band> bottomBands = bandsByBottom.get(band.bottom);
+        bottomBands.remove(band);
+        if (bottomBands.isEmpty()) {
+            bandsByBottom.remove(band.bottom);
+        }
+        removeLimit(band.bottom);
+        removeLimit(band.top);
+        return band.owner;
+    }
+
+    boolean contains(StatePlaceableDocumentPart part) {
+        return bands.containsKey(part);
+    }
+
+    void clear() {
+        bands.clear();
+        bandsByBottom.clear();
+        limits.clear();
+        maxBandHeight = 0;
+    }
+
+    /**
+     * Returns the parts whose band overlaps with the given height range.
+     * @param bottom Bottom of the range.
+     * @param top Top of the range.
+     * @param ignore Part to leave out of the result, together with all parts it owns. May be null.
+     * @return List of parts overlapping with the range, in no particular order.
+     */
+    List<StatePlaceableDocumentPart> getPartsWithin(double bottom, double top, Object ignore) {
+        List<StatePlaceableDocumentPart> parts = new ArrayList<>();
+        double lowestBottom = bottom - maxBandHeight - FloatEqualityTester.EPSILON;
+        for (List<Band> bottomBands : bandsByBottom.subMap(lowestBottom, true, top + FloatEqualityTester.EPSILON, true).values()) {
+            for (Band band : bottomBands) {
+                if (band.top >= bottom - FloatEqualityTester.EPSILON && band.part != ignore && band.owner != ignore) {
+                    parts.add(band.part);
+                }
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Returns the highest band limit below the given height.
+     * @param height Height to start from.
+     * @return The band limit, or null if there are no limits below the given height.
+     */
+    Double getLimitBelow(double height) {
+        return limits.lowerKey(height);
+    }
+
+    /**
+     * Checks whether there is a band limit within the given distance of the given height.
+     * @param height Height to check.
+     * @param distance Maximum distance to the height.
+     * @return true if there is a band limit within the distance, false otherwise.
+     */
+    boolean hasLimitNear(double height, double distance) {
+        return !limits.subMap(height - distance, true, height + distance, true).isEmpty();
+    }
+
+    private void addLimit(double limit) {
+        limits.merge(limit, 1, Integer::sum);
+    }
+
+    private void removeLimit(double limit) {
+        limits.computeIfPresent(limit, (l, amount) -> amount > 1 ? amount - 1 : null);
+    }
+
+    /**
+     * Vertical band occupied by a single part.
+     */
+    private static class Band {
+        private final StatePlaceableDocumentPart part;
+        private final StatePlaceableDocumentPart owner;
+        private final double bottom;
+        private final double top;
+
+        public Band(StatePlaceableDocumentPart part, StatePlaceableDocumentPart owner, double bottom, double top) {
+            this.part = part;
+            this.owner = owner;
+            this.bottom = bottom;
+            this.top = top;
+        }
+    }
+}
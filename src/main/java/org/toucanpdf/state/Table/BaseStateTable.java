@@ -1,5 +1,6 @@
 package org.toucanpdf.state.Table;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -19,11 +20,25 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class BaseStateTable extends AbstractTable implements StateTable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BaseStateTable.class);
     private static final double MINIMUM_PAGE_HEIGHT_REQUIRED = 0.25;
+    /**
+     * The amount of rows taken from the row source to calculate the column widths with, if no widths have been declared
+     * and no amount of sampled rows has been set.
+     */
+    private static final int SAMPLED_SOURCE_ROW_AMOUNT = 100;
     private DocumentPart originalObject;
     private List<StateCell> content = new LinkedList<StateCell>();
     private StateTableRow header = null;
+    /**
+     * The rows placed on the page during the last processing of the content size.
+     */
     private List<StateTableRow> rows;
+    /**
+     * Cursor pointing to the first row of the table to place on the page, null if the rows have not been created yet.
+     * The cursor is shared with the tables that contain the overflow of this table.
+     */
+    private StateTableRowCursor cursor;
     private boolean original = true;
     private double[] originalColumnWidths;
 
@@ -56,6 +71,9 @@ public class BaseStateTable extends AbstractTable implements StateTable {
         if (tableHeader != null && tableHeader.getContent() != null) {
             this.header = new StateTableRow(table.getHeader());
         }
+        if (table instanceof BaseStateTable) {
+            this.cursor = ((BaseStateTable) table).cursor;
+        }
     }
 
     /**
@@ -130,16 +148,9 @@ public class BaseStateTable extends AbstractTable implements StateTable {
     public StateTable processContentSize(StatePage page, boolean wrapping, boolean processAlignment, boolean processPositioning, boolean fixed,
             boolean ignoreOverflow) {
         this.width = Math.min(width, page.getWidthWithoutMargins() - this.marginRight - this.marginLeft);
-        List<StateCell> tableContent = copyContent();
-        StateTableColumnWidthCalculator calculator = new StateTableColumnWidthCalculator(this.columnAmount, this.width);
-
-        rows = new LinkedList<>();
         int availableHeight = 0;
         height = marginBottom + marginTop;
 
-        this.determineCellBorders(tableContent);
-        this.determineCellPadding(tableContent);
-
         //if not fixed, calculate a position for this table and process alignment if needed
         if (!fixed) {
             Position p = determinePositionForTable(page, processAlignment, processPositioning);
@@ -149,27 +160,87 @@ public class BaseStateTable extends AbstractTable implements StateTable {
             availableHeight = calculateAvailableHeight(page, p);
         }
 
-        validateColumnSpans(tableContent);
-        placeContentInRows(tableContent);
+        //the rows are created once and shared with the overflow of this table
+        if (cursor == null) {
+            cursor = new StateTableRowCursor(createRows());
+        }
+
+        rows = new ArrayList<>();
+        //the first page of the table already contains the header as its first row
+        if (header != null && !cursor.isAtStart() && this.isRepeatingHeader()) {
+            rows.add(header);
+        }
 
         //finalize the cell widths, heights and execute positioning
         Position cellPos = new Position(this.getPosition());
+        return applyCellSize(page, processPositioning, fixed, ignoreOverflow, availableHeight, cellPos, originalColumnWidths);
+    }
+
+    /**
+     * Places the content of the table in rows and determines the widths of the columns. If the table has a row source,
+     * only the rows needed to determine the header and the column widths are taken from the source, the remaining rows
+     * are taken from the source during the layout of the pages.
+     * @return the rows of the entire table.
+     */
+    private StateTableRows createRows() {
+        List<StateCell> tableContent = copyContent();
+        StateTableColumnWidthCalculator calculator = new StateTableColumnWidthCalculator(this.columnAmount, this.width);
+
+        this.determineCellBorders(tableContent);
+        this.determineCellPadding(tableContent);
+        validateColumnSpans(tableContent);
+        List<StateTableRow> tableRows = new ArrayList<>();
+        StateTableRowSourcePlacer sourcePlacer = null;
+        if (getRowSource() == null) {
+            tableRows = placeContentInRows(tableRows, tableContent);
+        } else {
+            sourcePlacer = placeSampleInRows(tableRows, tableContent);
+        }
 
-        double[] widths = determineCellWidths(calculator);
+        //only the sampled rows are measured, the calculator changes the content of these rows if it does not fit
+        List<StateTableRow> measuredRows = getSampledRows(tableRows);
+        double[] widths = determineCellWidths(calculator, measuredRows);
         double totalWidth = calculateTotalWidth(widths);
 
         while(Math.floor(totalWidth) > this.width) {
-            this.rows = calculator.removeCellContentWithLargestMinimalWidth(isPrioritizingHeaderWidth());
-            widths = determineCellWidths(calculator);
+            measuredRows = calculator.removeCellContentWithLargestMinimalWidth(isPrioritizingHeaderWidth());
+            widths = determineCellWidths(calculator, measuredRows);
             totalWidth = calculateTotalWidth(widths);
         }
 
         //add cells to fill up empty columns in the table
         if (getDrawFiller()) {
-            fillEmptyCells(rows, tableContent);
+            fillEmptyCells(tableRows, tableContent);
+        }
+        if (sourcePlacer != null) {
+            sourcePlacer.setFillEmptyColumns(getDrawFiller());
         }
+        return new StateTableRows(tableRows, sourcePlacer);
+    }
 
-        return applyCellSize(page, processPositioning, fixed, ignoreOverflow, availableHeight, cellPos, widths);
+    /**
+     * Places the content of the table in rows, followed by the first rows of the row source. Only a single row is taken from the source
+     * if the column widths have been declared, since it is only needed when the source provides the header.
+     * @return the placer to take the remaining rows of the source with.
+     */
+    private StateTableRowSourcePlacer placeSampleInRows(List<StateTableRow> tableRows, List<StateCell> tableContent) {
+        addHeaderToRows(tableRows);
+        if (!tableContent.isEmpty()) {
+            new StateTableCellPlacer(tableContent, this.columnAmount).divideColumnsOverRows(tableRows);
+        }
+        StateTableRowSourcePlacer sourcePlacer = new StateTableRowSourcePlacer(this, takeRowSource(), tableRows.size());
+        int sampleSize = 1;
+        if (getDeclaredColumnWidths() == null) {
+            sampleSize = getSampledRowAmount() > 0 ? getSampledRowAmount() : SAMPLED_SOURCE_ROW_AMOUNT;
+        }
+        int sampledRows = 0;
+        while (sampledRows < sampleSize && sourcePlacer.placeNextRow(tableRows)) {
+            ++sampledRows;
+        }
+        if (this.header == null && tableRows.size() > 0) {
+            this.header = new StateTableRow(tableRows.get(0));
+        }
+        return sourcePlacer;
     }
 
     private double calculateTotalWidth(double[] widths) {
@@ -184,9 +255,13 @@ public class BaseStateTable extends AbstractTable implements StateTable {
             double[] widths) {
         StateTable overflow = null;
         boolean overflowDetected = false;
+        int headerRows = rows.size();
+        StateTableColumnUsageDetector detector = new StateTableColumnUsageDetector(this.columnAmount);
         int index = 0;
-        int overflowRow = rows.size();
-        while (!overflowDetected && index < rows.size()) {
+        while (!overflowDetected && (index < rows.size() || cursor.hasRow(index - headerRows))) {
+            if (index == rows.size()) {
+                rows.add(cursor.copyRow(index - headerRows));
+            }
             StateTableRow row = rows.get(index);
             //apply the calculated widths to the columns
             applyColumnWidths(widths, row.getContent());
@@ -194,19 +269,18 @@ public class BaseStateTable extends AbstractTable implements StateTable {
             positionCellsForRow(row.getContent(), cellPos, widths);
 
             //determine height for row and apply it to each column in this row
-            determineRowHeight(rows, rows.indexOf(row), page.getLeading());
+            detector.occupyRow(row.getContent(), index);
+            determineRowHeight(row, index, page.getLeading(), detector);
             if (!fixed) {
                 if (!ignoreOverflow) {
-                    overflow = processOverflow(rows, index, availableHeight);
+                    overflow = processOverflow(index, headerRows, availableHeight);
                     overflowDetected = (overflow != null);
                 } else {
-                    overflowDetected = isHeightCausingOverflow(rows.get(index), availableHeight);
+                    overflowDetected = isHeightCausingOverflow(row, availableHeight);
                 }
             }
 
-            if (overflowDetected) {
-                overflowRow = Math.min(rows.size(), index + 1);
-            } else {
+            if (!overflowDetected) {
                 applyColumnHeights(row);
                 double heightIncrease = row.getMaxHeight();
                 this.height += heightIncrease;
@@ -218,11 +292,10 @@ public class BaseStateTable extends AbstractTable implements StateTable {
         //after all individual rows have been processed, increase the height of cells that occupy more than one row
         applyRowSpanHeights(rows);
 
-        ProcessContentSizeOfCells(page, overflowRow);
+        ProcessContentSizeOfCells(page, rows.size());
 
-        List<StateCell> cells = combineCellsFromRows(rows);
         if (processPositioning) {
-            FinalizePositioning(page, cells);
+            FinalizePositioning(page, combineCellsFromRows(rows));
         } else {
             this.height = Math.min((int) (MINIMUM_PAGE_HEIGHT_REQUIRED * page.getHeight()), this.height);
         }
@@ -234,20 +307,65 @@ public class BaseStateTable extends AbstractTable implements StateTable {
         cellPos.setX(this.getPosition().getX());
     }
 
-    private double[] determineCellWidths(StateTableColumnWidthCalculator calculator) {
+    private double[] determineCellWidths(StateTableColumnWidthCalculator calculator, List<StateTableRow> tableRows) {
         if (original) {
-            this.originalColumnWidths = calculator.calculateColumnWidths(rows, this.isPrioritizingHeaderWidth());
+            double[] declaredWidths = getDeclaredColumnWidths();
+            if (declaredWidths != null) {
+                this.originalColumnWidths = declaredWidths;
+            } else {
+                this.originalColumnWidths = calculator.calculateColumnWidths(tableRows, this.isPrioritizingHeaderWidth());
+            }
         }
         return this.originalColumnWidths;
     }
 
-    private void placeContentInRows(List<StateCell> tableContent) {
-        addHeaderToRows(rows);
+    private List<StateTableRow> getSampledRows(List<StateTableRow> tableRows) {
+        int sampledRowAmount = getSampledRowAmount();
+        if (sampledRowAmount > 0 && sampledRowAmount < tableRows.size() && getRowSource() == null) {
+            return tableRows.subList(0, sampledRowAmount);
+        }
+        return tableRows;
+    }
+
+    /**
+     * Returns the column widths declared for this table, either in points or as percentages of the table width.
+     * The widths are scaled down if they do not fit within the width of the table.
+     * @return the widths of the columns in points, or null if no valid widths have been declared.
+     */
+    private double[] getDeclaredColumnWidths() {
+        double[] widths = getColumnWidths();
+        double[] percentages = getColumnWidthPercentages();
+        if (widths == null && percentages != null) {
+            widths = new double[percentages.length];
+            for (int i = 0; i < percentages.length; ++i) {
+                widths[i] = percentages[i] * this.width / 100;
+            }
+        }
+        if (widths == null) {
+            return null;
+        }
+        if (widths.length != this.columnAmount) {
+            LOGGER.warn("The table declares " + widths.length + " column widths for " + this.columnAmount
+                    + " columns, the widths will be calculated from the content instead.");
+            return null;
+        }
+        double totalWidth = calculateTotalWidth(widths);
+        if (totalWidth > this.width) {
+            for (int i = 0; i < widths.length; ++i) {
+                widths[i] *= this.width / totalWidth;
+            }
+        }
+        return widths;
+    }
+
+    private List<StateTableRow> placeContentInRows(List<StateTableRow> tableRows, List<StateCell> tableContent) {
+        addHeaderToRows(tableRows);
         StateTableCellPlacer cellPlacer = new StateTableCellPlacer(tableContent, this.columnAmount);
-        rows = cellPlacer.divideColumnsOverRows(rows);
-        if (this.header == null && rows.size() > 0) {
-            this.setNewHeaderBasedOnContent(tableContent);
+        tableRows = cellPlacer.divideColumnsOverRows(tableRows);
+        if (this.header == null && tableRows.size() > 0) {
+            this.header = new StateTableRow(tableRows.get(0));
         }
+        return tableRows;
     }
 
     private void addHeaderToRows(List<StateTableRow> rows) {
@@ -338,35 +456,26 @@ public class BaseStateTable extends AbstractTable implements StateTable {
         return cells;
     }
 
-    private StateTable processOverflow(List<StateTableRow> rows, int index, int availableHeight) {
-        StateTableRow current = rows.get(index);
-        StateTable overflow = null;
-        if (isHeightCausingOverflow(current, availableHeight)) {
+    /**
+     * Checks whether the row at the given index causes overflow. If so, the row is removed from the page and a table is created
+     * that continues at this row on the next page.
+     * @param index Index of the row on the page.
+     * @param headerRows The amount of rows at the start of the page that contain the repeated header.
+     * @param availableHeight Height available for the table.
+     * @return Table containing the overflow, or null if the row does not cause overflow.
+     */
+    private StateTable processOverflow(int index, int headerRows, int availableHeight) {
+        BaseStateTable overflow = null;
+        if (isHeightCausingOverflow(rows.get(index), availableHeight)) {
             overflow = new BaseStateTable(this, originalColumnWidths);
             overflow.setOriginal(false);
             overflow.setHeader(this.header);
-
-            int rowSize = rows.size();
-            for (int i = index; i < rowSize; ++i) {
-                for (Cell cell : rows.get(i).getContent()) {
-                    overflow.addCell(cell);
-                }
-            }
-
-            for (int i = rowSize - 1; i >= index; --i) {
-                removeRow(rows, i);
-            }
+            overflow.cursor = cursor.advance(Math.max(0, index - headerRows));
+            rows.remove(index);
         }
         return overflow;
     }
 
-    private void removeRow(List<StateTableRow> rows, int i) {
-        for (Cell cell : rows.get(i).getContent()) {
-            this.content.remove(cell);
-        }
-        rows.remove(i);
-    }
-
     private boolean isHeightCausingOverflow(StateTableRow current, int availableHeight) {
         return (current.getMaxHeight() + this.height > availableHeight);
     }
@@ -376,9 +485,10 @@ public class BaseStateTable extends AbstractTable implements StateTable {
         for (int currentRow = 0; currentRow < rows.size(); ++currentRow) {
             StateTableRow row = rows.get(currentRow);
             Cell[] content = row.getContent();
+            detector.occupyRow(content, currentRow);
 
             for (int i = 0; i < this.columnAmount; ++i) {
-                if (content[i] == null && detector.columnsNotInUse(i, 1, rows, currentRow)) {
+                if (content[i] == null && detector.columnsNotInUse(i, 1, currentRow)) {
                     StateCell c = new BaseStateCell();
                     c.border(this.borderWidth).padding(this.padding);
                     tableContent.add(c);
@@ -398,7 +508,7 @@ public class BaseStateTable extends AbstractTable implements StateTable {
                 if (c != null && c.getRowSpan() > 1) {
                     double extraHeight = 0;
                     //calculate the extra height we need to add to the column
-                    for (int span = 1; span < c.getRowSpan(); ++span) {
+                    for (int span = 1; span < c.getRowSpan() && rowIndex + span < rows.size(); ++span) {
                         extraHeight += rows.get(rowIndex + span).getMaxHeight();
                     }
                     c.height(c.getHeight() + extraHeight);
@@ -416,21 +526,6 @@ public class BaseStateTable extends AbstractTable implements StateTable {
         }
     }
 
-    private void setNewHeaderBasedOnContent(List<StateCell> tableContent) {
-        header = new StateTableRow(rows.get(0));
-        Cell[] headerContent = this.header.getContent();
-        for (Cell aHeaderContent : headerContent) {
-            if (aHeaderContent != null) {
-                removeHeaderFromContentLists(tableContent);
-            }
-        }
-    }
-
-    private void removeHeaderFromContentLists(List<StateCell> tableContent) {
-        tableContent.remove(0);
-        this.content.remove(0);
-    }
-
     private void positionCellsForRow(Cell[] content, Position cellPos, double[] widths) {
         for (int rowNumber = 0; rowNumber < content.length; ++rowNumber) {
             StateCell cell = (StateCell) content[rowNumber];
@@ -459,16 +554,15 @@ public class BaseStateTable extends AbstractTable implements StateTable {
         return content.stream().map(BaseStateCell::new).collect(Collectors.toList());
     }
 
-    private void determineRowHeight(List<StateTableRow> rows, int currentRow, int leading) {
+    private void determineRowHeight(StateTableRow row, int currentRow, int leading, StateTableColumnUsageDetector detector) {
         double maxHeight = 0;
         StateCell highest = null;
 
-        StateTableRow row = rows.get(currentRow);
         for (int cellCount = 0; cellCount < columnAmount; ++cellCount) {
             Cell c = row.getContent()[cellCount];
             //if the cell is null it might be because there is a cell above this row with a rowspan of more than one
             if (c == null) {
-                c = getCellAbove(rows, currentRow, cellCount);
+                c = detector.getCellOccupying(cellCount, currentRow);
             }
 
             if (c != null) {
@@ -493,21 +587,6 @@ public class BaseStateTable extends AbstractTable implements StateTable {
         row.setBorderWidthForMax(highest.getBorderWidth());
     }
 
-    private Cell getCellAbove(List<StateTableRow> rows, int currentRow, int cellCount) {
-        Cell c = null;
-        for (int rowCount = currentRow - 1; rowCount >= 0; --rowCount) {
-            StateTableRow aboveRow = rows.get(rowCount);
-            c = aboveRow.getContent()[cellCount];
-            if (c != null && (c.getRowSpan() - 1 + rowCount) >= currentRow) {
-                break;
-            } else if (c != null) {
-                c = null;
-                break;
-            }
-        }
-        return c;
-    }
-
     private double calculateAlignment(StatePage page) {
         double largestWidth = 0;
         for (Space openSpace : page.getOpenSpacesOn(this.getPosition(), false, this.getRequiredSpaceAbove(), this.getRequiredSpaceBelow(), this)) {
@@ -675,6 +754,7 @@ public class BaseStateTable extends AbstractTable implements StateTable {
     @Override
     public Table removeContent() {
         this.content = new LinkedList<>();
+        this.cursor = null;
         return this;
     }
 }
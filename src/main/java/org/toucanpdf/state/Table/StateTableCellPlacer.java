@@ -23,15 +23,19 @@ public class StateTableCellPlacer {
         double widthUsedInRow = 0;
         addRowTo(rows);
         currentRow = rows.size() - 1;
+        for (int i = 0; i < currentRow; ++i) {
+            columnUsageDetector.occupyRow(rows.get(i).getContent(), i);
+        }
 
         for (StateCell c : content) {
             //check if current cell columns fit on this row
             boolean validSpaceFound = false;
             while (!validSpaceFound) {
                 boolean contentFits = contentFitsOnThisRow(currentColumn, c.getColumnSpan());
-                if (contentFits && columnUsageDetector.columnsNotInUse(currentColumn, c.getColumnSpan(), rows, currentRow)) {
+                if (contentFits && columnUsageDetector.columnsNotInUse(currentColumn, c.getColumnSpan(), currentRow)) {
                     validSpaceFound = true;
                     rows.get(currentRow).getContent()[currentColumn] = c;
+                    columnUsageDetector.occupy(c, currentColumn, currentRow);
                     widthUsedInRow += c.getRequiredWidth();
                     currentColumn += c.getColumnSpan();
                     addCellToRow(rows, currentRow, c);
@@ -1,52 +1,87 @@
 package org.toucanpdf.state.Table;
 
-import java.util.List;
-
 import org.toucanpdf.model.Cell;
 
+/**
+ * Keeps track of the columns occupied by the cells of a table, including the rows and columns they span. For each column the last row
+ * occupied by a cell is stored together with that cell, so checking whether columns are in use takes constant time per column
+ * instead of going through all rows above. The rows have to be processed from top to bottom.
+ *
+ * @author Dylan de Wolff
+ */
 public class StateTableColumnUsageDetector {
-
-    private int columnAmount;
+    private final int[] occupiedUntil;
+    private final Cell[] occupyingCells;
 
     public StateTableColumnUsageDetector(int columnAmount) {
-        this.columnAmount = columnAmount;
+        this.occupiedUntil = new int[columnAmount];
+        this.occupyingCells = new Cell[columnAmount];
+        for (int i = 0; i < columnAmount; ++i) {
+            occupiedUntil[i] = -1;
+        }
     }
 
-    public boolean columnsNotInUse(int checkedColumn, int checkedColumnSpan, List<StateTableRow> rows, int checkedRow) {
-        //we need to go through all rows and columns to make sure the requested columns are not occupied due to rowspawn/columnspan of other cells
-        for (int rowNumber = 0; rowNumber <= checkedRow; ++rowNumber) {
-            Cell[] row = rows.get(rowNumber).getContent();
-            for (int column = 0; column < this.columnAmount; ++column) {
-                Cell cell = row[column];
-                if (cell != null &&
-                        (rowNumber == checkedRow && cellOccupiesCheckedColumn(checkedColumn, column, cell.getColumnSpan()) ||
-                        (column <= checkedColumn && cellOccupiesCheckedCell(checkedColumn, checkedColumnSpan, checkedRow, rowNumber, column, cell)))) {
-                    return false;
-                }
+    /**
+     * Checks whether the given columns are free on the given row.
+     * @param checkedColumn The first column to check.
+     * @param checkedColumnSpan The amount of columns to check.
+     * @param checkedRow Index of the row to check, the cells of the rows above should have been registered.
+     * @return true if none of the columns are occupied by a cell, false otherwise.
+     */
+    public boolean columnsNotInUse(int checkedColumn, int checkedColumnSpan, int checkedRow) {
+        for (int column = checkedColumn; column < checkedColumn + checkedColumnSpan; ++column) {
+            if (occupiedUntil[column] >= checkedRow) {
+                return false;
             }
         }
         return true;
     }
 
-    private boolean cellOccupiesCheckedCell(int checkedColumn, int checkedColumnSpan, int checkedRow, int rowNumber, int column, Cell cell) {
-        return cellOccupiesCheckedColumns(column, cell.getColumnSpan(), checkedColumn, checkedColumnSpan) &&
-                cellOccupiesCheckedRows(checkedRow, rowNumber, cell.getRowSpan());
+    /**
+     * Registers the given cell as occupying the columns and rows it spans.
+     * @param cell The cell.
+     * @param column The column the cell is placed in.
+     * @param row Index of the row the cell is placed in.
+     */
+    public void occupy(Cell cell, int column, int row) {
+        int until = row + Math.max(1, cell.getRowSpan()) - 1;
+        for (int i = column; i < Math.min(column + cell.getColumnSpan(), occupiedUntil.length); ++i) {
+            occupiedUntil[i] = until;
+            occupyingCells[i] = cell;
+        }
     }
 
-    private boolean cellOccupiesCheckedRows(int checkedRow, int rowNumber, int rowSpan) {
-        return (rowNumber + rowSpan - 1) >= checkedRow;
+    /**
+     * Registers all cells of the given row.
+     * @param content The cells of the row, by column.
+     * @param row Index of the row.
+     */
+    public void occupyRow(Cell[] content, int row) {
+        for (int column = 0; column < content.length; ++column) {
+            if (content[column] != null) {
+                occupy(content[column], column, row);
+            }
+        }
     }
 
-    private boolean cellOccupiesCheckedColumn(int checkedColumn, int column, int columnSpan) {
-        return (column + columnSpan - 1) >= checkedColumn;
+    /**
+     * Returns the cell occupying the given column on the given row.
+     * @param column The column.
+     * @param row Index of the row.
+     * @return the cell, or null if the column is not occupied.
+     */
+    public Cell getCellOccupying(int column, int row) {
+        return occupiedUntil[column] >= row ? occupyingCells[column] : null;
     }
 
-    private boolean cellOccupiesCheckedColumns(int cellColumn, int cellColumnSpan, int checkedColumn, int checkedColumnSpan) {
-        for (int i = cellColumn; i <= (cellColumn + cellColumnSpan - 1); ++i) {
-            if (i >= checkedColumn && i <= (checkedColumn + checkedColumnSpan - 1)) {
-                return true;
-            }
+    /**
+     * @return the index of the last row occupied by any of the registered cells, or -1 if no cells have been registered.
+     */
+    public int getLastOccupiedRow() {
+        int lastRow = -1;
+        for (int until : occupiedUntil) {
+            lastRow = Math.max(lastRow, until);
         }
-        return false;
+        return lastRow;
     }
 }
@@ -0,0 +1,74 @@
+package org.toucanpdf.state.Table;
+
+import java.util.List;
+
+/**
+ * Position within the rows of a table that is laid out over multiple pages. The rows are created once for the entire table and shared by
+ * the cursors of all pages the table is placed on, a cursor only determines which row comes first on its page. The shared rows are never
+ * changed during layout, every row that is placed on a page is copied first. This way a table placed on a new page only requires work
+ * for the rows that end up on that page. Once the table continues on the next page, the rows of the pages before the current one are released.
+ *
+ * @author Dylan de Wolff
+ * @see BaseStateTable
+ */
+public class StateTableRowCursor {
+    private final StateTableRows rows;
+    private final int start;
+
+    /**
+     * Creates a new instance of StateTableRowCursor, positioned at the first of the given rows.
+     * @param rows The rows of the table, the list should provide fast random access.
+     */
+    public StateTableRowCursor(List<StateTableRow> rows) {
+        this(new StateTableRows(rows, null), 0);
+    }
+
+    /**
+     * Creates a new instance of StateTableRowCursor, positioned at the first of the given rows.
+     * @param rows The rows of the table.
+     */
+    StateTableRowCursor(StateTableRows rows) {
+        this(rows, 0);
+    }
+
+    private StateTableRowCursor(StateTableRows rows, int start) {
+        this.rows = rows;
+        this.start = start;
+    }
+
+    /**
+     * Checks whether the table contains a row at the given index, rows are taken from the row source of the table if needed.
+     * @param index Index of the row relative to the position of this cursor.
+     * @return true if the row exists, false if the end of the table has been reached.
+     */
+    public boolean hasRow(int index) {
+        return rows.contains(start + index);
+    }
+
+    /**
+     * @return true if this cursor is positioned at the first row of the table, false otherwise.
+     */
+    public boolean isAtStart() {
+        return start == 0;
+    }
+
+    /**
+     * Creates a copy of the row at the given index, which can be placed on a page.
+     * @param index Index of the row relative to the position of this cursor.
+     * @return the copy of the row.
+     */
+    public StateTableRow copyRow(int index) {
+        return new StateTableRow(rows.get(start + index));
+    }
+
+    /**
+     * Creates a cursor positioned the given amount of rows after this one, sharing the rows of this cursor.
+     * The rows before the position of this cursor are released, which means cursors positioned before this one can no longer be used.
+     * @param amount The amount of rows to move.
+     * @return the new cursor.
+     */
+    public StateTableRowCursor advance(int amount) {
+        rows.release(start);
+        return new StateTableRowCursor(rows, start + amount);
+    }
+}
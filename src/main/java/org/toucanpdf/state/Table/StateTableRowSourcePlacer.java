@@ -0,0 +1,142 @@
+package org.toucanpdf.state.Table;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.toucanpdf.model.Cell;
+import org.toucanpdf.model.Table;
+import org.toucanpdf.model.state.StateCell;
+import org.toucanpdf.state.BaseStateCell;
+
+/**
+ * Places the cells taken from the row source of a table in rows, one row of the source at a time. The columns occupied by cells
+ * that span multiple rows are tracked by a {@link StateTableColumnUsageDetector}, so placing a row of the source does not depend
+ * on the amount of rows placed before it. The cells of each row of the source start on a new row of the table,
+ * cells that do not fit on the row continue on the next one.
+ *
+ * @author Dylan de Wolff
+ * @see StateTableRows
+ */
+class StateTableRowSourcePlacer {
+    private final Iterator<List<Cell>> source;
+    private final int columnAmount;
+    private final double borderWidth;
+    private final double padding;
+    private boolean fillEmptyColumns = false;
+    private final StateTableColumnUsageDetector columnUsageDetector;
+    /**
+     * The index within the table of the next row to add.
+     */
+    private int rowIndex;
+
+    /**
+     * Creates a new instance of StateTableRowSourcePlacer.
+     * @param table The table to take the cell settings from.
+     * @param source The row source of the table.
+     * @param rowIndex The index within the table of the first row to add.
+     */
+    StateTableRowSourcePlacer(Table table, Iterator<List<Cell>> source, int rowIndex) {
+        this.source = source;
+        this.columnAmount = table.getColumnAmount();
+        this.borderWidth = table.getBorderWidth();
+        this.padding = table.getPadding();
+        this.rowIndex = rowIndex;
+        this.columnUsageDetector = new StateTableColumnUsageDetector(columnAmount);
+    }
+
+    /**
+     * Sets whether empty columns of the rows added from now on should be filled with empty cells.
+     * @param fillEmptyColumns true to add filler cells, false otherwise.
+     */
+    void setFillEmptyColumns(boolean fillEmptyColumns) {
+        this.fillEmptyColumns = fillEmptyColumns;
+    }
+
+    /**
+     * Takes the next row from the source and adds the rows required for its cells to the given list. Once the source is exhausted,
+     * rows are only added for cells that occupy more rows than there are.
+     * @param rows List to add the rows to.
+     * @return true if rows have been added, false if there are no rows left to add.
+     */
+    boolean placeNextRow(List<StateTableRow> rows) {
+        if (!source.hasNext()) {
+            return addSpannedRow(rows);
+        }
+        StateTableRow row = addRow(rows);
+        int column = 0;
+        for (Cell cell : source.next()) {
+            if (cell == null) {
+                continue;
+            }
+            StateCell stateCell = createCell(cell);
+            int span = stateCell.getColumnSpan();
+            boolean placed = false;
+            while (!placed) {
+                if (column + span > columnAmount) {
+                    finishRow(row);
+                    row = addRow(rows);
+                    column = 0;
+                } else if (columnUsageDetector.columnsNotInUse(column, span, rowIndex - 1)) {
+                    placeCell(row, stateCell, column);
+                    column += span;
+                    placed = true;
+                } else {
+                    column++;
+                }
+            }
+        }
+        finishRow(row);
+        return true;
+    }
+
+    private boolean addSpannedRow(List<StateTableRow> rows) {
+        if (columnUsageDetector.getLastOccupiedRow() >= rowIndex) {
+            finishRow(addRow(rows));
+            return true;
+        }
+        return false;
+    }
+
+    private StateCell createCell(Cell cell) {
+        StateCell stateCell = cell instanceof StateCell ? (StateCell) cell : new BaseStateCell(cell);
+        if (stateCell.getBorderWidth() == null) {
+            stateCell.border(borderWidth);
+        }
+        if (stateCell.getPadding() == null) {
+            stateCell.padding(padding);
+        }
+        stateCell.columnSpan(Math.min(stateCell.getColumnSpan(), columnAmount));
+        return stateCell;
+    }
+
+    private void placeCell(StateTableRow row, StateCell cell, int column) {
+        row.getContent()[column] = cell;
+        row.setWidthUsed(row.getWidthUsed() + cell.getRequiredWidth());
+        if (cell.getStateCellContent() != null && cell.getStateCellContent().getSpecifiedWidth() == 0) {
+            row.addNoWidthSpecifiedCell(cell);
+        }
+        columnUsageDetector.occupy(cell, column, rowIndex - 1);
+    }
+
+    private StateTableRow addRow(List<StateTableRow> rows) {
+        StateTableRow row = new StateTableRow(columnAmount);
+        rows.add(row);
+        ++rowIndex;
+        return row;
+    }
+
+    private void finishRow(StateTableRow row) {
+        if (!fillEmptyColumns) {
+            return;
+        }
+        Cell[] content = row.getContent();
+        int currentRow = rowIndex - 1;
+        for (int i = 0; i < columnAmount; ++i) {
+            if (content[i] == null && columnUsageDetector.columnsNotInUse(i, 1, currentRow)) {
+                StateCell filler = new BaseStateCell();
+                filler.border(borderWidth).padding(padding);
+                content[i] = filler;
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.toucanpdf.state.Table;
+
+import java.util.List;
+
+/**
+ * The rows of a table that is laid out over multiple pages, shared by the cursors of all pages the table is placed on.
+ * If the table has a row source, rows are only taken from the source once a cursor asks for them. Rows that precede the first row
+ * of the page currently being laid out are released, so for a table with a row source only the rows of the current pages are kept in memory.
+ * Rows are referred to by their index within the entire table.
+ *
+ * @author Dylan de Wolff
+ * @see StateTableRowCursor
+ */
+class StateTableRows {
+    private final List<StateTableRow> rows;
+    /**
+     * The index within the table of the first row in the list.
+     */
+    private int offset = 0;
+    /**
+     * The index in the list of the first row that has not been released, the rows before it are set to null.
+     */
+    private int first = 0;
+    private StateTableRowSourcePlacer sourcePlacer;
+
+    /**
+     * Creates a new instance of StateTableRows.
+     * @param rows The rows that have been created so far, the list should provide fast random access.
+     * @param sourcePlacer Placer that adds the rows of the row source of the table, or null if all rows have been created.
+     */
+    StateTableRows(List<StateTableRow> rows, StateTableRowSourcePlacer sourcePlacer) {
+        this.rows = rows;
+        this.sourcePlacer = sourcePlacer;
+    }
+
+    /**
+     * Checks whether the table contains the row at the given index, taking rows from the row source until it is found.
+     * @param index Index of the row within the table.
+     * @return true if the table contains the row, false if the table has less rows.
+     */
+    boolean contains(int index) {
+        while (sourcePlacer != null && index >= offset + rows.size()) {
+            if (!sourcePlacer.placeNextRow(rows)) {
+                sourcePlacer = null;
+            }
+        }
+        return index < offset + rows.size();
+    }
+
+    /**
+     * @param index Index of the row within the table, the row should be contained in the table.
+     * @return the row at the given index.
+     * @throws IllegalStateException if the row has already been released.
+     */
+    StateTableRow get(int index) {
+        if (index - offset < first) {
+            throw new IllegalStateException("Row " + index + " of the table has already been released.");
+        }
+        return rows.get(index - offset);
+    }
+
+    /**
+     * Releases all rows before the given index. The list is only compacted once half of it has been released, so releasing rows
+     * one page at a time does not cause the remaining rows to be moved for every page.
+     * @param index Index of the first row within the table that is still needed.
+     */
+    void release(int index) {
+        int end = Math.min(index - offset, rows.size());
+        for (int i = first; i < end; ++i) {
+            rows.set(i, null);
+        }
+        first = Math.max(first, end);
+        if (first > 0 && first >= rows.size() / 2) {
+            rows.subList(0, first).clear();
+            offset += first;
+            first = 0;
+        }
+    }
+}
@@ -2,7 +2,12 @@ package org.toucanpdf.utility;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 import org.toucanpdf.model.Compression;
 
@@ -11,12 +16,19 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This utility class allows for the compression of data.
+ * Deflaters hold native memory until they are ended, so they are pooled and reused instead of being created for each compression.
  * @author Dylan de Wolff
  *
  */
 public final class Compressor {
     private static final int DEFAULT_BUFFER_SIZE = 1024;
     private static final Logger LOGGER = LoggerFactory.getLogger(Compressor.class);
+    /**
+     * The maximum amount of idle deflaters kept in the pool. Deflaters released while the pool is full are ended.
+     */
+    private static final int MAX_POOLED_DEFLATERS = Runtime.getRuntime().availableProcessors() * 2;
+    private static final Queue<Deflater> DEFLATER_POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOLED_DEFLATER_AMOUNT = new AtomicInteger();
 
     private Compressor() {
     }
@@ -27,10 +39,21 @@ public final class Compressor {
      * @return the compressed data.
      */
     public static byte[] flateCompress(byte[] data) {
+        return flateCompress(data, Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+    }
+
+    /**
+     * Compresses the given data using the flate method.
+     * @param data Data to compress.
+     * @param level The compression level, as defined by {@link Deflater}.
+     * @param strategy The compression strategy, as defined by {@link Deflater}.
+     * @return the compressed data.
+     */
+    public static byte[] flateCompress(byte[] data, int level, int strategy) {
         byte[] output = new byte[0];
+        Deflater compressor = acquireDeflater(level, strategy);
         try {
             ByteArrayOutputStream baos = new ByteArrayOutputStream(data.length);
-            Deflater compressor = new Deflater();
             byte[] outputBuffer = new byte[DEFAULT_BUFFER_SIZE];
             compressor.setInput(data);
             compressor.finish();
@@ -42,6 +65,8 @@ public final class Compressor {
             output = baos.toByteArray();
         } catch (IOException e) {
             LOGGER.error("IOException occurred on flate compression");
+        } finally {
+            releaseDeflater(compressor);
         }
         return output;
     }
@@ -71,4 +96,101 @@ public final class Compressor {
         }
     }
 
+    /**
+     * Wraps the given OutputStream so that all data written to the returned stream is compressed based on the given method
+     * before it reaches the given stream. Closing the returned stream finishes the compression and closes the given stream.
+     * If the method is unsupported the given stream is returned, leaving the data uncompressed.
+     * @param os OutputStream that will receive the compressed data.
+     * @param compressionMethod Method to use.
+     * @return OutputStream to write the uncompressed data to.
+     */
+    public static OutputStream compressingStream(OutputStream os, Compression compressionMethod) {
+        return compressingStream(os, compressionMethod, Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+    }
+
+    /**
+     * Wraps the given OutputStream so that all data written to the returned stream is compressed based on the given method
+     * before it reaches the given stream. Closing the returned stream finishes the compression, returns the deflater to the pool
+     * and closes the given stream. If the method is unsupported the given stream is returned, leaving the data uncompressed.
+     * @param os OutputStream that will receive the compressed data.
+     * @param compressionMethod Method to use.
+     * @param level The compression level used for flate compression, as defined by {@link Deflater}.
+     * @param strategy The compression strategy used for flate compression, as defined by {@link Deflater}.
+     * @return OutputStream to write the uncompressed data to.
+     */
+    public static OutputStream compressingStream(OutputStream os, Compression compressionMethod, int level, int strategy) {
+        switch (compressionMethod) {
+        case FLATE:
+            return new PooledDeflaterOutputStream(os, acquireDeflater(level, strategy));
+        case ASCII_85:
+        case ASCII_HEX:
+        case CCITT:
+        case DCT:
+        case JBIG2:
+        case JPX:
+        case LZW:
+        case RUN_LENGTH:
+        default:
+            LOGGER.warn("The given compression: " + compressionMethod
+                    + " is unsupported. The compression should be removed from the object to prevent problems.");
+            return os;
+        }
+    }
+
+    /**
+     * Returns the amount of idle deflaters currently kept in the pool.
+     * @return amount of pooled deflaters.
+     */
+    public static int getPooledDeflaterAmount() {
+        return POOLED_DEFLATER_AMOUNT.get();
+    }
+
+    private static Deflater acquireDeflater(int level, int strategy) {
+        Deflater deflater = DEFLATER_POOL.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level);
+        } else {
+            POOLED_DEFLATER_AMOUNT.decrementAndGet();
+        }
+        deflater.setLevel(level);
+        deflater.setStrategy(strategy);
+        return deflater;
+    }
+
+    /**
+     * Returns the given deflater to the pool, or ends it to free its native memory if the pool is full.
+     * @param deflater Deflater that is no longer used.
+     */
+    private static void releaseDeflater(Deflater deflater) {
+        deflater.reset();
+        if (POOLED_DEFLATER_AMOUNT.incrementAndGet() <= MAX_POOLED_DEFLATERS) {
+            DEFLATER_POOL.offer(deflater);
+        } else {
+            POOLED_DEFLATER_AMOUNT.decrementAndGet();
+            deflater.end();
+        }
+    }
+
+    /**
+     * DeflaterOutputStream that returns its deflater to the pool once it is closed.
+     */
+    private static class PooledDeflaterOutputStream extends DeflaterOutputStream {
+        private boolean released = false;
+
+        public PooledDeflaterOutputStream(OutputStream os, Deflater deflater) {
+            super(os, deflater, DEFAULT_BUFFER_SIZE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!released) {
+                released = true;
+                try {
+                    super.close();
+                } finally {
+                    releaseDeflater(def);
+                }
+            }
+        }
+    }
 }
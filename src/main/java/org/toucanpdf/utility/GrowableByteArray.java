@@ -0,0 +1,83 @@
+package org.toucanpdf.utility;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A byte array that grows as bytes are appended to it. The capacity is doubled whenever it runs out,
+ * which makes appending many small fragments take linear time in total.
+ * Unlike ByteArrayOutputStream this class is not synchronized and can write its content without copying it first.
+ * @author Dylan de Wolff
+ */
+public class GrowableByteArray {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final byte[] EMPTY = new byte[0];
+    private byte[] bytes;
+    private int size;
+
+    /**
+     * Creates a new, empty instance of GrowableByteArray.
+     */
+    public GrowableByteArray() {
+        bytes = EMPTY;
+        size = 0;
+    }
+
+    /**
+     * Creates a new instance of GrowableByteArray containing a copy of the given bytes.
+     * @param initialBytes Bytes to start with.
+     */
+    public GrowableByteArray(byte[] initialBytes) {
+        bytes = initialBytes.clone();
+        size = initialBytes.length;
+    }
+
+    /**
+     * Appends the given bytes.
+     * @param toAppend Bytes to append.
+     */
+    public void append(byte[] toAppend) {
+        append(toAppend, 0, toAppend.length);
+    }
+
+    /**
+     * Appends the given range of bytes.
+     * @param toAppend Array containing the bytes to append.
+     * @param offset Index of the first byte to append.
+     * @param length Amount of bytes to append.
+     */
+    public void append(byte[] toAppend, int offset, int length) {
+        ensureCapacity(size + length);
+        System.arraycopy(toAppend, offset, bytes, size, length);
+        size += length;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > bytes.length) {
+            int newCapacity = Math.max(Math.max(bytes.length * 2, DEFAULT_CAPACITY), required);
+            bytes = Arrays.copyOf(bytes, newCapacity);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a copy of the content.
+     * @return Byte array containing the content.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    /**
+     * Writes the content to the given OutputStream.
+     * @param os OutputStream to write to.
+     * @throws IOException if writing to the outputstream caused an exception
+     */
+    public void writeTo(OutputStream os) throws IOException {
+        os.write(bytes, 0, size);
+    }
+}
@@ -0,0 +1,121 @@
+package org.toucanpdf.utility;
+
+/**
+ * An open addressing hash map from long keys to int values. Keys and values are stored in primitive arrays and collisions are resolved
+ * by linear probing, so looking up a value does not allocate any objects. The capacity is a power of two and is doubled whenever
+ * the map becomes more than half full. Entries can not be removed.
+ * This class is not synchronized, it should be filled before it is shared between threads.
+ * @author Dylan de Wolff
+ */
+public class LongIntHashMap {
+    private static final int DEFAULT_CAPACITY = 16;
+    /**
+     * Multiplier used to spread the bits of the key, taken from the golden ratio.
+     */
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+
+    /**
+     * Creates a new, empty instance of LongIntHashMap.
+     */
+    public LongIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new, empty instance of LongIntHashMap that can hold the given amount of entries without growing.
+     * @param expectedSize Amount of entries expected.
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, DEFAULT_CAPACITY / 2) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    /**
+     * Combines two ints into a single key.
+     * @param first The int stored in the upper half of the key.
+     * @param second The int stored in the lower half of the key.
+     * @return long containing both ints.
+     */
+    public static long key(int first, int second) {
+        return ((long) first << Integer.SIZE) | (second & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Stores the given value for the given key, replacing the previous value if there was one.
+     * @param key The key.
+     * @param value The value.
+     */
+    public void put(long key, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int index = indexOf(key);
+        if (!used[index]) {
+            used[index] = true;
+            keys[index] = key;
+            ++size;
+        }
+        values[index] = value;
+    }
+
+    /**
+     * Returns the value stored for the given key.
+     * @param key The key.
+     * @param defaultValue Value to return if there is no value for the key.
+     * @return the value stored for the key, or the given default value.
+     */
+    public int get(long key, int defaultValue) {
+        int index = indexOf(key);
+        return used[index] ? values[index] : defaultValue;
+    }
+
+    /**
+     * Checks whether a value is stored for the given key.
+     * @param key The key.
+     * @return true if there is a value for the key, false otherwise.
+     */
+    public boolean containsKey(long key) {
+        return used[indexOf(key)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the slot containing the given key, or of the empty slot the key would be stored in.
+     * @param key The key.
+     * @return int containing the index.
+     */
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        int index = (int) ((key * HASH_MULTIPLIER) >>> (Long.SIZE - Integer.numberOfTrailingZeros(keys.length)));
+        while (used[index] && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldUsed[i]) {
+                int index = indexOf(oldKeys[i]);
+                used[index] = true;
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.toucanpdf.utility;
 public final class PointsConverter {
     private static final double PIXELS_TO_POINTS = 0.75;
     private static final double POINTS_TO_PIXELS = 3;
+    private static final double POINTS_PER_INCH = 72;
 
     private PointsConverter() {
     }
@@ -17,4 +18,14 @@ public final class PointsConverter {
         }
         return 0;
     }
+
+    /**
+     * Returns the amount of pixels needed to cover the given amount of points at the given resolution.
+     * @param points The amount of points.
+     * @param dpi The resolution in pixels per inch.
+     * @return the amount of pixels.
+     */
+    public static double getPixelsForPoints(double points, double dpi) {
+        return points / POINTS_PER_INCH * dpi;
+    }
 }
@@ -56,6 +56,14 @@ public final class UnicodeConverter {
         return UNICODE_TO_POSTSCRIPT.get(code);
     }
 
+    /**
+     * Returns all unicode character codes with their postscript names.
+     * @return Unmodifiable map containing the postscript name for each unicode character code.
+     */
+    public static Map<Integer, String> getUnicodeToPostscript() {
+        return UNICODE_TO_POSTSCRIPT;
+    }
+
     /**
      * Processes the file containing the list of unicode character codes and the corresponding postscript names.
      * @param Map<Integer, String> Map to store the read values in.
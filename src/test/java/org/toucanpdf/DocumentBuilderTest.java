@@ -7,9 +7,19 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
+import org.toucanpdf.api.BaseCell;
 import org.toucanpdf.api.BasePage;
+import org.toucanpdf.api.BaseText;
+import org.toucanpdf.model.Cell;
 import org.toucanpdf.model.DocumentPartType;
 import org.toucanpdf.model.Font;
 import org.toucanpdf.model.Image;
@@ -18,6 +28,7 @@ import org.toucanpdf.model.Page;
 import org.toucanpdf.model.Paragraph;
 import org.toucanpdf.model.Table;
 import org.toucanpdf.model.Text;
+import org.toucanpdf.utility.FloatEqualityTester;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -80,6 +91,42 @@ public class DocumentBuilderTest {
         assertEquals(DocumentPartType.IMAGE, builder.getPage(1).getContent().get(1).getType());
     }
 
+    @Test
+    public void testImageSource() throws IOException {
+        DocumentBuilder inMemory = new DocumentBuilder();
+        DocumentBuilder deferred = new DocumentBuilder();
+        inMemory.addImage(this.getClass().getClassLoader().getResourceAsStream("hammock.jpg"), ImageType.JPEG);
+        Image i = deferred.addImage(() -> this.getClass().getClassLoader().getResourceAsStream("hammock.jpg"), ImageType.JPEG);
+        assertEquals(DocumentPartType.IMAGE, deferred.getPage(1).getContent().get(0).getType());
+        assertTrue(i.getImageParser().isDeferred());
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        inMemory.finish(expected);
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        deferred.finish(actual);
+        //the creation date is set when the document is finished and may differ between the two documents
+        String creationDate = "/CreationDate \\(D:\\d+\\)";
+        assertEquals(expected.toString("ISO-8859-1").replaceAll(creationDate, ""), actual.toString("ISO-8859-1").replaceAll(creationDate, ""));
+    }
+
+    @Test
+    public void testMaximumImageResolution() throws IOException {
+        builder.setMaximumImageResolution(72);
+        assertEquals(72, builder.getMaximumImageResolution(), FloatEqualityTester.EPSILON);
+        //the image is 170 pixels wide, drawn 50 points wide it has a resolution of 245 pixels per inch
+        builder.addImage(this.getClass().getClassLoader().getResourceAsStream("hammock.jpg"), ImageType.JPEG).width(50);
+        builder.addImage(this.getClass().getClassLoader().getResourceAsStream("hammock.jpg"), ImageType.JPEG).width(50).maximumResolution(144);
+        builder.addImage(this.getClass().getClassLoader().getResourceAsStream("hammock.jpg"), ImageType.JPEG).width(50).maximumResolution(300);
+        builder.addImage(this.getClass().getClassLoader().getResourceAsStream("hammock.jpg"), ImageType.JPEG).width(50);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        builder.finish(baos);
+        String pdf = baos.toString("ISO-8859-1");
+        assertEquals("Images drawn at the same size should share the resampled image. ", 3, pdf.split("/Subtype /Image").length - 1);
+        assertTrue(pdf.contains("/Width 50\n /Height 50"));
+        assertTrue(pdf.contains("/Width 100\n /Height 100"));
+        assertTrue(pdf.contains("/Width 170\n /Height 170"));
+    }
+
     @Test
     public void testTable() {
         Table t = builder.addTable();
@@ -212,4 +259,104 @@ public class DocumentBuilderTest {
         builder.finish(baos);
         assertEquals(true, baos.size() > 0);
     }
+
+    @Test
+    public void testStreamingFinish() throws IOException {
+        builder.setStreaming(true);
+        assertEquals(true, builder.isStreaming());
+        builder.addText("First page");
+        builder.addPage();
+        builder.addText("Second page");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        builder.finish(baos);
+        String pdf = baos.toString("ISO-8859-1");
+        assertEquals(true, pdf.startsWith("%PDF-1.7"));
+        assertEquals(true, pdf.contains("/Count 2"));
+        assertEquals(true, pdf.endsWith("%%EOF"));
+    }
+
+    @Test
+    public void testStreamingRowSource() throws IOException {
+        DocumentBuilder streamingBuilder = new DocumentBuilder().setStreaming(true);
+        streamingBuilder.addPage().addFooter().add(streamingBuilder.createText("Page %pageNumber").on(20, 5));
+        Iterator<List<Cell>> source = IntStream.range(0, 1500)
+                .mapToObj(i -> Arrays.<Cell> asList(new BaseCell(new BaseText("Row " + i)), new BaseCell(new BaseText("Value " + i))))
+                .iterator();
+        streamingBuilder.addTable().columns(2).repeatHeader(true).rowSource(source);
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        streamingBuilder.finish(streamed);
+
+        DocumentBuilder documentBuilder = new DocumentBuilder();
+        documentBuilder.addPage().addFooter().add(documentBuilder.createText("Page %pageNumber").on(20, 5));
+        Table table = documentBuilder.addTable().columns(2).repeatHeader(true);
+        for (int i = 0; i < 1500; ++i) {
+            table.addCell("Row " + i);
+            table.addCell("Value " + i);
+        }
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        documentBuilder.finish(written);
+
+        String pageCount = getPageCount(written.toString("ISO-8859-1"));
+        assertTrue(Integer.parseInt(pageCount) > 20);
+        assertEquals("A table with a row source should be laid out like a table containing the same cells. ", pageCount,
+                getPageCount(streamed.toString("ISO-8859-1")));
+    }
+
+    @Test
+    public void testRowSourcePreview() throws IOException {
+        builder.addTable().columns(2).rowSource(createRowSource(300));
+        int previewPageAmount = builder.getPreview().getPages().size();
+        assertTrue(previewPageAmount > 1);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        builder.finish(baos);
+        assertEquals("The layout of the preview should be reused by finish. ", String.valueOf(previewPageAmount), getPageCount(baos.toString("ISO-8859-1")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRowSourceLaidOutTwice() throws IOException {
+        builder.addTable().columns(2).rowSource(createRowSource(300));
+        builder.getPreview();
+        //changing the page requires the table to be laid out again, which is not possible once its rows have been taken from the source
+        builder.addText("Added after the preview");
+        builder.finish(new ByteArrayOutputStream());
+    }
+
+    private Iterator<List<Cell>> createRowSource(int rowAmount) {
+        return IntStream.range(0, rowAmount)
+                .mapToObj(i -> Arrays.<Cell> asList(new BaseCell(new BaseText("Row " + i)), new BaseCell(new BaseText("Value " + i))))
+                .iterator();
+    }
+
+    private String getPageCount(String pdf) {
+        Matcher matcher = Pattern.compile("/Count (\\d+)").matcher(pdf);
+        assertTrue(matcher.find());
+        return matcher.group(1);
+    }
+
+    @Test
+    public void testParallelLayout() throws IOException {
+        String sequential = writeReport(new DocumentBuilder());
+        String parallel = writeReport(new DocumentBuilder().setLayoutExecutor(ForkJoinPool.commonPool()));
+        assertEquals("Laying out pages concurrently should not change the output. ", sequential, parallel);
+    }
+
+    private String writeReport(DocumentBuilder documentBuilder) throws IOException {
+        for (int section = 0; section < 6; ++section) {
+            Page page = documentBuilder.addPage();
+            page.addHeader().add(documentBuilder.createText("Page %pageNumber of %totalPages").on(20, 830));
+            for (int i = 0; i < 60; ++i) {
+                documentBuilder.addText("Section " + section + " line " + i + " with a few words of content");
+            }
+            Paragraph paragraph = documentBuilder.addParagraph();
+            paragraph.addText(documentBuilder.createText("Paragraph in section " + section));
+            Table table = documentBuilder.addTable().columns(2);
+            for (int i = 0; i < 8; ++i) {
+                table.addCell("Cell " + i);
+            }
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        documentBuilder.finish(baos);
+        //subset tags are random and the creation date is the time of writing
+        return baos.toString("ISO-8859-1").replaceAll("/[A-Z]{6}\\+", "/SUBSET+").replaceAll("CreationDate \\(D:\\d+\\)", "CreationDate");
+    }
 }
@@ -11,6 +11,7 @@ import org.toucanpdf.model.Image;
 import org.toucanpdf.model.ImageType;
 import org.toucanpdf.model.Page;
 import org.toucanpdf.model.Paragraph;
+import org.toucanpdf.model.Table;
 import org.toucanpdf.model.Text;
 
 import org.junit.Before;
@@ -75,4 +76,45 @@ public class DocumentStateTest {
         assertEquals(1, state.getPreviewFor(i).size());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testUnchangedPagesAreReused() {
+        Text text = new BaseText("Test");
+        page1.add(text);
+        page2.add(new BaseParagraph().addText(new BaseText("Paragraph")));
+        Table table = new BaseTable(100);
+        table.addCell("Cell");
+        page2.add(table);
+        state.updateState(builderState);
+        Page firstPage = state.getPages().get(0);
+        Page secondPage = state.getPages().get(1);
+
+        state.updateState(builderState);
+        assertTrue("Pages without changes should not be laid out again. ", firstPage == state.getPages().get(0));
+        assertTrue(secondPage == state.getPages().get(1));
+        assertEquals(1, state.getPreviewFor(text).size());
+
+        text.text("Changed");
+        state.updateState(builderState);
+        assertTrue(firstPage != state.getPages().get(0));
+        assertTrue(secondPage == state.getPages().get(1));
+        assertEquals("Changed", state.getPreviewFor(text).get(0).getText());
+    }
+
+    @Test
+    public void testPageAreasOnReusedPages() {
+        Page page3 = new BasePage(200, 200);
+        page3.addHeader().add(new BaseText("Page %pageNumber of %totalPages").on(10, 190));
+        page3.add(new BaseText("Test"));
+        builderState.add(page3);
+        state.updateState(builderState);
+        Page statePage = state.getPages().get(2);
+        int contentSize = statePage.getContent().size();
+
+        builderState.add(1, new BasePage(200, 200));
+        state.updateState(builderState);
+        assertTrue(statePage == state.getPages().get(3));
+        assertEquals("Page area content should be replaced. ", contentSize, statePage.getContent().size());
+        assertTrue(statePage.getContent().stream().anyMatch(p -> p instanceof Text && "Page 3 of 3".equals(((Text) p).getText())));
+    }
+}
@@ -1,15 +1,38 @@
 package org.toucanpdf.api;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.InflaterInputStream;
 
+import javax.imageio.ImageIO;
+
+import org.toucanpdf.DocumentBuilder;
+import org.toucanpdf.image.ImageCache;
+import org.toucanpdf.image.ImageResampler;
+import org.toucanpdf.image.ImageSources;
 import org.toucanpdf.model.Alignment;
 import org.toucanpdf.model.ColorSpace;
 import org.toucanpdf.model.Compression;
 import org.toucanpdf.model.Image;
 import org.toucanpdf.model.ImageParser;
+import org.toucanpdf.model.ImageSource;
 import org.toucanpdf.model.ImageType;
 import org.toucanpdf.model.Position;
 import org.toucanpdf.utility.FloatEqualityTester;
@@ -35,6 +58,273 @@ public class ImageTest {
         Assert.assertEquals(127.5, i.getHeight(), FloatEqualityTester.EPSILON);
     }
 
+    @Test
+    public void testJpegPassthrough() throws IOException {
+        byte[] original = readResource("hammock.jpg");
+        ImageParser parser = new BaseImage(original, ImageType.JPEG).getImageParser();
+        assertArrayEquals(original, parser.getData());
+        assertEquals(170, parser.getWidth());
+        assertEquals(170, parser.getHeight());
+        assertEquals(ColorSpace.DEVICE_RGB, parser.getColorSpace());
+        assertEquals(Compression.DCT, parser.getFilter());
+
+        //the image is compressed with Flate by default, which should not be applied to the JPEG data
+        DocumentBuilder builder = new DocumentBuilder();
+        builder.addImage(new ByteArrayInputStream(original), ImageType.JPEG);
+        ByteArrayOutputStream document = new ByteArrayOutputStream();
+        builder.finish(document);
+        String pdf = document.toString("ISO-8859-1");
+        int dictionaryStart = pdf.lastIndexOf("<<", pdf.indexOf("/Subtype /Image"));
+        int streamStart = pdf.indexOf("stream\n", dictionaryStart) + "stream\n".length();
+        String dictionary = pdf.substring(dictionaryStart, streamStart);
+        assertTrue(dictionary.contains("/Filter [ /DCTDecode ]"));
+        assertTrue(dictionary.contains("/Length " + original.length + "\n"));
+        assertArrayEquals(original, Arrays.copyOfRange(document.toByteArray(), streamStart, streamStart + original.length));
+        assertTrue(pdf.startsWith("\nendstream", streamStart + original.length));
+
+        ByteArrayOutputStream gray = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(30, 20, BufferedImage.TYPE_BYTE_GRAY), "jpg", gray);
+        parser = new BaseImage(gray.toByteArray(), ImageType.JPEG).getImageParser();
+        assertArrayEquals(gray.toByteArray(), parser.getData());
+        assertEquals(30, parser.getWidth());
+        assertEquals(20, parser.getHeight());
+        assertEquals(ColorSpace.DEVICE_GRAY, parser.getColorSpace());
+    }
+
+    @Test
+    public void testMalformedJpegIsDecoded() throws IOException {
+        byte[] original = readResource("hammock.jpg");
+        //insert extraneous bytes after the first segment, these are skipped by decoders but prevent reading the frame header
+        int segmentEnd = 4 + (((original[4] & 0xFF) << 8) | (original[5] & 0xFF));
+        byte[] data = new byte[original.length + 2];
+        System.arraycopy(original, 0, data, 0, segmentEnd);
+        System.arraycopy(original, segmentEnd, data, segmentEnd + 2, original.length - segmentEnd);
+        ImageParser parser = new BaseImage(data, ImageType.JPEG).getImageParser();
+        assertEquals(170, parser.getWidth());
+        assertEquals(170, parser.getHeight());
+        assertFalse(Arrays.equals(data, parser.getData()));
+    }
+
+    @Test
+    public void testPngPassthrough() throws IOException {
+        BufferedImage rgb = new BufferedImage(30, 20, BufferedImage.TYPE_INT_RGB);
+        rgb.setRGB(3, 4, 0x123456);
+        byte[] png = writePng(rgb);
+        ImageParser parser = new BaseImage(png, ImageType.PNG).getImageParser();
+        assertEquals(30, parser.getWidth());
+        assertEquals(20, parser.getHeight());
+        assertEquals(ColorSpace.DEVICE_RGB, parser.getColorSpace());
+        assertEquals(8, parser.getBitsPerComponent());
+        assertEquals(Compression.FLATE, parser.getFilter());
+        assertEquals(15, parser.getPredictor());
+        assertNull(parser.getSoftMask());
+        assertTrue(Collections.indexOfSubList(toList(png), toList(parser.getData())) > 0);
+
+        byte[] colors = { 0, 10, 20 };
+        BufferedImage indexed = new BufferedImage(10, 10, BufferedImage.TYPE_BYTE_BINARY, new IndexColorModel(2, 3, colors, colors, colors));
+        parser = new BaseImage(writePng(indexed), ImageType.PNG).getImageParser();
+        assertEquals(ColorSpace.INDEXED, parser.getColorSpace());
+        assertEquals(2, parser.getBitsPerComponent());
+        assertArrayEquals(new byte[] { 0, 0, 0, 10, 10, 10, 20, 20, 20 }, Arrays.copyOf(parser.getColorTable(), 9));
+    }
+
+    @Test
+    public void testPngAlphaChannel() throws IOException {
+        BufferedImage argb = new BufferedImage(30, 20, BufferedImage.TYPE_INT_ARGB);
+        ImageParser parser = new BaseImage(writePng(argb), ImageType.PNG).getImageParser();
+        assertEquals(ColorSpace.DEVICE_RGB, parser.getColorSpace());
+        ImageParser mask = parser.getSoftMask();
+        assertEquals(ColorSpace.DEVICE_GRAY, mask.getColorSpace());
+        assertEquals(30, mask.getWidth());
+        assertEquals(20, mask.getHeight());
+        assertEquals(15, mask.getPredictor());
+
+        for (int x = 0; x < 30; ++x) {
+            for (int y = 0; y < 20; ++y) {
+                argb.setRGB(x, y, 0xFF000000 | (x * y));
+            }
+        }
+        parser = new BaseImage(writePng(argb), ImageType.PNG).getImageParser();
+        assertNull(parser.getSoftMask());
+    }
+
+    @Test
+    public void testPngWithTransparentColorIsDecoded() throws IOException {
+        byte[] colors = { 0, 10, 20 };
+        BufferedImage indexed = new BufferedImage(10, 10, BufferedImage.TYPE_BYTE_INDEXED, new IndexColorModel(8, 3, colors, colors, colors, 0));
+        ImageParser parser = new BaseImage(writePng(indexed), ImageType.PNG).getImageParser();
+        assertEquals(ColorSpace.DEVICE_RGB, parser.getColorSpace());
+        assertEquals(10, parser.getWidth());
+        assertEquals(1, parser.getPredictor());
+        assertNull(parser.getColorTable());
+        assertEquals(ColorSpace.DEVICE_GRAY, parser.getSoftMask().getColorSpace());
+    }
+
+    @Test
+    public void testImageSources() throws IOException {
+        byte[] jpeg = readResource("hammock.jpg");
+        File jpegFile = File.createTempFile("image", ".jpg");
+        Files.write(jpegFile.toPath(), jpeg);
+        BufferedImage rgb = new BufferedImage(30, 20, BufferedImage.TYPE_INT_RGB);
+        rgb.setRGB(3, 4, 0x123456);
+        byte[] png = writePng(rgb);
+        File pngFile = File.createTempFile("image", ".png");
+        Files.write(pngFile.toPath(), png);
+        try {
+            byte[] pngData = new BaseImage(png, ImageType.PNG).getImageParser().getData();
+            List<ImageSource> jpegSources = Arrays.asList(ImageSources.fromPath(jpegFile.toPath()),
+                    ImageSources.fromMappedFile(jpegFile.toPath()), ImageSources.fromSupplier(() -> new ByteArrayInputStream(jpeg)));
+            for (ImageSource source : jpegSources) {
+                ImageParser parser = new BaseImage(source, ImageType.JPEG).getImageParser();
+                assertTrue(parser.isDeferred());
+                assertEquals(170, parser.getWidth());
+                assertEquals(Compression.DCT, parser.getFilter());
+                assertArrayEquals(jpeg, parser.getData());
+            }
+            List<ImageSource> pngSources = Arrays.asList(ImageSources.fromPath(pngFile.toPath()),
+                    ImageSources.fromMappedFile(pngFile.toPath()), ImageSources.fromSupplier(() -> new ByteArrayInputStream(png)));
+            for (ImageSource source : pngSources) {
+                ImageParser parser = new BaseImage(source, ImageType.PNG).getImageParser();
+                assertTrue(parser.isDeferred());
+                assertEquals(30, parser.getWidth());
+                assertEquals(20, parser.getHeight());
+                assertEquals(15, parser.getPredictor());
+                assertArrayEquals(pngData, parser.getData());
+            }
+
+            //images with an alpha channel have to be decompressed, so their data is kept in memory
+            ImageSource argb = ImageSources.fromSupplier(() -> {
+                try {
+                    return new ByteArrayInputStream(writePng(new BufferedImage(30, 20, BufferedImage.TYPE_INT_ARGB)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            ImageParser parser = new BaseImage(argb, ImageType.PNG).getImageParser();
+            assertFalse(parser.isDeferred());
+            assertEquals(ColorSpace.DEVICE_GRAY, parser.getSoftMask().getColorSpace());
+        } finally {
+            jpegFile.delete();
+            pngFile.delete();
+        }
+    }
+
+    @Test
+    public void testImageCache() throws IOException {
+        byte[] jpeg = readResource("hammock.jpg");
+        ImageCache cache = new ImageCache(jpeg.length);
+        ImageParser parser = cache.getParser(jpeg, ImageType.JPEG);
+        assertTrue(parser == cache.getParser(jpeg.clone(), ImageType.JPEG));
+        assertEquals(1, cache.getHitAmount());
+        assertEquals(1, cache.getMissAmount());
+        assertEquals(jpeg.length, cache.getSize());
+        assertTrue(parser.getDigest() != null);
+        assertFalse(parser.getDigest().equals(cache.getParser(jpeg, ImageType.PNG).getDigest()));
+        //a file that can not be parsed is not cached
+        byte[] invalidFile = Arrays.copyOf(jpeg, 100);
+        ImageParser invalid = cache.getParser(invalidFile, ImageType.JPEG);
+        assertNull(invalid.getDigest());
+        assertFalse(invalid == cache.getParser(invalidFile, ImageType.JPEG));
+        assertNull(cache.getParser(jpeg, ImageType.GIF));
+
+        //the encoded stream is not stored if the image would no longer fit in the cache
+        cache.putEncodedData(parser.getDigest(), "FLATE", new byte[] { 1 });
+        assertNull(cache.getEncodedData(parser.getDigest(), "FLATE"));
+        cache.setMaximumSize(jpeg.length * 2);
+        cache.putEncodedData(parser.getDigest(), "FLATE", new byte[] { 1 });
+        assertArrayEquals(new byte[] { 1 }, cache.getEncodedData(parser.getDigest(), "FLATE"));
+        assertEquals(jpeg.length + 1, cache.getSize());
+
+        cache.setMaximumSize(jpeg.length);
+        assertEquals(0, cache.getSize());
+        ImageParser reparsed = cache.getParser(jpeg, ImageType.JPEG);
+        assertFalse(parser == reparsed);
+        assertEquals(parser.getDigest(), reparsed.getDigest());
+    }
+
+    @Test
+    public void testDisabledImageCache() throws IOException {
+        byte[] jpeg = readResource("hammock.jpg");
+        ImageCache cache = new ImageCache(0);
+        ImageParser parser = cache.getParser(jpeg, ImageType.JPEG);
+        assertEquals(jpeg.length, parser.getData().length);
+        //the image still gets a digest, so documents can recognize equal images, but it is not stored
+        ImageParser reparsed = cache.getParser(jpeg, ImageType.JPEG);
+        assertFalse(parser == reparsed);
+        assertEquals(parser.getDigest(), reparsed.getDigest());
+        assertEquals(0, cache.getHitAmount());
+        assertEquals(2, cache.getMissAmount());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testImageResampler() throws IOException {
+        BufferedImage argb = new BufferedImage(40, 30, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < 40; ++x) {
+            for (int y = 0; y < 30; ++y) {
+                argb.setRGB(x, y, x < 20 ? 0x80336699 : 0xFF336699);
+            }
+        }
+        ImageParser parser = ImageResampler.resample(new BaseImage(writePng(argb), ImageType.PNG).getImageParser(), 4, 3);
+        assertEquals(4, parser.getWidth());
+        assertEquals(3, parser.getHeight());
+        assertEquals(ColorSpace.DEVICE_RGB, parser.getColorSpace());
+        assertEquals(8, parser.getBitsPerComponent());
+        assertEquals(15, parser.getPredictor());
+        //each row contains the filter type followed by the unchanged color, since every new pixel covers pixels of a single color
+        assertArrayEquals(new byte[] { 4, 0x33, 0x66, (byte) 0x99, 0, 0, 0, 0, 0, 0, 0, 0, 0 }, Arrays.copyOf(inflate(parser.getData()), 13));
+        ImageParser mask = parser.getSoftMask();
+        assertEquals(4, mask.getWidth());
+        assertEquals(3, mask.getHeight());
+        assertArrayEquals(new byte[] { 4, (byte) 0x80, 0, 0x7F, 0 }, Arrays.copyOf(inflate(mask.getData()), 5));
+
+        parser = ImageResampler.resample(new BaseImage(readResource("hammock.jpg"), ImageType.JPEG).getImageParser(), 17, 10);
+        assertEquals(Compression.DCT, parser.getFilter());
+        assertEquals(17, parser.getWidth());
+        assertEquals(10, parser.getHeight());
+        BufferedImage resampled = ImageIO.read(new ByteArrayInputStream(parser.getData()));
+        assertEquals(17, resampled.getWidth());
+        assertEquals(10, resampled.getHeight());
+    }
+
+    private static byte[] inflate(byte[] compressed) throws IOException {
+        try (InflaterInputStream input = new InflaterInputStream(new ByteArrayInputStream(compressed))) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                baos.write(buffer, 0, read);
+            }
+            return baos.toByteArray();
+        }
+    }
+
+    private static byte[] writePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        return png.toByteArray();
+    }
+
+    private static List<Byte> toList(byte[] bytes) {
+        List<Byte> list = new ArrayList<>(bytes.length);
+        for (byte b : bytes) {
+            list.add(b);
+        }
+        return list;
+    }
+
+    private byte[] readResource(String name) throws IOException {
+        try (InputStream input = this.getClass().getClassLoader().getResourceAsStream(name)) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                baos.write(buffer, 0, read);
+            }
+            return baos.toByteArray();
+        }
+    }
+
     @Test
     public void testSize() {
         assertEquals(127.5, i.getHeight(), FloatEqualityTester.EPSILON);
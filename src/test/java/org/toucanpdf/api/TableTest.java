@@ -46,6 +46,25 @@ public class TableTest {
         assertEquals(4, t2.getMarginTop());
     }
 
+    @Test
+    public void testColumnWidthSettings() {
+        assertEquals(null, table.getColumnWidths());
+        table.columnWidths(10, 20).sampleColumnWidths(-5);
+        assertEquals(0, table.getSampledRowAmount());
+        table.columnWidthPercentages(40, 60);
+        //setting percentages replaces the widths and vice versa
+        assertEquals(null, table.getColumnWidths());
+        Assert.assertArrayEquals(new double[] { 40, 60 }, table.getColumnWidthPercentages(), FloatEqualityTester.EPSILON);
+        table.sampleColumnWidths(25);
+
+        Table copy = (Table) table.copy();
+        Assert.assertArrayEquals(new double[] { 40, 60 }, copy.getColumnWidthPercentages(), FloatEqualityTester.EPSILON);
+        assertEquals(25, copy.getSampledRowAmount());
+        copy.columnWidths(30, 70);
+        assertEquals(null, copy.getColumnWidthPercentages());
+        Assert.assertArrayEquals(new double[] { 30, 70 }, copy.getColumnWidths(), FloatEqualityTester.EPSILON);
+    }
+
     @Test
     public void testCellAdding() {
         table.addCell("Test");
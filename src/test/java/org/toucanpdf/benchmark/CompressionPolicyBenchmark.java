@@ -0,0 +1,116 @@
+package org.toucanpdf.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+import org.toucanpdf.api.BaseFont;
+import org.toucanpdf.api.BasePage;
+import org.toucanpdf.model.CompressionPolicy;
+import org.toucanpdf.model.FontFamilyType;
+import org.toucanpdf.model.FontStyle;
+import org.toucanpdf.model.ImageType;
+import org.toucanpdf.pdf.structure.PdfDocument;
+import org.toucanpdf.state.BaseStateImage;
+import org.toucanpdf.state.BaseStateText;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the writing time and file size of the compression policies on a document containing text pages, 
+ * an embedded font program and images. The file size of each policy is reported as the secondary result "bytes".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressionPolicyBenchmark {
+    private static final int PAGE_AMOUNT = 100;
+    private static final int LINES_PER_PAGE = 50;
+
+    @Param({ "default", "balanced", "fastest", "smallest" })
+    private String policy;
+
+    private PdfDocument document;
+    private CountingOutputStream output = new CountingOutputStream();
+
+    @Setup(Level.Invocation)
+    public void createDocument() {
+        document = new PdfDocument();
+        document.setCompressionPolicy(createPolicy());
+        Calendar creationDate = Calendar.getInstance();
+        BaseFont font = new BaseFont(FontFamilyType.TIMES_ROMAN, FontStyle.NORMAL);
+        for (int page = 0; page < PAGE_AMOUNT; ++page) {
+            document.addPage(new BasePage(595, 842));
+            for (int line = 0; line < LINES_PER_PAGE; ++line) {
+                BaseStateText text = new BaseStateText("Line " + line + " of page " + page + ", the quick brown fox jumps over the lazy dog.");
+                text.font(font);
+                text.on(50, 800 - line * 15);
+                document.add(text);
+            }
+            InputStream is = CompressionPolicyBenchmark.class.getResourceAsStream("/hammock.jpg");
+            document.add(new BaseStateImage(100, 100 + page, is, ImageType.JPEG));
+        }
+        document.addDocumentInfo("", "", "", creationDate);
+    }
+
+    private CompressionPolicy createPolicy() {
+        switch (policy) {
+        case "balanced":
+            return CompressionPolicy.createBalanced();
+        case "fastest":
+            return CompressionPolicy.createFastest();
+        case "smallest":
+            return CompressionPolicy.createSmallest();
+        default:
+            return new CompressionPolicy();
+        }
+    }
+
+    @Benchmark
+    public long write(FileSize fileSize) throws IOException {
+        output.count = 0;
+        document.write(output);
+        fileSize.bytes = output.count;
+        return output.count;
+    }
+
+    /**
+     * Reports the size of the written file next to the writing time.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class FileSize {
+        public long bytes;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            ++count;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.toucanpdf.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.toucanpdf.model.FontFamily;
+import org.toucanpdf.model.FontFamilyType;
+import org.toucanpdf.model.FontMetrics;
+import org.toucanpdf.model.FontStyle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the width calculation of a paragraph of text, which the layout code performs for every word and line.
+ * Run with "-prof gc" to see the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FontMetricsBenchmark {
+    private static final String TEXT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. Vestibulum AVATAR Toucan, "
+            + "\"quoted\" text with numbers 1234567890 and punctuation; sed do eiusmod tempor incididunt ut labore.";
+
+    @Param({ "false", "true" })
+    private boolean kerning;
+
+    private FontMetrics metrics;
+
+    @Setup
+    public void setUp() {
+        metrics = FontFamily.getDefaultFontFamily(FontFamilyType.HELVETICA).getMetricsForStyle(FontStyle.NORMAL);
+    }
+
+    @Benchmark
+    public double widthOfString() {
+        return metrics.getWidthPointOfString(TEXT, 12, kerning);
+    }
+
+    @Benchmark
+    public int ascentForString() {
+        return metrics.getAscentForString(TEXT);
+    }
+}
@@ -0,0 +1,81 @@
+package org.toucanpdf.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.toucanpdf.DocumentBuilder;
+import org.toucanpdf.api.DocumentState;
+import org.toucanpdf.model.ImageType;
+import org.toucanpdf.model.Page;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the positioning of text flowing around a grid of fixed position images on dense pages.
+ * The document is created again before every invocation, so each invocation lays out all pages instead of returning the cached preview.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PageLayoutBenchmark {
+    private static final int IMAGE_SIZE = 12;
+    private static final int GRID_SPACING = 40;
+
+    @Param({ "100", "400" })
+    private int textAmount;
+
+    private byte[] image;
+    private DocumentBuilder builder;
+
+    @Setup
+    public void setUp() throws IOException {
+        image = readImage();
+    }
+
+    @Setup(Level.Invocation)
+    public void createDocument() {
+        builder = new DocumentBuilder();
+        Page page = builder.addPage();
+        for (int x = page.getMarginLeft(); x + IMAGE_SIZE < page.getWidth() - page.getMarginRight(); x += GRID_SPACING) {
+            for (int y = page.getHeight() - page.getMarginTop(); y - IMAGE_SIZE > page.getMarginBottom(); y -= GRID_SPACING) {
+                page.add(builder.createImage(image, ImageType.JPEG).width(IMAGE_SIZE).height(IMAGE_SIZE).allowWrapping(true).on(x, y));
+            }
+        }
+        for (int i = 0; i < textAmount; ++i) {
+            builder.addText("Text " + i + " flows around the images on the page");
+        }
+    }
+
+    private static byte[] readImage() throws IOException {
+        try (InputStream is = PageLayoutBenchmark.class.getResourceAsStream("/hammock.jpg")) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                baos.write(buffer, 0, read);
+            }
+            return baos.toByteArray();
+        }
+    }
+
+    @Benchmark
+    public DocumentState layout() {
+        return builder.getPreview();
+    }
+}
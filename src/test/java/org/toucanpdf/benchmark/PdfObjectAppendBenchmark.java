@@ -0,0 +1,55 @@
+package org.toucanpdf.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.toucanpdf.pdf.syntax.PdfObjectType;
+import org.toucanpdf.pdf.syntax.PdfPath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures appending many small fragments to the byte representation of a PdfObject and writing it.
+ * The time per operation should grow linearly with the amount of appends.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PdfObjectAppendBenchmark {
+    @Param({ "1000", "10000", "100000" })
+    private int appends;
+
+    private static final OutputStream NULL_STREAM = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Benchmark
+    public PdfPath appendAndWrite() throws IOException {
+        PdfPath path = new PdfPath(PdfObjectType.TABLE);
+        for (int i = 0; i < appends; ++i) {
+            path.drawRectangle(i, i, 10, 10);
+            path.strokePath();
+        }
+        path.writeToFile(NULL_STREAM);
+        return path;
+    }
+}
@@ -0,0 +1,46 @@
+package org.toucanpdf.benchmark;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.toucanpdf.DocumentBuilder;
+import org.toucanpdf.api.BaseFont;
+import org.toucanpdf.model.FontFamilyType;
+import org.toucanpdf.model.FontStyle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time to the first PDF in a fresh JVM: every measurement runs in its own fork, 
+ * so class initialization and font metrics loading are included.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+    private static final OutputStream NULL_STREAM = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Benchmark
+    public DocumentBuilder firstDocument() {
+        DocumentBuilder builder = new DocumentBuilder();
+        builder.addText("Hello world").font(new BaseFont(FontFamilyType.HELVETICA, FontStyle.NORMAL));
+        builder.finish(NULL_STREAM);
+        return builder;
+    }
+}
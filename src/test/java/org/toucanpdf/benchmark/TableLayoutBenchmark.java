@@ -0,0 +1,70 @@
+package org.toucanpdf.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.toucanpdf.DocumentBuilder;
+import org.toucanpdf.api.DocumentState;
+import org.toucanpdf.model.Page;
+import org.toucanpdf.model.Table;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the layout of a single table with a repeated header that spans many pages. The column widths are either calculated
+ * from every row, declared as percentages or calculated from a sample of the rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TableLayoutBenchmark {
+    private static final int COLUMN_AMOUNT = 3;
+
+    @Param({ "1000", "4000" })
+    private int rowAmount;
+
+    @Param({ "calculated", "percentages", "sampled" })
+    private String columnWidths;
+
+    private Page page;
+
+    @Setup
+    public void setUp() {
+        DocumentBuilder builder = new DocumentBuilder();
+        page = builder.addPage();
+        Table table = builder.addTable().columns(COLUMN_AMOUNT).repeatHeader(true);
+        if ("percentages".equals(columnWidths)) {
+            table.columnWidthPercentages(20, 40, 40);
+        } else if ("sampled".equals(columnWidths)) {
+            table.sampleColumnWidths(50);
+        }
+        for (int column = 0; column < COLUMN_AMOUNT; ++column) {
+            table.addCell("Header " + column);
+        }
+        for (int row = 0; row < rowAmount; ++row) {
+            for (int column = 0; column < COLUMN_AMOUNT; ++column) {
+                table.addCell("Row " + row + " column " + column);
+            }
+        }
+    }
+
+    @Benchmark
+    public DocumentState layout() {
+        DocumentState state = new DocumentState();
+        state.updateState(Collections.singletonList(page));
+        return state;
+    }
+}
@@ -0,0 +1,66 @@
+package org.toucanpdf.benchmark;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.toucanpdf.DocumentBuilder;
+import org.toucanpdf.api.BaseText;
+import org.toucanpdf.api.DocumentState;
+import org.toucanpdf.model.Page;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures breaking text into lines for a text flow of about a hundred pages, either as many short texts or as a few long texts
+ * that overflow onto the following pages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TextFlowBenchmark {
+    private static final int WORD_AMOUNT = 95000;
+
+    @Param({ "100", "5000" })
+    private int wordsPerText;
+
+    private Page page;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(0);
+        page = new DocumentBuilder().addPage();
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= WORD_AMOUNT; ++i) {
+            int length = 1 + random.nextInt(9);
+            for (int j = 0; j < length; ++j) {
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+            text.append(' ');
+            if (i % wordsPerText == 0) {
+                page.add(new BaseText(text.toString()));
+                text.setLength(0);
+            }
+        }
+    }
+
+    @Benchmark
+    public DocumentState layout() {
+        DocumentState state = new DocumentState();
+        state.updateState(Collections.singletonList(page));
+        return state;
+    }
+}
@@ -6,6 +6,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 
 import org.toucanpdf.utility.FloatEqualityTester;
+import org.toucanpdf.utility.UnicodeConverter;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -73,6 +74,22 @@ public class Type1FontMetricsTest {
                 metrics.getWidthPointOfString("AC", textSize, true), FloatEqualityTester.EPSILON);
     }
 
+    @Test
+    public void testCharacterCodesMatchNames() {
+        for (int code = 0; code <= Character.MAX_VALUE; ++code) {
+            String name = UnicodeConverter.getPostscriptForUnicode(code);
+            if (name != null) {
+                assertEquals(metrics.getWidth(name), metrics.getWidth(code));
+            }
+        }
+        assertEquals(capitalACKerningOffset, -metrics.getKerning('A', 'C'));
+        assertEquals(metrics.getKerning("A", "C"), metrics.getKerning('A', 'C'));
+        assertEquals("Characters without a glyph should have no width. ", 0, metrics.getWidth(0x4E2D));
+        assertEquals(0, metrics.getKerning('A', 0x4E2D));
+        assertEquals(capitalAWidth * textSize, metrics.getWidthOfString("A\u4E2D", textSize, true));
+        assertEquals(ascend, metrics.getAscentForString("Ab\u4E2D"));
+    }
+
     @Test
     public void testRemainingGetters() {
         assertEquals("Helvetica", metrics.getFontName());
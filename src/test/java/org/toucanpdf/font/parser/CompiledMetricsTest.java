@@ -0,0 +1,65 @@
+package org.toucanpdf.font.parser;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.toucanpdf.font.Type1CharacterMetric;
+import org.toucanpdf.utility.FloatEqualityTester;
+
+import org.junit.Test;
+
+public class CompiledMetricsTest {
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        AfmParser afm = new AfmParser(CompiledMetricsTest.class.getResourceAsStream("/Helvetica-Bold.afm"));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        CompiledMetrics.write(afm, baos);
+        AfmParser compiled = CompiledMetrics.read(new ByteArrayInputStream(baos.toByteArray()));
+
+        assertEquals(afm.getFontName(), compiled.getFontName());
+        assertEquals(afm.getFullName(), compiled.getFullName());
+        assertEquals(afm.getFamilyName(), compiled.getFamilyName());
+        assertEquals(afm.getWeight(), compiled.getWeight());
+        assertEquals(afm.getCharacterSet(), compiled.getCharacterSet());
+        assertEquals(afm.getEncodingScheme(), compiled.getEncodingScheme());
+        assertEquals(afm.getItalicAngle(), compiled.getItalicAngle(), FloatEqualityTester.EPSILON);
+        assertEquals(afm.isFixedPitch(), compiled.isFixedPitch());
+        assertArrayEquals(afm.getFontBBox(), compiled.getFontBBox(), FloatEqualityTester.EPSILON);
+        assertEquals(afm.getUnderlinePosition(), compiled.getUnderlinePosition());
+        assertEquals(afm.getUnderlineThickness(), compiled.getUnderlineThickness());
+        assertEquals(afm.getCapHeight(), compiled.getCapHeight());
+        assertEquals(afm.getxHeight(), compiled.getxHeight());
+        assertEquals(afm.getAscender(), compiled.getAscender());
+        assertEquals(afm.getDescender(), compiled.getDescender());
+        assertEquals(afm.getStdHW(), compiled.getStdHW());
+        assertEquals(afm.getStdVW(), compiled.getStdVW());
+        assertEquals(afm.getFlags(), compiled.getFlags());
+        assertEquals(afm.getAverageWidth(), compiled.getAverageWidth());
+        assertEquals(afm.getMaxWidth(), compiled.getMaxWidth());
+        assertEquals(afm.getFirstChar(), compiled.getFirstChar());
+        assertEquals(afm.getLastChar(), compiled.getLastChar());
+
+        assertEquals(afm.getCharacterMetrics().size(), compiled.getCharacterMetrics().size());
+        Iterator<Type1CharacterMetric> compiledMetrics = compiled.getCharacterMetrics().values().iterator();
+        for (Type1CharacterMetric metric : afm.getCharacterMetrics().values()) {
+            Type1CharacterMetric compiledMetric = compiledMetrics.next();
+            assertEquals(metric.getName(), compiledMetric.getName());
+            assertEquals(metric.getC(), compiledMetric.getC());
+            assertEquals(metric.getWx(), compiledMetric.getWx());
+            assertArrayEquals(metric.getBoundingBox(), compiledMetric.getBoundingBox());
+        }
+        assertEquals(afm.getKerningPairs(), compiled.getKerningPairs());
+        assertEquals(afm.getKerning("A", "y"), compiled.getKerning("A", "y"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidInput() throws IOException {
+        CompiledMetrics.read(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4 }));
+    }
+}
@@ -1,6 +1,16 @@
 package org.toucanpdf.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.Test;
 
@@ -25,4 +35,21 @@ public class FontFamilyTest {
         assertEquals(FontType.TRUETYPE, fam.getSubType());
     }
 
+    @Test
+    public void testConcurrentMetricsLoading() throws Exception {
+        FontFamily helvetica = new FontFamily(FontType.TYPE1, "Helvetica", "Helvetica-Bold", "Helvetica-Oblique", "Helvetica-BoldOblique");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<FontMetrics>> tasks = IntStream.range(0, 16)
+                    .mapToObj(i -> (Callable<FontMetrics>) () -> helvetica.getMetricsForStyle(FontStyle.BOLD)).collect(Collectors.toList());
+            List<Future<FontMetrics>> results = executor.invokeAll(tasks);
+            FontMetrics expected = helvetica.getMetricsForStyle(FontStyle.BOLD);
+            assertNotNull(expected);
+            for (Future<FontMetrics> metrics : results) {
+                assertSame("The metrics should only be loaded once. ", expected, metrics.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package org.toucanpdf.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TextLinesTest {
+    private TextLines lines;
+
+    @Before
+    public void setUp() throws Exception {
+        lines = new TextLines();
+    }
+
+    @Test
+    public void testAdding() {
+        assertTrue(lines.isEmpty());
+        for (int i = 0; i < 20; ++i) {
+            assertEquals(i, lines.add(10 + i, 500 - i * 10, "line " + i + " "));
+        }
+        assertEquals(20, lines.size());
+        assertEquals("line 0 ", lines.getLine(0));
+        assertEquals("line 19 ", lines.getLine(19));
+        assertEquals(new Position(15, 450), lines.getPosition(5));
+        assertEquals("line 7 ", lines.appendLine(7, new StringBuilder()).toString());
+        assertTrue(Double.isNaN(lines.getJustificationOffset(3)));
+        assertEquals(0, lines.toJustificationOffsetMap().size());
+        assertEquals("line 2 ", lines.toMap().get(new Position(12, 480)));
+    }
+
+    @Test
+    public void testFindingLinesByHeight() {
+        for (int i = 0; i < 10; ++i) {
+            lines.add(0, 500 - i * 10, "line");
+        }
+        assertEquals(0, lines.getFirstIndexAtOrBelow(600));
+        assertEquals(3, lines.getFirstIndexAtOrBelow(470));
+        assertEquals(4, lines.getFirstIndexAtOrBelow(465));
+        assertEquals(10, lines.getFirstIndexAtOrBelow(400));
+        assertTrue(lines.isBelow(5, 455));
+        assertFalse(lines.isBelow(5, 450));
+
+        lines.add(0, 600, "line");
+        assertEquals(0, lines.getFirstIndexAtOrBelow(465));
+        assertFalse(lines.isBelow(5, 455));
+    }
+
+    @Test
+    public void testAdjustingHeight() {
+        lines.add(0, 100, "first");
+        lines.setJustificationOffset(lines.add(0, 90, "second"), 1.5);
+        lines.adjustY(-20);
+        assertEquals(80, lines.getY(0), 0);
+        assertEquals(1.5, lines.toJustificationOffsetMap().get(new Position(0, 70)), 0);
+    }
+}
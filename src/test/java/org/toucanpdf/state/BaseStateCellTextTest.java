@@ -33,6 +33,46 @@ public class BaseStateCellTextTest {
         }
     }
 
+    @Test
+    public void testMeasurementReuse() {
+        BaseStateCellText.resetMeasurementCounters();
+        double height = text.calculateContentHeight(30, 10, new Position(50, 50), false);
+        assertEquals(height, text.calculateContentHeight(30, 10, new Position(50, 50), true), FloatEqualityTester.EPSILON);
+        assertEquals(4, text.getTextSplit().size());
+        assertEquals(1, text.getMeasuredWidthAmount());
+        assertEquals(1, BaseStateCellText.getLineMeasurementAmount());
+        assertEquals(1, BaseStateCellText.getReusedLineMeasurementAmount());
+
+        BaseStateCellText copy = new BaseStateCellText(text);
+        assertEquals("Copies should share the measured lines. ", 1, copy.getMeasuredWidthAmount());
+        copy.calculateContentHeight(30, 10, new Position(50, 50), true);
+        assertEquals(1, copy.getMeasuredWidthAmount());
+        assertEquals(4, copy.getTextSplit().size());
+        assertEquals(1, BaseStateCellText.getLineMeasurementAmount());
+
+        //laying out the copy at a different width should not replace the lines measured for the original width
+        copy.calculateContentHeight(200, 10, new Position(50, 50), true);
+        assertEquals(2, copy.getMeasuredWidthAmount());
+        assertEquals(1, copy.getTextSplit().size());
+        text.calculateContentHeight(30, 10, new Position(50, 50), true);
+        assertEquals(2, text.getMeasuredWidthAmount());
+        assertEquals(4, text.getTextSplit().size());
+        assertEquals(2, BaseStateCellText.getLineMeasurementAmount());
+
+        copy.size(20);
+        assertEquals(0, copy.getMeasuredWidthAmount());
+        copy.calculateContentHeight(200, 10, new Position(50, 50), true);
+        assertEquals(1, copy.getMeasuredWidthAmount());
+        assertEquals(3, BaseStateCellText.getLineMeasurementAmount());
+        copy.text("Test");
+        assertEquals(0, copy.getMeasuredWidthAmount());
+        assertEquals(2, text.getMeasuredWidthAmount());
+        text.calculateContentHeight(200, 10, new Position(50, 50), true);
+        assertEquals(1, text.getTextSplit().size());
+        assertEquals(3, BaseStateCellText.getLineMeasurementAmount());
+        assertEquals(4, BaseStateCellText.getReusedLineMeasurementAmount());
+    }
+
     @Test
     public void testGettersSetters() {
         Text text2 = new BaseText("Test");
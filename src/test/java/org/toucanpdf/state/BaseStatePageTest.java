@@ -9,6 +9,7 @@ import java.util.List;
 import mockit.Mocked;
 import mockit.NonStrictExpectations;
 import org.toucanpdf.api.BasePage;
+import org.toucanpdf.model.ImageType;
 import org.toucanpdf.model.Page;
 import org.toucanpdf.model.Position;
 import org.toucanpdf.model.Space;
@@ -78,6 +79,51 @@ public class BaseStatePageTest {
         assertEquals(null, pos);
     }
 
+    @Test
+    public void testOpenPositionBelowImage() {
+        page = new BaseStatePage(100, 200);
+        page.marginBottom(0).marginTop(0);
+        BaseStateImage image = new BaseStateImage(40, 50, BaseStatePageTest.class.getResourceAsStream("/hammock.jpg"), ImageType.JPEG);
+        image.allowWrapping(false);
+        image.on(new Position(0, 200));
+        page.add(image);
+        //the positions overlapping with the image are skipped
+        Position pos = page.getOpenPosition(0.0, 5.0, text);
+        assertEquals(new Position(20, 158), pos);
+
+        image.allowWrapping(true);
+        pos = page.getOpenPosition(0.0, 5.0, text, 20);
+        assertEquals("There is enough space next to the image. ", new Position(20, 200), pos);
+
+        page.getContent().remove(image);
+        pos = page.getOpenPosition(0.0, 5.0, text);
+        assertEquals("The index should be rebuilt after the content has been modified. ", new Position(20, 200), pos);
+    }
+
+    @Test
+    public void testOpenPositionAfterReplacingPart() {
+        page = new BaseStatePage(100, 200);
+        page.marginBottom(0).marginTop(0);
+        BaseStateImage image = new BaseStateImage(40, 50, BaseStatePageTest.class.getResourceAsStream("/hammock.jpg"), ImageType.JPEG);
+        image.allowWrapping(false);
+        image.on(new Position(0, 200));
+        page.add(image);
+        assertEquals(new Position(20, 158), page.getOpenPosition(0.0, 5.0, text));
+
+        BaseStateImage taller = new BaseStateImage(80, 50, BaseStatePageTest.class.getResourceAsStream("/hammock.jpg"), ImageType.JPEG);
+        taller.allowWrapping(false);
+        taller.on(new Position(0, 200));
+        page.getContent().set(0, taller);
+        Position replaced = page.getOpenPosition(0.0, 5.0, text);
+        assertEquals("The replaced part should no longer be indexed. ", new Position(20, 119), replaced);
+
+        taller.height(60, false);
+        assertEquals("The part should be indexed with its new height. ", new Position(20, 137), page.getOpenPosition(0.0, 5.0, text));
+
+        taller.on(new Position(0, 100));
+        assertEquals("The part should be indexed at its new position. ", new Position(20, 200), page.getOpenPosition(0.0, 5.0, text));
+    }
+
     @Test
     public void testAvailableWidth() {
         assertEquals(85, page.getTotalAvailableWidth(new Position(0, 110), 0.0, 0.0, text));
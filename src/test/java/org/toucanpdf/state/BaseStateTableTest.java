@@ -5,6 +5,7 @@ import static org.junit.Assert.assertEquals;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import mockit.Mocked;
@@ -220,7 +221,15 @@ public class BaseStateTableTest {
         StateTable overflow = table.processContentSize(page, false, true, false);
         Assert.assertNotNull(overflow);
         Assert.assertEquals(2, table.getContent().size());
-        Assert.assertEquals(5, overflow.getContent().size());
+        //the overflow continues at the first row that did not fit, its cells are only placed once it is processed
+        Assert.assertEquals(0, overflow.getContent().size());
+        int overflowCellAmount = 0;
+        while (overflow != null) {
+            StateTable nextOverflow = overflow.processContentSize(page, false, true, false);
+            overflowCellAmount += overflow.getContent().size();
+            overflow = nextOverflow;
+        }
+        Assert.assertEquals(5, overflowCellAmount);
 
         table = new BaseStateTable(100);
         table.columns(1);
@@ -232,15 +241,176 @@ public class BaseStateTableTest {
         overflow = table.processContentSize(page, false, true, false);
         Assert.assertNotNull(overflow);
         List<Cell> content = table.getContent();
-        List<Cell> overflowContent = overflow.getContent();
         Assert.assertEquals(2, content.size());
-        //header should've been set but not yet added to the overflow content
-        Assert.assertEquals(1, overflowContent.size());
-        Assert.assertEquals(content.get(0).getWidth(), overflowContent.get(0).getWidth(), 0.01);
 
         //after processing the overflow table the header should've been added, resulting in a content size of 2
         overflow.processContentSize(page, false, true, false);
-        Assert.assertEquals(2, overflow.getContent().size());
+        List<Cell> overflowContent = overflow.getContent();
+        Assert.assertEquals(2, overflowContent.size());
+        Assert.assertEquals(content.get(0).getWidth(), overflowContent.get(0).getWidth(), 0.01);
+    }
+
+    @Test
+    public void testOverflowOverMultiplePages() {
+        table.columns(2);
+        table.repeatHeader(true);
+        table.drawFillerCells(false);
+        table.addCell("Header");
+        table.addCell("Header");
+        //the cells in the first column span two rows, so some of them continue on the next page
+        for (int i = 0; i < 100; ++i) {
+            table.addCell(new BaseCell(new BaseText("Row " + i)).rowSpan(2));
+            table.addCell("Row " + i);
+            table.addCell("Row " + i);
+        }
+
+        List<String> texts = new ArrayList<>();
+        int pageAmount = 0;
+        StateTable current = table;
+        while (current != null) {
+            StateTable overflow = current.processContentSize(new BaseStatePage(300, 300));
+            List<StateCell> cells = current.getStateCellCollection();
+            assertEquals("Header", ((Text) cells.get(0).getContent()).getText());
+            assertEquals("Header", ((Text) cells.get(1).getContent()).getText());
+            for (StateCell cell : cells.subList(2, cells.size())) {
+                texts.add(((Text) cell.getContent()).getText());
+            }
+            current = overflow;
+            ++pageAmount;
+        }
+        Assert.assertTrue(pageAmount > 10);
+        assertEquals(300, texts.size());
+        for (int i = 0; i < texts.size(); ++i) {
+            assertEquals("Row " + (i / 3), texts.get(i));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testLargeTableWithRowSpans() {
+        int rowAmount = 20000;
+        table.columns(3);
+        //the cells in the first column span two rows, the second row only contains cells for the other columns
+        for (int i = 0; i < rowAmount; i += 2) {
+            table.addCell(new BaseCell(new BaseText("Span " + i)).rowSpan(2));
+            table.addCell("Row " + i);
+            table.addCell("Row " + i);
+            table.addCell("Row " + (i + 1));
+            table.addCell("Row " + (i + 1));
+        }
+
+        int spanAmount = 0;
+        int cellAmount = 0;
+        StateTable current = table;
+        while (current != null) {
+            StateTable overflow = current.processContentSize(new BaseStatePage(300, 800));
+            for (StateCell cell : current.getStateCellCollection()) {
+                //no filler cells are needed, since every column is occupied
+                Assert.assertNotNull(cell.getContent());
+                if (((Text) cell.getContent()).getText().startsWith("Span")) {
+                    assertEquals(table.getPosition().getX(), cell.getPosition().getX(), FloatEqualityTester.EPSILON);
+                    ++spanAmount;
+                }
+                ++cellAmount;
+            }
+            current = overflow;
+        }
+        assertEquals(rowAmount / 2, spanAmount);
+        assertEquals(rowAmount / 2 * 5, cellAmount);
+    }
+
+    @Test
+    public void testRowSourceOverMultiplePages() {
+        int rowAmount = 2000;
+        int[] rowsTaken = { 0 };
+        Iterator<List<Cell>> source = new Iterator<List<Cell>>() {
+            @Override
+            public boolean hasNext() {
+                return rowsTaken[0] <= rowAmount;
+            }
+
+            @Override
+            public List<Cell> next() {
+                int row = rowsTaken[0]++;
+                String text = row == 0 ? "Header" : "Row " + (row - 1);
+                return Arrays.asList(new BaseCell(new BaseText(text)), new BaseCell(new BaseText(text)));
+            }
+        };
+        table.columns(2).repeatHeader(true).drawFillerCells(false).rowSource(source);
+
+        List<String> texts = new ArrayList<>();
+        StateTable current = table;
+        while (current != null) {
+            StateTable overflow = current.processContentSize(new BaseStatePage(300, 300));
+            //only the sampled rows and the rows of the current page should have been taken from the source
+            Assert.assertTrue(rowsTaken[0] - texts.size() / 2 < 200);
+            List<StateCell> cells = current.getStateCellCollection();
+            assertEquals("Header", ((Text) cells.get(0).getContent()).getText());
+            for (StateCell cell : cells.subList(2, cells.size())) {
+                texts.add(((Text) cell.getContent()).getText());
+            }
+            current = overflow;
+        }
+        assertEquals(rowAmount * 2, texts.size());
+        for (int i = 0; i < texts.size(); ++i) {
+            assertEquals("Row " + (i / 2), texts.get(i));
+        }
+    }
+
+    @Test
+    public void testDeclaredColumnWidths() {
+        StatePage page = new BaseStatePage(800, 800);
+        table.columns(2).columnWidths(30, 90);
+        table.addCell("A much longer text that would require a wider column");
+        table.addCell("short");
+        table.processContentSize(page);
+        List<Cell> content = table.getContent();
+        //the declared widths exceed the table width, so they are scaled down
+        assertEquals(25, content.get(0).getWidth(), FloatEqualityTester.EPSILON);
+        assertEquals(75, content.get(1).getWidth(), FloatEqualityTester.EPSILON);
+
+        table = new BaseStateTable(100);
+        table.columns(2).columnWidths(30);
+        table.addCell("short");
+        table.addCell("short");
+        table.processContentSize(page);
+        //the amount of widths does not match the amount of columns, so the widths are calculated
+        assertEquals(50, table.getContent().get(0).getWidth(), FloatEqualityTester.EPSILON);
+    }
+
+    @Test
+    public void testColumnWidthPercentages() {
+        table.columns(3).columnWidthPercentages(20, 30, 50);
+        for (int i = 0; i < 3; ++i) {
+            table.addCell("Cell " + i);
+        }
+        table.processContentSize(new BaseStatePage(800, 800));
+        List<Cell> content = table.getContent();
+        assertEquals(20, content.get(0).getWidth(), FloatEqualityTester.EPSILON);
+        assertEquals(30, content.get(1).getWidth(), FloatEqualityTester.EPSILON);
+        assertEquals(50, content.get(2).getWidth(), FloatEqualityTester.EPSILON);
+    }
+
+    @Test
+    public void testSampledColumnWidths() {
+        table.columns(2).sampleColumnWidths(1);
+        table.addCell("a");
+        table.addCell("b");
+        table.addCell("averyveryverylongword");
+        table.addCell("b");
+        table.processContentSize(new BaseStatePage(800, 800));
+        //only the first row is measured, so the long word does not widen the first column
+        List<Cell> content = table.getContent();
+        assertEquals(content.get(1).getWidth(), content.get(0).getWidth(), FloatEqualityTester.EPSILON);
+
+        table = new BaseStateTable(100);
+        table.columns(2);
+        table.addCell("a");
+        table.addCell("b");
+        table.addCell("averyveryverylongword");
+        table.addCell("b");
+        table.processContentSize(new BaseStatePage(800, 800));
+        content = table.getContent();
+        Assert.assertTrue(content.get(0).getWidth() > content.get(1).getWidth());
     }
 
     @Test
@@ -14,6 +14,7 @@ import mockit.Mocked;
 import mockit.NonStrictExpectations;
 import org.toucanpdf.api.BaseText;
 import org.toucanpdf.model.Alignment;
+import org.toucanpdf.model.Page;
 import org.toucanpdf.model.Position;
 import org.toucanpdf.model.Space;
 import org.toucanpdf.model.state.StatePage;
@@ -121,6 +122,16 @@ public class BaseStateTextTest {
         assertEquals("Thisis-", stateText.getTextSplit().get(new Position(0.0, -1.0)));
     }
 
+    @Test(timeout = 10000)
+    public void testLineFillingOpenSpaceExactly() {
+        //two words with their spaces are exactly 35 points wide at this size
+        text.text("line line line line").size(10);
+        BaseStateText stateText = new BaseStateText(text);
+        stateText.on(new Position(0, 90));
+        stateText.processContentSize(new BaseStatePage(35 + Page.DEFAULT_MARGIN, 100), 0, true);
+        assertEquals(Arrays.asList("line line ", "line line "), new LinkedList<>(stateText.getTextSplit().values()));
+    }
+
     @Test
     public void testAlignment(@Mocked final StatePage page) {
         text.text("Test");
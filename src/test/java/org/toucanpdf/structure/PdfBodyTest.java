@@ -1,17 +1,22 @@
 package org.toucanpdf.structure;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
+import org.toucanpdf.model.Compression;
 import org.toucanpdf.model.Page;
 import org.toucanpdf.pdf.structure.PdfBody;
 import org.toucanpdf.pdf.syntax.PdfIndirectObject;
 import org.toucanpdf.pdf.syntax.PdfName;
 import org.toucanpdf.pdf.syntax.PdfPage;
+import org.toucanpdf.pdf.syntax.PdfStream;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -78,6 +83,64 @@ public class PdfBodyTest {
         assertEquals("The first object was not the nl object. ", test, indirectObjects.get(0).getObject());
     }
 
+    @Test
+    public void testWriteAndRelease() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(bos);
+        PdfName retained = new PdfName("retained");
+        PdfName released = new PdfName("released");
+        body.addObject(retained);
+        body.addObject(released);
+        body.addPage(new PdfPage(pageSize, pageSize, Page.DEFAULT_NEW_LINE_SIZE, 0));
+
+        List<PdfIndirectObject> written = body.writeAndRelease(dos, object -> object.getObject() == retained);
+        assertEquals("The page and the released object should have been written. ", 2, written.size());
+        assertEquals("The written objects should have been released. ", 3, body.getAllIndirectObjects().size());
+        assertEquals("Released objects should still be counted. ", 5, body.getTotalIndirectObjectsAmount());
+        PdfIndirectObject next = body.addObject(new PdfName("next"));
+        assertEquals("Object numbers should not be reused after releasing. ", 6, next.getNumber());
+    }
+
+    @Test
+    public void testBoundedCompression() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(bos);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        //the executor is not a fork join pool, so the body compresses two streams per processor ahead of writing
+        int window = 2 * Runtime.getRuntime().availableProcessors();
+        int streamAmount = window * 5;
+        List<Integer> writtenAtSubmission = new ArrayList<>();
+        body.setCompressionExecutor(task -> {
+            writtenAtSubmission.add(countOccurrences(bos.toString(), "endstream"));
+            pool.execute(task);
+        });
+        for (int i = 0; i < streamAmount; ++i) {
+            PdfStream stream = new PdfStream();
+            stream.add(new PdfName("stream" + i));
+            stream.addFilter(Compression.FLATE);
+            body.addObject(stream);
+        }
+        try {
+            body.writeToFile(dos);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(streamAmount, writtenAtSubmission.size());
+        assertEquals(streamAmount, countOccurrences(bos.toString(), "endstream"));
+        for (int i = 0; i < streamAmount; ++i) {
+            assertTrue("Stream " + i + " was compressed before enough streams were written. ", 
+                    writtenAtSubmission.get(i) >= i - window);
+        }
+    }
+
+    private static int countOccurrences(String text, String search) {
+        int amount = 0;
+        for (int i = text.indexOf(search); i != -1; i = text.indexOf(search, i + 1)) {
+            ++amount;
+        }
+        return amount;
+    }
+
     @Test
     public void testWrite() {
 
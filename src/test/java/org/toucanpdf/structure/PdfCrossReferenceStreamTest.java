@@ -0,0 +1,65 @@
+package org.toucanpdf.structure;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.toucanpdf.model.PdfNameValue;
+import org.toucanpdf.pdf.structure.PdfCrossReferenceStream;
+import org.toucanpdf.pdf.syntax.PdfIndirectObject;
+import org.toucanpdf.pdf.syntax.PdfName;
+import org.toucanpdf.pdf.syntax.PdfNumber;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PdfCrossReferenceStreamTest {
+    private PdfCrossReferenceStream xref;
+
+    @Before
+    public void setUp() throws Exception {
+        xref = new PdfCrossReferenceStream();
+    }
+
+    @Test
+    public void testFillTableWithIndirectObjects() {
+        ArrayList<PdfIndirectObject> testArray = new ArrayList<PdfIndirectObject>();
+        testArray.add(new PdfIndirectObject(1, 0, new PdfName("Test"), true));
+        xref.fillTableWithIndirectObjects(testArray);
+
+        assertEquals("Cross reference number is incorrect. ", true, xref.isObjectInTable(1));
+        assertEquals("The amount of cross references is incorrect. ", 1, xref.getCrossReferenceAmount());
+    }
+
+    @Test
+    public void testWriteToFile() throws IOException, DataFormatException {
+        PdfIndirectObject direct = new PdfIndirectObject(1, 0, new PdfName("Test"), true);
+        direct.setStartByte(300);
+        PdfIndirectObject compressed = new PdfIndirectObject(2, 0, new PdfName("Test"), true);
+        compressed.setObjectStream(3, 5);
+        xref.addReferenceToIndirectObject(compressed);
+        xref.addReferenceToIndirectObject(direct);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        xref.writeToFile(baos);
+        byte[] written = baos.toByteArray();
+        int dataStart = new String(written, "ISO-8859-1").indexOf("stream\n") + "stream\n".length();
+        int dataLength = (int) ((PdfNumber) xref.get(PdfNameValue.LENGTH)).getNumber();
+
+        Inflater inflater = new Inflater();
+        inflater.setInput(written, dataStart, dataLength);
+        byte[] result = new byte[21];
+        assertEquals(21, inflater.inflate(result));
+        inflater.end();
+
+        byte[] expected = { 0, 0, 0, 0, 0, (byte) 0xFF, (byte) 0xFF,
+            1, 0, 0, 1, 44, 0, 0,
+            2, 0, 0, 0, 3, 0, 5 };
+        assertArrayEquals("The binary entries are incorrect. ", expected, result);
+    }
+}
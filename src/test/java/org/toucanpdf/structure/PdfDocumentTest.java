@@ -3,15 +3,23 @@ package org.toucanpdf.structure;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 import mockit.Mock;
 import mockit.MockUp;
 import org.toucanpdf.api.BaseCell;
 import org.toucanpdf.api.BaseFont;
 import org.toucanpdf.api.BasePage;
+import org.toucanpdf.image.ImageCache;
 import org.toucanpdf.model.DocumentPart;
 import org.toucanpdf.model.Font;
 import org.toucanpdf.model.FontFamilyType;
@@ -76,6 +84,37 @@ public class PdfDocumentTest {
         assertTrue(ido.equals(ido2));
     }
 
+    @Test
+    public void testEqualFontsAreEmbeddedOnce() throws IOException {
+        document.addPage(new BasePage(500, 500));
+        for (int i = 0; i < 5; ++i) {
+            BaseStateText text = new BaseStateText("Text " + i);
+            text.font(new BaseFont(FontFamilyType.TIMES_ROMAN, FontStyle.NORMAL));
+            document.add(text);
+        }
+        BaseStateText symbolText = new BaseStateText("a");
+        symbolText.font(new BaseFont(FontFamilyType.SYMBOL, FontStyle.NORMAL));
+        document.add(symbolText);
+        Font boldSymbol = new BaseFont(FontFamilyType.SYMBOL, FontStyle.BOLD);
+        assertEquals("Symbol has no bold variant, so it should share the normal font. ", document.getPdfFont(symbolText.getFont()),
+                document.addFont(boldSymbol));
+        document.addDocumentInfo("", "", "", Calendar.getInstance());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        document.write(baos);
+        String pdf = baos.toString("ISO-8859-1");
+        assertEquals(2, countOccurrences(pdf, "/FontFile "));
+        assertEquals(2, countOccurrences(pdf, "/Type /FontDescriptor"));
+        assertEquals(2, countOccurrences(pdf, "/Length1 "));
+    }
+
+    private int countOccurrences(String s, String part) {
+        int count = 0;
+        for (int index = s.indexOf(part); index >= 0; index = s.indexOf(part, index + 1)) {
+            ++count;
+        }
+        return count;
+    }
+
     @Test
     public void testAddParts() {
         new MockUp<PdfTable>() {
@@ -104,4 +143,160 @@ public class PdfDocumentTest {
         assertEquals(7, document.getCurrentPage().getCurrentStream().getContentSize());
     }
 
+    @Test
+    public void testStreaming() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        document = new PdfDocument(baos);
+        assertTrue(document.isStreaming());
+        for (int i = 0; i < 3; ++i) {
+            document.addPage(new BasePage(100, 100));
+            document.add(new BaseStateText("Page " + i));
+            document.writePage();
+            assertEquals("The page should have been released after writing. ", null, document.getCurrentPage());
+        }
+        int writtenSize = baos.size();
+        assertTrue("Pages should be written before the document is finished. ", writtenSize > 0);
+        document.addDocumentInfo("", "", "", Calendar.getInstance());
+        document.write();
+
+        String pdf = new String(baos.toByteArray(), "ISO-8859-1");
+        int xrefStart = Integer.parseInt(pdf.substring(pdf.lastIndexOf("startxref") + "startxref".length(), pdf.lastIndexOf("%%EOF")).trim());
+        String[] xrefLines = pdf.substring(xrefStart).split("\n");
+        int objectAmount = Integer.parseInt(xrefLines[1].split(" ")[1]);
+        for (int number = 1; number < objectAmount; ++number) {
+            int offset = Integer.parseInt(xrefLines[number + 2].substring(0, 10));
+            assertTrue("Cross reference for object " + number + " is incorrect. ", pdf.startsWith(number + " 0 obj", offset));
+        }
+        assertTrue(pdf.contains("/Count 3"));
+        assertTrue(pdf.startsWith("%PDF-1.7"));
+    }
+
+    @Test
+    public void testStreamingImages() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        document = new PdfDocument(baos);
+        for (int i = 0; i < 3; ++i) {
+            document.addPage(new BasePage(100, 100));
+            InputStream is = PdfDocumentTest.class.getResourceAsStream("/hammock.jpg");
+            document.add(new BaseStateImage(10, 10, is, ImageType.JPEG));
+            document.writePage();
+        }
+        document.addDocumentInfo("", "", "", Calendar.getInstance());
+        document.write();
+
+        String pdf = new String(baos.toByteArray(), "ISO-8859-1");
+        assertEquals("An image written with an earlier page should be referred to by later pages. ", 1, countOccurrences(pdf, "/Subtype /Image"));
+        int imageNumber = Integer.parseInt(pdf.replaceAll("(?s).*\n(\\d+) 0 obj\n<<\n /Length \\d+\n /Type /XObject.*", "$1"));
+        assertEquals(3, countOccurrences(pdf, "/XObject <<\n /R1 " + imageNumber + " 0 R"));
+    }
+
+    @Test
+    public void testObjectStreams() throws IOException, DataFormatException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        document.setUseObjectStreams(true);
+        document.addPage(new BasePage(100, 100));
+        document.add(new BaseStateText("Test"));
+        document.addDocumentInfo("Author", "", "", Calendar.getInstance());
+        document.write(baos);
+        assertCrossReferenceStream(new String(baos.toByteArray(), "ISO-8859-1"));
+    }
+
+    @Test
+    public void testStreamingObjectStreams() throws IOException, DataFormatException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        document = new PdfDocument(baos);
+        document.setUseObjectStreams(true);
+        for (int i = 0; i < 3; ++i) {
+            document.addPage(new BasePage(100, 100));
+            document.add(new BaseStateText("Page " + i));
+            document.writePage();
+        }
+        document.addDocumentInfo("", "", "", Calendar.getInstance());
+        document.write();
+        assertCrossReferenceStream(new String(baos.toByteArray(), "ISO-8859-1"));
+    }
+
+    @Test
+    public void testParallelCompression() throws IOException {
+        Calendar creationDate = Calendar.getInstance();
+        byte[] sequential = writeDocumentWithImages(new PdfDocument(), creationDate);
+        PdfDocument parallelDocument = new PdfDocument();
+        parallelDocument.setCompressionExecutor(ForkJoinPool.commonPool());
+        byte[] parallel = writeDocumentWithImages(parallelDocument, creationDate);
+        assertEquals("Compressing concurrently should not change the output. ", withoutSubsetTags(sequential), withoutSubsetTags(parallel));
+    }
+
+    @Test
+    public void testCachedImages() throws IOException {
+        ImageCache cache = ImageCache.getInstance();
+        long maximumSize = cache.getMaximumSize();
+        Calendar creationDate = Calendar.getInstance();
+        try {
+            cache.setMaximumSize(0);
+            String uncached = withoutSubsetTags(writeDocumentWithImages(new PdfDocument(), creationDate));
+            assertEquals("Equal images should be embedded once. ", 1, countOccurrences(uncached, "/Subtype /Image"));
+
+            cache.setMaximumSize(maximumSize);
+            String parsed = withoutSubsetTags(writeDocumentWithImages(new PdfDocument(), creationDate));
+            long hitAmount = cache.getHitAmount();
+            String cached = withoutSubsetTags(writeDocumentWithImages(new PdfDocument(), creationDate));
+            assertEquals("Each image of the second document should be found in the cache. ", hitAmount + 4, cache.getHitAmount());
+            assertEquals(uncached, parsed);
+            assertEquals("Using the cached image stream should not change the output. ", uncached, cached);
+        } finally {
+            cache.setMaximumSize(maximumSize);
+        }
+    }
+
+    /**
+     * Font subset tags are generated randomly, so they are replaced before comparing documents.
+     */
+    private String withoutSubsetTags(byte[] pdf) {
+        return new String(pdf, StandardCharsets.ISO_8859_1).replaceAll("/[A-Z]{6}\\+", "/SUBSET+");
+    }
+
+    private byte[] writeDocumentWithImages(PdfDocument pdfDocument, Calendar creationDate) throws IOException {
+        for (int i = 0; i < 4; ++i) {
+            pdfDocument.addPage(new BasePage(500, 500));
+            pdfDocument.add(new BaseStateText("Page " + i));
+            InputStream is = PdfDocumentTest.class.getResourceAsStream("/hammock.jpg");
+            pdfDocument.add(new BaseStateImage(10 * i + 10, 10, is, ImageType.JPEG));
+        }
+        pdfDocument.addDocumentInfo("", "", "", creationDate);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        pdfDocument.write(baos);
+        return baos.toByteArray();
+    }
+
+    private void assertCrossReferenceStream(String pdf) throws DataFormatException {
+        assertTrue("The cross reference table should be replaced. ", !pdf.contains("\nxref\n") && !pdf.contains("trailer"));
+        int xrefStart = Integer.parseInt(pdf.substring(pdf.lastIndexOf("startxref") + "startxref".length(), pdf.lastIndexOf("%%EOF")).trim());
+        String xrefObject = pdf.substring(xrefStart);
+        assertTrue(xrefObject.contains("/Type /XRef"));
+        int size = Integer.parseInt(xrefObject.replaceAll("(?s).*/Size (\\d+).*", "$1"));
+        int length = Integer.parseInt(xrefObject.replaceAll("(?s).*/Length (\\d+).*", "$1"));
+        int dataStart = xrefStart + xrefObject.indexOf("stream\n") + "stream\n".length();
+
+        Inflater inflater = new Inflater();
+        inflater.setInput(pdf.getBytes(StandardCharsets.ISO_8859_1), dataStart, length);
+        byte[] entries = new byte[size * 7];
+        assertEquals("There should be an entry for every object. ", entries.length, inflater.inflate(entries));
+        inflater.end();
+
+        int compressedAmount = 0;
+        for (int number = 1; number < size; ++number) {
+            int type = entries[number * 7];
+            int second = ((entries[number * 7 + 1] & 0xFF) << 24) | ((entries[number * 7 + 2] & 0xFF) << 16)
+                    | ((entries[number * 7 + 3] & 0xFF) << 8) | (entries[number * 7 + 4] & 0xFF);
+            if (type == 1) {
+                assertTrue("Cross reference for object " + number + " is incorrect. ", pdf.startsWith(number + " 0 obj", second));
+            } else {
+                assertEquals(2, type);
+                assertTrue("Object " + number + " should be stored in an object stream. ", pdf.indexOf(second + " 0 obj\n<<\n /Length") >= 0);
+                ++compressedAmount;
+            }
+        }
+        assertTrue(compressedAmount > 0);
+        assertTrue(pdf.contains("/Type /ObjStm"));
+    }
 }
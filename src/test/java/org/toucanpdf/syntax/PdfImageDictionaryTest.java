@@ -9,6 +9,7 @@ import org.toucanpdf.model.Image;
 import org.toucanpdf.model.ImageParser;
 import org.toucanpdf.model.PdfNameValue;
 import org.toucanpdf.pdf.syntax.PdfArray;
+import org.toucanpdf.pdf.syntax.PdfDictionary;
 import org.toucanpdf.pdf.syntax.PdfImageDictionary;
 import org.toucanpdf.pdf.syntax.PdfName;
 import org.toucanpdf.pdf.syntax.PdfNumber;
@@ -52,7 +53,52 @@ public class PdfImageDictionaryTest {
         assertEquals(new PdfNumber(110), img.get(PdfNameValue.HEIGHT));
         assertEquals(new PdfName(ColorSpace.CAL_RGB.getPdfName()), img.get(PdfNameValue.COLOR_SPACE));
         assertEquals(new PdfNumber(3), img.get(PdfNameValue.BITS_PER_COMPONENT));
-        assertEquals(2, ((PdfArray) img.get(PdfNameValue.FILTER)).getSize());
+        //the JPEG data is embedded as is, so the compression method of the image is not applied
+        assertEquals(1, ((PdfArray) img.get(PdfNameValue.FILTER)).getSize());
         assertEquals(1, img.getContentSize());
     }
+
+    @Test
+    public void testPredictorAndColorTable(@Mocked final Image image, @Mocked final ImageParser parser) {
+        new NonStrictExpectations() {
+            {
+                image.getImageParser();
+                returns(parser);
+
+                parser.getWidth();
+                returns(100);
+
+                parser.getColorSpace();
+                returns(ColorSpace.INDEXED);
+
+                parser.getColorTable();
+                returns(new byte[] { 0, 0, 0, 1, 2, 3 });
+
+                parser.getBitsPerComponent();
+                returns(4);
+
+                parser.getFilter();
+                returns(Compression.FLATE);
+
+                parser.getPredictor();
+                returns(15);
+
+                image.getCompressionMethod();
+                returns(Compression.FLATE);
+
+                parser.getData();
+                returns(new byte[0]);
+            }
+        };
+
+        PdfImageDictionary img = new PdfImageDictionary(image);
+        PdfArray colorSpace = (PdfArray) img.get(PdfNameValue.COLOR_SPACE);
+        assertEquals(new PdfName(PdfNameValue.INDEXED), colorSpace.getValues().get(0));
+        assertEquals(new PdfNumber(1), colorSpace.getValues().get(2));
+        assertEquals(1, ((PdfArray) img.get(PdfNameValue.FILTER)).getSize());
+        PdfDictionary parameters = (PdfDictionary) ((PdfArray) img.get(PdfNameValue.DECODE_PARAMETERS)).getValues().get(0);
+        assertEquals(new PdfNumber(15), parameters.get(PdfNameValue.PREDICTOR));
+        assertEquals(new PdfNumber(1), parameters.get(PdfNameValue.COLORS));
+        assertEquals(new PdfNumber(100), parameters.get(PdfNameValue.COLUMNS));
+    }
 }
@@ -0,0 +1,59 @@
+package org.toucanpdf.syntax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.toucanpdf.model.PdfNameValue;
+import org.toucanpdf.pdf.syntax.PdfIndirectObject;
+import org.toucanpdf.pdf.syntax.PdfName;
+import org.toucanpdf.pdf.syntax.PdfNumber;
+import org.toucanpdf.pdf.syntax.PdfObjectStream;
+import org.toucanpdf.utility.FloatEqualityTester;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PdfObjectStreamTest {
+    private PdfObjectStream stream;
+
+    @Before
+    public void setUp() throws Exception {
+        stream = new PdfObjectStream();
+    }
+
+    @Test
+    public void testAdd() {
+        assertEquals(0, stream.add(new PdfIndirectObject(3, 0, new PdfName("first"), true)));
+        assertEquals(1, stream.add(new PdfIndirectObject(4, 0, new PdfName("second"), true)));
+        assertEquals(2, stream.getObjectAmount());
+        assertEquals(new PdfName(PdfNameValue.OBJECT_STREAM), stream.get(PdfNameValue.TYPE));
+    }
+
+    @Test
+    public void testWriteToFile() throws IOException, DataFormatException {
+        stream.add(new PdfIndirectObject(3, 0, new PdfName("first"), true));
+        stream.add(new PdfIndirectObject(4, 0, new PdfNumber(12), true));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        stream.writeToFile(baos);
+        byte[] written = baos.toByteArray();
+        String dictionary = new String(written, "ISO-8859-1");
+        int dataStart = dictionary.indexOf("stream\n") + "stream\n".length();
+        int dataLength = (int) ((PdfNumber) stream.get(PdfNameValue.LENGTH)).getNumber();
+
+        Inflater inflater = new Inflater();
+        inflater.setInput(written, dataStart, dataLength);
+        byte[] result = new byte[100];
+        int resultLength = inflater.inflate(result);
+        inflater.end();
+
+        assertEquals("3 0 4 7 \n/first\n12\n", new String(result, 0, resultLength, "ISO-8859-1"));
+        assertEquals(2, ((PdfNumber) stream.get(PdfNameValue.OBJECT_AMOUNT)).getNumber(), FloatEqualityTester.EPSILON);
+        assertEquals(9, ((PdfNumber) stream.get(PdfNameValue.FIRST)).getNumber(), FloatEqualityTester.EPSILON);
+        assertTrue(dictionary.contains("/FlateDecode"));
+    }
+}
@@ -4,10 +4,14 @@ import static org.junit.Assert.assertEquals;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 import org.toucanpdf.model.Compression;
 import org.toucanpdf.model.PdfNameValue;
 import org.toucanpdf.pdf.syntax.PdfArray;
+import org.toucanpdf.pdf.syntax.PdfFile;
 import org.toucanpdf.pdf.syntax.PdfName;
 import org.toucanpdf.pdf.syntax.PdfNumber;
 import org.toucanpdf.pdf.syntax.PdfObjectType;
@@ -61,4 +65,33 @@ public class PdfStreamTest {
         assertEquals(90, baos.size());
         baos.close();
     }
+
+    @Test
+    public void testCompressedContent() throws IOException, DataFormatException {
+        byte[] file = new byte[100000];
+        for (int i = 0; i < file.length; ++i) {
+            file[i] = (byte) (i % 7);
+        }
+        stream.add(new PdfText(null));
+        stream.add(new PdfFile(file));
+        stream.addFilter(Compression.FLATE);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        stream.writeToFile(baos);
+        String pdf = baos.toString("ISO-8859-1");
+        int length = (int) ((PdfNumber) stream.get(PdfNameValue.LENGTH)).getNumber();
+        int dataStart = pdf.indexOf("stream\n") + "stream\n".length();
+        assertEquals("\nendstream", pdf.substring(dataStart + length));
+
+        Inflater inflater = new Inflater();
+        inflater.setInput(baos.toByteArray(), dataStart, length);
+        byte[] content = new byte[file.length + 100];
+        int contentLength = inflater.inflate(content);
+        inflater.end();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write("BT\nET\n".getBytes("ISO-8859-1"));
+        expected.write(file);
+        expected.write('\n');
+        assertEquals(expected.size(), contentLength);
+        Assert.assertArrayEquals(expected.toByteArray(), Arrays.copyOf(content, contentLength));
+    }
 }
@@ -3,8 +3,6 @@ package org.toucanpdf.syntax;
 import static org.junit.Assert.assertEquals;
 
 import java.io.UnsupportedEncodingException;
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 import mockit.Mocked;
 import mockit.NonStrictExpectations;
@@ -13,7 +11,7 @@ import org.toucanpdf.api.BaseText;
 import org.toucanpdf.model.Alignment;
 import org.toucanpdf.model.Color;
 import org.toucanpdf.model.Page;
-import org.toucanpdf.model.Position;
+import org.toucanpdf.model.TextLines;
 import org.toucanpdf.model.state.StateParagraph;
 import org.toucanpdf.model.state.StateText;
 import org.toucanpdf.pdf.syntax.PdfFont;
@@ -59,19 +57,12 @@ public class PdfTextTest {
                 text.getTextSize();
                 returns(11);
 
-                Map<Position, String> textSplit = new LinkedHashMap<Position, String>();
-                textSplit.put(new Position(100, 100), "Test");
-                textSplit.put(new Position(200, 200), "Test2");
-                textSplit.put(new Position(300, 300), "\n");
-                text.getTextSplit();
-                returns(textSplit);
-
-                Map<Position, Double> justificationOffset = new LinkedHashMap<Position, Double>();
-                justificationOffset.put(new Position(100, 100), new Double(2));
-                justificationOffset.put(new Position(200, 200), new Double(0));
-                justificationOffset.put(new Position(300, 300), new Double(0));
-                text.getJustificationOffset();
-                returns(justificationOffset);
+                TextLines lines = new TextLines();
+                lines.setJustificationOffset(lines.add(100, 100, "Test"), 2);
+                lines.setJustificationOffset(lines.add(200, 200, "Test2"), 0);
+                lines.setJustificationOffset(lines.add(300, 300, "\n"), 0);
+                text.getLines();
+                returns(lines);
 
                 text.getFont();
                 returns(new BaseFont());
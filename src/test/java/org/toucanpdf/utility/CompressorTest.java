@@ -0,0 +1,85 @@
+package org.toucanpdf.utility;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.toucanpdf.model.Compression;
+
+import org.junit.Test;
+
+public class CompressorTest {
+    private static final byte[] DATA = createData();
+
+    private static byte[] createData() {
+        byte[] data = new byte[20000];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (byte) ("BT /F1 12 Tf (Test) Tj ET\n".charAt(i % 26));
+        }
+        return data;
+    }
+
+    @Test
+    public void testFlateCompress() throws DataFormatException {
+        assertArrayEquals(DATA, inflate(Compressor.flateCompress(DATA)));
+        assertArrayEquals(DATA, inflate(Compressor.flateCompress(DATA, Deflater.BEST_SPEED, Deflater.HUFFMAN_ONLY)));
+        assertArrayEquals(DATA, Compressor.compress(DATA, Compression.ASCII_HEX));
+    }
+
+    @Test
+    public void testCompressingStream() throws IOException, DataFormatException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        OutputStream os = Compressor.compressingStream(baos, Compression.FLATE, Deflater.BEST_COMPRESSION, Deflater.FILTERED);
+        os.write(DATA, 0, 100);
+        os.write(DATA, 100, DATA.length - 100);
+        os.close();
+        os.close();
+        assertArrayEquals(DATA, inflate(baos.toByteArray()));
+        assertArrayEquals("The stream level and strategy should not influence later compressions. ", 
+                defaultDeflate(DATA), Compressor.flateCompress(DATA));
+    }
+
+    @Test
+    public void testDeflaterPool() throws IOException {
+        for (int i = 0; i < 100; ++i) {
+            Compressor.flateCompress(DATA);
+            Compressor.compressingStream(new ByteArrayOutputStream(), Compression.FLATE).close();
+        }
+        assertTrue(Compressor.getPooledDeflaterAmount() >= 1);
+        assertTrue(Compressor.getPooledDeflaterAmount() <= Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * Compresses the given data with a new deflater using the default level and strategy.
+     */
+    private byte[] defaultDeflate(byte[] data) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        while (!deflater.finished()) {
+            baos.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return baos.toByteArray();
+    }
+
+    private byte[] inflate(byte[] compressed) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        inflater.setInput(compressed);
+        byte[] result = new byte[DATA.length * 2];
+        int length = inflater.inflate(result);
+        assertEquals(true, inflater.finished());
+        inflater.end();
+        return Arrays.copyOf(result, length);
+    }
+}
@@ -0,0 +1,41 @@
+package org.toucanpdf.utility;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class GrowableByteArrayTest {
+
+    @Test
+    public void testAppend() throws IOException {
+        GrowableByteArray array = new GrowableByteArray();
+        assertEquals(0, array.size());
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < 1000; ++i) {
+            byte[] fragment = ("fragment " + i + "\n").getBytes("UTF-8");
+            array.append(fragment);
+            expected.write(fragment);
+        }
+        array.append(new byte[] { 1, 2, 3, 4 }, 1, 2);
+        expected.write(new byte[] { 2, 3 });
+        assertEquals(expected.size(), array.size());
+        assertArrayEquals(expected.toByteArray(), array.toByteArray());
+
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        array.writeTo(written);
+        assertArrayEquals(expected.toByteArray(), written.toByteArray());
+    }
+
+    @Test
+    public void testInitialBytesAreCopied() {
+        byte[] initial = new byte[] { 1, 2 };
+        GrowableByteArray array = new GrowableByteArray(initial);
+        initial[0] = 5;
+        array.append(new byte[] { 3 });
+        assertArrayEquals(new byte[] { 1, 2, 3 }, array.toByteArray());
+    }
+}
@@ -0,0 +1,40 @@
+package org.toucanpdf.utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LongIntHashMapTest {
+
+    @Test
+    public void testPutAndGet() {
+        LongIntHashMap map = new LongIntHashMap();
+        for (int i = 0; i < 1000; ++i) {
+            map.put(LongIntHashMap.key(i, -i), i * 3);
+        }
+        assertEquals(1000, map.size());
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(i * 3, map.get(LongIntHashMap.key(i, -i), -1));
+        }
+        assertEquals(-1, map.get(LongIntHashMap.key(-1, 1), -1));
+        assertFalse(map.containsKey(LongIntHashMap.key(1, 1)));
+    }
+
+    @Test
+    public void testReplaceValue() {
+        LongIntHashMap map = new LongIntHashMap(1);
+        map.put(0L, 5);
+        assertTrue(map.containsKey(0L));
+        map.put(0L, 7);
+        assertEquals(1, map.size());
+        assertEquals(7, map.get(0L, 0));
+    }
+
+    @Test
+    public void testKey() {
+        assertEquals(0x0000000100000002L, LongIntHashMap.key(1, 2));
+        assertEquals(0x00000001FFFFFFFFL, LongIntHashMap.key(1, -1));
+    }
+}